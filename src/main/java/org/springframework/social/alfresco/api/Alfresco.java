@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.alfresco.service.synchronization.api.GetChangesResponse;
 import org.alfresco.service.synchronization.api.StartSyncRequest;
@@ -73,7 +74,7 @@ public interface Alfresco
 {
     public static final String DEFAULT_SCOPE = "public_api";
     public static CMISEndpoint cmisAtom10Endpoint = new CMISEndpoint(BindingType.ATOMPUB, CmisVersion.CMIS_1_0);
-    public static CMISEndpoint cmisAtom11Endpoint = new CMISEndpoint(BindingType.ATOMPUB, CmisVersion.CMIS_1_0);
+    public static CMISEndpoint cmisAtom11Endpoint = new CMISEndpoint(BindingType.ATOMPUB, CmisVersion.CMIS_1_1);
     public static CMISEndpoint cmisBrowser11Endpoint = new CMISEndpoint(BindingType.BROWSER, CmisVersion.CMIS_1_1);
 
     /**
@@ -84,7 +85,8 @@ public interface Alfresco
     public static class QueryParams
     {
         /**
-         * Query Properties Parameter
+         * Query Properties Parameter: the fields of the entities to return. Set it with
+         * {@link Projection#addTo(Map)} to also skip the other fields when binding the response.
          */
         public final static String PROPERTIES = "properties";
     }
@@ -159,6 +161,16 @@ public interface Alfresco
             JsonMappingException,
             IOException;
 
+    /**
+     * Get the Alfresco Network for the user, with only the fields of a projection
+     * 
+     * @param projection (Projection) - the fields to fetch, or null for all of them
+     */
+    public Network getNetwork(String network, Projection<Network> projection)
+            throws JsonParseException,
+            JsonMappingException,
+            IOException;
+
     /**
      * Get all Alfresco Networks that the user is a member of
      */
@@ -191,6 +203,16 @@ public interface Alfresco
             JsonMappingException,
             IOException;
 
+    /**
+     * Get site in network, with only the fields of a projection
+     * 
+     * @param projection (Projection) - the fields to fetch, or null for all of them
+     */
+    public Site getSite(String site, String network, Projection<Site> projection)
+            throws JsonParseException,
+            JsonMappingException,
+            IOException;
+
     /**
      * Get all sites in network
      */
@@ -215,6 +237,16 @@ public interface Alfresco
             JsonMappingException,
             IOException;
 
+    /**
+     * Get Container in site in network, with only the fields of a projection
+     * 
+     * @param projection (Projection) - the fields to fetch, or null for all of them
+     */
+    public Container getContainer(String network, String site, String contatiner, Projection<Container> projection)
+            throws JsonParseException,
+            JsonMappingException,
+            IOException;
+
     /**
      * Get all containers in site in network
      */
@@ -239,6 +271,16 @@ public interface Alfresco
             JsonMappingException,
             IOException;
 
+    /**
+     * Get member of site in network, with only the fields of a projection
+     * 
+     * @param projection (Projection) - the fields to fetch, or null for all of them
+     */
+    public Member getMember(String network, String site, String person, Projection<Member> projection)
+            throws JsonParseException,
+            JsonMappingException,
+            IOException;
+
     /**
      * Get all members of site in network
      */
@@ -299,6 +341,16 @@ public interface Alfresco
             JsonMappingException,
             IOException;
 
+    /**
+     * Get person from network, with only the fields of a projection
+     * 
+     * @param projection (Projection) - the fields to fetch, or null for all of them
+     */
+    public Person getPerson(String network, String person, Projection<Person> projection)
+            throws JsonParseException,
+            JsonMappingException,
+            IOException;
+
     /**
      * Get sites in network that the user is a member of
      */
@@ -323,6 +375,16 @@ public interface Alfresco
             JsonMappingException,
             IOException;
 
+    /**
+     * Get site in network that the person is a member of, with only the fields of a projection
+     * 
+     * @param projection (Projection) - the fields to fetch, or null for all of them
+     */
+    public Site getSite(String network, String person, String site, Projection<Site> projection)
+            throws JsonParseException,
+            JsonMappingException,
+            IOException;
+
     public Site addFavoriteSite(String network, String personId, String siteId)
             throws JsonParseException,
             JsonMappingException,
@@ -352,6 +414,16 @@ public interface Alfresco
             JsonMappingException,
             IOException;
 
+    /**
+     * Get preference for person in network, with only the fields of a projection
+     * 
+     * @param projection (Projection) - the fields to fetch, or null for all of them
+     */
+    public Preference getPreference(String network, String person, String preference, Projection<Preference> projection)
+            throws JsonParseException,
+            JsonMappingException,
+            IOException;
+
     /**
      * Get all preferences for person in network
      */
@@ -376,6 +448,16 @@ public interface Alfresco
             JsonMappingException,
             IOException;
 
+    /**
+     * Get network for person, with only the fields of a projection
+     * 
+     * @param projection (Projection) - the fields to fetch, or null for all of them
+     */
+    public Network getNetwork(String network, String person, Projection<Network> projection)
+            throws JsonParseException,
+            JsonMappingException,
+            IOException;
+
     /**
      * Get all networks for person
      */
@@ -560,6 +642,16 @@ public interface Alfresco
             JsonMappingException,
             IOException;
 
+    /**
+     * Get rating for node in network, with only the fields of a projection
+     * 
+     * @param projection (Projection) - the fields to fetch, or null for all of them
+     */
+    public Rating getNodeRating(String network, String node, String rating, Projection<Rating> projection)
+            throws JsonParseException,
+            JsonMappingException,
+            IOException;
+
     /**
      * Remove rating from node in network
      */
@@ -587,7 +679,8 @@ public interface Alfresco
             IOException;
 
     /**
-     * Get home network for user
+     * Get home network for user. The result is remembered for a while and shared between callers; see
+     * {@link #refreshCurrentUser()}.
      */
     public Network getHomeNetwork()
             throws JsonParseException,
@@ -595,13 +688,19 @@ public interface Alfresco
             IOException;
 
     /**
-     * Get the current users profile
+     * Get the current users profile. The result is remembered for a while and shared between callers; see
+     * {@link #refreshCurrentUser()}.
      */
     public Person getCurrentUser()
             throws JsonParseException,
             JsonMappingException,
             IOException;
 
+    /**
+     * Forget the remembered home network and current user, so that the next calls fetch them again
+     */
+    public void refreshCurrentUser();
+
     /**
      * Get the HTTP OPTIONS for the network
      */
@@ -625,6 +724,11 @@ public interface Alfresco
 
     void removeSite(String networkId, String siteId);
 
+    /**
+     * Get a page of a folder's children. The first batch of the page is fetched by this call, so that failures
+     * such as a missing folder are thrown from it; if <tt>maxItems</tt> exceeds the listing context's page size,
+     * later batches are fetched as the page is iterated and their failures are thrown from the iterator.
+     */
     public ItemIterable<CmisObject> getChildren(String networkId, String folderId, int skipCount, int maxItems,
             IncludeRelationships includeRelationships,
             Boolean includeAcls, Set<String> propertyFilter, Boolean includePolicies);
@@ -633,6 +737,22 @@ public interface Alfresco
             IncludeRelationships includeRelationships,
             Boolean includeAcls, Set<String> propertyFilter, Boolean includePolicies);
 
+    /**
+     * Walk the descendants of a folder page by page, fetching folders concurrently and passing each object to the
+     * consumer as it arrives, instead of fetching the whole tree in one request like
+     * {@link #getDescendants(String, String, Integer, IncludeRelationships, Boolean, Set, Boolean)}
+     * 
+     * @param depth the number of levels to walk, 1 for the folder's children only, or -1 for all
+     * @param pageSize the number of children to fetch per request
+     * @param maxInFlight the maximum number of requests made at the same time
+     * @param propertyFilter the properties to fetch, or null for all; must include <tt>cmis:objectId</tt>,
+     *            <tt>cmis:objectTypeId</tt> and <tt>cmis:baseTypeId</tt>
+     * @param consumer called concurrently from the walk's threads
+     * @return the running walk, which can be waited for or cancelled
+     */
+    public FolderTreeWalker walkFolderTree(String networkId, String folderId, int depth, int pageSize, int maxInFlight,
+            Set<String> propertyFilter, Consumer<? super CmisObject> consumer);
+
     public AlfrescoList<Favourite> getFavorites(String network, String person)
             throws JsonParseException,
             JsonMappingException,
@@ -643,6 +763,16 @@ public interface Alfresco
             JsonMappingException,
             IOException;
 
+    /**
+     * Get favorite of person in network, with only the fields of a projection
+     * 
+     * @param projection (Projection) - the fields to fetch, or null for all of them
+     */
+    public Favourite getFavorite(String network, String person, String targetGuid, Projection<Favourite> projection)
+            throws JsonParseException,
+            JsonMappingException,
+            IOException;
+
     public AlfrescoList<Favourite> getFavorites(String network, String person, Map<String, String> parameters)
             throws JsonParseException,
             JsonMappingException,
@@ -717,4 +847,52 @@ public interface Alfresco
             IOException;
 
     void setCmisOperationContext(OperationContext cmisOperationContext);
+
+    /**
+     * Iterate over every entry of a paged collection, prefetching pages in the background
+     * 
+     * @param source fetches one page given its query parameters
+     * @param parameters additional query parameters sent with every page
+     */
+    public <T> PageIterator<T> iterate(PageSource<T> source, Map<String, String> parameters);
+
+    /**
+     * Iterate over all sites in network
+     */
+    public PageIterator<Site> iterateSites(String network, Map<String, String> parameters);
+
+    /**
+     * Iterate over all sites in network that the person is a member of
+     */
+    public PageIterator<Site> iterateSites(String network, String person, Map<String, String> parameters);
+
+    /**
+     * Iterate over all members of site in network
+     */
+    public PageIterator<Member> iterateMembers(String network, String site, Map<String, String> parameters);
+
+    /**
+     * Iterate over all tags in network
+     */
+    public PageIterator<Tag> iterateTags(String network, Map<String, String> parameters);
+
+    /**
+     * Iterate over all comments on node in network
+     */
+    public PageIterator<Comment> iterateComments(String network, String node, Map<String, String> parameters);
+
+    /**
+     * Iterate over all activities for person in network
+     */
+    public PageIterator<Activity> iterateActivities(String network, String person, Map<String, String> parameters);
+
+    /**
+     * Iterate over all favorites of person in network
+     */
+    public PageIterator<Favourite> iterateFavorites(String network, String person, Map<String, String> parameters);
+
+    /**
+     * Iterate over all preferences for person in network
+     */
+    public PageIterator<Preference> iteratePreferences(String network, String person, Map<String, String> parameters);
 }
@@ -0,0 +1,256 @@
+package org.springframework.social.alfresco.api;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.alfresco.service.synchronization.api.GetChangesResponse;
+import org.alfresco.service.synchronization.api.StartSyncRequest;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.FileableCmisObject;
+import org.apache.chemistry.opencmis.client.api.ItemIterable;
+import org.apache.chemistry.opencmis.client.api.Tree;
+import org.apache.chemistry.opencmis.commons.enums.IncludeRelationships;
+import org.springframework.social.alfresco.api.entities.Activity;
+import org.springframework.social.alfresco.api.entities.AlfrescoList;
+import org.springframework.social.alfresco.api.entities.Comment;
+import org.springframework.social.alfresco.api.entities.Container;
+import org.springframework.social.alfresco.api.entities.Favourite;
+import org.springframework.social.alfresco.api.entities.LegacyPerson;
+import org.springframework.social.alfresco.api.entities.LegacySite;
+import org.springframework.social.alfresco.api.entities.Member;
+import org.springframework.social.alfresco.api.entities.Metadata;
+import org.springframework.social.alfresco.api.entities.Network;
+import org.springframework.social.alfresco.api.entities.Person;
+import org.springframework.social.alfresco.api.entities.Preference;
+import org.springframework.social.alfresco.api.entities.Rating;
+import org.springframework.social.alfresco.api.entities.Role;
+import org.springframework.social.alfresco.api.entities.Site.Visibility;
+import org.springframework.social.alfresco.api.entities.SiteMembershipRequest;
+import org.springframework.social.alfresco.api.entities.StartSyncResponse;
+import org.springframework.social.alfresco.api.entities.Subscriber;
+import org.springframework.social.alfresco.api.entities.Subscription;
+import org.springframework.social.alfresco.api.entities.SubscriptionType;
+import org.springframework.social.alfresco.api.entities.Tag;
+import org.springframework.social.alfresco.api.entities.UserActivationResponse;
+import org.springframework.social.alfresco.api.entities.UserRegistration;
+
+/**
+ * Asynchronous companion to {@link Alfresco}. Each method starts the operation of the same name and returns a
+ * {@link CompletableFuture} for its result; void operations complete with <tt>null</tt>.
+ *
+ * Failures complete the future exceptionally with the exception the synchronous call would have thrown, e.g. an
+ * {@link java.io.IOException}, a {@link org.springframework.web.client.RestClientException} or an
+ * {@link org.springframework.social.alfresco.connect.exception.AlfrescoException}.
+ *
+ * @see org.springframework.social.alfresco.api.impl.AsyncAlfrescoTemplate
+ */
+public interface AsyncAlfresco
+{
+    /**
+     * @return the synchronous API that this one issues its requests through
+     */
+    public Alfresco getAlfresco();
+
+    public CompletableFuture<Network> getNetwork(String network);
+
+    public CompletableFuture<Network> getNetwork(String network, Projection<Network> projection);
+
+    public CompletableFuture<AlfrescoList<Network>> getNetworks();
+
+    public CompletableFuture<AlfrescoList<Network>> getNetworks(Map<String, String> parameters);
+
+    public CompletableFuture<Site> getSite(String site, String network);
+
+    public CompletableFuture<Site> getSite(String site, String network, Projection<Site> projection);
+
+    public CompletableFuture<AlfrescoList<Site>> getSites(String network);
+
+    public CompletableFuture<AlfrescoList<Site>> getSites(String network, Map<String, String> parameters);
+
+    public CompletableFuture<Container> getContainer(String network, String site, String contatiner);
+
+    public CompletableFuture<Container> getContainer(String network, String site, String contatiner, Projection<Container> projection);
+
+    public CompletableFuture<AlfrescoList<Container>> getContainers(String network, String site);
+
+    public CompletableFuture<AlfrescoList<Container>> getContainers(String network, String site,
+            Map<String, String> parameters);
+
+    public CompletableFuture<Member> getMember(String network, String site, String person);
+
+    public CompletableFuture<Member> getMember(String network, String site, String person, Projection<Member> projection);
+
+    public CompletableFuture<AlfrescoList<Member>> getMembers(String network, String site);
+
+    public CompletableFuture<AlfrescoList<Member>> getMembers(String network, String site,
+            Map<String, String> parameters);
+
+    public CompletableFuture<Member> addMember(String network, String site, String personId, Role role);
+
+    public CompletableFuture<Void> updateMember(String network, String site, String personId, Role role);
+
+    public CompletableFuture<Void> deleteMember(String network, String site, String personId);
+
+    public CompletableFuture<LegacyPerson> createPerson(String network, String username, String firstName,
+            String lastName, String email, String password);
+
+    public CompletableFuture<Person> getPerson(String network, String person);
+
+    public CompletableFuture<Person> getPerson(String network, String person, Projection<Person> projection);
+
+    public CompletableFuture<AlfrescoList<Site>> getSites(String network, String person);
+
+    public CompletableFuture<AlfrescoList<Site>> getSites(String network, String person,
+            Map<String, String> parameters);
+
+    public CompletableFuture<Site> getSite(String network, String person, String site);
+
+    public CompletableFuture<Site> getSite(String network, String person, String site, Projection<Site> projection);
+
+    public CompletableFuture<Site> addFavoriteSite(String network, String personId, String siteId);
+
+    public CompletableFuture<AlfrescoList<Site>> getFavoriteSites(String network, String person);
+
+    public CompletableFuture<AlfrescoList<Site>> getFavoriteSites(String network, String person,
+            Map<String, String> parameters);
+
+    public CompletableFuture<Preference> getPreference(String network, String person, String preference);
+
+    public CompletableFuture<Preference> getPreference(String network, String person, String preference, Projection<Preference> projection);
+
+    public CompletableFuture<AlfrescoList<Preference>> getPreferences(String network, String person);
+
+    public CompletableFuture<AlfrescoList<Preference>> getPreferences(String network, String person,
+            Map<String, String> parameters);
+
+    public CompletableFuture<Network> getNetwork(String network, String person);
+
+    public CompletableFuture<Network> getNetwork(String network, String person, Projection<Network> projection);
+
+    public CompletableFuture<AlfrescoList<Network>> getNetworks(String network, String person);
+
+    public CompletableFuture<AlfrescoList<Network>> getNetworks(String network, String person,
+            Map<String, String> parameters);
+
+    public CompletableFuture<AlfrescoList<Activity>> getActivities(String network, String person);
+
+    public CompletableFuture<AlfrescoList<Activity>> getActivities(String network, String person,
+            Map<String, String> parameters);
+
+    public CompletableFuture<Tag> getTag(String network, String tag);
+
+    public CompletableFuture<AlfrescoList<Tag>> getTags(String network);
+
+    public CompletableFuture<AlfrescoList<Tag>> getTags(String network, Map<String, String> parameters);
+
+    public CompletableFuture<Void> updateTag(String network, String tagId, String tag);
+
+    public CompletableFuture<AlfrescoList<Comment>> getComments(String network, String node);
+
+    public CompletableFuture<AlfrescoList<Comment>> getComments(String network, String node,
+            Map<String, String> parameters);
+
+    public CompletableFuture<Comment> createComment(String network, String node, String comment);
+
+    public CompletableFuture<AlfrescoList<Comment>> createComments(String network, String node, List<String> comments);
+
+    public CompletableFuture<Void> updateComment(String network, String node, String commentId, String comment);
+
+    public CompletableFuture<Void> deleteComment(String network, String node, String commentId);
+
+    public CompletableFuture<AlfrescoList<Tag>> getNodesTags(String network, String node);
+
+    public CompletableFuture<AlfrescoList<Tag>> getNodesTags(String network, String node,
+            Map<String, String> parameters);
+
+    public CompletableFuture<Tag> addTagToNode(String network, String node, String tag);
+
+    public CompletableFuture<AlfrescoList<Tag>> addTagsToNode(String network, String node, List<String> tags);
+
+    public CompletableFuture<Void> removeTagFromNode(String network, String node, String tagId);
+
+    public CompletableFuture<AlfrescoList<Rating>> getNodeRatings(String network, String node);
+
+    public CompletableFuture<AlfrescoList<Rating>> getNodeRatings(String network, String node,
+            Map<String, String> parameters);
+
+    public CompletableFuture<Rating> getNodeRating(String network, String node, String rating);
+
+    public CompletableFuture<Rating> getNodeRating(String network, String node, String rating, Projection<Rating> projection);
+
+    public CompletableFuture<Void> removeNodeRating(String network, String node, String ratingId);
+
+    public CompletableFuture<Rating> rateNode(String network, String node, boolean like);
+
+    public CompletableFuture<Rating> rateNode(String network, String node, int stars);
+
+    public CompletableFuture<Network> getHomeNetwork();
+
+    public CompletableFuture<Person> getCurrentUser();
+
+    @Deprecated
+    public CompletableFuture<AlfrescoList<Metadata>> networkOptions(String network);
+
+    public CompletableFuture<UserRegistration> registerUser(String email, String firstName, String lastName,
+            String password, String source, String sourceUrl);
+
+    public CompletableFuture<UserActivationResponse> activateUser(String id, String key, String email, String firstName,
+            String lastName, String password);
+
+    public CompletableFuture<LegacySite> createSite(String network, String siteId, String sitePreset, String title,
+            String description, Visibility visibility);
+
+    public CompletableFuture<Void> removeSite(String networkId, String siteId);
+
+    public CompletableFuture<ItemIterable<CmisObject>> getChildren(String networkId, String folderId, int skipCount,
+            int maxItems, IncludeRelationships includeRelationships, Boolean includeAcls, Set<String> propertyFilter,
+            Boolean includePolicies);
+
+    public CompletableFuture<List<Tree<FileableCmisObject>>> getDescendants(String networkId, String folderId,
+            Integer depth, IncludeRelationships includeRelationships, Boolean includeAcls, Set<String> propertyFilter,
+            Boolean includePolicies);
+
+    public CompletableFuture<AlfrescoList<Favourite>> getFavorites(String network, String person);
+
+    public CompletableFuture<Favourite> getFavorite(String network, String person, String targetGuid);
+
+    public CompletableFuture<Favourite> getFavorite(String network, String person, String targetGuid, Projection<Favourite> projection);
+
+    public CompletableFuture<AlfrescoList<Favourite>> getFavorites(String network, String person,
+            Map<String, String> parameters);
+
+    public CompletableFuture<Favourite> addFavorite(String network, String personId, Favourite favourite);
+
+    public CompletableFuture<Void> removeFavourite(String network, String personId, String favouriteId);
+
+    public CompletableFuture<AlfrescoList<SiteMembershipRequest>> getPersonSiteMembershipRequests(String network,
+            String personId);
+
+    public CompletableFuture<AlfrescoList<SiteMembershipRequest>> getPersonSiteMembershipRequests(String network,
+            String person, Map<String, String> parameters);
+
+    public CompletableFuture<SiteMembershipRequest> createPersonSiteMembershipRequest(String network, String personId,
+            SiteMembershipRequest siteMembershipRequest);
+
+    public CompletableFuture<Void> cancelPersonSiteMembershipRequest(String network, String personId, String siteId);
+
+    public CompletableFuture<Subscriber> createSubscriber(String networkId);
+
+    public CompletableFuture<Subscription> createSubscription(String network, String subscriberId,
+            SubscriptionType subscriptionType, String targetPath);
+
+    public CompletableFuture<Void> removeSubscriber(String network, String subscriberId);
+
+    public CompletableFuture<Void> removeSubscription(String network, String subscriberId, String subscriptionId);
+
+    public CompletableFuture<StartSyncResponse> start(StartSyncRequest req, String networkId, String subscriberId,
+            String subscriptionsQuery);
+
+    public CompletableFuture<GetChangesResponse> getSync(String networkId, String subscriberId,
+            String subscriptionsQuery, String syncId);
+
+    public CompletableFuture<Void> endSync(String networkId, String subscriberId, String subscriptionsQuery,
+            String syncId);
+}
@@ -0,0 +1,348 @@
+package org.springframework.social.alfresco.api;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Folder;
+import org.apache.chemistry.opencmis.client.api.ItemIterable;
+import org.springframework.social.alfresco.connect.exception.AlfrescoException;
+
+/**
+ * Walks a folder tree one page of children at a time, as an alternative to
+ * {@link Alfresco#getDescendants} for trees too large to fetch in one request or hold in memory.
+ *
+ * Each page of a folder's children is a task on a {@link ForkJoinPool}: it fetches the page, passes its objects to
+ * the consumer, and schedules a task for each subfolder within the depth limit and one for the folder's next page,
+ * so that folders and pages are fetched concurrently, in roughly breadth-first order. At most <tt>maxInFlight</tt>
+ * pages are fetched at a time: a task is only submitted to the pool once it may fetch its page, and the rest wait in
+ * a queue rather than on a worker. While a task waits for its page the pool may start another worker in its place,
+ * so the pool grows by at most <tt>maxInFlight</tt> threads beyond its parallelism.
+ *
+ * The consumer is called from the pool's threads, concurrently, and must be thread-safe; objects are passed to it
+ * as their pages arrive, in no particular order. The walk stops at the first failure of a fetch or of the consumer,
+ * which then completes {@link #getCompletion()} exceptionally. Call {@link #cancel()} or {@link #close()} to stop
+ * early; pages being fetched are discarded and no further objects are passed to the consumer.
+ */
+public class FolderTreeWalker implements Closeable
+{
+	/**
+	 * Fetches one page of a folder's children, e.g.
+	 * <tt>(folderId, skipCount, maxItems) -> alfresco.getChildren(network, folderId, skipCount, maxItems, ...)</tt>.
+	 */
+	public interface ChildrenSource
+	{
+		ItemIterable<CmisObject> getChildren(String folderId, int skipCount, int maxItems);
+	}
+
+	private final ChildrenSource source;
+	private final ForkJoinPool pool;
+	private final String folderId;
+	private final int depth;
+	private final int pageSize;
+	private final Consumer<? super CmisObject> consumer;
+	private final Semaphore inFlight;
+	private final ConcurrentLinkedQueue<PageTask> queued = new ConcurrentLinkedQueue<PageTask>();
+
+	private final CompletableFuture<Void> completion = new CompletableFuture<Void>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicLong folders = new AtomicLong();
+	private final AtomicLong pages = new AtomicLong();
+	private final AtomicLong objects = new AtomicLong();
+
+	/**
+	 * @param folderId    the folder whose descendants to walk; it is not itself passed to the consumer
+	 * @param depth       the number of levels to walk, 1 for the folder's children only, or -1 for all
+	 * @param pageSize    the number of children to fetch per page
+	 * @param maxInFlight the maximum number of pages fetched at the same time
+	 */
+	public FolderTreeWalker(ChildrenSource source, ForkJoinPool pool, String folderId, int depth, int pageSize,
+			int maxInFlight, Consumer<? super CmisObject> consumer)
+	{
+		if(depth == 0 || depth < -1)
+		{
+			throw new IllegalArgumentException("Depth must be positive or -1: " + depth);
+		}
+		if(pageSize < 1 || maxInFlight < 1)
+		{
+			throw new IllegalArgumentException("pageSize and maxInFlight must be positive");
+		}
+		this.source = source;
+		this.pool = pool;
+		this.folderId = folderId;
+		this.depth = depth;
+		this.pageSize = pageSize;
+		this.consumer = consumer;
+		this.inFlight = new Semaphore(maxInFlight);
+	}
+
+	/**
+	 * Start the walk, once.
+	 *
+	 * @return this walker
+	 */
+	public FolderTreeWalker start()
+	{
+		if(pending.compareAndSet(0, 1))
+		{
+			folders.incrementAndGet();
+			queued.add(new PageTask(folderId, 1, 0));
+			drain();
+		}
+		return this;
+	}
+
+	/**
+	 * @return completes when the whole tree has been walked, or exceptionally if the walk failed or was cancelled
+	 */
+	public CompletableFuture<Void> getCompletion()
+	{
+		return completion;
+	}
+
+	/**
+	 * Wait for the walk to finish, rethrowing its failure.
+	 *
+	 * @throws CancellationException if the walk was cancelled
+	 */
+	public void await() throws InterruptedException
+	{
+		try
+		{
+			completion.get();
+		}
+		catch(ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException)
+			{
+				throw (RuntimeException)cause;
+			}
+			if(cause instanceof Error)
+			{
+				throw (Error)cause;
+			}
+			throw new AlfrescoException("Folder tree walk failed", cause);
+		}
+	}
+
+	/**
+	 * Stop the walk; does nothing if it has already finished.
+	 */
+	public void cancel()
+	{
+		completion.cancel(false);
+	}
+
+	public boolean isDone()
+	{
+		return completion.isDone();
+	}
+
+	@Override
+	public void close()
+	{
+		cancel();
+	}
+
+	/**
+	 * @return the number of folders whose children have been or are being listed, including the starting one
+	 */
+	public long getFolders()
+	{
+		return folders.get();
+	}
+
+	/**
+	 * @return the number of pages of children fetched
+	 */
+	public long getPages()
+	{
+		return pages.get();
+	}
+
+	/**
+	 * @return the number of objects passed to the consumer
+	 */
+	public long getObjects()
+	{
+		return objects.get();
+	}
+
+	private void submit(PageTask task)
+	{
+		pending.incrementAndGet();
+		queued.add(task);
+		drain();
+	}
+
+	/**
+	 * Submit queued tasks to the pool while fewer than <tt>maxInFlight</tt> are fetching; each task holds its permit
+	 * until its page has been fetched, then releases it and drains the queue again, so no queued task is left
+	 * behind.
+	 */
+	private void drain()
+	{
+		while(!queued.isEmpty() && inFlight.tryAcquire())
+		{
+			PageTask task = queued.poll();
+			if(task == null)
+			{
+				inFlight.release();
+			}
+			else
+			{
+				pool.execute(task);
+			}
+		}
+	}
+
+	private void done()
+	{
+		if(pending.decrementAndGet() == 0)
+		{
+			completion.complete(null);
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "FolderTreeWalker [folderId=" + folderId + ", folders=" + getFolders() + ", pages=" + getPages()
+				+ ", objects=" + getObjects() + ", done=" + isDone() + "]";
+	}
+
+	/**
+	 * Fetches and processes one page of a folder's children.
+	 */
+	private final class PageTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String folderId;
+		private final int level;
+		private final int skipCount;
+
+		PageTask(String folderId, int level, int skipCount)
+		{
+			this.folderId = folderId;
+			this.level = level;
+			this.skipCount = skipCount;
+		}
+
+		@Override
+		protected void compute()
+		{
+			try
+			{
+				PageFetch fetch = new PageFetch(folderId, skipCount);
+				try
+				{
+					if(!completion.isDone())
+					{
+						ForkJoinPool.managedBlock(fetch);
+					}
+				}
+				finally
+				{
+					inFlight.release();
+					drain();
+				}
+				if(fetch.children != null)
+				{
+					process(fetch);
+				}
+			}
+			catch(Throwable e)
+			{
+				completion.completeExceptionally(e);
+			}
+			finally
+			{
+				done();
+			}
+		}
+
+		private void process(PageFetch fetch)
+		{
+			pages.incrementAndGet();
+
+			if(fetch.hasMoreItems && !fetch.children.isEmpty())
+			{
+				submit(new PageTask(folderId, level, skipCount + fetch.children.size()));
+			}
+			boolean descend = depth == -1 || level < depth;
+			for(CmisObject child : fetch.children)
+			{
+				if(completion.isDone())
+				{
+					return;
+				}
+				consumer.accept(child);
+				objects.incrementAndGet();
+				if(descend && child instanceof Folder)
+				{
+					folders.incrementAndGet();
+					submit(new PageTask(child.getId(), level + 1, 0));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fetches a page, letting the pool compensate for the blocked worker.
+	 */
+	private final class PageFetch implements ForkJoinPool.ManagedBlocker
+	{
+		private final String folderId;
+		private final int skipCount;
+		private boolean done;
+
+		List<CmisObject> children;
+		boolean hasMoreItems;
+
+		PageFetch(String folderId, int skipCount)
+		{
+			this.folderId = folderId;
+			this.skipCount = skipCount;
+		}
+
+		@Override
+		public boolean block() throws InterruptedException
+		{
+			try
+			{
+				ItemIterable<CmisObject> page = source.getChildren(folderId, skipCount, pageSize);
+				List<CmisObject> fetched = new ArrayList<CmisObject>(pageSize);
+				for(CmisObject child : page)
+				{
+					fetched.add(child);
+				}
+				hasMoreItems = page.getHasMoreItems();
+				children = fetched;
+			}
+			finally
+			{
+				done = true;
+			}
+			return true;
+		}
+
+		@Override
+		public boolean isReleasable()
+		{
+			return done;
+		}
+	}
+}
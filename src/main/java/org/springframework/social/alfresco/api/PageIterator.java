@@ -0,0 +1,261 @@
+package org.springframework.social.alfresco.api;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.social.alfresco.api.entities.AlfrescoList;
+import org.springframework.social.alfresco.api.entities.Pagination;
+import org.springframework.social.alfresco.connect.exception.AlfrescoException;
+
+/**
+ * Lazily iterates over every entry of a paged collection, following <tt>skipCount</tt> until the server reports
+ * that there are no more items.
+ *
+ * Given an executor, the iterator fetches pages ahead of the consumer on a background task, holding at most
+ * <tt>maxBufferedPages</tt> fetched pages (plus the one being consumed and the one being fetched). Without one,
+ * each page is fetched on the consuming thread when the previous one has been used up.
+ *
+ * Call {@link #close()} to stop early; it discards buffered pages and stops the background task after its
+ * current request; an iterator that has reached the end needs no closing. Failures fetching a page are thrown from
+ * {@link #hasNext()}, with checked exceptions wrapped in an {@link AlfrescoException}.
+ *
+ * Instances are not thread-safe.
+ */
+public class PageIterator<T> implements Iterator<T>, Closeable
+{
+	private static final long POLL_INTERVAL_MS = 100;
+
+	private final PageSource<T> source;
+	private final Map<String, String> parameters;
+	private final Executor executor;
+	private final BlockingQueue<Page<T>> pages;
+
+	// only touched by whichever thread is fetching pages
+	private long skipCount;
+
+	private volatile boolean closed;
+	private boolean started;
+	private boolean last;
+	private Iterator<T> current = Collections.<T>emptyIterator();
+
+	/**
+	 * @param parameters       query parameters sent with every page; a {@link Pagination#SKIPCOUNT} sets the
+	 *                         starting point and a {@link Pagination#MAXITEMS} overrides <tt>pageSize</tt>
+	 * @param pageSize         the number of entries to ask for per page, or 0 for the server's default
+	 * @param executor         runs the background fetches, or null to fetch on the consuming thread
+	 * @param maxBufferedPages the number of pages to fetch ahead of the consumer; ignored without an executor
+	 */
+	public PageIterator(PageSource<T> source, Map<String, String> parameters, int pageSize, Executor executor,
+			int maxBufferedPages)
+	{
+		this.source = source;
+		this.parameters = new HashMap<String, String>();
+		if(pageSize > 0)
+		{
+			this.parameters.put(Pagination.MAXITEMS, Integer.toString(pageSize));
+		}
+		if(parameters != null)
+		{
+			this.parameters.putAll(parameters);
+		}
+		String skip = this.parameters.get(Pagination.SKIPCOUNT);
+		this.skipCount = skip != null ? Long.parseLong(skip) : 0;
+
+		if(executor != null && maxBufferedPages > 0)
+		{
+			this.executor = executor;
+			this.pages = new ArrayBlockingQueue<Page<T>>(maxBufferedPages);
+		}
+		else
+		{
+			this.executor = null;
+			this.pages = null;
+		}
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		while(!current.hasNext())
+		{
+			if(last || closed)
+			{
+				return false;
+			}
+
+			Page<T> page = nextPage();
+			if(page == null)
+			{
+				return false;
+			}
+			if(page.error != null)
+			{
+				close();
+				throw asRuntimeException(page.error);
+			}
+			current = page.entries.iterator();
+			last = !page.more;
+		}
+		return true;
+	}
+
+	@Override
+	public T next()
+	{
+		if(!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		return current.next();
+	}
+
+	/**
+	 * Stop iterating, discarding any prefetched pages. Idempotent.
+	 */
+	@Override
+	public void close()
+	{
+		closed = true;
+		current = Collections.<T>emptyIterator();
+		if(pages != null)
+		{
+			pages.clear();
+		}
+	}
+
+	/**
+	 * @return the remaining entries as a sequential stream that closes this iterator when it is closed
+	 */
+	public Stream<T> stream()
+	{
+		Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(this::close);
+	}
+
+	private Page<T> nextPage()
+	{
+		if(pages == null)
+		{
+			return fetch();
+		}
+
+		if(!started)
+		{
+			started = true;
+			executor.execute(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					fetchPages();
+				}
+			});
+		}
+
+		try
+		{
+			Page<T> page;
+			while((page = pages.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) == null)
+			{
+				if(closed)
+				{
+					return null;
+				}
+			}
+			return page;
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			close();
+			throw new AlfrescoException("Interrupted waiting for the next page", e);
+		}
+	}
+
+	private void fetchPages()
+	{
+		Page<T> page;
+		do
+		{
+			page = fetch();
+		}
+		while(offer(page) && page.more && page.error == null);
+	}
+
+	private boolean offer(Page<T> page)
+	{
+		try
+		{
+			while(!closed)
+			{
+				if(pages.offer(page, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS))
+				{
+					return true;
+				}
+			}
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		return false;
+	}
+
+	private Page<T> fetch()
+	{
+		try
+		{
+			Map<String, String> pageParameters = new HashMap<String, String>(parameters);
+			pageParameters.put(Pagination.SKIPCOUNT, Long.toString(skipCount));
+
+			AlfrescoList<T> list = source.getPage(pageParameters);
+			List<T> entries = list.getEntryList();
+			skipCount += entries.size();
+			return new Page<T>(entries, list.isHasMoreItems() && !entries.isEmpty(), null);
+		}
+		catch(Throwable e)
+		{
+			return new Page<T>(Collections.<T>emptyList(), false, e);
+		}
+	}
+
+	private static RuntimeException asRuntimeException(Throwable e)
+	{
+		if(e instanceof RuntimeException)
+		{
+			return (RuntimeException)e;
+		}
+		if(e instanceof Error)
+		{
+			throw (Error)e;
+		}
+		return new AlfrescoException("Unable to fetch page: " + e.getMessage(), e);
+	}
+
+	private static class Page<T>
+	{
+		private final List<T> entries;
+		private final boolean more;
+		private final Throwable error;
+
+		Page(List<T> entries, boolean more, Throwable error)
+		{
+			this.entries = entries;
+			this.more = more;
+			this.error = error;
+		}
+	}
+}
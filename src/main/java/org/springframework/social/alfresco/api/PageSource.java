@@ -0,0 +1,20 @@
+package org.springframework.social.alfresco.api;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.springframework.social.alfresco.api.entities.AlfrescoList;
+
+/**
+ * Fetches one page of a paged collection, e.g. <tt>parameters -> alfresco.getSites(network, parameters)</tt>.
+ *
+ * @see PageIterator
+ */
+public interface PageSource<T>
+{
+	/**
+	 * @param parameters the query parameters for the page, including {@link org.springframework.social.alfresco.api.entities.Pagination#SKIPCOUNT}
+	 *                   and {@link org.springframework.social.alfresco.api.entities.Pagination#MAXITEMS}
+	 */
+	AlfrescoList<T> getPage(Map<String, String> parameters) throws IOException;
+}
@@ -0,0 +1,114 @@
+package org.springframework.social.alfresco.api;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.social.alfresco.api.Alfresco.QueryParams;
+
+/**
+ * The fields of an entity to fetch, e.g. <tt>Projection.of(Person.class, "id", "email")</tt>.
+ *
+ * A projection is sent as the public API's {@link QueryParams#PROPERTIES} parameter, so the server returns only
+ * those fields, and the response is bound with every other field of the entity skipped unread, so the entities
+ * come back with only those fields set. Nested objects are kept or skipped whole.
+ *
+ * Pass one to the <tt>get</tt> methods that take it or, for lists, add it to the query parameters with
+ * {@link #addTo(Map)}. Projections are immutable and are meant to be created once and reused.
+ *
+ * @param <T> the entity type
+ */
+public final class Projection<T>
+{
+	private final Class<T> type;
+	private final Set<String> fields;
+	private final String parameter;
+
+	private Projection(Class<T> type, Set<String> fields)
+	{
+		this.type = type;
+		this.fields = Collections.unmodifiableSet(fields);
+		StringBuilder sb = new StringBuilder();
+		for(String field : fields)
+		{
+			if(sb.length() > 0)
+			{
+				sb.append(',');
+			}
+			sb.append(field);
+		}
+		this.parameter = sb.toString();
+	}
+
+	/**
+	 * @throws IllegalArgumentException if there are no fields or a field name is empty or contains a comma
+	 */
+	public static <T> Projection<T> of(Class<T> type, String... fields)
+	{
+		if(type == null)
+		{
+			throw new IllegalArgumentException("Must provide the entity type");
+		}
+		if(fields == null || fields.length == 0)
+		{
+			throw new IllegalArgumentException("Must provide at least one field");
+		}
+		Set<String> set = new LinkedHashSet<String>(Arrays.asList(fields));
+		for(String field : set)
+		{
+			if(field == null || field.trim().isEmpty() || field.indexOf(',') != -1)
+			{
+				throw new IllegalArgumentException("Invalid field name: " + field);
+			}
+		}
+		return new Projection<T>(type, set);
+	}
+
+	public Class<T> getType()
+	{
+		return type;
+	}
+
+	public Set<String> getFields()
+	{
+		return fields;
+	}
+
+	/**
+	 * @return the value of the {@link QueryParams#PROPERTIES} parameter, e.g. <tt>id,email</tt>
+	 */
+	public String getParameter()
+	{
+		return parameter;
+	}
+
+	/**
+	 * Add the projection to query parameters.
+	 *
+	 * @param parameters the parameters, or null
+	 * @return the parameters, or a new map if they were null
+	 */
+	public Map<String, String> addTo(Map<String, String> parameters)
+	{
+		Map<String, String> result = parameters != null ? parameters : new HashMap<String, String>();
+		result.put(QueryParams.PROPERTIES, parameter);
+		return result;
+	}
+
+	/**
+	 * @return the query parameters for a projection, or null if it is null
+	 */
+	public static Map<String, String> toParameters(Projection<?> projection)
+	{
+		return projection != null ? projection.addTo(null) : null;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Projection [type=" + type.getSimpleName() + ", fields=" + parameter + "]";
+	}
+}
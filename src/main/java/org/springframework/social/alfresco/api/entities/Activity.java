@@ -18,11 +18,9 @@
 package org.springframework.social.alfresco.api.entities;
 
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
-import org.springframework.social.alfresco.api.entities.exceptions.UnknownActivityTypeException;
+import org.codehaus.jackson.annotate.JsonIgnore;
 import org.springframework.social.alfresco.api.entities.exceptions.UnknownRoleException;
 
 public class Activity
@@ -58,6 +56,7 @@ public class Activity
     private String          networkId;
     private String          feedPersonId;
     private ActivitySummary activitySummary;
+    private ActivityType    type;
     private String          activityType;
     private Date            postedAt;
 
@@ -312,11 +311,39 @@ public class Activity
      */
     public void setActivityType(String activityType)
     {
-//        if (!validateActivityType(activityType))
-//        {
-//            throw new UnknownActivityTypeException(activityType);
-//        }
-        this.activityType = activityType;
+        ActivityType type = ActivityType.fromValue(activityType);
+        if (type != null)
+        {
+            setType(type);
+        }
+        else
+        {
+            this.type = null;
+            this.activityType = activityType;
+        }
+    }
+
+
+    /**
+     * @return The type of activity, or null if it is not one of the {@link ActivityType}s
+     */
+    @JsonIgnore
+    public ActivityType getType()
+    {
+        return type;
+    }
+
+
+    /**
+     * Set the type of activity
+     * 
+     * @param type
+     */
+    @JsonIgnore
+    public void setType(ActivityType type)
+    {
+        this.type = type;
+        this.activityType = type != null ? type.getValue() : null;
     }
 
 
@@ -328,6 +355,15 @@ public class Activity
         return postedAt;
     }
 
+    /**
+     * @return {@link #getPostedAt()} in milliseconds since the epoch, or {@link Long#MIN_VALUE} if it is not set
+     */
+    @JsonIgnore
+    public long getPostedAtMillis()
+    {
+        return postedAt != null ? postedAt.getTime() : Long.MIN_VALUE;
+    }
+
 
     /**
      * Set the date time at which the activity was performed
@@ -355,7 +391,7 @@ public class Activity
         private String memberFirstName;
         private String memberLastName;
         private String parentObjectId;
-        private String role;
+        private Role   role;
 
 
         /**
@@ -475,70 +511,28 @@ public class Activity
 
         public Role getRole()
         {
-            if (this.role != null)
-            {
-                return Role.valueOf(role);
-            }
-            else
-            {
-                return null;
-            }
-
+            return role;
         }
 
 
+        /**
+         * Set the role, one of the {@link Role} names or an empty string for none
+         * 
+         * @param role
+         */
         public void setRole(String role)
         {
-            if (!validateRole(role))
+            if (role == null || role.isEmpty())
+            {
+                this.role = null;
+                return;
+            }
+            Role value = Role.fromName(role);
+            if (value == null)
             {
                 throw new UnknownRoleException(role);
             }
-            this.role = role;
-
+            this.role = value;
         }
     }
-
-
-    // TODO need to add to setActivityType
-    private static boolean validateActivityType(String activityType)
-    {
-        List<String> activityTypes = new ArrayList<String>(22);
-        activityTypes.add("org.alfresco.comments.comment-created");
-        activityTypes.add("org.alfresco.comments.comment-updated");
-        activityTypes.add("org.alfresco.comments.comment-deleted");
-        activityTypes.add("org.alfresco.documentlibrary.files-added");
-        activityTypes.add("org.alfresco.documentlibrary.files-updated");
-        activityTypes.add("org.alfresco.documentlibrary.files-deleted");
-        activityTypes.add("org.alfresco.documentlibrary.file-added");
-        activityTypes.add("org.alfresco.documentlibrary.file-created");
-        activityTypes.add("org.alfresco.documentlibrary.file-deleted");
-        activityTypes.add("org.alfresco.documentlibrary.file-liked");
-        activityTypes.add("org.alfresco.documentlibrary.file-updated");
-        activityTypes.add("org.alfresco.documentlibrary.inline-edit");
-        activityTypes.add("org.alfresco.documentlibrary.folder-liked");
-        activityTypes.add("org.alfresco.site.user-joined");
-        activityTypes.add("org.alfresco.site.user-left");
-        activityTypes.add("org.alfresco.site.user-role-changed");
-        activityTypes.add("org.alfresco.site.group-added");
-        activityTypes.add("org.alfresco.site.group-removed");
-        activityTypes.add("org.alfresco.site.group-role-changed");
-        activityTypes.add("org.alfresco.discussions.reply-created");
-        activityTypes.add("org.alfresco.subscriptions.followed");
-        activityTypes.add("org.alfresco.subscriptions.subscribed");
-
-        return activityTypes.contains(activityType);
-    }
-
-
-    private static boolean validateRole(String role)
-    {
-        List<String> roles = new ArrayList<String>(5);
-        roles.add("");
-        roles.add("SiteContributor");
-        roles.add("SiteManager");
-        roles.add("SiteCollaborator");
-        roles.add("SiteConsumer");
-
-        return roles.contains(role);
-    }
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2012 Alfresco Software Limited.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ * 
+ * This file is part of an unsupported extension to Alfresco.
+ */
+
+package org.springframework.social.alfresco.api.entities;
+
+
+/**
+ * The types of {@link Activity}, by their <tt>activityType</tt> value.
+ * 
+ * {@link #fromValue(char[], int, int)} finds the type of a value in a table that has been laid out at class
+ * initialisation so that no two values share a slot, so a lookup is one hash and one comparison, and it can be
+ * made on the parser's characters without creating a String.
+ */
+public enum ActivityType
+{
+    BLOG_POST_CREATED("org.alfresco.blog.post-created"),
+    BLOG_POST_UPDATED("org.alfresco.blog.post-updated"),
+    BLOG_POST_DELETED("org.alfresco.blog.post-deleted"),
+    COMMENTS_COMMENT_CREATED("org.alfresco.comments.comment-created"),
+    COMMENTS_COMMENT_UPDATED("org.alfresco.comments.comment-updated"),
+    COMMENTS_COMMENT_DELETED("org.alfresco.comments.comment-deleted"),
+    DISCUSSIONS_POST_CREATED("org.alfresco.discussions.post-created"),
+    DISCUSSIONS_POST_UPDATED("org.alfresco.discussions.post-updated"),
+    DISCUSSIONS_POST_DELETED("org.alfresco.discussions.post-deleted"),
+    DISCUSSIONS_REPLY_CREATED("org.alfresco.discussions.reply-created"),
+    DISCUSSIONS_REPLY_UPDATED("org.alfresco.discussions.reply-updated"),
+    CALENDAR_EVENT_CREATED("org.alfresco.calendar.event-created"),
+    CALENDAR_EVENT_UPDATED("org.alfresco.calendar.event-updated"),
+    CALENDAR_EVENT_DELETED("org.alfresco.calendar.event-deleted"),
+    DOCUMENTLIBRARY_FILES_ADDED("org.alfresco.documentlibrary.files-added"),
+    DOCUMENTLIBRARY_FILES_UPDATED("org.alfresco.documentlibrary.files-updated"),
+    DOCUMENTLIBRARY_FILES_DELETED("org.alfresco.documentlibrary.files-deleted"),
+    DOCUMENTLIBRARY_FILE_ADDED("org.alfresco.documentlibrary.file-added"),
+    DOCUMENTLIBRARY_FILE_UPDATED("org.alfresco.documentlibrary.file-updated"),
+    DOCUMENTLIBRARY_FILE_CREATED("org.alfresco.documentlibrary.file-created"),
+    DOCUMENTLIBRARY_FILE_DELETED("org.alfresco.documentlibrary.file-deleted"),
+    DOCUMENTLIBRARY_FILE_LIKED("org.alfresco.documentlibrary.file-liked"),
+    DOCUMENTLIBRARY_INLINE_EDIT("org.alfresco.documentlibrary.inline-edit"),
+    DOCUMENTLIBRARY_FOLDER_LIKED("org.alfresco.documentlibrary.folder-liked"),
+    DOCUMENTLIBRARY_FOLDER_ADDED("org.alfresco.documentlibrary.folder-added"),
+    DOCUMENTLIBRARY_FOLDER_DELETED("org.alfresco.documentlibrary.folder-deleted"),
+    DOCUMENTLIBRARY_FOLDERS_ADDED("org.alfresco.documentlibrary.folders-added"),
+    DOCUMENTLIBRARY_FOLDERS_DELETED("org.alfresco.documentlibrary.folders-deleted"),
+    DOCUMENTLIBRARY_FILE_PREVIEWED("org.alfresco.documentlibrary.file-previewed"),
+    DOCUMENTLIBRARY_FILE_DOWNLOADED("org.alfresco.documentlibrary.file-downloaded"),
+    WIKI_PAGE_CREATED("org.alfresco.wiki.page-created"),
+    WIKI_PAGE_EDITED("org.alfresco.wiki.page-edited"),
+    WIKI_PAGE_RENAMED("org.alfresco.wiki.page-renamed"),
+    WIKI_PAGE_DELETED("org.alfresco.wiki.page-deleted"),
+    SITE_USER_JOINED("org.alfresco.site.user-joined"),
+    SITE_USER_LEFT("org.alfresco.site.user-left"),
+    SITE_USER_ROLE_CHANGED("org.alfresco.site.user-role-changed"),
+    SITE_GROUP_ADDED("org.alfresco.site.group-added"),
+    SITE_GROUP_REMOVED("org.alfresco.site.group-removed"),
+    SITE_GROUP_ROLE_CHANGED("org.alfresco.site.group-role-changed"),
+    SITE_LIKED("org.alfresco.site.liked"),
+    LINKS_LINK_CREATED("org.alfresco.links.link-created"),
+    LINKS_LINK_UPDATED("org.alfresco.links.link-updated"),
+    LINKS_LINK_DELETED("org.alfresco.links.link-deleted"),
+    DATALISTS_LIST_CREATED("org.alfresco.datalists.list-created"),
+    DATALISTS_LIST_UPDATED("org.alfresco.datalists.list-updated"),
+    DATALISTS_LIST_DELETED("org.alfresco.datalists.list-deleted"),
+    SUBSCRIPTIONS_FOLLOWED("org.alfresco.subscriptions.followed"),
+    SUBSCRIPTIONS_SUBSCRIBED("org.alfresco.subscriptions.subscribed"),
+    PROFILE_STATUS_CHANGED("org.alfresco.profile.status-changed");
+
+    private static final ActivityType[] TABLE;
+    private static final int            MULTIPLIER;
+    private static final int            SHIFT;
+
+    static
+    {
+        ActivityType[] values = values();
+        int bits = 32 - Integer.numberOfLeadingZeros(values.length * 2 - 1);
+        ActivityType[] table = null;
+        int multiplier = 0;
+        for (; table == null; bits++)
+        {
+            for (int m = 0x9E3779B1, attempt = 0; table == null && attempt < 1000; m += 0x61C88646, attempt++)
+            {
+                table = layOut(values, m | 1, 32 - bits);
+                multiplier = m | 1;
+            }
+        }
+        TABLE = table;
+        MULTIPLIER = multiplier;
+        SHIFT = 32 - Integer.numberOfTrailingZeros(table.length);
+    }
+
+
+    private final String value;
+
+
+    private ActivityType(String value)
+    {
+        this.value = value;
+    }
+
+
+    /**
+     * @return The activityType value, e.g. org.alfresco.documentlibrary.file-added
+     */
+    public String getValue()
+    {
+        return value;
+    }
+
+
+    /**
+     * @return The type with the given value, or null if there is none
+     */
+    public static ActivityType fromValue(String value)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+        ActivityType type = TABLE[slot(hash(value), MULTIPLIER, SHIFT)];
+        return type != null && type.value.equals(value) ? type : null;
+    }
+
+
+    /**
+     * @return The type whose value is the given characters, or null if there is none
+     */
+    public static ActivityType fromValue(char[] chars, int offset, int length)
+    {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++)
+        {
+            h = 31 * h + chars[i];
+        }
+        ActivityType type = TABLE[slot(h, MULTIPLIER, SHIFT)];
+        if (type == null || type.value.length() != length)
+        {
+            return null;
+        }
+        for (int i = 0; i < length; i++)
+        {
+            if (type.value.charAt(i) != chars[offset + i])
+            {
+                return null;
+            }
+        }
+        return type;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return value;
+    }
+
+
+    private static ActivityType[] layOut(ActivityType[] values, int multiplier, int shift)
+    {
+        ActivityType[] table = new ActivityType[1 << (32 - shift)];
+        for (ActivityType type : values)
+        {
+            int slot = slot(hash(type.value), multiplier, shift);
+            if (table[slot] != null)
+            {
+                return null;
+            }
+            table[slot] = type;
+        }
+        return table;
+    }
+
+
+    private static int hash(String value)
+    {
+        // the same as String.hashCode(), and for the same characters as fromValue(char[], int, int)
+        return value.hashCode();
+    }
+
+
+    private static int slot(int hash, int multiplier, int shift)
+    {
+        return (hash * multiplier) >>> shift;
+    }
+}
@@ -16,22 +16,39 @@
 package org.springframework.social.alfresco.api.entities;
 
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.codehaus.jackson.annotate.JsonIgnore;
 
 
 /**
  * Has pagination information for a list of entities <T> available in this list
  * 
+ * The entries are held in an array, unwrapped from their <tt>entry</tt> envelopes as the response is read.
+ * {@link #getEntryList()} returns an unmodifiable view of it; {@link #getEntries()} returns a modifiable copy, as it
+ * always has. The pagination is held as primitives;
+ * {@link #getPagination()} builds a {@link Pagination} from them on each call.
+ * 
  * @author jottley
  * 
  * @param <T> - Entity Type
  */
 public class AlfrescoList<T>
 {
+    private static final Object[] NO_ENTRIES = new Object[0];
 
+    private Object[] entries = NO_ENTRIES;
 
-    private Pagination          pagination;
-    private ArrayList<Entry<T>> entries;
+    private boolean  paginated;
+    private long     count;
+    private boolean  hasMoreItems;
+    private long     totalItems;
+    private long     skipCount;
+    private long     maxItems;
 
 
     /**
@@ -39,45 +56,146 @@ public class AlfrescoList<T>
      */
     public void setPagination(Pagination pagination)
     {
-        this.pagination = pagination;
+        this.paginated = pagination != null;
+        if (pagination != null)
+        {
+            this.count = pagination.getCount();
+            this.hasMoreItems = pagination.isHasMoreItems();
+            this.totalItems = pagination.getTotalItems();
+            this.skipCount = pagination.getSkipCount();
+            this.maxItems = pagination.getMaxItems();
+        }
+    }
+
+
+    /**
+     * Set the pagination without building a {@link Pagination}.
+     */
+    @JsonIgnore
+    public void setPagination(long count, boolean hasMoreItems, long totalItems, long skipCount, long maxItems)
+    {
+        this.paginated = true;
+        this.count = count;
+        this.hasMoreItems = hasMoreItems;
+        this.totalItems = totalItems;
+        this.skipCount = skipCount;
+        this.maxItems = maxItems;
     }
 
 
     /**
-     * @return
+     * @return the pagination, or null if the response had none
      */
     public Pagination getPagination()
     {
+        if (!paginated)
+        {
+            return null;
+        }
+        Pagination pagination = new Pagination();
+        pagination.setCount((int)count);
+        pagination.setHasMoreItems(hasMoreItems);
+        pagination.setTotalItems(totalItems);
+        pagination.setSkipCount(skipCount);
+        pagination.setMaxItems(maxItems);
         return pagination;
     }
 
 
+    /**
+     * @return true if the response had pagination and it reports more entities beyond those in this list
+     */
+    @JsonIgnore
+    public boolean isHasMoreItems()
+    {
+        return paginated && hasMoreItems;
+    }
+
+
+    /**
+     * @return the total number of entities in the collection, as reported by the pagination, or 0 if there is none
+     */
+    @JsonIgnore
+    public long getTotalItems()
+    {
+        return totalItems;
+    }
+
+
     /**
      * @param entries
      */
     public void setEntries(ArrayList<Entry<T>> entries)
     {
-        this.entries = entries;
+        Object[] unwrapped = new Object[entries.size()];
+        for (int i = 0; i < unwrapped.length; i++)
+        {
+            Entry<T> entry = entries.get(i);
+            unwrapped[i] = entry != null ? entry.getEntry() : null;
+        }
+        this.entries = unwrapped;
+    }
+
+
+    /**
+     * Set the entries to the given array, which the list takes ownership of; it must not be changed afterwards.
+     */
+    @JsonIgnore
+    public void setEntryArray(T[] entries)
+    {
+        this.entries = entries != null ? entries : NO_ENTRIES;
     }
 
     @Override
 	public String toString()
     {
-		return "AlfrescoList [pagination=" + pagination + ", entries="
-				+ entries + "]";
+		return "AlfrescoList [pagination=" + getPagination() + ", entries="
+				+ Arrays.toString(entries) + "]";
 	}
 
+    /**
+     * @return a new list of the entries, which the caller may modify; see {@link #getEntryList()} to read them
+     *         without copying
+     */
 	public ArrayList<T> getEntries()
     {
-        ArrayList<T> t = new ArrayList<T>();
-        if (!entries.isEmpty())
+        ArrayList<T> t = new ArrayList<T>(entries.length);
+        t.addAll(getEntryList());
+        return t;
+    }
+
+
+    /**
+     * @return an unmodifiable view of the entries; it is not copied
+     */
+    @JsonIgnore
+    public List<T> getEntryList()
+    {
+        return new EntryList<T>(entries);
+    }
+
+
+    private static class EntryList<T> extends AbstractList<T> implements RandomAccess
+    {
+        private final Object[] entries;
+
+        EntryList(Object[] entries)
         {
-            for (Entry<T> entry : entries)
-            {
-                t.add(entry.getEntry());
-            }
+            this.entries = entries;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T get(int index)
+        {
+            return (T)entries[index];
+        }
+
+        @Override
+        public int size()
+        {
+            return entries.length;
         }
-        return t;
     }
 
 
@@ -18,6 +18,7 @@ package org.springframework.social.alfresco.api.entities;
 
 import java.util.Date;
 
+import org.codehaus.jackson.annotate.JsonIgnore;
 import org.codehaus.jackson.map.annotate.JsonSerialize;
 import org.codehaus.jackson.map.annotate.JsonSerialize.Inclusion;
 
@@ -123,6 +124,15 @@ public class Comment
         return modifiedAt;
     }
 
+    /**
+     * @return {@link #getModifiedAt()} in milliseconds since the epoch, or {@link Long#MIN_VALUE} if it is not set
+     */
+    @JsonIgnore
+    public long getModifiedAtMillis()
+    {
+        return modifiedAt != null ? modifiedAt.getTime() : Long.MIN_VALUE;
+    }
+
 
     /**
      * Set the date time that the comment was last modified
@@ -143,6 +153,15 @@ public class Comment
         return createdAt;
     }
 
+    /**
+     * @return {@link #getCreatedAt()} in milliseconds since the epoch, or {@link Long#MIN_VALUE} if it is not set
+     */
+    @JsonIgnore
+    public long getCreatedAtMillis()
+    {
+        return createdAt != null ? createdAt.getTime() : Long.MIN_VALUE;
+    }
+
 
     /**
      * Set the date time that the comment was created
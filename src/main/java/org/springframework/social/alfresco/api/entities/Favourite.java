@@ -2,6 +2,8 @@ package org.springframework.social.alfresco.api.entities;
 
 import java.util.Date;
 
+import org.codehaus.jackson.annotate.JsonIgnore;
+
 public class Favourite
 {
 	private String           targetGuid;
@@ -22,6 +24,15 @@ public class Favourite
 		return createdAt;
 	}
 
+	/**
+	 * @return {@link #getCreatedAt()} in milliseconds since the epoch, or {@link Long#MIN_VALUE} if it is not set
+	 */
+	@JsonIgnore
+	public long getCreatedAtMillis()
+	{
+		return createdAt != null ? createdAt.getTime() : Long.MIN_VALUE;
+	}
+
 	public FavouriteTarget getTarget()
 	{
 		return target;
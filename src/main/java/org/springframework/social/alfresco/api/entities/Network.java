@@ -19,6 +19,8 @@ package org.springframework.social.alfresco.api.entities;
 import java.util.ArrayList;
 import java.util.Date;
 
+import org.codehaus.jackson.annotate.JsonIgnore;
+
 
 /**
  * A network is the group of users and sites that belong to an organization. Networks are organized by email domain. When a user
@@ -151,6 +153,15 @@ public class Network
         return createdAt;
     }
 
+    /**
+     * @return {@link #getCreatedAt()} in milliseconds since the epoch, or {@link Long#MIN_VALUE} if it is not set
+     */
+    @JsonIgnore
+    public long getCreatedAtMillis()
+    {
+        return createdAt != null ? createdAt.getTime() : Long.MIN_VALUE;
+    }
+
 
     /**
      * @return Limits and usage of each quota. A network will have quotas for File space, the number of sites in the network, the
@@ -1,6 +1,8 @@
 package org.springframework.social.alfresco.api.entities;
 import java.util.Date;
 
+import org.codehaus.jackson.annotate.JsonIgnore;
+
 /**
  * Concrete class carrying general information for <b>alf_node</b> data
  * 
@@ -77,6 +79,15 @@ public class Node
         return this.createdAt;
     }
 
+	/**
+	 * @return {@link #getCreatedAt()} in milliseconds since the epoch, or {@link Long#MIN_VALUE} if it is not set
+	 */
+	@JsonIgnore
+	public long getCreatedAtMillis()
+	{
+		return createdAt != null ? createdAt.getTime() : Long.MIN_VALUE;
+	}
+
     public void setCreated(Date createdAt)
     {
         this.createdAt = createdAt;
@@ -87,6 +98,15 @@ public class Node
 		return modifiedAt;
 	}
 
+	/**
+	 * @return {@link #getModifiedAt()} in milliseconds since the epoch, or {@link Long#MIN_VALUE} if it is not set
+	 */
+	@JsonIgnore
+	public long getModifiedAtMillis()
+	{
+		return modifiedAt != null ? modifiedAt.getTime() : Long.MIN_VALUE;
+	}
+
 	public String getModifiedBy()
 	{
 		return modifiedBy;
@@ -18,6 +18,8 @@ package org.springframework.social.alfresco.api.entities;
 
 import java.util.Date;
 
+import org.codehaus.jackson.annotate.JsonIgnore;
+
 
 /**
  * A person entity describes the user as they are known to Alfresco.
@@ -378,6 +380,15 @@ public class Person
         return statusUpdatedAt;
     }
 
+    /**
+     * @return {@link #getStatusUpdatedAt()} in milliseconds since the epoch, or {@link Long#MIN_VALUE} if it is not set
+     */
+    @JsonIgnore
+    public long getStatusUpdatedAtMillis()
+    {
+        return statusUpdatedAt != null ? statusUpdatedAt.getTime() : Long.MIN_VALUE;
+    }
+
 
     /**
      * Set the date time of the person last status update
@@ -418,6 +429,15 @@ public class Person
         return createdAt;
     }
 
+    /**
+     * @return {@link #getCreatedAt()} in milliseconds since the epoch, or {@link Long#MIN_VALUE} if it is not set
+     */
+    @JsonIgnore
+    public long getCreatedAtMillis()
+    {
+        return createdAt != null ? createdAt.getTime() : Long.MIN_VALUE;
+    }
+
 
     /**
      * Set the date time the person was created at
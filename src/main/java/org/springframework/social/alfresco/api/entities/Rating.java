@@ -18,6 +18,7 @@ package org.springframework.social.alfresco.api.entities;
 
 import java.util.Date;
 
+import org.codehaus.jackson.annotate.JsonIgnore;
 import org.codehaus.jackson.map.annotate.JsonSerialize;
 import org.codehaus.jackson.map.annotate.JsonSerialize.Inclusion;
 
@@ -101,6 +102,15 @@ public class Rating
         return ratedAt;
     }
 
+    /**
+     * @return {@link #getRatedAt()} in milliseconds since the epoch, or {@link Long#MIN_VALUE} if it is not set
+     */
+    @JsonIgnore
+    public long getRatedAtMillis()
+    {
+        return ratedAt != null ? ratedAt.getTime() : Long.MIN_VALUE;
+    }
+
 
     /**
      * Set the date time the current authenticated user rated the item of content.
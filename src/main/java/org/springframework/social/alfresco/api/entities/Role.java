@@ -26,8 +26,50 @@ public enum Role
 {
     SiteManager, SiteContributor, SiteCollaborator, SiteConsumer;
 
+    private static final Role[] VALUES = values();
+
     private static Random random = new Random();
 
+    /**
+     * @return The role with the given name, or null if there is none
+     */
+    public static Role fromName(String name)
+    {
+        for (Role role : VALUES)
+        {
+            if (role.name().equals(name))
+            {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The role whose name is the given characters, or null if there is none
+     */
+    public static Role fromName(char[] chars, int offset, int length)
+    {
+        for (Role role : VALUES)
+        {
+            String name = role.name();
+            if (name.length() != length)
+            {
+                continue;
+            }
+            int i = 0;
+            while (i < length && name.charAt(i) == chars[offset + i])
+            {
+                i++;
+            }
+            if (i == length)
+            {
+                return role;
+            }
+        }
+        return null;
+    }
+
 	public static Role randomRole()
 	{
 		Role[] roles = Role.values();
@@ -16,6 +16,7 @@ package org.springframework.social.alfresco.api.entities;
 
 import java.util.Date;
 
+import org.codehaus.jackson.annotate.JsonIgnore;
 import org.codehaus.jackson.map.annotate.JsonSerialize;
 import org.codehaus.jackson.map.annotate.JsonSerialize.Inclusion;
 
@@ -77,6 +78,15 @@ public class Subscription
 		return createdAt;
 	}
 
+	/**
+	 * @return {@link #getCreatedAt()} in milliseconds since the epoch, or {@link Long#MIN_VALUE} if it is not set
+	 */
+	@JsonIgnore
+	public long getCreatedAtMillis()
+	{
+		return createdAt != null ? createdAt.getTime() : Long.MIN_VALUE;
+	}
+
 	public void setCreatedAt(Date createdAt)
 	{
 		this.createdAt = createdAt;
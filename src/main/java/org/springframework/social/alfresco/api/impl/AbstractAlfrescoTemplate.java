@@ -1,23 +1,38 @@
 package org.springframework.social.alfresco.api.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 import org.alfresco.cmis.client.impl.AlfrescoObjectFactoryImpl;
 import org.alfresco.service.synchronization.api.GetChangesResponse;
 import org.alfresco.service.synchronization.api.StartSyncRequest;
 import org.apache.chemistry.opencmis.client.api.CmisObject;
 import org.apache.chemistry.opencmis.client.api.FileableCmisObject;
-import org.apache.chemistry.opencmis.client.api.Folder;
 import org.apache.chemistry.opencmis.client.api.ItemIterable;
 import org.apache.chemistry.opencmis.client.api.ObjectId;
 import org.apache.chemistry.opencmis.client.api.OperationContext;
@@ -30,10 +45,12 @@ import org.apache.chemistry.opencmis.commons.SessionParameter;
 import org.apache.chemistry.opencmis.commons.enums.BindingType;
 import org.apache.chemistry.opencmis.commons.enums.CmisVersion;
 import org.apache.chemistry.opencmis.commons.enums.IncludeRelationships;
+import org.apache.chemistry.opencmis.commons.exceptions.CmisUnauthorizedException;
 import org.apache.chemistry.opencmis.commons.impl.json.parser.JSONParser;
 import org.apache.chemistry.opencmis.commons.spi.AuthenticationProvider;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.JsonParseException;
 import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.JsonProcessingException;
@@ -50,13 +67,19 @@ import org.codehaus.jackson.map.type.SimpleType;
 import org.codehaus.jackson.type.JavaType;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatus.Series;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.social.OperationNotPermittedException;
 import org.springframework.social.alfresco.api.Alfresco;
 import org.springframework.social.alfresco.api.CMISEndpoint;
+import org.springframework.social.alfresco.api.FolderTreeWalker;
+import org.springframework.social.alfresco.api.PageIterator;
+import org.springframework.social.alfresco.api.PageSource;
+import org.springframework.social.alfresco.api.Projection;
 import org.springframework.social.alfresco.api.entities.Activity;
 import org.springframework.social.alfresco.api.entities.AlfrescoList;
 import org.springframework.social.alfresco.api.entities.Comment;
@@ -89,9 +112,14 @@ import org.springframework.social.alfresco.api.entities.UserActivationResponse;
 import org.springframework.social.alfresco.api.entities.UserRegistration;
 import org.springframework.social.alfresco.api.entities.UserRegistrationRequest;
 import org.springframework.social.alfresco.api.entities.UserRegistrationResponse;
+import org.springframework.social.alfresco.api.metrics.AlfrescoMetrics;
 import org.springframework.social.alfresco.connect.exception.AlfrescoException;
 import org.springframework.util.FileCopyUtils;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -99,7 +127,8 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 {
     protected static final Log   log     = LogFactory.getLog(AlfrescoTemplate.class);
 
-	protected ObjectMapper mapper  = new ObjectMapper();
+	protected JsonCodec    codec   = JsonCodec.getDefault();
+	protected ObjectMapper mapper  = codec.getObjectMapper();
 	protected HttpHeaders  headers = new HttpHeaders();
 	protected RestTemplate restTemplate;
 	protected String repoBaseUrl;
@@ -159,9 +188,47 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 	protected PublicApiUrl SYNCS_PATH;
 	protected PublicApiUrl SYNC_PATH;
 	protected PublicApiUrl CREATE_PERSON_URL;
+	protected PublicApiUrl LOGIN_URL;
 
 	private OperationContext cmisOperationContext = new OperationContextImpl();
+	private final ConcurrentMap<List<Object>, OperationContext> cmisListingContexts = new ConcurrentHashMap<List<Object>, OperationContext>();
 	private Map<CMISEndpoint, PublicApiUrl> cmisServiceUrls = new HashMap<CMISEndpoint, PublicApiUrl>();
+	private CMISSessionRegistry cmisSessionRegistry = CMISSessionRegistry.getDefault();
+	private CMISBindingPolicy cmisBindingPolicy = CMISBindingPolicy.DEFAULT;
+
+	public static final int DEFAULT_PAGE_SIZE = 100;
+	public static final int DEFAULT_PREFETCH_PAGES = 1;
+	private static volatile Executor defaultPageExecutor;
+
+	private int pageSize = DEFAULT_PAGE_SIZE;
+	private int prefetchPages = DEFAULT_PREFETCH_PAGES;
+	private Executor pageExecutor;
+
+	private static volatile ForkJoinPool defaultFolderWalkPool;
+	private ForkJoinPool folderWalkPool;
+
+	private TagIndex tagIndex;
+
+	public static final long DEFAULT_IDENTITY_TTL_MS = TimeUnit.MINUTES.toMillis(10);
+	private long identityTtlNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_IDENTITY_TTL_MS);
+	private final ReentrantLock identityLock = new ReentrantLock();
+	private volatile Memo<Network> homeNetwork;
+	private volatile Memo<Person> currentUser;
+
+	private AlfrescoMetrics metrics = AlfrescoMetrics.NONE;
+	private RequestCoalescer requestCoalescer;
+	private EntityCache entityCache;
+	private ConditionalGetCache conditionalGetCache;
+
+	private static final int MAX_URL_BUILDER_CAPACITY = 8192;
+	private static final ThreadLocal<StringBuilder> urlBuilders = new ThreadLocal<StringBuilder>()
+	{
+		@Override
+		protected StringBuilder initialValue()
+		{
+			return new StringBuilder(256);
+		}
+	};
 	
 	public AbstractAlfrescoTemplate(String repoBaseUrl, String syncBaseUrl, String publicApiServletName, String serviceServletName)
 	{
@@ -207,7 +274,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 		this.PEOPLE_NETWORK_URL        = new PublicApiNetworkUrl(repoBaseUrl, "{network}/public/alfresco/versions/1/people/{person}/networks/{network}");
 		this.PEOPLE_ACTIVITIES_URL     = new PublicApiNetworkUrl(repoBaseUrl, "{network}/public/alfresco/versions/1/people/{person}/activities");
 		this.TAGS_URL                  = new PublicApiNetworkUrl(repoBaseUrl, "{network}/public/alfresco/versions/1/tags");
-		this.TAG_URL                   = new PublicApiNetworkUrl(repoBaseUrl, "{network}/public/alfresco/versions/1/people/{person}/tags/{tag}");
+		this.TAG_URL                   = new PublicApiNetworkUrl(repoBaseUrl, "{network}/public/alfresco/versions/1/tags/{tag}");
 		this.NODE_COMMENTS_URL         = new PublicApiNetworkUrl(repoBaseUrl, "{network}/public/alfresco/versions/1/nodes/{node}/comments");
 		this.NODE_COMMENT_URL          = new PublicApiNetworkUrl(repoBaseUrl, "{network}/public/alfresco/versions/1/nodes/{node}/comments/{comment}");
 	    this.NODE_TAGS_URL             = new PublicApiNetworkUrl(repoBaseUrl, "{network}/public/alfresco/versions/1/nodes/{node}/tags/");
@@ -216,10 +283,11 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 	    this.NODE_RATING_URL 		   = new PublicApiNetworkUrl(repoBaseUrl, "{network}/public/alfresco/versions/1/nodes/{node}/ratings/{rating}");
 	    this.PEOPLE_SITE_MEMBERSHIP_REQUESTS_URL = new PublicApiNetworkUrl(repoBaseUrl, "{network}/public/alfresco/versions/1/people/{person}/site-membership-requests");
 	    this.PEOPLE_SITE_MEMBERSHIP_REQUEST_URL = new PublicApiNetworkUrl(repoBaseUrl, "{network}/public/alfresco/versions/1/people/{person}/site-membership-requests/{site}");
+	    this.LOGIN_URL                 = new PublicApiServiceUrl(repoBaseUrl, "api/login");
 	    this.CREATE_SITE_URL           = new PublicApiServiceUrl(repoBaseUrl, "api/sites");
 	    this.DELETE_SITE_URL           = new PublicApiServiceUrl(repoBaseUrl, "api/sites/{siteId}");
 	    this.ADM_CREATE_MULTI_URL      = new PublicApiServiceUrl(repoBaseUrl, "remoteadm/createmulti");
-	    this.ACCESS_DOC_LIB_URL        = new PublicApiServiceUrl(repoBaseUrl, "slingshot/doclib2/doclist/all/site/<siteId>/documentLibrary/");
+	    this.ACCESS_DOC_LIB_URL        = new PublicApiServiceUrl(repoBaseUrl, "slingshot/doclib2/doclist/all/site/{siteId}/documentLibrary/");
 	    this.BASE_NODE_URL             = new PublicApiNetworkUrl(repoBaseUrl, "{network}" + VERSION + "nodes/{node}/");
 	    this.REGISTER_USER_URL     	   = new PublicApiServiceUrl(repoBaseUrl, "internal/cloud/accounts/signupqueue");
 	    this.ACTIVATE_USER_URL         = new PublicApiServiceUrl(repoBaseUrl, "internal/cloud/account-activations");
@@ -231,21 +299,262 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 		this.SYNC_PATH                 = new PublicApiNetworkUrl(syncBaseUrl, "/api/{network}/private/alfresco/versions/1/subscribers/{subscriberId}/subscriptions/{subscriptionId}/sync/{syncId}");
 	    this.CREATE_PERSON_URL 		   = new PublicApiServiceUrl(repoBaseUrl, "api/people");
 
-	    SimpleModule module = new SimpleModule("", new Version(1, 0, 0, null));
-		module.addDeserializer(FavouriteTarget.class, new FavouriteTargetDeserializer());
-//		module.addDeserializer(ObjectData.class, new NodeDeserializer());
-//		module.addSerializer(ObjectData.class, new NodeSerializer());
-		
-		mapper.registerModule(module);
-
 		cmisServiceUrls.put(new CMISEndpoint(BindingType.ATOMPUB, CmisVersion.CMIS_1_0), ATOMPUB_1_0_URL);
 		cmisServiceUrls.put(new CMISEndpoint(BindingType.ATOMPUB, CmisVersion.CMIS_1_1), ATOMPUB_1_1_URL);
 		cmisServiceUrls.put(new CMISEndpoint(BindingType.BROWSER, CmisVersion.CMIS_1_1), BROWSER_BINDING_1_1_URL);
 	}
 	
+	/**
+	 * Set the operation context CMIS listings start from; arguments of {@link #getChildren} and
+	 * {@link #getDescendants} that are null are taken from it.
+	 */
 	public void setCmisOperationContext(OperationContext cmisOperationContext)
 	{
 		this.cmisOperationContext = cmisOperationContext;
+		cmisListingContexts.clear();
+	}
+
+	/**
+	 * Set the policy that chooses the CMIS binding for {@link #getChildren}, {@link #getDescendants} and
+	 * {@link #createRelationship}, e.g. {@link CMISBindingPolicy#fixed(CMISEndpoint)} or an
+	 * {@link AdaptiveCMISBindingPolicy}, or null for {@link CMISBindingPolicy#DEFAULT}.
+	 */
+	public void setCmisBindingPolicy(CMISBindingPolicy cmisBindingPolicy)
+	{
+		this.cmisBindingPolicy = cmisBindingPolicy != null ? cmisBindingPolicy : CMISBindingPolicy.DEFAULT;
+	}
+
+	public CMISBindingPolicy getCmisBindingPolicy()
+	{
+		return cmisBindingPolicy;
+	}
+
+	/**
+	 * @return the operation context for a listing with the given arguments, created on first use and kept; the
+	 *         contexts are shared and must not be modified
+	 */
+	protected OperationContext getCmisListingContext(IncludeRelationships includeRelationships, Boolean includeAcls,
+			Set<String> propertyFilter, Boolean includePolicies)
+	{
+		List<Object> profile = Arrays.<Object>asList(includeRelationships, includeAcls,
+				propertyFilter != null ? new HashSet<String>(propertyFilter) : null, includePolicies);
+		OperationContext context = cmisListingContexts.get(profile);
+		if(context == null)
+		{
+			OperationContext base = cmisOperationContext;
+			context = new OperationContextImpl(
+					propertyFilter != null ? propertyFilter : base.getFilter(),
+					includeAcls != null ? includeAcls : base.isIncludeAcls(),
+					false,
+					includePolicies != null ? includePolicies : base.isIncludePolicies(),
+					includeRelationships != null ? includeRelationships : base.getIncludeRelationships(),
+					Collections.singleton("cmis:none"),
+					false,
+					base.getOrderBy(),
+					false,
+					base.getMaxItemsPerPage());
+			OperationContext existing = cmisListingContexts.putIfAbsent(profile, context);
+			if(existing != null)
+			{
+				context = existing;
+			}
+		}
+		return context;
+	}
+
+	/**
+	 * Set the registry used to cache CMIS sessions. Defaults to the shared {@link CMISSessionRegistry#getDefault()}.
+	 */
+	public void setCMISSessionRegistry(CMISSessionRegistry cmisSessionRegistry)
+	{
+		this.cmisSessionRegistry = cmisSessionRegistry;
+	}
+
+	public CMISSessionRegistry getCMISSessionRegistry()
+	{
+		return cmisSessionRegistry;
+	}
+
+	/**
+	 * Set the number of entries the <tt>iterateXXX</tt> methods ask for per page, or 0 for the server's default.
+	 */
+	public void setPageSize(int pageSize)
+	{
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Set the number of pages the <tt>iterateXXX</tt> methods fetch ahead of the caller, or 0 to fetch each page
+	 * on the calling thread when it is needed.
+	 */
+	public void setPrefetchPages(int prefetchPages)
+	{
+		this.prefetchPages = prefetchPages;
+	}
+
+	/**
+	 * Set the executor that prefetches pages for the <tt>iterateXXX</tt> methods. Defaults to a shared pool of
+	 * daemon threads.
+	 */
+	public void setPageExecutor(Executor pageExecutor)
+	{
+		this.pageExecutor = pageExecutor;
+	}
+
+	/**
+	 * Set the index that {@link #getTag(String, String)} looks tags up in, or null, the default, to page through
+	 * the network's tags on every lookup. Templates for several users of the same networks may share an index.
+	 */
+	public void setTagIndex(TagIndex tagIndex)
+	{
+		this.tagIndex = tagIndex;
+	}
+
+	public TagIndex getTagIndex()
+	{
+		return tagIndex;
+	}
+
+	/**
+	 * Look tags up in an index of their own that loads tags as this template's user, reloads a network's tags once
+	 * they are older than the given staleness and refreshes them after a miss at most once per the given interval.
+	 *
+	 * @return the index, which may be given to other templates with {@link #setTagIndex(TagIndex)}
+	 */
+	public TagIndex enableTagIndex(long maxStalenessMs, long missRefreshIntervalMs)
+	{
+		TagIndex index = new TagIndex(this::iterateTags, maxStalenessMs, missRefreshIntervalMs);
+		this.tagIndex = index;
+		return index;
+	}
+
+	/**
+	 * Set how long the home network and current user are remembered for, or 0 to fetch them on every call.
+	 */
+	public void setIdentityTtlMs(long identityTtlMs)
+	{
+		this.identityTtlNanos = TimeUnit.MILLISECONDS.toNanos(identityTtlMs);
+		refreshCurrentUser();
+	}
+
+	/**
+	 * Set the metrics that every REST and CMIS call made through this template is recorded in, e.g. a
+	 * {@link org.springframework.social.alfresco.api.metrics.HistogramMetrics}. Defaults to
+	 * {@link AlfrescoMetrics#NONE}.
+	 */
+	public void setMetrics(AlfrescoMetrics metrics)
+	{
+		this.metrics = metrics != null ? metrics : AlfrescoMetrics.NONE;
+	}
+
+	public AlfrescoMetrics getMetrics()
+	{
+		return metrics;
+	}
+
+	/**
+	 * Have identical GETs that are in flight at the same time with the same credentials made once, e.g. concurrent
+	 * calls to {@link #getSite(String, String)} for the same site, or null (the default) to make every call. The
+	 * coalescer may be shared between templates.
+	 *
+	 * The callers of a coalesced request all get the same entity instances, which they must therefore not modify.
+	 */
+	public void setRequestCoalescer(RequestCoalescer requestCoalescer)
+	{
+		this.requestCoalescer = requestCoalescer;
+	}
+
+	public RequestCoalescer getRequestCoalescer()
+	{
+		return requestCoalescer;
+	}
+
+	/**
+	 * Serve {@link #getSite(String, String)}, {@link #getMember(String, String, String)} and
+	 * {@link #getPerson(String, String)} from an entity cache, which the template's own changes to sites, members
+	 * and people invalidate, or null (the default) to fetch every entity. The cache must not be shared with
+	 * templates for other users.
+	 */
+	public void setEntityCache(EntityCache entityCache)
+	{
+		this.entityCache = entityCache;
+	}
+
+	public EntityCache getEntityCache()
+	{
+		return entityCache;
+	}
+
+	/**
+	 * Cache the results of the GETs the cache is for and revalidate them with conditional requests, or null (the
+	 * default) to download every result in full.
+	 */
+	public void setConditionalGetCache(ConditionalGetCache conditionalGetCache)
+	{
+		this.conditionalGetCache = conditionalGetCache;
+	}
+
+	public ConditionalGetCache getConditionalGetCache()
+	{
+		return conditionalGetCache;
+	}
+
+	/**
+	 * Set the pool that runs {@link #walkFolderTree}, preferably in async mode. Defaults to a shared pool with a
+	 * worker per processor.
+	 */
+	public void setFolderWalkPool(ForkJoinPool folderWalkPool)
+	{
+		this.folderWalkPool = folderWalkPool;
+	}
+
+	protected ForkJoinPool getFolderWalkPool()
+	{
+		if(folderWalkPool != null)
+		{
+			return folderWalkPool;
+		}
+		ForkJoinPool pool = defaultFolderWalkPool;
+		if(pool == null)
+		{
+			synchronized(AbstractAlfrescoTemplate.class)
+			{
+				pool = defaultFolderWalkPool;
+				if(pool == null)
+				{
+					pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), p ->
+					{
+						ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+						thread.setName("alfresco-folders-" + thread.getPoolIndex());
+						return thread;
+					}, null, true);
+					defaultFolderWalkPool = pool;
+				}
+			}
+		}
+		return pool;
+	}
+
+	protected Executor getPageExecutor()
+	{
+		if(pageExecutor != null)
+		{
+			return pageExecutor;
+		}
+		Executor executor = defaultPageExecutor;
+		if(executor == null)
+		{
+			synchronized(AbstractAlfrescoTemplate.class)
+			{
+				executor = defaultPageExecutor;
+				if(executor == null)
+				{
+					executor = VirtualThreads.newPlatformExecutor("alfresco-pages");
+					defaultPageExecutor = executor;
+				}
+			}
+		}
+		return executor;
 	}
 
 //	private class NodeSerializer extends SerializerBase<ObjectData>
@@ -458,6 +767,16 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 
 	protected abstract Map<String, String> getCMISParameters();
 
+	/**
+	 * The identity that CMIS sessions are cached against: the CMIS parameter overrides (which carry the user
+	 * credentials for basic auth) or, failing that, the authentication provider.
+	 */
+	protected Object getCMISCredentials()
+	{
+		Map<String, String> parameterOverrides = getCMISParameters();
+		return parameterOverrides != null ? parameterOverrides : authenticationProvider;
+	}
+
 	private String getCMISUrl(CMISEndpoint cmisEndpoint, String networkId)
 	{
 		String cmisUrl = null;
@@ -580,57 +899,62 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 
 	protected void configureRestTemplate()
 	{
-		restTemplate.setErrorHandler(new ResponseErrorHandler()
+		restTemplate.setErrorHandler(new AlfrescoResponseErrorHandler());
+	}
+
+	/**
+	 * Turns error responses into {@link AlfrescoException}s carrying the status and body.
+	 */
+	static class AlfrescoResponseErrorHandler implements ResponseErrorHandler
+	{
+		public boolean hasError(ClientHttpResponse response) throws IOException
+		{
+			HttpStatus status = response.getStatusCode();
+			Series series = status.series();
+			return series == Series.CLIENT_ERROR || series == Series.SERVER_ERROR;
+		}
+
+		private String getResponseBody(ClientHttpResponse response)
 		{
-			public boolean hasError(ClientHttpResponse response) throws IOException
+			MediaType contentType = response.getHeaders().getContentType();
+			Charset charset = contentType != null ? contentType.getCharSet() : Charset.forName("UTF-8");
+			
+			String ret = null;
+			try
 			{
-				HttpStatus status = response.getStatusCode();
-				Series series = status.series();
-				return series == Series.CLIENT_ERROR || series == Series.SERVER_ERROR;
+	            InputStream responseBody = response.getBody();
+	            if (responseBody != null)
+	            {
+	            	byte[] b = FileCopyUtils.copyToByteArray(responseBody);
+	            	ret = new String(b, charset);
+	            }
 			}
-
-			private String getResponseBody(ClientHttpResponse response)
+			catch (IOException ex)
 			{
-				MediaType contentType = response.getHeaders().getContentType();
-				Charset charset = contentType != null ? contentType.getCharSet() : Charset.forName("UTF-8");
-				
-				String ret = null;
-				try
-				{
-		            InputStream responseBody = response.getBody();
-		            if (responseBody != null)
-		            {
-		            	byte[] b = FileCopyUtils.copyToByteArray(responseBody);
-		            	ret = new String(b, charset);
-		            }
-				}
-				catch (IOException ex)
-				{
-		            // ignore
-				}
-		        return ret;
+	            // ignore
 			}
+	        return ret;
+		}
 
-			public void handleError(ClientHttpResponse response) throws IOException
-			{
-				HttpStatus statusCode = response.getStatusCode();
-				String body = getResponseBody(response);
-				StringBuilder message = new StringBuilder(statusCode.toString());
-				message.append("\n response status \n");
-				message.append(response.getStatusText());
-				message.append("\n response body \n");
-				message.append(body);
-
-				switch (statusCode.series()) {
-					case CLIENT_ERROR:
-						throw new AlfrescoException(statusCode, message.toString());
-					case SERVER_ERROR:
-						throw new AlfrescoException(statusCode, message.toString());
-					default:
-						throw new RestClientException("Unknown status code [" + statusCode + "]");
-				}
+		public void handleError(ClientHttpResponse response) throws IOException
+		{
+			HttpStatus statusCode = response.getStatusCode();
+			String body = getResponseBody(response);
+			StringBuilder message = new StringBuilder(statusCode.toString());
+			message.append("\n response status \n");
+			message.append(response.getStatusText());
+			message.append("\n response body \n");
+			message.append(body);
+
+			switch (statusCode.series()) {
+				case CLIENT_ERROR:
+					throw new AlfrescoException(statusCode, message.toString());
+				case SERVER_ERROR:
+					throw new AlfrescoException(statusCode, message.toString());
+				default:
+					throw new RestClientException("Unknown status code [" + statusCode + "]");
 			}
-		});
+		}
 	}
 	
 	public RestTemplate getRestTemplate() {
@@ -645,7 +969,14 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 
 	public Session getCMISSession(String networkId, CMISEndpoint cmisEndpoint)
 	{
-		Session session = createCMISSession(networkId, cmisEndpoint);
+		Session session = cmisSessionRegistry.getSession(networkId, cmisEndpoint, getCMISCredentials(),
+				new CMISSessionRegistry.SessionCreator()
+		{
+			public Session createSession(String networkId, CMISEndpoint cmisEndpoint)
+			{
+				return record("createCMISSession", () -> createCMISSession(networkId, cmisEndpoint));
+			}
+		});
 		return session;
 	}
 
@@ -654,10 +985,18 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = Collections.singletonMap(TemplateParams.NETWORK, networkId);
-        String response = getRestTemplate().getForObject(NETWORK_URL.getUrl(networkId), String.class, vars);
-        log.debug("getNetwork: " + response);
-        Response<Network> n = mapper.readValue(response, entryResponseType(Network.class));
+        // Cast the null to avoid ambiguity with the other getNetwork method
+        return getNetwork(networkId, (Projection<Network>)null);
+    }
+
+
+    public Network getNetwork(String networkId, Projection<Network> projection)
+        throws JsonParseException,
+            JsonMappingException,
+            IOException
+    {
+        Map<String, String> parameters = Projection.toParameters(projection);
+        Response<Network> n = getForResponse("getNetwork", NETWORK_URL.expand(parameters, networkId), Network.class, parameters);
         return n.getEntry();
     }
 
@@ -676,10 +1015,10 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        String response = getRestTemplate().getForObject(NETWORKS_URL.getUrl(null) + generateQueryString(parameters), String.class);
-        log.debug("getNetworks: " + response);
-        Response<Network> n = mapper.readValue(response, entryResponseType(Network.class));
-        return n.getList();
+        Response<Network> n = getForResponse("getNetworks", NETWORKS_URL.expand(parameters), Network.class, parameters);
+        AlfrescoList<Network> networks = n.getList();
+        rememberHomeNetwork(networks);
+        return networks;
     }
 
 
@@ -688,15 +1027,31 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, networkId);
-        vars.put(TemplateParams.SITE, site);
+        // Cast the null to avoid ambiguity with the other getSite method
+        return getSite(site, networkId, (Projection<Site>)null);
+    }
 
-        String response = getRestTemplate().getForObject(SITE_URL.getUrl(networkId), String.class, vars);
-        log.debug("getSite: " + response);
-        Response<Site> s = mapper.readValue(response, entryResponseType(Site.class));
-        return s.getEntry();
 
+    public Site getSite(String site, String networkId, Projection<Site> projection)
+        throws JsonParseException,
+            JsonMappingException,
+            IOException
+    {
+        EntityCache cache = projection == null ? entityCache : null;
+        Site cached = cache != null ? cache.get(networkId, Site.class, site) : null;
+        if(cached != null)
+        {
+            return cached;
+        }
+        long generation = cache != null ? cache.generation() : 0;
+
+        Map<String, String> parameters = Projection.toParameters(projection);
+        Response<Site> s = getForResponse("getSite", SITE_URL.expand(parameters, networkId, site), Site.class, parameters);
+        if(cache != null)
+        {
+            cache.put(networkId, Site.class, site, s.getEntry(), generation);
+        }
+        return s.getEntry();
     }
 
 
@@ -715,10 +1070,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = Collections.singletonMap(TemplateParams.NETWORK, networkId);
-        String response = getRestTemplate().getForObject(SITES_URL.getUrl(networkId) + generateQueryString(parameters), String.class, vars);
-        log.debug("getSites: " + response);
-        Response<Site> s = mapper.readValue(response, entryResponseType(Site.class));
+        Response<Site> s = getForResponse("getSites", SITES_URL.expand(parameters, networkId), Site.class, parameters);
         return s.getList();
     }
 
@@ -728,14 +1080,17 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, networkId);
-        vars.put(TemplateParams.SITE, site);
-        vars.put(TemplateParams.CONTAINER, contatiner);
+        return getContainer(networkId, site, contatiner, null);
+    }
 
-        String response = getRestTemplate().getForObject(CONTAINER_URL.getUrl(networkId), String.class, vars);
-        log.debug("getContainer: " + response);
-        Response<Container> c = mapper.readValue(response, entryResponseType(Container.class));
+
+    public Container getContainer(String networkId, String site, String contatiner, Projection<Container> projection)
+        throws JsonParseException,
+            JsonMappingException,
+            IOException
+    {
+        Map<String, String> parameters = Projection.toParameters(projection);
+        Response<Container> c = getForResponse("getContainer", CONTAINER_URL.expand(parameters, networkId, site, contatiner), Container.class, parameters);
         return c.getEntry();
     }
 
@@ -754,13 +1109,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, networkId);
-        vars.put(TemplateParams.SITE, site);
-
-        String response = getRestTemplate().getForObject(CONTAINERS_URL.getUrl(networkId) + generateQueryString(parameters), String.class, vars);
-        log.debug("getContainers: " + response);
-        Response<Container> c = mapper.readValue(response, entryResponseType(Container.class));
+        Response<Container> c = getForResponse("getContainers", CONTAINERS_URL.expand(parameters, networkId, site), Container.class, parameters);
         return c.getList();
     }
 
@@ -770,14 +1119,29 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, networkId);
-        vars.put(TemplateParams.SITE, site);
-        vars.put(TemplateParams.MEMBER, person);
+        return getMember(networkId, site, person, null);
+    }
+
+
+    public Member getMember(String networkId, String site, String person, Projection<Member> projection)
+        throws JsonParseException,
+            JsonMappingException,
+            IOException
+    {
+        EntityCache cache = projection == null ? entityCache : null;
+        Member cached = cache != null ? cache.get(networkId, Member.class, memberKey(site, person)) : null;
+        if(cached != null)
+        {
+            return cached;
+        }
+        long generation = cache != null ? cache.generation() : 0;
 
-        String response = getRestTemplate().getForObject(MEMBER_URL.getUrl(networkId), String.class, vars);
-        log.debug("getMember: " + response);
-        Response<Member> m = mapper.readValue(response, entryResponseType(Member.class));
+        Map<String, String> parameters = Projection.toParameters(projection);
+        Response<Member> m = getForResponse("getMember", MEMBER_URL.expand(parameters, networkId, site, person), Member.class, parameters);
+        if(cache != null)
+        {
+            cache.put(networkId, Member.class, memberKey(site, person), m.getEntry(), generation);
+        }
         return m.getEntry();
     }
 
@@ -796,13 +1160,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.SITE, site);
-
-        String response = getRestTemplate().getForObject(MEMBERS_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getMembers: " + response);
-        Response<Member> m = mapper.readValue(response, entryResponseType(Member.class));
+        Response<Member> m = getForResponse("getMembers", MEMBERS_URL.expand(parameters, network, site), Member.class, parameters);
         return m.getList();
     }
 
@@ -812,18 +1170,19 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.SITE, site);
-
         Member member = new Member();
         member.setId(personId);
         member.setRole(role);
 
-        String response = getRestTemplate().postForObject(MEMBERS_URL.getUrl(network), new HttpEntity<Member>(member, headers), String.class, vars);
-        log.debug("addMember: " + response);
-        Response<Member> m = mapper.readValue(response, entryResponseType(Member.class));
-        return m.getEntry();
+        try
+        {
+            Response<Member> m = postForResponse("addMember", MEMBERS_URL.expand(network, site), member, Member.class);
+            return m.getEntry();
+        }
+        finally
+        {
+            invalidateMember(network, site, personId);
+        }
     }
 
 
@@ -831,15 +1190,17 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
     public void updateMember(String network, String site, String personId, Role role)
         throws RestClientException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.SITE, site);
-        vars.put(TemplateParams.MEMBER, personId);
-
         Member member = new Member();
         member.setRole(role);
 
-        getRestTemplate().put(MEMBER_URL.getUrl(network), new HttpEntity<Member>(member, headers), vars);
+        try
+        {
+            send("updateMember", HttpMethod.PUT, MEMBER_URL.expand(network, site, personId), member);
+        }
+        finally
+        {
+            invalidateMember(network, site, personId);
+        }
         log.debug("updateMember: member: " + personId + " to Role: " + role);
 
     }
@@ -849,12 +1210,14 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
     public void deleteMember(String network, String site, String personId)
         throws RestClientException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.SITE, site);
-        vars.put(TemplateParams.MEMBER, personId);
-
-        getRestTemplate().delete(MEMBER_URL.getUrl(network), vars);
+        try
+        {
+            send("deleteMember", HttpMethod.DELETE, MEMBER_URL.expand(network, site, personId), null);
+        }
+        finally
+        {
+            invalidateMember(network, site, personId);
+        }
         log.debug("deleteMember: " + personId + " from site: " + site);
 
     }
@@ -866,9 +1229,6 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
     		JsonMappingException,
     		IOException
     {
-		Map<String, String> vars = new HashMap<String, String>();
-		vars.put(TemplateParams.NETWORK, networkId);
-
 		LegacyPerson person = new LegacyPerson();
 		person.setUserName(username);
 		person.setFirstName(firstName);
@@ -876,10 +1236,15 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 		person.setEmail(email);
 		person.setPassword(password);
 
-    	String response = getRestTemplate().postForObject(CREATE_PERSON_URL.getUrl(),
-    			new HttpEntity<LegacyPerson>(person, headers), String.class, vars);
-    	log.debug("createPerson: " + response);
-		LegacyPerson ret = mapper.readValue(response, LegacyPerson.class);
+		LegacyPerson ret;
+		try
+		{
+			ret = postForObject("createPerson", CREATE_PERSON_URL.expand(), person, LegacyPerson.class);
+		}
+		finally
+		{
+			invalidateEntity(networkId, Person.class, username);
+		}
     	return ret;
 	}
 
@@ -888,13 +1253,29 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, person);
+        return getPerson(network, person, null);
+    }
+
+
+    public Person getPerson(String network, String person, Projection<Person> projection)
+        throws JsonParseException,
+            JsonMappingException,
+            IOException
+    {
+        EntityCache cache = projection == null ? entityCache : null;
+        Person cached = cache != null ? cache.get(network, Person.class, person) : null;
+        if(cached != null)
+        {
+            return cached;
+        }
+        long generation = cache != null ? cache.generation() : 0;
 
-        String response = getRestTemplate().getForObject(PEOPLE_URL.getUrl(network), String.class, vars);
-        log.debug("getPerson: " + response);
-        Response<Person> p = mapper.readValue(response, entryResponseType(Person.class));
+        Map<String, String> parameters = Projection.toParameters(projection);
+        Response<Person> p = getForResponse("getPerson", PEOPLE_URL.expand(parameters, network, person), Person.class, parameters);
+        if(cache != null)
+        {
+            cache.put(network, Person.class, person, p.getEntry(), generation);
+        }
         return p.getEntry();
     }
 
@@ -913,13 +1294,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, person);
-
-        String response = getRestTemplate().getForObject(PEOPLE_SITES_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getSites: " + response);
-        Response<Site> s = mapper.readValue(response, entryResponseType(Site.class));
+        Response<Site> s = getForResponse("getSites", PEOPLE_SITES_URL.expand(parameters, network, person), Site.class, parameters);
         return s.getList();
     }
 
@@ -929,15 +1304,17 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
+        return getSite(network, person, site, null);
+    }
 
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, person);
-        vars.put(TemplateParams.SITE, site);
 
-        String response = getRestTemplate().getForObject(PEOPLE_SITE_URL.getUrl(network), String.class, vars);
-        log.debug("getSite: " + response);
-        Response<Site> s = mapper.readValue(response, entryResponseType(Site.class));
+    public Site getSite(String network, String person, String site, Projection<Site> projection)
+        throws JsonParseException,
+            JsonMappingException,
+            IOException
+    {
+        Map<String, String> parameters = Projection.toParameters(projection);
+        Response<Site> s = getForResponse("getSite", PEOPLE_SITE_URL.expand(parameters, network, person, site), Site.class, parameters);
         return s.getEntry();
     }
 
@@ -947,17 +1324,18 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
                 JsonMappingException,
                 IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, personId);
-
         Site site = new Site();
         site.setId(siteId);
 
-        String response = getRestTemplate().postForObject(PEOPLE_FAVORITE_SITES_URL.getUrl(), new HttpEntity<Site>(site, headers), String.class, vars);
-        log.debug("addFavoriteSite: " + response);
-        Response<Site> c = mapper.readValue(response, entryResponseType(Site.class));
-        return c.getEntry();
+        try
+        {
+            Response<Site> c = postForResponse("addFavoriteSite", PEOPLE_FAVORITE_SITES_URL.expand(network, personId), site, Site.class);
+            return c.getEntry();
+        }
+        finally
+        {
+            invalidateEntity(network, Site.class, siteId);
+        }
     }
 
     public AlfrescoList<Favourite> getFavorites(String network, String person)
@@ -974,15 +1352,9 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, person);
-
 //        context.set(new Context(network));
 
-        String response = getRestTemplate().getForObject(PEOPLE_FAVORITES_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getFavorites: " + response);
-        Response<Favourite> s = mapper.readValue(response, entryResponseType(Favourite.class));
+        Response<Favourite> s = getForResponse("getFavorites", PEOPLE_FAVORITES_URL.expand(parameters, network, person), Favourite.class, parameters);
         return s.getList();
     }
     
@@ -991,16 +1363,18 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
                 JsonMappingException,
                 IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, person);
-        vars.put(TemplateParams.TARGET_GUID, targetGuid);
+        return getFavorite(network, person, targetGuid, null);
+    }
 
+    public Favourite getFavorite(String network, String person, String targetGuid, Projection<Favourite> projection)
+            throws JsonParseException,
+                JsonMappingException,
+                IOException
+    {
 //            context.set(new Context(network));
 
-        String response = getRestTemplate().getForObject(PEOPLE_FAVORITE_URL.getUrl(network), String.class, vars);
-        log.debug("getFavorites: " + response);
-        Response<Favourite> s = mapper.readValue(response, entryResponseType(Favourite.class));
+        Map<String, String> parameters = Projection.toParameters(projection);
+        Response<Favourite> s = getForResponse("getFavorite", PEOPLE_FAVORITE_URL.expand(parameters, network, person, targetGuid), Favourite.class, parameters);
         return s.getEntry();
     }
     
@@ -1009,13 +1383,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
                 JsonMappingException,
                 IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, personId);
-
-        String response = getRestTemplate().postForObject(PEOPLE_FAVORITES_URL.getUrl(), new HttpEntity<Favourite>(favourite, headers), String.class, vars);
-        log.debug("addFavorite: " + response);
-        Response<Favourite> c = mapper.readValue(response, entryResponseType(Favourite.class));
+        Response<Favourite> c = postForResponse("addFavorite", PEOPLE_FAVORITES_URL.expand(network, personId), favourite, Favourite.class);
         return c.getEntry();
     }
     
@@ -1024,12 +1392,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
                 JsonMappingException,
                 IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, personId);
-        vars.put(TemplateParams.TARGET_GUID, targetGuid);
-
-        getRestTemplate().delete(PEOPLE_FAVORITE_URL.getUrl(network), vars);
+        send("removeFavourite", HttpMethod.DELETE, PEOPLE_FAVORITE_URL.expand(network, personId, targetGuid), null);
         log.debug("removefavourite: " + targetGuid);
     }
 
@@ -1046,13 +1409,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
                 JsonMappingException,
                 IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, personId);
-
-        String response = getRestTemplate().getForObject(PEOPLE_SITE_MEMBERSHIP_REQUESTS_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getPersonSiteMemberhsipRequests: " + response);
-        Response<SiteMembershipRequest> s = mapper.readValue(response, entryResponseType(SiteMembershipRequest.class));
+        Response<SiteMembershipRequest> s = getForResponse("getPersonSiteMembershipRequests", PEOPLE_SITE_MEMBERSHIP_REQUESTS_URL.expand(parameters, network, personId), SiteMembershipRequest.class, parameters);
         return s.getList();
     }
 
@@ -1061,13 +1418,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
                 JsonMappingException,
                 IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, personId);
-
-        String response = getRestTemplate().postForObject(PEOPLE_SITE_MEMBERSHIP_REQUESTS_URL.getUrl(), new HttpEntity<SiteMembershipRequest>(siteMembershipRequest, headers), String.class, vars);
-        log.debug("addPersonSiteMembershipRequest: " + response);
-        Response<SiteMembershipRequest> c = mapper.readValue(response, entryResponseType(SiteMembershipRequest.class));
+        Response<SiteMembershipRequest> c = postForResponse("createPersonSiteMembershipRequest", PEOPLE_SITE_MEMBERSHIP_REQUESTS_URL.expand(network, personId), siteMembershipRequest, SiteMembershipRequest.class);
         return c.getEntry();
     }
     
@@ -1076,12 +1427,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
                 JsonMappingException,
                 IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, personId);
-        vars.put(TemplateParams.SITE, siteId);
-
-        getRestTemplate().delete(PEOPLE_SITE_MEMBERSHIP_REQUEST_URL.getUrl(network), vars);
+        send("cancelPersonSiteMembershipRequest", HttpMethod.DELETE, PEOPLE_SITE_MEMBERSHIP_REQUEST_URL.expand(network, personId, siteId), null);
         log.debug("cancelPersonSiteMembershipRequest: " + personId + ", " + siteId);
     }
     
@@ -1099,13 +1445,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, person);
-
-        String response = getRestTemplate().getForObject(PEOPLE_FAVORITE_SITES_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getFavoriteSites: " + response);
-        Response<Site> s = mapper.readValue(response, entryResponseType(Site.class));
+        Response<Site> s = getForResponse("getFavoriteSites", PEOPLE_FAVORITE_SITES_URL.expand(parameters, network, person), Site.class, parameters);
         return s.getList();
     }
 
@@ -1115,14 +1455,17 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, person);
-        vars.put(TemplateParams.PREFERENCE, preference);
+        return getPreference(network, person, preference, null);
+    }
 
-        String response = getRestTemplate().getForObject(PEOPLE_PREFERENCE_URL.getUrl(network), String.class, vars);
-        log.debug("getPreference: " + response);
-        Response<Preference> p = mapper.readValue(response, entryResponseType(Preference.class));
+
+    public Preference getPreference(String network, String person, String preference, Projection<Preference> projection)
+        throws JsonParseException,
+            JsonMappingException,
+            IOException
+    {
+        Map<String, String> parameters = Projection.toParameters(projection);
+        Response<Preference> p = getForResponse("getPreference", PEOPLE_PREFERENCE_URL.expand(parameters, network, person, preference), Preference.class, parameters);
         return p.getEntry();
     }
 
@@ -1141,13 +1484,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, person);
-
-        String response = getRestTemplate().getForObject(PEOPLE_PREFERENCES_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getPreferences: " + response);
-        Response<Preference> p = mapper.readValue(response, entryResponseType(Preference.class));
+        Response<Preference> p = getForResponse("getPreferences", PEOPLE_PREFERENCES_URL.expand(parameters, network, person), Preference.class, parameters);
         return p.getList();
     }
 
@@ -1157,13 +1494,17 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, person);
+        return getNetwork(network, person, null);
+    }
+
 
-        String response = getRestTemplate().getForObject(PEOPLE_NETWORK_URL.getUrl(network), String.class, vars);
-        log.debug("getNetwork: " + response);
-        Response<Network> n = mapper.readValue(response, entryResponseType(Network.class));
+    public Network getNetwork(String network, String person, Projection<Network> projection)
+        throws JsonParseException,
+            JsonMappingException,
+            IOException
+    {
+        Map<String, String> parameters = Projection.toParameters(projection);
+        Response<Network> n = getForResponse("getNetwork", PEOPLE_NETWORK_URL.expand(parameters, network, person), Network.class, parameters);
         return n.getEntry();
     }
 
@@ -1182,13 +1523,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, person);
-
-        String response = getRestTemplate().getForObject(PEOPLE_NETWORKS_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getNetworks: " + response);
-        Response<Network> n = mapper.readValue(response, entryResponseType(Network.class));
+        Response<Network> n = getForResponse("getNetworks", PEOPLE_NETWORKS_URL.expand(parameters, network, person), Network.class, parameters);
         return n.getList();
     }
 
@@ -1207,13 +1542,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.PERSON, person);
-
-        String response = getRestTemplate().getForObject(PEOPLE_ACTIVITIES_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getActivities: " + response);
-        Response<Activity> a = mapper.readValue(response, entryResponseType(Activity.class));
+        Response<Activity> a = getForResponse("getActivities", PEOPLE_ACTIVITIES_URL.expand(parameters, network, person), Activity.class, parameters);
         return a.getList();
     }
 
@@ -1223,46 +1552,29 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        int count = 0;
-        final int MAXITEMS = 10;
-
-        Map<String, String> parameters = new HashMap<String, String>();
-        parameters.put(Pagination.MAXITEMS, Integer.toString(MAXITEMS));
-
-        boolean found = false;
-        Tag tagFound = null;
+        TagIndex index = tagIndex;
+        if (index != null)
+        {
+            return index.getTag(network, tag);
+        }
 
-        AlfrescoList<Tag> response = getTags(network, parameters);
-        while (!found)
+        PageIterator<Tag> tags = iterateTags(network, null);
+        try
         {
-            for (Iterator<Tag> iterator = response.getEntries().iterator(); iterator.hasNext();)
+            while (tags.hasNext())
             {
-                Tag _tag = iterator.next();
+                Tag _tag = tags.next();
                 if (_tag.getTag().equals(tag))
                 {
-                    tagFound = _tag;
-                    found = true;
-                    break;
-                }
-                else
-                {
-                    if (!iterator.hasNext())
-                    {
-                        if (response.getPagination().isHasMoreItems())
-                        {
-                            parameters.put(Pagination.SKIPCOUNT, Integer.toString(count = count + MAXITEMS));
-                            response = getTags(network, parameters);
-                        }
-                        else
-                        {
-                            found = true;
-                            break;
-                        }
-                    }
+                    return _tag;
                 }
             }
+            return null;
+        }
+        finally
+        {
+            tags.close();
         }
-        return tagFound;
     }
 
 
@@ -1280,11 +1592,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = Collections.singletonMap(TemplateParams.NETWORK, network);
-
-        String response = getRestTemplate().getForObject(TAGS_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getTags: " + response);
-        Response<Tag> t = mapper.readValue(response, entryResponseType(Tag.class));
+        Response<Tag> t = getForResponse("getTags", TAGS_URL.expand(parameters, network), Tag.class, parameters);
         return t.getList();
     }
 
@@ -1292,16 +1600,18 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
     public void updateTag(String network, String tagId, String tag)
         throws RestClientException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.TAG, tagId);
-
         Tag _tag = new Tag();
         _tag.setTag(tag);
 
-        getRestTemplate().put(TAG_URL.getUrl(network), new HttpEntity<Tag>(_tag, headers), vars);
+        send("updateTag", HttpMethod.PUT, TAG_URL.expand(network, tagId), _tag);
         log.debug("updateTag: " + tag);
 
+        TagIndex index = tagIndex;
+        if (index != null)
+        {
+            index.rename(network, tagId, tag);
+        }
+
     }
 
 
@@ -1319,13 +1629,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-
-        String response = getRestTemplate().getForObject(NODE_COMMENTS_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getComments: " + response);
-        Response<Comment> c = mapper.readValue(response, entryResponseType(Comment.class));
+        Response<Comment> c = getForResponse("getComments", NODE_COMMENTS_URL.expand(parameters, network, node), Comment.class, parameters);
         return c.getList();
     }
 
@@ -1335,17 +1639,11 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-
         Comment _comment = new Comment();
         _comment.setContent(comment);
 
 //        String response = getRestTemplate().postForObject(NODE_COMMENTS_URL.getUrl(network), new HttpEntity<Comment>(_comment, headers), String.class, vars);
-        String response = getRestTemplate().postForObject(NODE_COMMENTS_URL.getUrl(), new HttpEntity<Comment>(_comment, headers), String.class, vars);
-        log.debug("createComment: " + response);
-        Response<Comment> c = mapper.readValue(response, entryResponseType(Comment.class));
+        Response<Comment> c = postForResponse("createComment", NODE_COMMENTS_URL.expand(network, node), _comment, Comment.class);
         Comment ret = c.getEntry();
         ret.setNodeId(node);
         return ret;
@@ -1357,10 +1655,6 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-
         java.util.List<Comment> _comments = new ArrayList<Comment>();
         for (String content : comments)
         {
@@ -1369,11 +1663,9 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             _comments.add(_comment);
         }
 
-        String response = getRestTemplate().postForObject(NODE_COMMENTS_URL.getUrl(network), new HttpEntity<java.util.List<Comment>>(_comments, headers), String.class, vars);
-        log.debug("createComments: " + response);
-        Response<Comment> createdComments = mapper.readValue(response, entryResponseType(Comment.class));
+        Response<Comment> createdComments = postForResponse("createComments", NODE_COMMENTS_URL.expand(network, node), _comments, Comment.class);
         AlfrescoList<Comment> al = createdComments.getList();
-        for(Comment comment : al.getEntries())
+        for(Comment comment : al.getEntryList())
         {
         	comment.setNodeId(node);
         }
@@ -1386,15 +1678,10 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-        vars.put(TemplateParams.COMMENT, commentId);
-
         Comment _comment = new Comment();
         _comment.setContent(comment);
 
-        getRestTemplate().put(NODE_COMMENT_URL.getUrl(network), new HttpEntity<Comment>(_comment, headers), vars);
+        send("updateComment", HttpMethod.PUT, NODE_COMMENT_URL.expand(network, node, commentId), _comment);
         log.debug("updateComment: " + comment);
     }
 
@@ -1404,12 +1691,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-        vars.put(TemplateParams.COMMENT, commentId);
-
-        getRestTemplate().delete(NODE_COMMENT_URL.getUrl(network), vars);
+        send("deleteComment", HttpMethod.DELETE, NODE_COMMENT_URL.expand(network, node, commentId), null);
         log.debug("deleteComment: " + commentId);
     }
 
@@ -1428,13 +1710,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-
-        String response = getRestTemplate().getForObject(NODE_TAGS_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getNodeTafs: " + response);
-        Response<Tag> t = mapper.readValue(response, entryResponseType(Tag.class));
+        Response<Tag> t = getForResponse("getNodesTags", NODE_TAGS_URL.expand(parameters, network, node), Tag.class, parameters);
         return t.getList();
     }
 
@@ -1444,16 +1720,15 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-
         Tag _tag = new Tag();
         _tag.setTag(tag);
 
-        String response = getRestTemplate().postForObject(NODE_TAG_URL.getUrl(network), new HttpEntity<Tag>(_tag, headers), String.class, vars);
-        log.debug("addTagToNode: " + response);
-        Response<Tag> t = mapper.readValue(response, entryResponseType(Tag.class));
+        Response<Tag> t = postForResponse("addTagToNode", NODE_TAGS_URL.expand(network, node), _tag, Tag.class);
+        TagIndex index = tagIndex;
+        if (index != null)
+        {
+            index.put(network, t.getEntry());
+        }
         return t.getEntry();
     }
 
@@ -1463,10 +1738,6 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-
         java.util.List<Tag> _tags = new ArrayList<Tag>();
         for (String tag : tags)
         {
@@ -1475,9 +1746,15 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             _tags.add(_tag);
         }
 
-        String response = getRestTemplate().postForObject(NODE_TAGS_URL.getUrl(network), new HttpEntity<java.util.List<Tag>>(_tags, headers), String.class, vars);
-        log.debug("addTagsToNode: " + response);
-        Response<Tag> t = mapper.readValue(response, entryResponseType(Tag.class));
+        Response<Tag> t = postForResponse("addTagsToNode", NODE_TAGS_URL.expand(network, node), _tags, Tag.class);
+        TagIndex index = tagIndex;
+        if (index != null && t.getList() != null)
+        {
+            for (Tag added : t.getList().getEntryList())
+            {
+                index.put(network, added);
+            }
+        }
         return t.getList();
     }
 
@@ -1487,12 +1764,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-        vars.put(TemplateParams.TAG, tagId);
-
-        getRestTemplate().delete(NODE_TAG_URL.getUrl(network), vars);
+        send("removeTagFromNode", HttpMethod.DELETE, NODE_TAG_URL.expand(network, node, tagId), null);
         log.debug("removeTagFromNode: " + tagId);
     }
 
@@ -1511,13 +1783,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-
-        String response = getRestTemplate().getForObject(NODE_RATINGS_URL.getUrl(network) + generateQueryString(parameters), String.class, vars);
-        log.debug("getNodeRatings: " + response);
-        Response<Rating> r = mapper.readValue(response, entryResponseType(Rating.class));
+        Response<Rating> r = getForResponse("getNodeRatings", NODE_RATINGS_URL.expand(parameters, network, node), Rating.class, parameters);
         return r.getList();
     }
 
@@ -1527,14 +1793,17 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-        vars.put(TemplateParams.RATING, rating);
+        return getNodeRating(network, node, rating, null);
+    }
 
-        String response = getRestTemplate().getForObject(NODE_RATING_URL.getUrl(network), String.class, vars);
-        log.debug("getNodeRatings: " + response);
-        Response<Rating> r = mapper.readValue(response, entryResponseType(Rating.class));
+
+    public Rating getNodeRating(String network, String node, String rating, Projection<Rating> projection)
+        throws JsonParseException,
+            JsonMappingException,
+            IOException
+    {
+        Map<String, String> parameters = Projection.toParameters(projection);
+        Response<Rating> r = getForResponse("getNodeRating", NODE_RATING_URL.expand(parameters, network, node, rating), Rating.class, parameters);
         return r.getEntry();
     }
 
@@ -1544,12 +1813,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-        vars.put(TemplateParams.RATING, ratingId);
-
-        getRestTemplate().delete(NODE_RATING_URL.getUrl(network), vars);
+        send("removeNodeRating", HttpMethod.DELETE, NODE_RATING_URL.expand(network, node, ratingId), null);
         log.debug("removeNodeRating: " + ratingId);
     }
 
@@ -1571,17 +1835,11 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-
         Rating _like = new Rating();
         _like.setId(Rating.LIKES);
         _like.setMyRating(like);
 
-        String response = getRestTemplate().postForObject(NODE_RATINGS_URL.getUrl(network), new HttpEntity<Rating>(_like, headers), String.class, vars);
-        log.debug("rateNode: " + response);
-        Response<Rating> r = mapper.readValue(response, entryResponseType(Rating.class));
+        Response<Rating> r = postForResponse("rateNode", NODE_RATINGS_URL.expand(network, node), _like, Rating.class);
         return r.getEntry();
     }
 
@@ -1591,24 +1849,561 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.NODE, node);
-
         Rating _stars = new Rating();
         _stars.setId(Rating.STARS);
         _stars.setMyRating(stars);
 
-        String response = getRestTemplate().postForObject(NODE_RATINGS_URL.getUrl(network), new HttpEntity<Rating>(_stars, headers), String.class, vars);
-        log.debug("rateNode: " + response);
-        Response<Rating> r = mapper.readValue(response, entryResponseType(Rating.class));
+        Response<Rating> r = postForResponse("rateNode", NODE_RATINGS_URL.expand(network, node), _stars, Rating.class);
         return r.getEntry();
     }
 
 
-    private JavaType entryResponseType(Class<?> type)
+    private <T> Response<T> getForResponse(String operation, URI url, Class<T> entryType)
+        throws IOException
+    {
+        return get(operation, url, codec.responseBinding(entryType));
+    }
+
+    /**
+     * Get a response, binding only the fields of its entries named by the {@link QueryParams#PROPERTIES} parameter
+     * if there is one.
+     */
+    private <T> Response<T> getForResponse(String operation, URI url, Class<T> entryType, Map<String, String> parameters)
+        throws IOException
+    {
+        JsonCodec.Binding binding = codec.responseBinding(entryType).project(projectedFields(parameters));
+        return get(operation, url, binding);
+    }
+
+    /**
+     * Execute a GET, through the request coalescer if there is one.
+     */
+    private <T> T get(final String operation, final URI url, final JsonCodec.Binding responseBinding)
+        throws IOException
+    {
+        RequestCoalescer coalescer = requestCoalescer;
+        final ConditionalGetCache cache = conditionalGetCache;
+        if(cache == null || !cache.isCached(operation))
+        {
+            if(coalescer == null)
+            {
+                return exchange(operation, HttpMethod.GET, url, null, responseBinding);
+            }
+            return coalescer.execute(new RequestKey(getCredentialsKey(), url, responseBinding.getType()),
+                    () -> this.<T>exchange(operation, HttpMethod.GET, url, null, responseBinding));
+        }
+
+        final RequestKey key = new RequestKey(getCredentialsKey(), url, responseBinding.getType());
+        if(coalescer == null)
+        {
+            return conditionalGet(cache, key, operation, url, responseBinding);
+        }
+        return coalescer.execute(key, () -> this.<T>conditionalGet(cache, key, operation, url, responseBinding));
+    }
+
+    /**
+     * Execute a GET, conditional on the entity cached for it if there is one, and cache its result.
+     */
+    private <T> T conditionalGet(ConditionalGetCache cache, RequestKey key, String operation, URI url,
+            JsonCodec.Binding responseBinding) throws IOException
+    {
+        Exchange exchange = new Exchange(operation, null);
+        exchange.cached = cache.get(key);
+        T result = exchange(exchange, HttpMethod.GET, url, responseBinding);
+        if(exchange.cached != null && exchange.status == HttpStatus.NOT_MODIFIED.value())
+        {
+            cache.notModified();
+        }
+        else
+        {
+            cache.put(key, result, exchange.etag, exchange.lastModified, exchange.responseBytes());
+        }
+        return result;
+    }
+
+    /**
+     * @return an object that is equal for templates that make requests with the same credentials; requests are
+     *         only coalesced when their credentials keys are equal. Defaults to the template itself.
+     */
+    protected Object getCredentialsKey()
+    {
+        return this;
+    }
+
+    private static String memberKey(String site, String person)
+    {
+        return site + "/" + person;
+    }
+
+    private void invalidateEntity(String network, Class<?> type, String id)
+    {
+        EntityCache cache = entityCache;
+        if(cache != null)
+        {
+            cache.invalidate(network, type, id);
+        }
+    }
+
+    /**
+     * Forget a membership, and the site, which carries the current user's role in it.
+     */
+    private void invalidateMember(String network, String site, String person)
+    {
+        EntityCache cache = entityCache;
+        if(cache != null)
+        {
+            cache.invalidate(network, Member.class, memberKey(site, person));
+            cache.invalidate(network, Site.class, site);
+        }
+    }
+
+    private void invalidateSite(String network, String site)
+    {
+        EntityCache cache = entityCache;
+        if(cache != null)
+        {
+            cache.invalidate(network, Site.class, site);
+            cache.invalidatePrefix(network, Member.class, memberKey(site, ""));
+        }
+    }
+
+    /**
+     * Identifies a coalesced GET.
+     */
+    private static final class RequestKey
+    {
+        private final Object credentials;
+        private final URI url;
+        private final JavaType type;
+        private final int hash;
+
+        RequestKey(Object credentials, URI url, JavaType type)
+        {
+            this.credentials = credentials;
+            this.url = url;
+            this.type = type;
+            this.hash = 31 * (31 * credentials.hashCode() + url.hashCode()) + type.hashCode();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if(this == o)
+            {
+                return true;
+            }
+            if(!(o instanceof RequestKey))
+            {
+                return false;
+            }
+            RequestKey other = (RequestKey)o;
+            return hash == other.hash && url.equals(other.url) && type.equals(other.type)
+                    && credentials.equals(other.credentials);
+        }
+    }
+
+    private static Set<String> projectedFields(Map<String, String> parameters)
+    {
+        String properties = parameters != null ? parameters.get(QueryParams.PROPERTIES) : null;
+        if(properties == null || properties.isEmpty())
+        {
+            return null;
+        }
+        Set<String> fields = new HashSet<String>();
+        for(String field : properties.split(","))
+        {
+            fields.add(field.trim());
+        }
+        return fields;
+    }
+
+    private <T> Response<T> postForResponse(String operation, URI url, Object body, Class<T> entryType)
+        throws IOException
     {
-        return mapper.getTypeFactory().constructParametricType(Response.class, type);
+        return exchange(operation, HttpMethod.POST, url, body, codec.responseBinding(entryType));
+    }
+
+    private <T> T postForObject(String operation, URI url, Object body, Class<T> responseType)
+        throws IOException
+    {
+        return exchange(operation, HttpMethod.POST, url, body, codec.binding(responseType));
+    }
+
+    /**
+     * Execute a request, writing the body (if any) as JSON straight to the request stream and binding the
+     * response straight from the response stream, without building intermediate Strings.
+     */
+    private <T> T exchange(String operation, HttpMethod method, URI url, Object body, JsonCodec.Binding responseBinding)
+        throws IOException
+    {
+        return exchange(new Exchange(operation, body), method, url, responseBinding);
+    }
+
+    private <T> T exchange(Exchange exchange, HttpMethod method, URI url, JsonCodec.Binding responseBinding)
+        throws IOException
+    {
+        try
+        {
+            T result = getRestTemplate().execute(url, method, exchange, new JsonResponseExtractor<T>(exchange, responseBinding));
+            exchange.completed(null);
+            return result;
+        }
+        catch(ResourceAccessException e)
+        {
+            // RestTemplate wraps IOExceptions thrown while extracting the response; surface mapping errors
+            // as they were before
+            if(e.getCause() instanceof JsonProcessingException)
+            {
+                exchange.completed(e.getCause());
+                throw (JsonProcessingException)e.getCause();
+            }
+            exchange.completed(e);
+            throw e;
+        }
+        catch(RuntimeException e)
+        {
+            exchange.completed(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Add credentials to a request. Called before the request is sent and before a connection is taken from the
+     * pool, so implementations may make requests of their own, e.g. to log in.
+     */
+    protected void authenticate(HttpHeaders requestHeaders) throws IOException
+    {
+    }
+
+    /**
+     * Called when the server rejects the credentials of a request with a 401.
+     *
+     * @param authorization the Authorization header the request was sent with, as set by
+     *                      {@link #authenticate(HttpHeaders)}
+     */
+    protected void unauthorized(String authorization)
+    {
+    }
+
+    /**
+     * @return the Authorization that this template's CMIS sessions authenticate with, passed to
+     *         {@link #unauthorized(String)} when a CMIS call is rejected, or null if there is nothing to forget
+     */
+    protected String getCMISAuthorization()
+    {
+        return null;
+    }
+
+    private void cmisFailed(Throwable e)
+    {
+        if(e instanceof CmisUnauthorizedException)
+        {
+            String authorization = getCMISAuthorization();
+            if(authorization != null)
+            {
+                unauthorized(authorization);
+            }
+        }
+    }
+
+    /**
+     * @return headers carrying this template's credentials, for requests that are not made through
+     *         {@link #exchange(String, HttpMethod, URI, Object, JsonCodec.Binding)}
+     */
+    protected HttpHeaders authenticatedHeaders() throws IOException
+    {
+        HttpHeaders requestHeaders = new HttpHeaders();
+        authenticate(requestHeaders);
+        return requestHeaders;
+    }
+
+    /**
+     * Log in to the repository.
+     * 
+     * @return the ticket, which can be used in place of a password
+     */
+    protected String login(String username, String password) throws IOException
+    {
+        Map<String, String> credentials = new HashMap<String, String>();
+        credentials.put("username", username);
+        credentials.put("password", password);
+
+        JsonNode response = exchange("login", HttpMethod.POST, LOGIN_URL.expand(), credentials,
+                codec.binding(JsonNode.class));
+        String ticket = response.path("data").path("ticket").getTextValue();
+        if(ticket == null)
+        {
+            throw new AlfrescoException("No ticket in login response for " + username);
+        }
+        return ticket;
+    }
+
+    /**
+     * Execute a request whose response body is not needed, e.g. a PUT or DELETE.
+     */
+    private void send(String operation, HttpMethod method, URI url, Object body)
+    {
+        try
+        {
+            exchange(operation, method, url, body, null);
+        }
+        catch(IOException e)
+        {
+            throw new ResourceAccessException("I/O error: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Time a call that does not go through {@link #exchange(String, HttpMethod, URI, Object, JsonCodec.Binding)}, such as a
+     * CMIS call.
+     */
+    protected <T> T record(String operation, Supplier<T> call)
+    {
+        long start = System.nanoTime();
+        try
+        {
+            T result = call.get();
+            metrics.record(operation, System.nanoTime() - start, 0, -1, -1, 0, null);
+            return result;
+        }
+        catch(RuntimeException e)
+        {
+            metrics.record(operation, System.nanoTime() - start, 0, -1, -1, statusOf(e), e);
+            cmisFailed(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Time a CMIS call made on an endpoint chosen by the binding policy, and tell the policy how it went.
+     */
+    private <T> T record(String operation, CMISBindingPolicy policy, CMISEndpoint endpoint, Supplier<T> call,
+            ToIntFunction<T> items)
+    {
+        long start = System.nanoTime();
+        T result;
+        try
+        {
+            result = record(operation, call);
+        }
+        catch(RuntimeException e)
+        {
+            policy.record(operation, endpoint, System.nanoTime() - start, 0, e);
+            throw e;
+        }
+        policy.record(operation, endpoint, System.nanoTime() - start, items.applyAsInt(result), null);
+        return result;
+    }
+
+    private static int statusOf(Throwable e)
+    {
+        HttpStatus status = null;
+        if(e instanceof AlfrescoException)
+        {
+            status = ((AlfrescoException)e).getStatusCode();
+        }
+        else if(e instanceof HttpStatusCodeException)
+        {
+            status = ((HttpStatusCodeException)e).getStatusCode();
+        }
+        return status != null ? status.value() : 0;
+    }
+
+    /**
+     * Writes the JSON request body, if any, straight to the request stream and tracks the timings and sizes of
+     * one call for the metrics.
+     */
+    private class Exchange implements RequestCallback
+    {
+        private final String operation;
+        private final Object body;
+        private final long start = System.nanoTime();
+        private long sentAt;
+        private long receivedAt;
+        private long requestBytes = -1;
+        private CountingInputStream responseBody;
+        private int status;
+        private String authorization;
+        private ConditionalGetCache.Entry cached;
+        private String etag;
+        private String lastModified;
+
+        Exchange(String operation, Object body)
+        {
+            this.operation = operation;
+            this.body = body;
+        }
+
+        public void doWithRequest(ClientHttpRequest request) throws IOException
+        {
+            HttpHeaders requestHeaders = request.getHeaders();
+            authenticate(requestHeaders);
+            authorization = requestHeaders.getFirst("Authorization");
+            requestHeaders.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+            if(cached != null)
+            {
+                if(cached.etag != null)
+                {
+                    requestHeaders.set("If-None-Match", cached.etag);
+                }
+                if(cached.lastModified != null)
+                {
+                    requestHeaders.set("If-Modified-Since", cached.lastModified);
+                }
+            }
+            if(body != null)
+            {
+                requestHeaders.putAll(headers);
+                requestHeaders.setContentType(MediaType.APPLICATION_JSON);
+                CountingOutputStream out = new CountingOutputStream(request.getBody());
+                codec.binding(body.getClass()).write(out, body);
+                requestBytes = out.count;
+            }
+            else
+            {
+                requestBytes = 0;
+            }
+            sentAt = System.nanoTime();
+        }
+
+        InputStream received(ClientHttpResponse response) throws IOException
+        {
+            receivedAt = System.nanoTime();
+            status = response.getStatusCode().value();
+            HttpHeaders responseHeaders = response.getHeaders();
+            etag = responseHeaders.getETag();
+            lastModified = responseHeaders.getFirst("Last-Modified");
+            responseBody = new CountingInputStream(response.getBody());
+            return responseBody;
+        }
+
+        long responseBytes()
+        {
+            return responseBody != null ? responseBody.count : -1;
+        }
+
+        void completed(Throwable failure)
+        {
+            long end = System.nanoTime();
+            if(failure != null && status == 0)
+            {
+                status = statusOf(failure);
+            }
+            if(sentAt != 0 && receivedAt == 0)
+            {
+                // failed before a response could be bound, e.g. on an error status
+                receivedAt = end;
+            }
+            long serverNanos = sentAt != 0 ? receivedAt - sentAt : 0;
+            metrics.record(operation, end - start, serverNanos, requestBytes, responseBytes(), status, failure);
+            if(status == HttpStatus.UNAUTHORIZED.value() && authorization != null)
+            {
+                unauthorized(authorization);
+            }
+        }
+    }
+
+    private class JsonResponseExtractor<T> implements ResponseExtractor<T>
+    {
+        private final Exchange exchange;
+        private final JsonCodec.Binding responseBinding;
+
+        JsonResponseExtractor(Exchange exchange, JsonCodec.Binding responseBinding)
+        {
+            this.exchange = exchange;
+            this.responseBinding = responseBinding;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T extractData(ClientHttpResponse response) throws IOException
+        {
+            InputStream body = exchange.received(response);
+            if(exchange.cached != null && exchange.status == HttpStatus.NOT_MODIFIED.value())
+            {
+                return (T)exchange.cached.value;
+            }
+            if(responseBinding == null)
+            {
+                return null;
+            }
+            if(log.isDebugEnabled())
+            {
+                byte[] b = FileCopyUtils.copyToByteArray(body);
+                log.debug(exchange.operation + ": " + new String(b, "UTF-8"));
+                body = new ByteArrayInputStream(b);
+            }
+            return responseBinding.<T>read(body);
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream
+    {
+        private long count;
+
+        CountingInputStream(InputStream in)
+        {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = super.read();
+            if(b != -1)
+            {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int n = super.read(b, off, len);
+            if(n > 0)
+            {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream
+    {
+        private long count;
+
+        CountingOutputStream(OutputStream out)
+        {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            out.write(b, off, len);
+            count += len;
+        }
     }
 
     public Network getHomeNetwork()
@@ -1616,17 +2411,49 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Network homeNetwork = null;
-        AlfrescoList<Network> response = getNetworks();
+        Memo<Network> memo = homeNetwork;
+        if (memo == null || memo.isExpired())
+        {
+            identityLock.lock();
+            try
+            {
+                memo = homeNetwork;
+                if (memo == null || memo.isExpired())
+                {
+                    // getNetworks also remembers the home network, unless the TTL is 0
+                    return findHomeNetwork(getNetworks());
+                }
+            }
+            finally
+            {
+                identityLock.unlock();
+            }
+        }
+        return memo.value;
+    }
 
-        for (Iterator<Network> iterator = response.getEntries().iterator(); iterator.hasNext();)
+    private void rememberHomeNetwork(AlfrescoList<Network> networks)
+    {
+        Network network = findHomeNetwork(networks);
+        if (network != null && identityTtlNanos > 0)
         {
-            Network network = iterator.next();
+            homeNetwork = new Memo<Network>(network, identityTtlNanos);
+        }
+    }
 
-            if (network.isHomeNetwork())
-                homeNetwork = network;
+    private static Network findHomeNetwork(AlfrescoList<Network> networks)
+    {
+        if (networks != null)
+        {
+            for (Network network : networks.getEntryList())
+            {
+                if (network.isHomeNetwork())
+                {
+                    return network;
+                }
+            }
         }
-        return homeNetwork;
+        return null;
     }
 
 
@@ -1635,7 +2462,54 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {       
-        return getPerson(getHomeNetwork().getId(), "-me-");
+        Memo<Person> memo = currentUser;
+        if (memo == null || memo.isExpired())
+        {
+            identityLock.lock();
+            try
+            {
+                memo = currentUser;
+                if (memo == null || memo.isExpired())
+                {
+                    memo = new Memo<Person>(getPerson(getHomeNetwork().getId(), "-me-"), identityTtlNanos);
+                    if (identityTtlNanos > 0)
+                    {
+                        currentUser = memo;
+                    }
+                }
+            }
+            finally
+            {
+                identityLock.unlock();
+            }
+        }
+        return memo.value;
+    }
+
+    public void refreshCurrentUser()
+    {
+        homeNetwork = null;
+        currentUser = null;
+    }
+
+    /**
+     * A value remembered until it expires.
+     */
+    private static class Memo<T>
+    {
+        private final T value;
+        private final long expiresAt;
+
+        Memo(T value, long ttlNanos)
+        {
+            this.value = value;
+            this.expiresAt = System.nanoTime() + ttlNanos;
+        }
+
+        boolean isExpired()
+        {
+            return System.nanoTime() - expiresAt >= 0;
+        }
     }
 
     /**
@@ -1658,11 +2532,6 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
     }
     
     
-    private JavaType registrationResponseType(Class<?> type)
-    {
-        return mapper.getTypeFactory().constructParametricType(Response.class, type);
-    }
-    
 	public UserRegistration registerUser(String email, String firstName, String lastName, String password, String source, String sourceUrl)
 			throws IOException
 	{
@@ -1672,8 +2541,6 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 			throw new RuntimeException("Invalid user id");
 		}
 		String networkId = email.substring(idx + 1);
-		Map<String, String> vars = new HashMap<String, String>();
-		vars.put(TemplateParams.NETWORK, networkId);
 
 		UserRegistrationRequest userRegistration = new UserRegistrationRequest();
 		userRegistration.setEmail(email);
@@ -1694,17 +2561,13 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 
 }
 		 */
-		String response = getRestTemplate().postForObject(REGISTER_USER_URL.getUrl(), new HttpEntity<UserRegistrationRequest>(userRegistration, headers), String.class, vars);
-		log.debug("registerUser: " + response);
-		UserRegistrationResponse r = mapper.readValue(response, UserRegistrationResponse.class);
+		UserRegistrationResponse r = postForObject("registerUser", REGISTER_USER_URL.expand(), userRegistration, UserRegistrationResponse.class);
 		return r.getUserRegistration();
 	}
 
 	public UserActivationResponse activateUser(String id, String key, String email, String firstName, String lastName, String password)
 			throws IOException
 	{
-		Map<String, String> vars = new HashMap<String, String>();
-
 		UserActivationRequest userActivation = new UserActivationRequest();
 		userActivation.setEmail(email);
 		userActivation.setFirstName(firstName);
@@ -1713,9 +2576,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 		userActivation.setId(id);
 		userActivation.setKey(key);
 
-		String response = getRestTemplate().postForObject(ACTIVATE_USER_URL.getUrl(), new HttpEntity<UserActivationRequest>(userActivation, headers), String.class, vars);
-		log.debug("activateUser: " + response);		
-		UserActivationResponse r = mapper.readValue(response, UserActivationResponse.class);
+		UserActivationResponse r = postForObject("activateUser", ACTIVATE_USER_URL.expand(), userActivation, UserActivationResponse.class);
 		return r;
 
 	}
@@ -1903,8 +2764,6 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 	{
         RestTemplate rest = getRestTemplate();
 
-		Map<String, String> vars = new HashMap<String, String>();
-		vars.put(TemplateParams.NETWORK, networkId);
 
 		LegacySite _site = new LegacySite();
 		_site.setShortName(siteId);
@@ -1913,31 +2772,36 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 		_site.setDescription(description);
         _site.setVisibility(visibility.toString());
 
-		String response = rest.postForObject(CREATE_SITE_URL.getUrl(networkId), new HttpEntity<LegacySite>(_site, headers), String.class, vars);
-		log.debug("createSite: " + response);
-		LegacySite resp = mapper.readValue(response, LegacySite.class);
+		LegacySite resp;
+		try
+		{
+			resp = postForObject("createSite", CREATE_SITE_URL.expand(), _site, LegacySite.class);
+		}
+		finally
+		{
+			invalidateSite(networkId, siteId);
+		}
 		
 		Map<String, String> parameters = new HashMap<String, String>();
 		parameters.put("s", "sitestore");
 
 		String body = new String(content).replaceAll("<shortName>", siteId);
-		HttpHeaders headers = new HttpHeaders();
+		HttpHeaders headers = authenticatedHeaders();
 //		headers.add("Content-Type", "application/octet-stream");
 //		headers.add("Expect", "100-continue");
 		HttpEntity<String> post = new HttpEntity<String>(body, headers);
-		response = rest.postForObject(ADM_CREATE_MULTI_URL.getUrl(networkId) + generateQueryString(parameters), post, String.class, vars);
+		String response = record("createSitePages", () -> rest.postForObject(ADM_CREATE_MULTI_URL.expand(parameters), post, String.class));
 
-        vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, networkId);
-        String url = ACCESS_DOC_LIB_URL.getUrl(networkId).replace("<siteId>", siteId);
+        URI url = ACCESS_DOC_LIB_URL.expand(siteId);
+        HttpEntity<Void> get = new HttpEntity<Void>(authenticatedHeaders());
 		try
 		{
-	        response = rest.getForObject(url, String.class, vars);
+	        response = record("accessDocLib", () -> rest.exchange(url, HttpMethod.GET, get, String.class).getBody());
 		}
 		catch(AlfrescoException e)
 		{
 			// sometimes get a 410, so try again
-			response = rest.getForObject(url, String.class, vars);
+			response = record("accessDocLib", () -> rest.exchange(url, HttpMethod.GET, get, String.class).getBody());
 		}
 
 		System.out.println("Create site " + siteId + ":" + url + ":" + response);
@@ -1947,65 +2811,67 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 	
 	public void removeSite(String networkId, String siteId)
 	{
-		Map<String, String> vars = new HashMap<String, String>();
-		vars.put(TemplateParams.NETWORK, networkId);
-        vars.put("siteId", siteId);
-
-        getRestTemplate().delete(DELETE_SITE_URL.getUrl(networkId), vars);
+		try
+		{
+			send("removeSite", HttpMethod.DELETE, DELETE_SITE_URL.expand(siteId), null);
+		}
+		finally
+		{
+			invalidateSite(networkId, siteId);
+		}
 	}
 
 	public ObjectId createRelationship(String networkId, String sourceObjectId, String targetObjectId)
 	{
-		CMISEndpoint cmisEndpoint = new CMISEndpoint(BindingType.ATOMPUB, CmisVersion.CMIS_1_0);
+		CMISBindingPolicy policy = cmisBindingPolicy;
+		CMISEndpoint cmisEndpoint = policy.select("createRelationship");
 		Session session = getCMISSession(networkId, cmisEndpoint);
 
 		Map<String, Serializable> relProps = new HashMap<String, Serializable>(); 
 		relProps.put("cmis:sourceId", sourceObjectId); 
 		relProps.put("cmis:targetId", targetObjectId); 
 		relProps.put("cmis:objectTypeId", "cmis:relationship"); 
-		ObjectId res = session.createRelationship(relProps);
+		ObjectId res = record("createRelationship", policy, cmisEndpoint, () -> session.createRelationship(relProps),
+				id -> 1);
 		return res;
 	}
 
 	public java.util.List<Tree<FileableCmisObject>> getDescendants(String networkId, String folderId, Integer depth, IncludeRelationships includeRelationships,
 			Boolean includeAcls, Set<String> propertyFilter, Boolean includePolicies)
 	{
-		CMISEndpoint cmisEndpoint = new CMISEndpoint(BindingType.ATOMPUB, CmisVersion.CMIS_1_0);
+		CMISBindingPolicy policy = cmisBindingPolicy;
+		CMISEndpoint cmisEndpoint = policy.select("getDescendants");
 		Session session = getCMISSession(networkId, cmisEndpoint);
+		OperationContext context = getCmisListingContext(includeRelationships, includeAcls, propertyFilter, includePolicies);
 
-		CmisObject o = session.getObject(folderId);
-		if(o instanceof Folder)
-		{
-			Folder f = (Folder)o;
-			java.util.List<Tree<FileableCmisObject>> ret = f.getDescendants(depth, cmisOperationContext);
-			return ret;
-		}
-		else
-		{
-			throw new IllegalArgumentException("Folder does not exist or is not a folder");
-		}
+		return record("getDescendants", policy, cmisEndpoint,
+				() -> CMISListings.getDescendants(session, folderId, depth, context), CMISListings::size);
 	}
 
 	public ItemIterable<CmisObject> getChildren(String networkId, String folderId, int skipCount, int maxItems, IncludeRelationships includeRelationships,
 			Boolean includeAcls, Set<String> propertyFilter, Boolean includePolicies)
 	{
-		CMISEndpoint cmisEndpoint = new CMISEndpoint(BindingType.ATOMPUB, CmisVersion.CMIS_1_0);
+		CMISBindingPolicy policy = cmisBindingPolicy;
+		CMISEndpoint cmisEndpoint = policy.select("getChildren");
 		Session session = getCMISSession(networkId, cmisEndpoint);
+		OperationContext context = getCmisListingContext(includeRelationships, includeAcls, propertyFilter, includePolicies);
 
-		CmisObject o = session.getObject(folderId);
-		if(o instanceof Folder)
+		// later batches of a page larger than the context's are fetched as the caller reads them, and timed then
+		return CMISListings.getChildren(session, folderId, context, skipCount, maxItems, (nanos, items, failure) ->
 		{
-			Folder f = (Folder)o;
+			metrics.record("getChildren", nanos, 0, -1, -1, failure != null ? statusOf(failure) : 0, failure);
+			policy.record("getChildren", cmisEndpoint, nanos, items, failure);
+			cmisFailed(failure);
+		});
+	}
 
-			ItemIterable<CmisObject> res = f.getChildren(cmisOperationContext);
-			res.skipTo(skipCount);
-			ItemIterable<CmisObject> ret = res.getPage(maxItems);
-			return ret;
-		}
-		else
-		{
-			throw new IllegalArgumentException("Folder does not exist or is not a folder");
-		}
+	public FolderTreeWalker walkFolderTree(String networkId, String folderId, int depth, int pageSize, int maxInFlight,
+			Set<String> propertyFilter, Consumer<? super CmisObject> consumer)
+	{
+		FolderTreeWalker walker = new FolderTreeWalker(
+				(id, skipCount, maxItems) -> getChildren(networkId, id, skipCount, maxItems, null, null, propertyFilter, null),
+				getFolderWalkPool(), folderId, depth, pageSize, maxInFlight, consumer);
+		return walker.start();
 	}
 	
 //	public List<Person> getPeople() throws PublicApiException
@@ -2037,49 +2903,15 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 //        }
 //	}
 
-	/**
-	 * Build QueryString
-	 * 
-	 * @param parameters
-	 * @return
-	 */
-	private String generateQueryString(Map<String, String> parameters)
-	{
-		StringBuilder queryString = new StringBuilder();
-		if (parameters != null && parameters.size() > 0)
-		{
-			queryString.append("?");
-
-			Iterator<java.util.Map.Entry<String, String>> entries = parameters.entrySet().iterator();
-			while (entries.hasNext())
-			{
-				java.util.Map.Entry<String, String> thisEntry = entries.next();
-				queryString.append(thisEntry.getKey()).append("=").append(thisEntry.getValue());
-				if (entries.hasNext())
-				{
-					queryString.append("&");
-				}
-			}
-		}
-
-		log.debug("queryString: " + queryString.toString());
-		return queryString.toString();
-	}
-
 	public Subscriber createSubscriber(String networkId)
 			throws JsonParseException,
 			JsonMappingException,
 			IOException
 	{
-		Map<String, String> vars = new HashMap<String, String>();
-		vars.put(TemplateParams.NETWORK, networkId);
-
 		Subscriber subscriber = new Subscriber();
 
 		//            String response = getRestTemplate().postForObject(NODE_COMMENTS_URL.getUrl(network), new HttpEntity<Comment>(_comment, headers), String.class, vars);
-		String response = getRestTemplate().postForObject(SUBSCRIBERS_PATH.getUrl(), new HttpEntity<Subscriber>(subscriber, headers), String.class, vars);
-		log.debug("createSubscriber: " + response);
-		Response<Subscriber> c = mapper.readValue(response, entryResponseType(Subscriber.class));
+		Response<Subscriber> c = postForResponse("createSubscriber", SUBSCRIBERS_PATH.expand(networkId), subscriber, Subscriber.class);
 		Subscriber ret = c.getEntry();
 		return ret;
 	}
@@ -2089,15 +2921,9 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
                 JsonMappingException,
                 IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.SUBSCRIBER_ID, subscriberId);
-        
         Subscription subscription = new Subscription(subscriberId, targetPath, subscriptionType);
 
-        String response = getRestTemplate().postForObject(SUBSCRIPTIONS_PATH.getUrl(), new HttpEntity<Subscription>(subscription, headers), String.class, vars);
-        log.debug("createSubscription: " + response);
-        Response<Subscription> c = mapper.readValue(response, entryResponseType(Subscription.class));
+        Response<Subscription> c = postForResponse("createSubscription", SUBSCRIPTIONS_PATH.expand(network, subscriberId), subscription, Subscription.class);
         Subscription ret = c.getEntry();
         return ret;
     }
@@ -2107,11 +2933,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 			JsonMappingException,
 			IOException
 	{
-		Map<String, String> vars = new HashMap<String, String>();
-		vars.put(TemplateParams.NETWORK, network);
-		vars.put(TemplateParams.SUBSCRIBER_ID, subscriberId);
-
-        getRestTemplate().delete(SUBSCRIBER_PATH.getUrl(network), vars);
+        send("removeSubscriber", HttpMethod.DELETE, SUBSCRIBER_PATH.expand(network, subscriberId), null);
 	}
 
     public void removeSubscription(String network, String subscriberId, String subscriptionId)
@@ -2119,12 +2941,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
                 JsonMappingException,
                 IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, network);
-        vars.put(TemplateParams.SUBSCRIBER_ID, subscriberId);
-        vars.put(TemplateParams.SUBSCRIPTION_ID, subscriptionId);
-
-        getRestTemplate().delete(SUBSCRIPTION_PATH.getUrl(network), vars);
+        send("removeSubscription", HttpMethod.DELETE, SUBSCRIPTION_PATH.expand(network, subscriberId, subscriptionId), null);
     }
 
     public StartSyncResponse start(StartSyncRequest req, String networkId, String subscriberId, String subscriptionsQuery)
@@ -2132,14 +2949,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, networkId);
-        vars.put(TemplateParams.SUBSCRIBER_ID, subscriberId);
-        vars.put(TemplateParams.SUBSCRIPTION_ID, subscriptionsQuery);
-
-        String response = getRestTemplate().postForObject(SYNCS_PATH.getUrl(networkId), new HttpEntity<StartSyncRequest>(req, headers), String.class, vars);
-        log.debug("startSync: " + response);
-        Response<StartSyncResponse> c = mapper.readValue(response, entryResponseType(StartSyncResponse.class));
+        Response<StartSyncResponse> c = postForResponse("startSync", SYNCS_PATH.expand(networkId, subscriberId, subscriptionsQuery), req, StartSyncResponse.class);
         StartSyncResponse ret = c.getEntry();
         return ret;
     }
@@ -2149,14 +2959,7 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, networkId);
-        vars.put(TemplateParams.SUBSCRIBER_ID, subscriberId);
-        vars.put(TemplateParams.SUBSCRIPTION_ID, subscriptionsQuery);
-
-        String response = getRestTemplate().getForObject(SYNC_PATH.getUrl(networkId), String.class, vars);
-        log.debug("getSync: " + response);
-        Response<GetChangesResponse> s = mapper.readValue(response, entryResponseType(GetChangesResponse.class));
+        Response<GetChangesResponse> s = getForResponse("getSync", SYNC_PATH.expand(networkId, subscriberId, subscriptionsQuery, syncId), GetChangesResponse.class);
         return s.getEntry();
     }
 
@@ -2165,32 +2968,58 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
             JsonMappingException,
             IOException
     {
-        Map<String, String> vars = new HashMap<String, String>();
-        vars.put(TemplateParams.NETWORK, networkId);
-        vars.put("networkId", networkId);
-        vars.put("subscriberId", subscriberId);
-        vars.put("subscriptionId", subscriptionsQuery);
+        send("endSync", HttpMethod.DELETE, SYNC_PATH.expand(networkId, subscriberId, subscriptionsQuery, syncId), null);
+    }
+
+    public <T> PageIterator<T> iterate(PageSource<T> source, Map<String, String> parameters)
+    {
+        return new PageIterator<T>(source, parameters, pageSize, prefetchPages > 0 ? getPageExecutor() : null, prefetchPages);
+    }
 
-        getRestTemplate().delete(SYNC_PATH.getUrl(networkId), vars);
+    public PageIterator<Site> iterateSites(final String network, Map<String, String> parameters)
+    {
+        return iterate(pageParameters -> getSites(network, pageParameters), parameters);
     }
 
-	private static class TemplateParams
-	{
-		public final static String NETWORK    = "network";
-		public final static String SITE       = "site";
-		public final static String CONTAINER  = "container";
-		public final static String PREFERENCE = "preference";
-		public final static String TAG        = "tag";
-		public final static String RATING     = "rating";
-		public final static String COMMENT    = "comment";
-		public final static String NODE       = "node";
-		public final static String PERSON     = "person";
-		public final static String MEMBER     = "member";
-		public final static String FAVOURITE  = "favourite";
-		public final static String TARGET_GUID  = "targetGuid";
-		public final static String SUBSCRIBER_ID = "subscriberId";
-		public final static String SUBSCRIPTION_ID = "subscriptionId";
-	}
+    public PageIterator<Site> iterateSites(final String network, final String person, Map<String, String> parameters)
+    {
+        return iterate(pageParameters -> getSites(network, person, pageParameters), parameters);
+    }
+
+    public PageIterator<Member> iterateMembers(final String network, final String site, Map<String, String> parameters)
+    {
+        return iterate(pageParameters -> getMembers(network, site, pageParameters), parameters);
+    }
+
+    public PageIterator<Tag> iterateTags(final String network, Map<String, String> parameters)
+    {
+        return iterate(pageParameters -> getTags(network, pageParameters), parameters);
+    }
+
+    private PageIterator<Tag> iterateTags(String network, int skipCount)
+    {
+        return iterateTags(network, Collections.singletonMap(Pagination.SKIPCOUNT, Integer.toString(skipCount)));
+    }
+
+    public PageIterator<Comment> iterateComments(final String network, final String node, Map<String, String> parameters)
+    {
+        return iterate(pageParameters -> getComments(network, node, pageParameters), parameters);
+    }
+
+    public PageIterator<Activity> iterateActivities(final String network, final String person, Map<String, String> parameters)
+    {
+        return iterate(pageParameters -> getActivities(network, person, pageParameters), parameters);
+    }
+
+    public PageIterator<Favourite> iterateFavorites(final String network, final String person, Map<String, String> parameters)
+    {
+        return iterate(pageParameters -> getFavorites(network, person, pageParameters), parameters);
+    }
+
+    public PageIterator<Preference> iteratePreferences(final String network, final String person, Map<String, String> parameters)
+    {
+        return iterate(pageParameters -> getPreferences(network, person, pageParameters), parameters);
+    }
 
 	public static class QueryParams
 	{
@@ -2201,17 +3030,50 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 	{
 		String getUrl();
 		String getUrl(String networkId);
+
+		/**
+		 * Expand the url from positional values, one per distinct template variable in order of first appearance.
+		 */
+		URI expand(String... values);
+
+		/**
+		 * Expand the url from positional values and append the given query parameters.
+		 */
+		URI expand(Map<String, String> parameters, String... values);
 	}
 	
 	protected abstract class AbstractPublicApiNetworkUrl implements PublicApiUrl
 	{
 		protected String baseUrl;
 		protected String url;
+		protected final String prefix;
+		protected final CompiledUriTemplate template;
 
-		AbstractPublicApiNetworkUrl(String baseUrl, String url)
+		AbstractPublicApiNetworkUrl(String baseUrl, String servletName, String url)
 		{
 			this.baseUrl = baseUrl;
 			this.url = url;
+			this.prefix = baseUrl + servletName + "/";
+			this.template = CompiledUriTemplate.compile(url);
+		}
+
+		public String getUrl()
+		{
+			return prefix + url;
+		}
+
+		public URI expand(String... values)
+		{
+			return expand(null, values);
+		}
+
+		public URI expand(Map<String, String> parameters, String... values)
+		{
+			StringBuilder sb = urlBuilder();
+			sb.append(prefix);
+			template.expand(sb, values);
+			CompiledUriTemplate.appendQueryString(sb, parameters);
+			return URI.create(sb.toString());
 		}
 	}
 
@@ -2219,17 +3081,15 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 	{
 		PublicApiNetworkUrl(String baseUrl, String url)
 		{
-			super(baseUrl, url);
-		}
-
-		public String getUrl()
-		{
-			return baseUrl + publicApiServletName + "/" + url;
+			super(baseUrl, publicApiServletName, url);
 		}
 
 		public String getUrl(String networkId)
 		{
-			return baseUrl + publicApiServletName + "/" + url.replaceAll("\\{network\\}", networkId);
+			StringBuilder sb = urlBuilder();
+			sb.append(prefix);
+			template.expandVariable(sb, "network", networkId);
+			return sb.toString();
 		}
 	}
 	
@@ -2237,18 +3097,28 @@ public abstract class AbstractAlfrescoTemplate implements Alfresco
 	{
 		public PublicApiServiceUrl(String baseUrl, String url)
 		{
-			super(baseUrl, url);
+			super(baseUrl, serviceServletName, url);
 		}
 
-		public String getUrl()
+		public String getUrl(String networkId)
 		{
-			return baseUrl + serviceServletName + "/" + url;
+			// networkId ignored
+			return getUrl();
 		}
+	}
 
-		public String getUrl(String networkId)
+	/**
+	 * @return a cleared, per-thread buffer for building urls
+	 */
+	private static StringBuilder urlBuilder()
+	{
+		StringBuilder sb = urlBuilders.get();
+		if(sb.capacity() > MAX_URL_BUILDER_CAPACITY)
 		{
-			// networkId ignored
-			return baseUrl + serviceServletName + "/" + url;
+			sb = new StringBuilder(256);
+			urlBuilders.set(sb);
 		}
+		sb.setLength(0);
+		return sb;
 	}
 }
@@ -0,0 +1,231 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.social.alfresco.api.Alfresco;
+import org.springframework.social.alfresco.api.CMISEndpoint;
+
+/**
+ * Chooses, for each operation separately, the candidate endpoint whose calls have cost least so far.
+ *
+ * The cost of a call is its time divided by the number of objects it returned plus one, so that listings of
+ * different sizes can be compared, and a failed call costs {@link #FAILURE_PENALTY} times its time. Each
+ * candidate's cost is an exponentially weighted moving average of its calls.
+ *
+ * The first calls of an operation go to the candidates in turn until each has made <tt>warmupCalls</tt> of them.
+ * After that every call goes to the cheapest candidate, except every <tt>exploreInterval</tt>th, which goes to the
+ * candidates in turn so that their costs stay current and a change in the server or network is noticed.
+ */
+public class AdaptiveCMISBindingPolicy implements CMISBindingPolicy
+{
+	public static final List<CMISEndpoint> DEFAULT_CANDIDATES = Collections.unmodifiableList(Arrays.asList(
+			Alfresco.cmisAtom10Endpoint, Alfresco.cmisAtom11Endpoint, Alfresco.cmisBrowser11Endpoint));
+
+	public static final int DEFAULT_WARMUP_CALLS = 5;
+	public static final int DEFAULT_EXPLORE_INTERVAL = 50;
+	public static final double DEFAULT_SMOOTHING = 0.2;
+
+	public static final int FAILURE_PENALTY = 10;
+
+	private final CMISEndpoint[] candidates;
+	private final int warmupCalls;
+	private final int exploreInterval;
+	private final double smoothing;
+	private final ConcurrentMap<String, Selection> selections = new ConcurrentHashMap<String, Selection>();
+
+	public AdaptiveCMISBindingPolicy()
+	{
+		this(DEFAULT_CANDIDATES, DEFAULT_WARMUP_CALLS, DEFAULT_EXPLORE_INTERVAL, DEFAULT_SMOOTHING);
+	}
+
+	/**
+	 * @param candidates      the endpoints to choose from
+	 * @param warmupCalls     the number of calls each candidate makes before the cheapest is preferred
+	 * @param exploreInterval one call in how many goes to the candidates in turn once warmed up, or 0 for none
+	 * @param smoothing       the weight of a new call in a candidate's cost, between 0 (exclusive) and 1
+	 */
+	public AdaptiveCMISBindingPolicy(List<CMISEndpoint> candidates, int warmupCalls, int exploreInterval,
+			double smoothing)
+	{
+		if(candidates == null || candidates.isEmpty())
+		{
+			throw new IllegalArgumentException("At least one candidate endpoint is required");
+		}
+		if(warmupCalls < 1 || exploreInterval < 0)
+		{
+			throw new IllegalArgumentException("warmupCalls must be positive and exploreInterval not negative");
+		}
+		if(!(smoothing > 0 && smoothing <= 1))
+		{
+			throw new IllegalArgumentException("Smoothing must be in (0, 1]: " + smoothing);
+		}
+		this.candidates = candidates.toArray(new CMISEndpoint[candidates.size()]);
+		this.warmupCalls = warmupCalls;
+		this.exploreInterval = exploreInterval;
+		this.smoothing = smoothing;
+	}
+
+	@Override
+	public CMISEndpoint select(String operation)
+	{
+		return selection(operation).select();
+	}
+
+	@Override
+	public void record(String operation, CMISEndpoint endpoint, long nanos, int items, Throwable failure)
+	{
+		int index = indexOf(endpoint);
+		if(index < 0)
+		{
+			return;
+		}
+		double cost = (double)nanos / (Math.max(items, 0) + 1);
+		if(failure != null)
+		{
+			cost *= FAILURE_PENALTY;
+		}
+		selection(operation).estimates[index].sample(cost, smoothing);
+	}
+
+	/**
+	 * @return the endpoint the operation's calls go to, apart from warm-up and exploration calls
+	 */
+	public CMISEndpoint getPreferred(String operation)
+	{
+		return candidates[selection(operation).cheapest()];
+	}
+
+	/**
+	 * @return the cost of the operation's calls on the endpoint, in nanoseconds per object returned, or
+	 *         {@link Double#NaN} if none have been made
+	 */
+	public double getCost(String operation, CMISEndpoint endpoint)
+	{
+		int index = indexOf(endpoint);
+		return index >= 0 ? selection(operation).estimates[index].cost() : Double.NaN;
+	}
+
+	public List<CMISEndpoint> getCandidates()
+	{
+		return Collections.unmodifiableList(Arrays.asList(candidates));
+	}
+
+	private int indexOf(CMISEndpoint endpoint)
+	{
+		for(int i = 0; i < candidates.length; i++)
+		{
+			if(candidates[i].equals(endpoint))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private Selection selection(String operation)
+	{
+		Selection selection = selections.get(operation);
+		if(selection == null)
+		{
+			Selection created = new Selection();
+			selection = selections.putIfAbsent(operation, created);
+			if(selection == null)
+			{
+				selection = created;
+			}
+		}
+		return selection;
+	}
+
+	@Override
+	public String toString()
+	{
+		List<String> preferred = new ArrayList<String>();
+		for(String operation : selections.keySet())
+		{
+			preferred.add(operation + "=" + getPreferred(operation));
+		}
+		return "AdaptiveCMISBindingPolicy [preferred=" + preferred + "]";
+	}
+
+	/**
+	 * The calls and candidate costs of one operation.
+	 */
+	private final class Selection
+	{
+		private final AtomicLong calls = new AtomicLong();
+		private final Estimate[] estimates = new Estimate[candidates.length];
+
+		Selection()
+		{
+			for(int i = 0; i < estimates.length; i++)
+			{
+				estimates[i] = new Estimate();
+			}
+		}
+
+		CMISEndpoint select()
+		{
+			long call = calls.getAndIncrement();
+			for(Estimate estimate : estimates)
+			{
+				if(estimate.samples() < warmupCalls)
+				{
+					return candidates[(int)(call % candidates.length)];
+				}
+			}
+			if(exploreInterval > 0 && call % exploreInterval == 0)
+			{
+				return candidates[(int)((call / exploreInterval) % candidates.length)];
+			}
+			return candidates[cheapest()];
+		}
+
+		int cheapest()
+		{
+			int cheapest = 0;
+			double lowest = Double.MAX_VALUE;
+			for(int i = 0; i < estimates.length; i++)
+			{
+				double cost = estimates[i].cost();
+				if(cost < lowest)
+				{
+					lowest = cost;
+					cheapest = i;
+				}
+			}
+			return cheapest;
+		}
+	}
+
+	/**
+	 * The moving average cost of one candidate.
+	 */
+	private static final class Estimate
+	{
+		private long samples;
+		private double cost = Double.NaN;
+
+		synchronized void sample(double sample, double smoothing)
+		{
+			cost = samples == 0 ? sample : cost + smoothing * (sample - cost);
+			samples++;
+		}
+
+		synchronized long samples()
+		{
+			return samples;
+		}
+
+		synchronized double cost()
+		{
+			return cost;
+		}
+	}
+}
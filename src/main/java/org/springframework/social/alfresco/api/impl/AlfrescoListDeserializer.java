@@ -0,0 +1,208 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.BeanProperty;
+import org.codehaus.jackson.map.BeanProperty.Std;
+import org.codehaus.jackson.map.ContextualDeserializer;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.deser.StdDeserializer;
+import org.codehaus.jackson.map.type.TypeFactory;
+import org.codehaus.jackson.type.JavaType;
+import org.springframework.social.alfresco.api.entities.AlfrescoList;
+
+/**
+ * Reads a <tt>{"pagination": {...}, "entries": [{"entry": {...}}, ...]}</tt> envelope straight into an
+ * {@link AlfrescoList}: each entry is unwrapped as it is read and stored in an array of the element type, sized from
+ * the pagination's count when that comes first, and the pagination is kept as primitives.
+ *
+ * The element type comes from the property the list is bound to, so the mapper creates one of these per
+ * <tt>AlfrescoList&lt;T&gt;</tt> it meets; a list read without one has <tt>Object</tt> entries.
+ */
+class AlfrescoListDeserializer extends StdDeserializer<AlfrescoList<?>> implements ContextualDeserializer<AlfrescoList<?>>
+{
+	private static final JavaType OBJECT_TYPE = TypeFactory.defaultInstance().constructType(Object.class);
+
+	private final JavaType elementType;
+	private volatile JsonDeserializer<Object> elementDeserializer;
+
+	AlfrescoListDeserializer()
+	{
+		this(OBJECT_TYPE);
+	}
+
+	private AlfrescoListDeserializer(JavaType elementType)
+	{
+		super(AlfrescoList.class);
+		this.elementType = elementType;
+	}
+
+	@Override
+	public JsonDeserializer<AlfrescoList<?>> createContextual(DeserializationConfig config, BeanProperty property)
+			throws JsonMappingException
+	{
+		JavaType type = property != null ? property.getType() : null;
+		JavaType contained = type != null && type.containedTypeCount() == 1 ? type.containedType(0) : null;
+		if(contained == null || contained.equals(elementType))
+		{
+			return this;
+		}
+		return new AlfrescoListDeserializer(contained);
+	}
+
+	@Override
+	public AlfrescoList<?> deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException,
+			JsonProcessingException
+	{
+		JsonToken t = jp.getCurrentToken();
+		if(t == JsonToken.START_OBJECT)
+		{
+			t = jp.nextToken();
+		}
+		else if(t != JsonToken.FIELD_NAME && t != JsonToken.END_OBJECT)
+		{
+			throw ctxt.mappingException(AlfrescoList.class);
+		}
+
+		AlfrescoList<Object> list = new AlfrescoList<Object>();
+		int expected = 0;
+		for(; t == JsonToken.FIELD_NAME; t = jp.nextToken())
+		{
+			String name = jp.getCurrentName();
+			t = jp.nextToken();
+			if("pagination".equals(name))
+			{
+				expected = readPagination(jp, ctxt, list);
+			}
+			else if("entries".equals(name))
+			{
+				list.setEntryArray(readEntries(jp, ctxt, expected));
+			}
+			else
+			{
+				handleUnknownProperty(jp, ctxt, list, name);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * @return the pagination's count, to size the entries with
+	 */
+	private int readPagination(JsonParser jp, DeserializationContext ctxt, AlfrescoList<?> list) throws IOException,
+			JsonProcessingException
+	{
+		JsonToken t = jp.getCurrentToken();
+		if(t == JsonToken.VALUE_NULL)
+		{
+			return 0;
+		}
+		if(t != JsonToken.START_OBJECT)
+		{
+			throw ctxt.mappingException(AlfrescoList.class);
+		}
+
+		long count = 0;
+		boolean hasMoreItems = false;
+		long totalItems = 0;
+		long skipCount = 0;
+		long maxItems = 0;
+		for(t = jp.nextToken(); t == JsonToken.FIELD_NAME; t = jp.nextToken())
+		{
+			String name = jp.getCurrentName();
+			jp.nextToken();
+			switch(name)
+			{
+			case "count":
+				count = _parseLongPrimitive(jp, ctxt);
+				break;
+			case "hasMoreItems":
+				hasMoreItems = _parseBooleanPrimitive(jp, ctxt);
+				break;
+			case "totalItems":
+				totalItems = _parseLongPrimitive(jp, ctxt);
+				break;
+			case "skipCount":
+				skipCount = _parseLongPrimitive(jp, ctxt);
+				break;
+			case "maxItems":
+				maxItems = _parseLongPrimitive(jp, ctxt);
+				break;
+			default:
+				handleUnknownProperty(jp, ctxt, list, name);
+				break;
+			}
+		}
+		list.setPagination(count, hasMoreItems, totalItems, skipCount, maxItems);
+		return count > 0 && count < Integer.MAX_VALUE ? (int)count : 0;
+	}
+
+	private Object[] readEntries(JsonParser jp, DeserializationContext ctxt, int expected) throws IOException,
+			JsonProcessingException
+	{
+		JsonToken t = jp.getCurrentToken();
+		if(t == JsonToken.VALUE_NULL)
+		{
+			return null;
+		}
+		if(t != JsonToken.START_ARRAY)
+		{
+			throw ctxt.mappingException(AlfrescoList.class);
+		}
+
+		JsonDeserializer<Object> deserializer = getElementDeserializer(ctxt);
+		Object[] entries = (Object[])Array.newInstance(elementType.getRawClass(), expected > 0 ? expected : 10);
+		int size = 0;
+		while((t = jp.nextToken()) != JsonToken.END_ARRAY)
+		{
+			Object entry = null;
+			if(t == JsonToken.START_OBJECT)
+			{
+				for(t = jp.nextToken(); t == JsonToken.FIELD_NAME; t = jp.nextToken())
+				{
+					String name = jp.getCurrentName();
+					t = jp.nextToken();
+					if("entry".equals(name))
+					{
+						entry = t == JsonToken.VALUE_NULL ? null : deserializer.deserialize(jp, ctxt);
+					}
+					else
+					{
+						jp.skipChildren();
+					}
+				}
+			}
+			else if(t != JsonToken.VALUE_NULL)
+			{
+				throw ctxt.mappingException(AlfrescoList.Entry.class);
+			}
+
+			if(size == entries.length)
+			{
+				entries = Arrays.copyOf(entries, size + (size >> 1) + 1);
+			}
+			entries[size++] = entry;
+		}
+		return size == entries.length ? entries : Arrays.copyOf(entries, size);
+	}
+
+	private JsonDeserializer<Object> getElementDeserializer(DeserializationContext ctxt) throws JsonMappingException
+	{
+		JsonDeserializer<Object> deserializer = elementDeserializer;
+		if(deserializer == null)
+		{
+			deserializer = ctxt.getDeserializerProvider().findValueDeserializer(ctxt.getConfig(), elementType,
+					new Std("entry", elementType, null, null));
+			elementDeserializer = deserializer;
+		}
+		return deserializer;
+	}
+}
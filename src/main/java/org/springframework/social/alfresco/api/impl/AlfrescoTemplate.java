@@ -18,9 +18,8 @@ package org.springframework.social.alfresco.api.impl;
 
 import java.util.Map;
 
-import org.codehaus.jackson.map.ObjectMapper;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonHttpMessageConverter;
 import org.springframework.social.oauth2.AbstractOAuth2ApiBinding;
 import org.springframework.web.client.RestTemplate;
 
@@ -66,13 +65,18 @@ public class AlfrescoTemplate extends AbstractAlfrescoTemplate
 		{
 			return templateOverride;
 		}
+
+		@Override
+		protected MappingJacksonHttpMessageConverter getJsonMessageConverter()
+		{
+			MappingJacksonHttpMessageConverter converter = new MappingJacksonHttpMessageConverter();
+			converter.setObjectMapper(JsonCodec.getDefault().getObjectMapper());
+			return converter;
+		}
 	}
 
 	protected Map<String, String> getCMISParameters()
 	{
 		return null;
 	}
-
-    private final ObjectMapper mapper  = new ObjectMapper();
-    private final HttpHeaders  headers = new HttpHeaders();
 }
@@ -0,0 +1,180 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonHttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The HTTP client, {@link RestTemplate} and JSON mapper that {@link BasicAuthAlfrescoTemplate}s talk to the
+ * repository through.
+ *
+ * A transport is thread-safe and is meant to be shared by the templates of many users: it holds no credentials,
+ * each template adds its own to every request, so creating a template for another user only costs the template
+ * itself. Because the shared client cannot answer an authentication challenge on behalf of a particular user,
+ * {@link AuthenticationMode#CHALLENGE} is treated as {@link AuthenticationMode#PREEMPTIVE_BASIC}.
+ */
+public class AlfrescoTransport
+{
+	private final ConnectionDetails repoConnectionData;
+	private final String repoBaseUrl;
+	private final String syncBaseUrl;
+	private final AuthenticationMode authenticationMode;
+	private final JsonCodec codec;
+	private final RestTemplate restTemplate;
+
+	public AlfrescoTransport(ConnectionDetails repoConnectionData, ConnectionDetails syncConnectionData)
+	{
+		this(repoConnectionData, syncConnectionData, null);
+	}
+
+	/**
+	 * @param challengeCredentials the credentials to answer authentication challenges with, for a transport used
+	 *                             by a single user, or null
+	 */
+	AlfrescoTransport(ConnectionDetails repoConnectionData, ConnectionDetails syncConnectionData,
+			Credentials challengeCredentials)
+	{
+		this.repoConnectionData = repoConnectionData;
+		this.repoBaseUrl = getBaseUrl(repoConnectionData);
+		this.syncBaseUrl = getBaseUrl(syncConnectionData);
+
+		AuthenticationMode mode = repoConnectionData.getAuthenticationMode();
+		if(mode == null || mode == AuthenticationMode.CHALLENGE)
+		{
+			mode = challengeCredentials != null ? AuthenticationMode.CHALLENGE : AuthenticationMode.PREEMPTIVE_BASIC;
+		}
+		this.authenticationMode = mode;
+
+		DefaultHttpClient client = new DefaultHttpClient(repoConnectionData.getHttpClientCM(),
+				repoConnectionData.getParams());
+		client.setKeepAliveStrategy(repoConnectionData.getKeepAliveStrategy());
+		if(challengeCredentials != null)
+		{
+			CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+			credentialsProvider.setCredentials(new AuthScope(AuthScope.ANY), challengeCredentials);
+			client.setCredentialsProvider(credentialsProvider);
+		}
+
+		this.codec = JsonCodec.getDefault();
+		codec.warmUp();
+		this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(client));
+		this.restTemplate.setMessageConverters(getMessageConverters());
+		this.restTemplate.setErrorHandler(new AbstractAlfrescoTemplate.AlfrescoResponseErrorHandler());
+	}
+
+	public ConnectionDetails getRepoConnectionData()
+	{
+		return repoConnectionData;
+	}
+
+	public String getRepoBaseUrl()
+	{
+		return repoBaseUrl;
+	}
+
+	public String getSyncBaseUrl()
+	{
+		return syncBaseUrl;
+	}
+
+	/**
+	 * @return the way templates using this transport authenticate; never null
+	 */
+	public AuthenticationMode getAuthenticationMode()
+	{
+		return authenticationMode;
+	}
+
+	public JsonCodec getCodec()
+	{
+		return codec;
+	}
+
+	public RestTemplate getRestTemplate()
+	{
+		return restTemplate;
+	}
+
+	private static String getBaseUrl(ConnectionDetails connectionDetails)
+	{
+		String baseUrl = null;
+		if(connectionDetails != null)
+		{
+			StringBuilder sb = new StringBuilder(connectionDetails.getScheme());
+			sb.append("://");
+			sb.append(connectionDetails.getHost());
+			if(connectionDetails.getPort() != null)
+			{
+				sb.append(":");
+				sb.append(String.valueOf(connectionDetails.getPort()));
+			}
+			sb.append("/");
+			sb.append(connectionDetails.getContext());
+			sb.append("/");
+
+			baseUrl = sb.toString();
+		}
+		return baseUrl;
+	}
+
+	protected List<HttpMessageConverter<?>> getMessageConverters()
+	{
+		List<HttpMessageConverter<?>> messageConverters = new ArrayList<HttpMessageConverter<?>>();
+		messageConverters.add(new StringHttpMessageConverter());
+		messageConverters.add(getFormMessageConverter());
+		messageConverters.add(getJsonMessageConverter());
+		messageConverters.add(getByteArrayMessageConverter());
+		return messageConverters;
+	}
+
+	/**
+	 * Returns an {@link FormHttpMessageConverter} to be used by the internal {@link RestTemplate}.
+	 * By default, the message converter is set to use "UTF-8" character encoding.
+	 * Override to customize the message converter (for example, to set supported media types or message converters for the parts of a multipart message).
+	 * To remove/replace this or any of the other message converters that are registered by default, override the getMessageConverters() method instead.
+	 */
+	protected FormHttpMessageConverter getFormMessageConverter() {
+		FormHttpMessageConverter converter = new FormHttpMessageConverter();
+		converter.setCharset(Charset.forName("UTF-8"));
+		return converter;
+	}
+
+	/**
+	 * Returns a {@link MappingJacksonHttpMessageConverter} to be used by the internal {@link RestTemplate}.
+	 * By default, the message converter uses the mapper of the shared {@link JsonCodec}.
+	 * Override to customize the message converter (for example, to set a custom object mapper or supported media types).
+	 * To remove/replace this or any of the other message converters that are registered by default, override the getMessageConverters() method instead.
+	 */
+	protected MappingJacksonHttpMessageConverter getJsonMessageConverter() {
+		MappingJacksonHttpMessageConverter converter = new MappingJacksonHttpMessageConverter();
+		converter.setObjectMapper(codec.getObjectMapper());
+		return converter;
+	}
+
+	/**
+	 * Returns a {@link ByteArrayHttpMessageConverter} to be used by the internal {@link RestTemplate} when consuming image or other binary resources.
+	 * By default, the message converter supports "image/jpeg", "image/gif", and "image/png" media types.
+	 * Override to customize the message converter (for example, to set supported media types).
+	 * To remove/replace this or any of the other message converters that are registered by default, override the getMessageConverters() method instead.
+	 */
+	protected ByteArrayHttpMessageConverter getByteArrayMessageConverter() {
+		ByteArrayHttpMessageConverter converter = new ByteArrayHttpMessageConverter();
+		converter.setSupportedMediaTypes(Arrays.asList(MediaType.IMAGE_JPEG, MediaType.IMAGE_GIF, MediaType.IMAGE_PNG));
+		return converter;
+	}
+}
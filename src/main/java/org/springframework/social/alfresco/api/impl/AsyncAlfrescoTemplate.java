@@ -0,0 +1,677 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.alfresco.service.synchronization.api.GetChangesResponse;
+import org.alfresco.service.synchronization.api.StartSyncRequest;
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.FileableCmisObject;
+import org.apache.chemistry.opencmis.client.api.ItemIterable;
+import org.apache.chemistry.opencmis.client.api.Tree;
+import org.apache.chemistry.opencmis.commons.enums.IncludeRelationships;
+import org.springframework.social.alfresco.api.Alfresco;
+import org.springframework.social.alfresco.api.AsyncAlfresco;
+import org.springframework.social.alfresco.api.Projection;
+import org.springframework.social.alfresco.api.entities.Activity;
+import org.springframework.social.alfresco.api.entities.AlfrescoList;
+import org.springframework.social.alfresco.api.entities.Comment;
+import org.springframework.social.alfresco.api.entities.Container;
+import org.springframework.social.alfresco.api.entities.Favourite;
+import org.springframework.social.alfresco.api.entities.LegacyPerson;
+import org.springframework.social.alfresco.api.entities.LegacySite;
+import org.springframework.social.alfresco.api.entities.Member;
+import org.springframework.social.alfresco.api.entities.Metadata;
+import org.springframework.social.alfresco.api.entities.Network;
+import org.springframework.social.alfresco.api.entities.Person;
+import org.springframework.social.alfresco.api.entities.Preference;
+import org.springframework.social.alfresco.api.entities.Rating;
+import org.springframework.social.alfresco.api.entities.Role;
+import org.springframework.social.alfresco.api.entities.Site.Visibility;
+import org.springframework.social.alfresco.api.entities.SiteMembershipRequest;
+import org.springframework.social.alfresco.api.entities.StartSyncResponse;
+import org.springframework.social.alfresco.api.entities.Subscriber;
+import org.springframework.social.alfresco.api.entities.Subscription;
+import org.springframework.social.alfresco.api.entities.SubscriptionType;
+import org.springframework.social.alfresco.api.entities.Tag;
+import org.springframework.social.alfresco.api.entities.UserActivationResponse;
+import org.springframework.social.alfresco.api.entities.UserRegistration;
+
+/**
+ * {@link AsyncAlfresco} implementation that runs each operation of an {@link Alfresco} template on an
+ * {@link Executor}.
+ *
+ * The HTTP transport underneath the templates (HttpClient 4.2 behind Spring's RestTemplate, OpenCMIS for CMIS) is
+ * blocking, so each in-flight operation occupies one executor thread while it waits for the server. Concurrency is
+ * therefore bounded by the executor and by the connection pool configured in {@link ConnectionDetails}; size both
+ * for the number of concurrent requests the caller intends to have outstanding. An executor whose threads are
+ * cheap to block keeps the thread cost of a large number of simulated users low.
+ *
+ * The wrapped template is shared by all operations and must be thread-safe, which the templates in this package
+ * are.
+ */
+public class AsyncAlfrescoTemplate implements AsyncAlfresco
+{
+	private final Alfresco alfresco;
+	private final Executor executor;
+
+	public AsyncAlfrescoTemplate(Alfresco alfresco, Executor executor)
+	{
+		if(alfresco == null)
+		{
+			throw new IllegalArgumentException("alfresco cannot be null");
+		}
+		if(executor == null)
+		{
+			throw new IllegalArgumentException("executor cannot be null");
+		}
+		this.alfresco = alfresco;
+		this.executor = executor;
+	}
+
+	public Executor getExecutor()
+	{
+		return executor;
+	}
+
+	@Override
+	public Alfresco getAlfresco()
+	{
+		return alfresco;
+	}
+
+	private interface Call<T>
+	{
+		T call() throws IOException;
+	}
+
+	private interface VoidCall
+	{
+		void call() throws IOException;
+	}
+
+	private <T> CompletableFuture<T> call(final Call<T> call)
+	{
+		return CompletableFuture.supplyAsync(() ->
+		{
+			try
+			{
+				return call.call();
+			}
+			catch(IOException e)
+			{
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	private CompletableFuture<Void> run(final VoidCall call)
+	{
+		return CompletableFuture.runAsync(() ->
+		{
+			try
+			{
+				call.call();
+			}
+			catch(IOException e)
+			{
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	@Override
+	public CompletableFuture<Network> getNetwork(String network)
+	{
+		return call(() -> alfresco.getNetwork(network));
+	}
+
+	@Override
+	public CompletableFuture<Network> getNetwork(String network, Projection<Network> projection)
+	{
+		return call(() -> alfresco.getNetwork(network, projection));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Network>> getNetworks()
+	{
+		return call(() -> alfresco.getNetworks());
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Network>> getNetworks(Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getNetworks(parameters));
+	}
+
+	@Override
+	public CompletableFuture<Site> getSite(String site, String network)
+	{
+		return call(() -> alfresco.getSite(site, network));
+	}
+
+	@Override
+	public CompletableFuture<Site> getSite(String site, String network, Projection<Site> projection)
+	{
+		return call(() -> alfresco.getSite(site, network, projection));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Site>> getSites(String network)
+	{
+		return call(() -> alfresco.getSites(network));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Site>> getSites(String network, Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getSites(network, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Container> getContainer(String network, String site, String contatiner)
+	{
+		return call(() -> alfresco.getContainer(network, site, contatiner));
+	}
+
+	@Override
+	public CompletableFuture<Container> getContainer(String network, String site, String contatiner, Projection<Container> projection)
+	{
+		return call(() -> alfresco.getContainer(network, site, contatiner, projection));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Container>> getContainers(String network, String site)
+	{
+		return call(() -> alfresco.getContainers(network, site));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Container>> getContainers(String network, String site,
+			Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getContainers(network, site, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Member> getMember(String network, String site, String person)
+	{
+		return call(() -> alfresco.getMember(network, site, person));
+	}
+
+	@Override
+	public CompletableFuture<Member> getMember(String network, String site, String person, Projection<Member> projection)
+	{
+		return call(() -> alfresco.getMember(network, site, person, projection));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Member>> getMembers(String network, String site)
+	{
+		return call(() -> alfresco.getMembers(network, site));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Member>> getMembers(String network, String site,
+			Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getMembers(network, site, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Member> addMember(String network, String site, String personId, Role role)
+	{
+		return call(() -> alfresco.addMember(network, site, personId, role));
+	}
+
+	@Override
+	public CompletableFuture<Void> updateMember(String network, String site, String personId, Role role)
+	{
+		return run(() -> alfresco.updateMember(network, site, personId, role));
+	}
+
+	@Override
+	public CompletableFuture<Void> deleteMember(String network, String site, String personId)
+	{
+		return run(() -> alfresco.deleteMember(network, site, personId));
+	}
+
+	@Override
+	public CompletableFuture<LegacyPerson> createPerson(String network, String username, String firstName,
+			String lastName, String email, String password)
+	{
+		return call(() -> alfresco.createPerson(network, username, firstName, lastName, email, password));
+	}
+
+	@Override
+	public CompletableFuture<Person> getPerson(String network, String person)
+	{
+		return call(() -> alfresco.getPerson(network, person));
+	}
+
+	@Override
+	public CompletableFuture<Person> getPerson(String network, String person, Projection<Person> projection)
+	{
+		return call(() -> alfresco.getPerson(network, person, projection));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Site>> getSites(String network, String person)
+	{
+		return call(() -> alfresco.getSites(network, person));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Site>> getSites(String network, String person, Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getSites(network, person, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Site> getSite(String network, String person, String site)
+	{
+		return call(() -> alfresco.getSite(network, person, site));
+	}
+
+	@Override
+	public CompletableFuture<Site> getSite(String network, String person, String site, Projection<Site> projection)
+	{
+		return call(() -> alfresco.getSite(network, person, site, projection));
+	}
+
+	@Override
+	public CompletableFuture<Site> addFavoriteSite(String network, String personId, String siteId)
+	{
+		return call(() -> alfresco.addFavoriteSite(network, personId, siteId));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Site>> getFavoriteSites(String network, String person)
+	{
+		return call(() -> alfresco.getFavoriteSites(network, person));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Site>> getFavoriteSites(String network, String person,
+			Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getFavoriteSites(network, person, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Preference> getPreference(String network, String person, String preference)
+	{
+		return call(() -> alfresco.getPreference(network, person, preference));
+	}
+
+	@Override
+	public CompletableFuture<Preference> getPreference(String network, String person, String preference, Projection<Preference> projection)
+	{
+		return call(() -> alfresco.getPreference(network, person, preference, projection));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Preference>> getPreferences(String network, String person)
+	{
+		return call(() -> alfresco.getPreferences(network, person));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Preference>> getPreferences(String network, String person,
+			Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getPreferences(network, person, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Network> getNetwork(String network, String person)
+	{
+		return call(() -> alfresco.getNetwork(network, person));
+	}
+
+	@Override
+	public CompletableFuture<Network> getNetwork(String network, String person, Projection<Network> projection)
+	{
+		return call(() -> alfresco.getNetwork(network, person, projection));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Network>> getNetworks(String network, String person)
+	{
+		return call(() -> alfresco.getNetworks(network, person));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Network>> getNetworks(String network, String person,
+			Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getNetworks(network, person, parameters));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Activity>> getActivities(String network, String person)
+	{
+		return call(() -> alfresco.getActivities(network, person));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Activity>> getActivities(String network, String person,
+			Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getActivities(network, person, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Tag> getTag(String network, String tag)
+	{
+		return call(() -> alfresco.getTag(network, tag));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Tag>> getTags(String network)
+	{
+		return call(() -> alfresco.getTags(network));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Tag>> getTags(String network, Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getTags(network, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Void> updateTag(String network, String tagId, String tag)
+	{
+		return run(() -> alfresco.updateTag(network, tagId, tag));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Comment>> getComments(String network, String node)
+	{
+		return call(() -> alfresco.getComments(network, node));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Comment>> getComments(String network, String node,
+			Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getComments(network, node, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Comment> createComment(String network, String node, String comment)
+	{
+		return call(() -> alfresco.createComment(network, node, comment));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Comment>> createComments(String network, String node, List<String> comments)
+	{
+		return call(() -> alfresco.createComments(network, node, comments));
+	}
+
+	@Override
+	public CompletableFuture<Void> updateComment(String network, String node, String commentId, String comment)
+	{
+		return run(() -> alfresco.updateComment(network, node, commentId, comment));
+	}
+
+	@Override
+	public CompletableFuture<Void> deleteComment(String network, String node, String commentId)
+	{
+		return run(() -> alfresco.deleteComment(network, node, commentId));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Tag>> getNodesTags(String network, String node)
+	{
+		return call(() -> alfresco.getNodesTags(network, node));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Tag>> getNodesTags(String network, String node,
+			Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getNodesTags(network, node, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Tag> addTagToNode(String network, String node, String tag)
+	{
+		return call(() -> alfresco.addTagToNode(network, node, tag));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Tag>> addTagsToNode(String network, String node, List<String> tags)
+	{
+		return call(() -> alfresco.addTagsToNode(network, node, tags));
+	}
+
+	@Override
+	public CompletableFuture<Void> removeTagFromNode(String network, String node, String tagId)
+	{
+		return run(() -> alfresco.removeTagFromNode(network, node, tagId));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Rating>> getNodeRatings(String network, String node)
+	{
+		return call(() -> alfresco.getNodeRatings(network, node));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Rating>> getNodeRatings(String network, String node,
+			Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getNodeRatings(network, node, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Rating> getNodeRating(String network, String node, String rating)
+	{
+		return call(() -> alfresco.getNodeRating(network, node, rating));
+	}
+
+	@Override
+	public CompletableFuture<Rating> getNodeRating(String network, String node, String rating, Projection<Rating> projection)
+	{
+		return call(() -> alfresco.getNodeRating(network, node, rating, projection));
+	}
+
+	@Override
+	public CompletableFuture<Void> removeNodeRating(String network, String node, String ratingId)
+	{
+		return run(() -> alfresco.removeNodeRating(network, node, ratingId));
+	}
+
+	@Override
+	public CompletableFuture<Rating> rateNode(String network, String node, boolean like)
+	{
+		return call(() -> alfresco.rateNode(network, node, like));
+	}
+
+	@Override
+	public CompletableFuture<Rating> rateNode(String network, String node, int stars)
+	{
+		return call(() -> alfresco.rateNode(network, node, stars));
+	}
+
+	@Override
+	public CompletableFuture<Network> getHomeNetwork()
+	{
+		return call(() -> alfresco.getHomeNetwork());
+	}
+
+	@Override
+	public CompletableFuture<Person> getCurrentUser()
+	{
+		return call(() -> alfresco.getCurrentUser());
+	}
+
+	@Deprecated
+	@Override
+	public CompletableFuture<AlfrescoList<Metadata>> networkOptions(String network)
+	{
+		return call(() -> alfresco.networkOptions(network));
+	}
+
+	@Override
+	public CompletableFuture<UserRegistration> registerUser(String email, String firstName, String lastName,
+			String password, String source, String sourceUrl)
+	{
+		return call(() -> alfresco.registerUser(email, firstName, lastName, password, source, sourceUrl));
+	}
+
+	@Override
+	public CompletableFuture<UserActivationResponse> activateUser(String id, String key, String email, String firstName,
+			String lastName, String password)
+	{
+		return call(() -> alfresco.activateUser(id, key, email, firstName, lastName, password));
+	}
+
+	@Override
+	public CompletableFuture<LegacySite> createSite(String network, String siteId, String sitePreset, String title,
+			String description, Visibility visibility)
+	{
+		return call(() -> alfresco.createSite(network, siteId, sitePreset, title, description, visibility));
+	}
+
+	@Override
+	public CompletableFuture<Void> removeSite(String networkId, String siteId)
+	{
+		return run(() -> alfresco.removeSite(networkId, siteId));
+	}
+
+	@Override
+	public CompletableFuture<ItemIterable<CmisObject>> getChildren(String networkId, String folderId, int skipCount,
+			int maxItems, IncludeRelationships includeRelationships, Boolean includeAcls, Set<String> propertyFilter,
+			Boolean includePolicies)
+	{
+		return call(() -> alfresco.getChildren(networkId, folderId, skipCount, maxItems, includeRelationships,
+				includeAcls, propertyFilter, includePolicies));
+	}
+
+	@Override
+	public CompletableFuture<List<Tree<FileableCmisObject>>> getDescendants(String networkId, String folderId,
+			Integer depth, IncludeRelationships includeRelationships, Boolean includeAcls, Set<String> propertyFilter,
+			Boolean includePolicies)
+	{
+		return call(() -> alfresco.getDescendants(networkId, folderId, depth, includeRelationships, includeAcls,
+				propertyFilter, includePolicies));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Favourite>> getFavorites(String network, String person)
+	{
+		return call(() -> alfresco.getFavorites(network, person));
+	}
+
+	@Override
+	public CompletableFuture<Favourite> getFavorite(String network, String person, String targetGuid)
+	{
+		return call(() -> alfresco.getFavorite(network, person, targetGuid));
+	}
+
+	@Override
+	public CompletableFuture<Favourite> getFavorite(String network, String person, String targetGuid, Projection<Favourite> projection)
+	{
+		return call(() -> alfresco.getFavorite(network, person, targetGuid, projection));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<Favourite>> getFavorites(String network, String person,
+			Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getFavorites(network, person, parameters));
+	}
+
+	@Override
+	public CompletableFuture<Favourite> addFavorite(String network, String personId, Favourite favourite)
+	{
+		return call(() -> alfresco.addFavorite(network, personId, favourite));
+	}
+
+	@Override
+	public CompletableFuture<Void> removeFavourite(String network, String personId, String favouriteId)
+	{
+		return run(() -> alfresco.removeFavourite(network, personId, favouriteId));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<SiteMembershipRequest>> getPersonSiteMembershipRequests(String network,
+			String personId)
+	{
+		return call(() -> alfresco.getPersonSiteMembershipRequests(network, personId));
+	}
+
+	@Override
+	public CompletableFuture<AlfrescoList<SiteMembershipRequest>> getPersonSiteMembershipRequests(String network,
+			String person, Map<String, String> parameters)
+	{
+		return call(() -> alfresco.getPersonSiteMembershipRequests(network, person, parameters));
+	}
+
+	@Override
+	public CompletableFuture<SiteMembershipRequest> createPersonSiteMembershipRequest(String network, String personId,
+			SiteMembershipRequest siteMembershipRequest)
+	{
+		return call(() -> alfresco.createPersonSiteMembershipRequest(network, personId, siteMembershipRequest));
+	}
+
+	@Override
+	public CompletableFuture<Void> cancelPersonSiteMembershipRequest(String network, String personId, String siteId)
+	{
+		return run(() -> alfresco.cancelPersonSiteMembershipRequest(network, personId, siteId));
+	}
+
+	@Override
+	public CompletableFuture<Subscriber> createSubscriber(String networkId)
+	{
+		return call(() -> alfresco.createSubscriber(networkId));
+	}
+
+	@Override
+	public CompletableFuture<Subscription> createSubscription(String network, String subscriberId,
+			SubscriptionType subscriptionType, String targetPath)
+	{
+		return call(() -> alfresco.createSubscription(network, subscriberId, subscriptionType, targetPath));
+	}
+
+	@Override
+	public CompletableFuture<Void> removeSubscriber(String network, String subscriberId)
+	{
+		return run(() -> alfresco.removeSubscriber(network, subscriberId));
+	}
+
+	@Override
+	public CompletableFuture<Void> removeSubscription(String network, String subscriberId, String subscriptionId)
+	{
+		return run(() -> alfresco.removeSubscription(network, subscriberId, subscriptionId));
+	}
+
+	@Override
+	public CompletableFuture<StartSyncResponse> start(StartSyncRequest req, String networkId, String subscriberId,
+			String subscriptionsQuery)
+	{
+		return call(() -> alfresco.start(req, networkId, subscriberId, subscriptionsQuery));
+	}
+
+	@Override
+	public CompletableFuture<GetChangesResponse> getSync(String networkId, String subscriberId,
+			String subscriptionsQuery, String syncId)
+	{
+		return call(() -> alfresco.getSync(networkId, subscriberId, subscriptionsQuery, syncId));
+	}
+
+	@Override
+	public CompletableFuture<Void> endSync(String networkId, String subscriberId, String subscriptionsQuery,
+			String syncId)
+	{
+		return run(() -> alfresco.endSync(networkId, subscriberId, subscriptionsQuery, syncId));
+	}
+}
@@ -0,0 +1,24 @@
+package org.springframework.social.alfresco.api.impl;
+
+/**
+ * How {@link BasicAuthAlfrescoTemplate} authenticates its requests.
+ */
+public enum AuthenticationMode
+{
+	/**
+	 * Send requests without credentials and answer the server's 401 challenge, which costs a second round trip
+	 * for the first request on every new connection.
+	 */
+	CHALLENGE,
+
+	/**
+	 * Send a precomputed Basic <tt>Authorization</tt> header with every request.
+	 */
+	PREEMPTIVE_BASIC,
+
+	/**
+	 * Log in once to get an Alfresco ticket and send it with every REST and CMIS request instead of the password.
+	 * The ticket is renewed after the server rejects it.
+	 */
+	TICKET
+}
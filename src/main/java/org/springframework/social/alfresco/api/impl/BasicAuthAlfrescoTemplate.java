@@ -1,134 +1,213 @@
 package org.springframework.social.alfresco.api.impl;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.chemistry.opencmis.commons.SessionParameter;
-import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.CredentialsProvider;
-import org.apache.http.conn.ClientConnectionManager;
-import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.params.HttpParams;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
-import org.springframework.http.converter.ByteArrayHttpMessageConverter;
-import org.springframework.http.converter.FormHttpMessageConverter;
-import org.springframework.http.converter.HttpMessageConverter;
-import org.springframework.http.converter.StringHttpMessageConverter;
-import org.springframework.http.converter.json.MappingJacksonHttpMessageConverter;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.social.alfresco.connect.exception.AlfrescoException;
 
 public class BasicAuthAlfrescoTemplate extends AbstractAlfrescoTemplate
 {
-    private final ClientConnectionManager httpClientCM;
-    private final HttpParams httpParams;
+	private static final String AUTHORIZATION = "Authorization";
+	/**
+	 * The user name that tells Alfresco the password is a ticket
+	 */
+	private static final String TICKET_USER = "ROLE_TICKET";
+
 	private final String password;
 	private final String username;
-	
+	private final AuthenticationMode authenticationMode;
+	private final String basicAuthorization;
+	private final ReentrantLock ticketLock = new ReentrantLock();
+	private volatile Ticket ticket;
+
+	/**
+	 * Create a template with an HTTP client of its own, authenticating as the user of the repository connection
+	 * details.
+	 */
 	public BasicAuthAlfrescoTemplate(ConnectionDetails repoConnectionData, ConnectionDetails syncConnectionData)
 	{
-		super(BasicAuthAlfrescoTemplate.getBaseUrl(repoConnectionData),
-				BasicAuthAlfrescoTemplate.getBaseUrl(syncConnectionData),
-				        repoConnectionData.getPublicApiServletName(),
-				        repoConnectionData.getServiceServletName());
-
-		this.username = repoConnectionData.getUsername();
-		this.password = repoConnectionData.getPassword();
-		this.httpClientCM = repoConnectionData.getHttpClientCM();
-		this.httpParams = repoConnectionData.getParams();
-
-		DefaultHttpClient client = new DefaultHttpClient(httpClientCM, httpParams);
+		this(new AlfrescoTransport(repoConnectionData, syncConnectionData,
+				new UsernamePasswordCredentials(repoConnectionData.getUsername(), repoConnectionData.getPassword())),
+				repoConnectionData.getUsername(), repoConnectionData.getPassword());
+	}
 
-        CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-        credentialsProvider.setCredentials(
-                new AuthScope(AuthScope.ANY),
-                new UsernamePasswordCredentials(username, password));
-        client.setCredentialsProvider(credentialsProvider);
+	/**
+	 * Create a template for the given user that sends its requests through a (typically shared) transport.
+	 */
+	public BasicAuthAlfrescoTemplate(AlfrescoTransport transport, String username, String password)
+	{
+		super(transport.getRepoBaseUrl(),
+				transport.getSyncBaseUrl(),
+				        transport.getRepoConnectionData().getPublicApiServletName(),
+				        transport.getRepoConnectionData().getServiceServletName());
 
-		HttpComponentsClientHttpRequestFactory commons = new HttpComponentsClientHttpRequestFactory(client);
+		this.username = username;
+		this.password = password;
+		this.authenticationMode = transport.getAuthenticationMode();
+		this.basicAuthorization = basicAuthorization(username, password);
 
-		restTemplate = new RestTemplate(commons);
-		restTemplate.setMessageConverters(getMessageConverters());
-		configureRestTemplate();
+		codec = transport.getCodec();
+		mapper = codec.getObjectMapper();
+		restTemplate = transport.getRestTemplate();
         headers.setContentType(MediaType.APPLICATION_JSON);
 	}
-	
+
 	protected Map<String, String> getCMISParameters()
 	{
 		Map<String, String> parameters = new HashMap<String, String>();
-		parameters.put(SessionParameter.USER, username);
-		parameters.put(SessionParameter.PASSWORD, password);
+		if(authenticationMode == AuthenticationMode.TICKET)
+		{
+			parameters.put(SessionParameter.USER, TICKET_USER);
+			parameters.put(SessionParameter.PASSWORD, getTicket());
+		}
+		else
+		{
+			parameters.put(SessionParameter.USER, username);
+			parameters.put(SessionParameter.PASSWORD, password);
+		}
 		return parameters;
 	}
-	
-	private static String getBaseUrl(ConnectionDetails connectionDetails)
+
+	@Override
+	protected void authenticate(HttpHeaders requestHeaders) throws IOException
 	{
-		String baseUrl = null;
-		if(connectionDetails != null)
+		switch(authenticationMode)
 		{
-			StringBuilder sb = new StringBuilder(connectionDetails.getScheme());
-			sb.append("://");
-			sb.append(connectionDetails.getHost());
-			if(connectionDetails.getPort() != null)
+		case PREEMPTIVE_BASIC:
+			requestHeaders.set(AUTHORIZATION, basicAuthorization);
+			break;
+		case TICKET:
+			if(ticketLock.isHeldByCurrentThread())
 			{
-				sb.append(":");
-				sb.append(String.valueOf(connectionDetails.getPort()));
+				// this is the login request
+				requestHeaders.set(AUTHORIZATION, basicAuthorization);
 			}
-			sb.append("/");
-			sb.append(connectionDetails.getContext());
-			sb.append("/");
-
-			baseUrl = sb.toString();
+			else
+			{
+				requestHeaders.set(AUTHORIZATION, getCurrentTicket().authorization);
+			}
+			break;
+		default:
+			break;
 		}
-		return baseUrl;
 	}
 
-	protected List<HttpMessageConverter<?>> getMessageConverters()
+	/**
+	 * Templates for the same user and password make equivalent requests, whichever transport they use.
+	 */
+	@Override
+	protected Object getCredentialsKey()
 	{
-		List<HttpMessageConverter<?>> messageConverters = new ArrayList<HttpMessageConverter<?>>();
-		messageConverters.add(new StringHttpMessageConverter());
-		messageConverters.add(getFormMessageConverter());
-		messageConverters.add(getJsonMessageConverter());
-		messageConverters.add(getByteArrayMessageConverter());
-		return messageConverters;
+		return basicAuthorization;
 	}
-	
+
 	/**
-	 * Returns an {@link FormHttpMessageConverter} to be used by the internal {@link RestTemplate}.
-	 * By default, the message converter is set to use "UTF-8" character encoding.
-	 * Override to customize the message converter (for example, to set supported media types or message converters for the parts of a multipart message). 
-	 * To remove/replace this or any of the other message converters that are registered by default, override the getMessageConverters() method instead.
+	 * CMIS sessions are cached against the user rather than the ticket they were created with, which changes
+	 * whenever the ticket is renewed.
 	 */
-	protected FormHttpMessageConverter getFormMessageConverter() {
-		FormHttpMessageConverter converter = new FormHttpMessageConverter();
-		converter.setCharset(Charset.forName("UTF-8"));
-		return converter;
+	@Override
+	protected Object getCMISCredentials()
+	{
+		return basicAuthorization;
+	}
+
+	@Override
+	protected String getCMISAuthorization()
+	{
+		Ticket current = ticket;
+		return authenticationMode == AuthenticationMode.TICKET && current != null ? current.authorization : null;
 	}
-	
+
 	/**
-	 * Returns a {@link MappingJacksonHttpMessageConverter} to be used by the internal {@link RestTemplate}.
-	 * Override to customize the message converter (for example, to set a custom object mapper or supported media types).
-	 * To remove/replace this or any of the other message converters that are registered by default, override the getMessageConverters() method instead.
+	 * Forget the ticket if it is the one the rejected request was sent with, so that the next request logs in
+	 * again, and close the CMIS sessions that were created with it.
 	 */
-	protected MappingJacksonHttpMessageConverter getJsonMessageConverter() {
-		return new MappingJacksonHttpMessageConverter(); 
+	@Override
+	protected void unauthorized(String authorization)
+	{
+		if(authenticationMode != AuthenticationMode.TICKET)
+		{
+			return;
+		}
+		boolean forgotten = false;
+		ticketLock.lock();
+		try
+		{
+			Ticket current = ticket;
+			if(current != null && authorization.equals(current.authorization))
+			{
+				ticket = null;
+				forgotten = true;
+			}
+		}
+		finally
+		{
+			ticketLock.unlock();
+		}
+		if(forgotten)
+		{
+			getCMISSessionRegistry().invalidateCredentials(getCMISCredentials());
+		}
 	}
-	
+
 	/**
-	 * Returns a {@link ByteArrayHttpMessageConverter} to be used by the internal {@link RestTemplate} when consuming image or other binary resources.
-	 * By default, the message converter supports "image/jpeg", "image/gif", and "image/png" media types.
-	 * Override to customize the message converter (for example, to set supported media types).
-	 * To remove/replace this or any of the other message converters that are registered by default, override the getMessageConverters() method instead.	 
+	 * Get the current ticket, logging in if there is none.
 	 */
-	protected ByteArrayHttpMessageConverter getByteArrayMessageConverter() {
-		ByteArrayHttpMessageConverter converter = new ByteArrayHttpMessageConverter();
-		converter.setSupportedMediaTypes(Arrays.asList(MediaType.IMAGE_JPEG, MediaType.IMAGE_GIF, MediaType.IMAGE_PNG));
-		return converter;
+	public String getTicket()
+	{
+		return getCurrentTicket().ticket;
+	}
+
+	private Ticket getCurrentTicket()
+	{
+		Ticket current = ticket;
+		if(current == null)
+		{
+			ticketLock.lock();
+			try
+			{
+				current = ticket;
+				if(current == null)
+				{
+					current = new Ticket(login(username, password));
+					ticket = current;
+				}
+			}
+			catch(IOException e)
+			{
+				throw new AlfrescoException("Unable to log in as " + username + ": " + e.getMessage(), e);
+			}
+			finally
+			{
+				ticketLock.unlock();
+			}
+		}
+		return current;
+	}
+
+	private static String basicAuthorization(String username, String password)
+	{
+		String credentials = username + ":" + password;
+		return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(Charset.forName("UTF-8")));
+	}
+
+	private static class Ticket
+	{
+		private final String ticket;
+		private final String authorization;
+
+		Ticket(String ticket)
+		{
+			this.ticket = ticket;
+			this.authorization = basicAuthorization(TICKET_USER, ticket);
+		}
 	}
 }
@@ -0,0 +1,47 @@
+package org.springframework.social.alfresco.api.impl;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Keeps a connection in the pool for no longer than the server said it would keep it open, less a safety margin,
+ * and never for longer than the maximum idle time.
+ *
+ * The pool discards a connection whose keep-alive has run out when it is next leased, so this stops it handing out
+ * connections the server has already closed without checking every connection before use. Servers that do not send
+ * a <tt>Keep-Alive</tt> header, such as Tomcat, are assumed to keep connections for at least the maximum idle time.
+ */
+public class BoundedKeepAliveStrategy implements ConnectionKeepAliveStrategy
+{
+	/**
+	 * How much sooner than the server a connection is given up, to allow for the time the response took to arrive.
+	 */
+	public static final long SAFETY_MARGIN_MS = 1000;
+
+	private static final ConnectionKeepAliveStrategy SERVER = new DefaultConnectionKeepAliveStrategy();
+
+	private final long maxIdleTimeMs;
+
+	/**
+	 * @param maxIdleTimeMs the longest a connection may sit unused in the pool, or 0 or less to keep connections for
+	 *                      as long as the server says, or forever if it does not
+	 */
+	public BoundedKeepAliveStrategy(long maxIdleTimeMs)
+	{
+		this.maxIdleTimeMs = maxIdleTimeMs > 0 ? maxIdleTimeMs : Long.MAX_VALUE;
+	}
+
+	@Override
+	public long getKeepAliveDuration(HttpResponse response, HttpContext context)
+	{
+		long serverMs = SERVER.getKeepAliveDuration(response, context);
+		if(serverMs <= 0)
+		{
+			return maxIdleTimeMs == Long.MAX_VALUE ? -1 : maxIdleTimeMs;
+		}
+		// a duration of 0 would keep the connection forever, so one the server is about to close expires at once
+		return Math.max(1, Math.min(serverMs - SAFETY_MARGIN_MS, maxIdleTimeMs));
+	}
+}
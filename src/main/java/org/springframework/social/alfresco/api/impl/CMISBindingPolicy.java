@@ -0,0 +1,63 @@
+package org.springframework.social.alfresco.api.impl;
+
+import org.springframework.social.alfresco.api.Alfresco;
+import org.springframework.social.alfresco.api.CMISEndpoint;
+
+/**
+ * Chooses the CMIS binding and version that a template uses for its CMIS operations, e.g. <tt>getChildren</tt>,
+ * and is told how each call went. Either {@link #fixed(CMISEndpoint) fixed}, or
+ * {@link AdaptiveCMISBindingPolicy adaptive}, choosing from measured costs.
+ *
+ * Implementations are called on the requesting thread and must be thread-safe and cheap.
+ */
+public interface CMISBindingPolicy
+{
+	/**
+	 * Always AtomPub 1.0, the binding the templates have always used.
+	 */
+	public static final CMISBindingPolicy DEFAULT = fixed(Alfresco.cmisAtom10Endpoint);
+
+	/**
+	 * @return the endpoint to make the next call of the operation on
+	 */
+	CMISEndpoint select(String operation);
+
+	/**
+	 * @param operation the operation, e.g. <tt>getDescendants</tt>
+	 * @param endpoint  the endpoint the call was made on, as returned by {@link #select(String)}
+	 * @param nanos     the time spent in the call, including parsing the response
+	 * @param items     the number of objects the call returned
+	 * @param failure   the exception the call failed with, or null if it succeeded
+	 */
+	void record(String operation, CMISEndpoint endpoint, long nanos, int items, Throwable failure);
+
+	/**
+	 * @return a policy that always chooses the given endpoint
+	 */
+	public static CMISBindingPolicy fixed(final CMISEndpoint endpoint)
+	{
+		if(endpoint == null)
+		{
+			throw new IllegalArgumentException("Endpoint must not be null");
+		}
+		return new CMISBindingPolicy()
+		{
+			@Override
+			public CMISEndpoint select(String operation)
+			{
+				return endpoint;
+			}
+
+			@Override
+			public void record(String operation, CMISEndpoint endpoint, long nanos, int items, Throwable failure)
+			{
+			}
+
+			@Override
+			public String toString()
+			{
+				return "CMISBindingPolicy [fixed=" + endpoint + "]";
+			}
+		};
+	}
+}
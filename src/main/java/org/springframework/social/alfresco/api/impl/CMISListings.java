@@ -0,0 +1,152 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.FileableCmisObject;
+import org.apache.chemistry.opencmis.client.api.ItemIterable;
+import org.apache.chemistry.opencmis.client.api.ObjectFactory;
+import org.apache.chemistry.opencmis.client.api.OperationContext;
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.apache.chemistry.opencmis.client.api.Tree;
+import org.apache.chemistry.opencmis.client.runtime.util.AbstractPageFetcher;
+import org.apache.chemistry.opencmis.client.runtime.util.CollectionIterable;
+import org.apache.chemistry.opencmis.client.runtime.util.TreeImpl;
+import org.apache.chemistry.opencmis.commons.data.ObjectInFolderContainer;
+import org.apache.chemistry.opencmis.commons.data.ObjectInFolderData;
+import org.apache.chemistry.opencmis.commons.data.ObjectInFolderList;
+import org.apache.chemistry.opencmis.commons.spi.NavigationService;
+
+/**
+ * Lists the children and descendants of a folder by its id, calling the navigation service directly instead of
+ * fetching the folder object first, and converting the results with the given operation context, so that the
+ * request asks for, and the response carries, only what the context includes.
+ */
+final class CMISListings
+{
+	/**
+	 * Told about each page of children fetched.
+	 */
+	interface FetchListener
+	{
+		void fetched(long nanos, int items, Throwable failure);
+	}
+
+	private CMISListings()
+	{
+	}
+
+	/**
+	 * @return a page of the folder's children, whose first batch has been fetched so that a folder that cannot be
+	 *         listed fails this call rather than the caller's first read
+	 */
+	static ItemIterable<CmisObject> getChildren(Session session, final String folderId, final OperationContext context,
+			int skipCount, int maxItems, final FetchListener listener)
+	{
+		final String repositoryId = session.getRepositoryInfo().getId();
+		final NavigationService navigationService = session.getBinding().getNavigationService();
+		final ObjectFactory objectFactory = session.getObjectFactory();
+
+		ItemIterable<CmisObject> children = new CollectionIterable<CmisObject>(new AbstractPageFetcher<CmisObject>(
+				context.getMaxItemsPerPage())
+		{
+			@Override
+			protected AbstractPageFetcher.Page<CmisObject> fetchPage(long skip)
+			{
+				long start = System.nanoTime();
+				try
+				{
+					AbstractPageFetcher.Page<CmisObject> page = fetch(skip);
+					listener.fetched(System.nanoTime() - start, page.getItems().size(), null);
+					return page;
+				}
+				catch(RuntimeException e)
+				{
+					listener.fetched(System.nanoTime() - start, 0, e);
+					throw e;
+				}
+			}
+
+			private AbstractPageFetcher.Page<CmisObject> fetch(long skip)
+			{
+				ObjectInFolderList list = navigationService.getChildren(repositoryId, folderId,
+						context.getFilterString(), context.getOrderBy(), context.isIncludeAllowableActions(),
+						context.getIncludeRelationships(), context.getRenditionFilterString(),
+						context.isIncludePathSegments(), BigInteger.valueOf(this.maxNumItems),
+						BigInteger.valueOf(skip), null);
+
+				List<CmisObject> page = new ArrayList<CmisObject>();
+				if(list.getObjects() != null)
+				{
+					for(ObjectInFolderData child : list.getObjects())
+					{
+						if(child.getObject() != null)
+						{
+							page.add(objectFactory.convertObject(child.getObject(), context));
+						}
+					}
+				}
+				return new AbstractPageFetcher.Page<CmisObject>(page, list.getNumItems(), list.hasMoreItems());
+			}
+		});
+		ItemIterable<CmisObject> page = children.skipTo(skipCount).getPage(maxItems);
+		// the iterable keeps the batch this fetches for when the caller iterates it
+		page.getHasMoreItems();
+		return page;
+	}
+
+	static List<Tree<FileableCmisObject>> getDescendants(Session session, String folderId, Integer depth,
+			OperationContext context)
+	{
+		String repositoryId = session.getRepositoryInfo().getId();
+		List<ObjectInFolderContainer> containers = session.getBinding().getNavigationService().getDescendants(
+				repositoryId, folderId, depth != null ? BigInteger.valueOf(depth) : null, context.getFilterString(),
+				context.isIncludeAllowableActions(), context.getIncludeRelationships(),
+				context.getRenditionFilterString(), context.isIncludePathSegments(), null);
+		return toTrees(containers, session.getObjectFactory(), context);
+	}
+
+	/**
+	 * @return the number of objects in the trees
+	 */
+	static int size(List<Tree<FileableCmisObject>> trees)
+	{
+		int size = 0;
+		if(trees != null)
+		{
+			for(Tree<FileableCmisObject> tree : trees)
+			{
+				size += 1 + size(tree.getChildren());
+			}
+		}
+		return size;
+	}
+
+	private static List<Tree<FileableCmisObject>> toTrees(List<ObjectInFolderContainer> containers,
+			ObjectFactory objectFactory, OperationContext context)
+	{
+		List<Tree<FileableCmisObject>> trees = new ArrayList<Tree<FileableCmisObject>>();
+		if(containers == null)
+		{
+			return trees;
+		}
+		for(ObjectInFolderContainer container : containers)
+		{
+			if(container.getObject() == null || container.getObject().getObject() == null)
+			{
+				continue;
+			}
+			CmisObject object = objectFactory.convertObject(container.getObject().getObject(), context);
+			if(!(object instanceof FileableCmisObject))
+			{
+				continue;
+			}
+			List<Tree<FileableCmisObject>> children = container.getChildren() != null
+					? toTrees(container.getChildren(), objectFactory, context) : null;
+			trees.add(new TreeImpl<FileableCmisObject>((FileableCmisObject)object, children));
+		}
+		return trees;
+	}
+}
@@ -0,0 +1,278 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.chemistry.opencmis.client.api.Session;
+import org.springframework.social.alfresco.api.CMISEndpoint;
+
+/**
+ * A thread-safe, bounded registry of OpenCMIS sessions keyed by network, {@link CMISEndpoint} and credentials.
+ *
+ * Creating a session costs a repository info round trip and starts with a cold type cache, so sessions are
+ * reused until they have been idle for longer than the configured idle timeout. When the registry is full the
+ * least recently used session is evicted.
+ *
+ * OpenCMIS sessions are thread-safe, so a single session may be handed out to several threads at once.
+ */
+public class CMISSessionRegistry
+{
+	public static final int DEFAULT_MAX_SESSIONS = 1000;
+	public static final long DEFAULT_IDLE_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(10);
+
+	private static final CMISSessionRegistry DEFAULT_REGISTRY = new CMISSessionRegistry(DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_TIMEOUT_MS);
+
+	private final ConcurrentMap<SessionKey, CachedSession> sessions = new ConcurrentHashMap<SessionKey, CachedSession>();
+	private final int maxSessions;
+	private final long idleTimeoutNanos;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Callback used by the registry to create a session on a miss.
+	 */
+	public interface SessionCreator
+	{
+		Session createSession(String networkId, CMISEndpoint cmisEndpoint);
+	}
+
+	public CMISSessionRegistry(int maxSessions, long idleTimeoutMs)
+	{
+		if(maxSessions < 1)
+		{
+			throw new IllegalArgumentException("maxSessions must be at least 1");
+		}
+		this.maxSessions = maxSessions;
+		this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+	}
+
+	/**
+	 * @return the process-wide registry shared by templates that have not been given their own
+	 */
+	public static CMISSessionRegistry getDefault()
+	{
+		return DEFAULT_REGISTRY;
+	}
+
+	/**
+	 * Get a cached session for the given network, endpoint and credentials, creating one if necessary.
+	 *
+	 * @param credentials an object identifying the credentials the session authenticates with; must implement
+	 *                    equals and hashCode
+	 */
+	public Session getSession(String networkId, CMISEndpoint cmisEndpoint, Object credentials, SessionCreator creator)
+	{
+		SessionKey key = new SessionKey(networkId, cmisEndpoint, credentials);
+		long now = System.nanoTime();
+
+		CachedSession cached = sessions.get(key);
+		if(cached != null)
+		{
+			if(!cached.isIdle(now, idleTimeoutNanos))
+			{
+				cached.touch(now);
+				hits.incrementAndGet();
+				return cached.getSession();
+			}
+			if(sessions.remove(key, cached))
+			{
+				evictions.incrementAndGet();
+			}
+		}
+
+		misses.incrementAndGet();
+		Session session = creator.createSession(networkId, cmisEndpoint);
+		CachedSession created = new CachedSession(session, now);
+		CachedSession existing = sessions.putIfAbsent(key, created);
+		if(existing != null)
+		{
+			// another thread got there first; use its session so that the type cache is shared
+			existing.touch(now);
+			return existing.getSession();
+		}
+
+		if(sessions.size() > maxSessions)
+		{
+			evict(now);
+		}
+
+		return session;
+	}
+
+	/**
+	 * Remove all sessions for the given network.
+	 */
+	public void invalidate(String networkId)
+	{
+		for(Iterator<SessionKey> it = sessions.keySet().iterator(); it.hasNext();)
+		{
+			SessionKey key = it.next();
+			if(key.networkId == null ? networkId == null : key.networkId.equals(networkId))
+			{
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Remove all sessions that authenticate with the given credentials, e.g. because they have expired.
+	 */
+	public void invalidateCredentials(Object credentials)
+	{
+		for(Iterator<SessionKey> it = sessions.keySet().iterator(); it.hasNext();)
+		{
+			SessionKey key = it.next();
+			if(key.credentials == null ? credentials == null : key.credentials.equals(credentials))
+			{
+				it.remove();
+			}
+		}
+	}
+
+	public void clear()
+	{
+		sessions.clear();
+	}
+
+	/**
+	 * Drop idle sessions, then the least recently used ones until the registry is back within its bound.
+	 */
+	private void evict(long now)
+	{
+		for(Iterator<CachedSession> it = sessions.values().iterator(); it.hasNext();)
+		{
+			if(it.next().isIdle(now, idleTimeoutNanos))
+			{
+				it.remove();
+				evictions.incrementAndGet();
+			}
+		}
+
+		while(sessions.size() > maxSessions)
+		{
+			Map.Entry<SessionKey, CachedSession> oldest = null;
+			for(Map.Entry<SessionKey, CachedSession> entry : sessions.entrySet())
+			{
+				if(oldest == null || entry.getValue().lastAccess < oldest.getValue().lastAccess)
+				{
+					oldest = entry;
+				}
+			}
+			if(oldest == null)
+			{
+				break;
+			}
+			if(sessions.remove(oldest.getKey(), oldest.getValue()))
+			{
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	public int size()
+	{
+		return sessions.size();
+	}
+
+	public long getHits()
+	{
+		return hits.get();
+	}
+
+	public long getMisses()
+	{
+		return misses.get();
+	}
+
+	public long getEvictions()
+	{
+		return evictions.get();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CMISSessionRegistry [size=" + sessions.size() + ", maxSessions=" + maxSessions
+				+ ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+	private static class CachedSession
+	{
+		private final Session session;
+		private volatile long lastAccess;
+
+		CachedSession(Session session, long now)
+		{
+			this.session = session;
+			this.lastAccess = now;
+		}
+
+		Session getSession()
+		{
+			return session;
+		}
+
+		void touch(long now)
+		{
+			this.lastAccess = now;
+		}
+
+		boolean isIdle(long now, long idleTimeoutNanos)
+		{
+			return now - lastAccess > idleTimeoutNanos;
+		}
+	}
+
+	private static class SessionKey
+	{
+		private final String networkId;
+		private final CMISEndpoint cmisEndpoint;
+		private final Object credentials;
+		private final int hashCode;
+
+		SessionKey(String networkId, CMISEndpoint cmisEndpoint, Object credentials)
+		{
+			this.networkId = networkId;
+			this.cmisEndpoint = cmisEndpoint;
+			this.credentials = credentials;
+
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((networkId == null) ? 0 : networkId.hashCode());
+			result = prime * result + ((cmisEndpoint == null) ? 0 : cmisEndpoint.hashCode());
+			result = prime * result + ((credentials == null) ? 0 : credentials.hashCode());
+			this.hashCode = result;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			SessionKey other = (SessionKey) obj;
+			if (networkId == null ? other.networkId != null : !networkId.equals(other.networkId))
+				return false;
+			if (cmisEndpoint == null ? other.cmisEndpoint != null : !cmisEndpoint.equals(other.cmisEndpoint))
+				return false;
+			if (credentials == null ? other.credentials != null : !credentials.equals(other.credentials))
+				return false;
+			return true;
+		}
+	}
+}
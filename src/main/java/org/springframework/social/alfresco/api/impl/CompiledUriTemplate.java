@@ -0,0 +1,246 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A URI path template such as <tt>{network}/public/alfresco/versions/1/sites/{site}</tt>, parsed once into literal
+ * and variable segments.
+ *
+ * Expansion is positional: values bind to the distinct variable names in order of first appearance, so
+ * <tt>{network}/.../people/{person}/networks/{network}</tt> takes two values (network, person). Values are
+ * percent-encoded as path segments and appended directly to the caller's buffer, so expanding a template
+ * compiles no regular expressions and allocates no variable maps.
+ *
+ * Instances are immutable and shared: {@link #compile(String)} caches templates by pattern.
+ */
+final class CompiledUriTemplate
+{
+	private static final ConcurrentMap<String, CompiledUriTemplate> templates = new ConcurrentHashMap<String, CompiledUriTemplate>();
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	private final String pattern;
+	// literals[i] precedes the variable at variableIndexes[i]; the last literal trails the template
+	private final String[] literals;
+	private final int[] variableIndexes;
+	private final String[] variableNames;
+
+	private CompiledUriTemplate(String pattern)
+	{
+		List<String> literalList = new ArrayList<String>();
+		List<Integer> indexList = new ArrayList<Integer>();
+		List<String> names = new ArrayList<String>();
+
+		int pos = 0;
+		while(true)
+		{
+			int open = pattern.indexOf('{', pos);
+			if(open == -1)
+			{
+				break;
+			}
+			int close = pattern.indexOf('}', open);
+			if(close == -1)
+			{
+				throw new IllegalArgumentException("Unterminated variable in URI template: " + pattern);
+			}
+			String name = pattern.substring(open + 1, close);
+			int index = names.indexOf(name);
+			if(index == -1)
+			{
+				index = names.size();
+				names.add(name);
+			}
+			literalList.add(pattern.substring(pos, open));
+			indexList.add(index);
+			pos = close + 1;
+		}
+		literalList.add(pattern.substring(pos));
+
+		this.pattern = pattern;
+		this.literals = literalList.toArray(new String[literalList.size()]);
+		this.variableIndexes = new int[indexList.size()];
+		for(int i = 0; i < variableIndexes.length; i++)
+		{
+			variableIndexes[i] = indexList.get(i);
+		}
+		this.variableNames = names.toArray(new String[names.size()]);
+	}
+
+	static CompiledUriTemplate compile(String pattern)
+	{
+		CompiledUriTemplate template = templates.get(pattern);
+		if(template == null)
+		{
+			template = new CompiledUriTemplate(pattern);
+			CompiledUriTemplate existing = templates.putIfAbsent(pattern, template);
+			if(existing != null)
+			{
+				template = existing;
+			}
+		}
+		return template;
+	}
+
+	String getPattern()
+	{
+		return pattern;
+	}
+
+	int getVariableCount()
+	{
+		return variableNames.length;
+	}
+
+	/**
+	 * Append the expanded template to <tt>sb</tt>.
+	 *
+	 * @param values one value per distinct variable, in order of first appearance
+	 */
+	void expand(StringBuilder sb, String... values)
+	{
+		if(values.length != variableNames.length)
+		{
+			throw new IllegalArgumentException("URI template " + pattern + " expects " + variableNames.length
+					+ " values but got " + values.length);
+		}
+		for(int i = 0; i < variableIndexes.length; i++)
+		{
+			sb.append(literals[i]);
+			String value = values[variableIndexes[i]];
+			if(value == null)
+			{
+				throw new IllegalArgumentException("No value for variable '" + variableNames[variableIndexes[i]]
+						+ "' in URI template " + pattern);
+			}
+			appendEncoded(sb, value, false);
+		}
+		sb.append(literals[literals.length - 1]);
+	}
+
+	/**
+	 * Append the template to <tt>sb</tt>, substituting only the named variable and leaving the others as
+	 * <tt>{name}</tt> placeholders.
+	 */
+	void expandVariable(StringBuilder sb, String name, String value)
+	{
+		for(int i = 0; i < variableIndexes.length; i++)
+		{
+			sb.append(literals[i]);
+			String variableName = variableNames[variableIndexes[i]];
+			if(variableName.equals(name))
+			{
+				sb.append(value);
+			}
+			else
+			{
+				sb.append('{').append(variableName).append('}');
+			}
+		}
+		sb.append(literals[literals.length - 1]);
+	}
+
+	/**
+	 * Append an encoded query string, including the leading '?', for the given parameters.
+	 */
+	static void appendQueryString(StringBuilder sb, Map<String, String> parameters)
+	{
+		if(parameters != null && parameters.size() > 0)
+		{
+			sb.append('?');
+			Iterator<Map.Entry<String, String>> entries = parameters.entrySet().iterator();
+			while(entries.hasNext())
+			{
+				Map.Entry<String, String> entry = entries.next();
+				appendEncoded(sb, entry.getKey(), true);
+				sb.append('=');
+				if(entry.getValue() != null)
+				{
+					appendEncoded(sb, entry.getValue(), true);
+				}
+				if(entries.hasNext())
+				{
+					sb.append('&');
+				}
+			}
+		}
+	}
+
+	private static void appendEncoded(StringBuilder sb, String value, boolean query)
+	{
+		int length = value.length();
+		int i = 0;
+		// fast path: ids are almost always made up of unreserved characters only
+		while(i < length && isAllowed(value.charAt(i), query))
+		{
+			i++;
+		}
+		if(i == length)
+		{
+			sb.append(value);
+			return;
+		}
+
+		sb.append(value, 0, i);
+		while(i < length)
+		{
+			char c = value.charAt(i);
+			if(isAllowed(c, query))
+			{
+				sb.append(c);
+				i++;
+			}
+			else
+			{
+				int end = i + 1;
+				if(Character.isHighSurrogate(c) && end < length && Character.isLowSurrogate(value.charAt(end)))
+				{
+					end++;
+				}
+				byte[] bytes = value.substring(i, end).getBytes(UTF8);
+				for(byte b : bytes)
+				{
+					sb.append('%').append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+				}
+				i = end;
+			}
+		}
+	}
+
+	/**
+	 * RFC 3986 pchar, additionally allowing '/' and '?' in query parameters but not the query delimiters.
+	 */
+	private static boolean isAllowed(char c, boolean query)
+	{
+		if((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))
+		{
+			return true;
+		}
+		switch(c)
+		{
+		case '-': case '.': case '_': case '~':
+		case '!': case '$': case '\'': case '(': case ')': case '*': case ',': case ';':
+		case ':': case '@':
+			return true;
+		case '/': case '?':
+			return query;
+		case '=': case '&': case '+':
+			return !query;
+		default:
+			return false;
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return pattern;
+	}
+}
@@ -0,0 +1,273 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers the entities returned by GETs together with their <tt>ETag</tt> and <tt>Last-Modified</tt> headers,
+ * so that the next GET of the same URL with the same credentials is made conditional, with <tt>If-None-Match</tt>
+ * and <tt>If-Modified-Since</tt>, and a <tt>304 Not Modified</tt> answer is served from the cache without reading
+ * or binding a body. Responses without either header are not cached.
+ *
+ * Only the operations the cache is created for are cached, by default the single-entity lookups
+ * {@link #DEFAULT_OPERATIONS}. The cache holds at most <tt>maxEntries</tt> entries whose response bodies add up to
+ * at most <tt>maxWeight</tt> bytes, evicting the least recently used ones beyond that.
+ *
+ * The callers served from the cache all get the same entity instances, which they must therefore not modify. Set
+ * one on a template with {@link AbstractAlfrescoTemplate#setConditionalGetCache(ConditionalGetCache)}; it may be
+ * shared between templates.
+ */
+public class ConditionalGetCache
+{
+	public static final Set<String> DEFAULT_OPERATIONS = Collections.unmodifiableSet(new HashSet<String>(
+			Arrays.asList("getSite", "getPerson", "getNetwork", "getContainer", "getMember", "getPreference")));
+
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+	public static final long DEFAULT_MAX_WEIGHT = 64L * 1024 * 1024;
+
+	/**
+	 * The weight of an entry on top of its response body, for the entry itself and its validators.
+	 */
+	private static final int ENTRY_OVERHEAD = 128;
+
+	private final Set<String> operations;
+	private final int maxEntries;
+	private final long maxWeight;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+	private long weight;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder notModified = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	public ConditionalGetCache()
+	{
+		this(DEFAULT_OPERATIONS, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT);
+	}
+
+	/**
+	 * @param operations the operations to cache, e.g. <tt>getSite</tt>
+	 * @param maxEntries the maximum number of entries
+	 * @param maxWeight  the maximum total size of the cached response bodies, in bytes
+	 */
+	public ConditionalGetCache(Set<String> operations, int maxEntries, long maxWeight)
+	{
+		if(maxEntries < 1 || maxWeight < 1)
+		{
+			throw new IllegalArgumentException("maxEntries and maxWeight must be positive");
+		}
+		this.operations = Collections.unmodifiableSet(new HashSet<String>(operations));
+		this.maxEntries = maxEntries;
+		this.maxWeight = maxWeight;
+	}
+
+	public Set<String> getOperations()
+	{
+		return operations;
+	}
+
+	public boolean isCached(String operation)
+	{
+		return operations.contains(operation);
+	}
+
+	/**
+	 * @return the entry to revalidate for a request, or null if there is none; counted as a hit or a miss
+	 */
+	Entry get(Object key)
+	{
+		Entry entry;
+		lock.lock();
+		try
+		{
+			entry = entries.get(key);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+		if(entry != null)
+		{
+			hits.increment();
+		}
+		else
+		{
+			misses.increment();
+		}
+		return entry;
+	}
+
+	/**
+	 * Record that an entry was served because the server answered 304.
+	 */
+	void notModified()
+	{
+		notModified.increment();
+	}
+
+	/**
+	 * Cache a response, or forget the previous one for the key if the response has no validators.
+	 */
+	void put(Object key, Object value, String etag, String lastModified, long responseBytes)
+	{
+		if(etag == null && lastModified == null)
+		{
+			remove(key);
+			return;
+		}
+		Entry entry = new Entry(value, etag, lastModified, ENTRY_OVERHEAD + Math.max(responseBytes, 0));
+		if(entry.weight > maxWeight)
+		{
+			remove(key);
+			return;
+		}
+		lock.lock();
+		try
+		{
+			Entry previous = entries.put(key, entry);
+			if(previous != null)
+			{
+				weight -= previous.weight;
+			}
+			weight += entry.weight;
+
+			Iterator<Entry> eldest = entries.values().iterator();
+			while((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext())
+			{
+				Entry evicted = eldest.next();
+				eldest.remove();
+				weight -= evicted.weight;
+				evictions.increment();
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	void remove(Object key)
+	{
+		lock.lock();
+		try
+		{
+			Entry previous = entries.remove(key);
+			if(previous != null)
+			{
+				weight -= previous.weight;
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	public void clear()
+	{
+		lock.lock();
+		try
+		{
+			entries.clear();
+			weight = 0;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	public int size()
+	{
+		lock.lock();
+		try
+		{
+			return entries.size();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the total weight of the cached entries, in bytes
+	 */
+	public long getWeight()
+	{
+		lock.lock();
+		try
+		{
+			return weight;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of requests that found an entry and were made conditional
+	 */
+	public long getHits()
+	{
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of conditional requests answered with 304 and served from the cache
+	 */
+	public long getNotModified()
+	{
+		return notModified.sum();
+	}
+
+	/**
+	 * @return the number of requests that found no entry
+	 */
+	public long getMisses()
+	{
+		return misses.sum();
+	}
+
+	public long getEvictions()
+	{
+		return evictions.sum();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ConditionalGetCache [size=" + size() + ", weight=" + getWeight() + ", hits=" + getHits()
+				+ ", notModified=" + getNotModified() + ", misses=" + getMisses() + ", evictions=" + getEvictions()
+				+ "]";
+	}
+
+	/**
+	 * A cached entity and the validators it was returned with.
+	 */
+	static final class Entry
+	{
+		final Object value;
+		final String etag;
+		final String lastModified;
+		final long weight;
+
+		Entry(Object value, String etag, String lastModified, long weight)
+		{
+			this.value = value;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.weight = weight;
+		}
+	}
+}
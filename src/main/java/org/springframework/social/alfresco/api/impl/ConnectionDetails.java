@@ -4,6 +4,10 @@ import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.http.HttpHost;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.conn.scheme.PlainSocketFactory;
 import org.apache.http.conn.scheme.Scheme;
 import org.apache.http.conn.scheme.SchemeRegistry;
@@ -16,6 +20,18 @@ import org.apache.http.params.HttpParams;
 
 public class ConnectionDetails
 {
+	/**
+	 * How long a request waits for a pooled connection in virtual thread mode before failing, if not specified.
+	 */
+	public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT_MS = 60000;
+	/**
+	 * How long a pooled connection may be idle before it is discarded, unless the server says it keeps connections
+	 * for less; below the usual server keep-alive timeouts (20s for Alfresco's Tomcat, 5s for Apache httpd, which
+	 * says so).
+	 */
+	public static final int DEFAULT_IDLE_CONNECTION_TIMEOUT_MS = 5000;
+	public static final int DEFAULT_EVICTION_INTERVAL_MS = 5000;
+
 	private String scheme;
 	private String host;
 	private Integer port;
@@ -28,6 +44,12 @@ public class ConnectionDetails
 	private int connectionTimeoutMs;
 	private int socketTimeoutMs;
 	private int socketTtlMs;
+	private boolean virtualThreads;
+	private int connectionRequestTimeoutMs;
+	private int idleConnectionTimeoutMs = DEFAULT_IDLE_CONNECTION_TIMEOUT_MS;
+	private int evictionIntervalMs = DEFAULT_EVICTION_INTERVAL_MS;
+	private IdleConnectionEvictor evictor;
+	private AuthenticationMode authenticationMode = AuthenticationMode.PREEMPTIVE_BASIC;
 	
 	private PoolingClientConnectionManager httpClientCM;
 	private HttpParams params;
@@ -44,6 +66,28 @@ public class ConnectionDetails
 			String publicApiServletName, String serviceServletName,
 			int maxNumberOfConnections, int connectionTimeoutMs,
 			int socketTimeoutMs, int socketTtlMs)
+	{
+		this(scheme, host, port, username, password, context, publicApiServletName, serviceServletName,
+				maxNumberOfConnections, connectionTimeoutMs, socketTimeoutMs, socketTtlMs, false, 0);
+	}
+
+	/**
+	 * @param virtualThreads                 true if requests will be issued from virtual threads (see
+	 *                                       {@link VirtualThreads}). Callers are then no longer limited by the
+	 *                                       number of threads, so <tt>maxNumberOfConnections</tt> becomes the
+	 *                                       limit on concurrent requests and should be sized for what the server
+	 *                                       can take, rather than for the number of simulated users.
+	 * @param connectionRequestTimeoutMs     how long a request may wait for a pooled connection before failing;
+	 *                                       only used in virtual thread mode, where many more requests than
+	 *                                       connections may be queued. 0 or less means
+	 *                                       {@link #DEFAULT_CONNECTION_REQUEST_TIMEOUT_MS}.
+	 */
+	public ConnectionDetails(String scheme, String host, int port,
+			String username, String password, String context,
+			String publicApiServletName, String serviceServletName,
+			int maxNumberOfConnections, int connectionTimeoutMs,
+			int socketTimeoutMs, int socketTtlMs,
+			boolean virtualThreads, int connectionRequestTimeoutMs)
 	{
 		super();
 		this.scheme = scheme;
@@ -58,8 +102,17 @@ public class ConnectionDetails
 		this.connectionTimeoutMs = connectionTimeoutMs;
 		this.socketTimeoutMs = socketTimeoutMs;
 		this.socketTtlMs = socketTtlMs;
+		this.virtualThreads = virtualThreads;
+		this.connectionRequestTimeoutMs = connectionRequestTimeoutMs > 0 ? connectionRequestTimeoutMs : DEFAULT_CONNECTION_REQUEST_TIMEOUT_MS;
 		
     	this.params = new BasicHttpParams();
+    	if(virtualThreads)
+    	{
+    		// Waiting for a connection parks on the pool's lock condition rather than a monitor, so queued
+    		// virtual threads release their carriers; bound the wait so that an overloaded pool fails requests
+    		// instead of accumulating an unbounded queue.
+    		this.params.setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, this.connectionRequestTimeoutMs);
+    	}
 //    	DefaultHttpClient client = new DefaultHttpClient(params);
 //    	client.getCredentialsProvider().setCredentials(
 //    			new AuthScope(host, connectionData.getPort()),
@@ -83,20 +136,21 @@ public class ConnectionDetails
     	schemeRegistry.register(
     			new Scheme("https", 80, sslSf));
 
+    	// connections are closed after socketTtlMs regardless of use; 0 or less means they may live forever
     	this.httpClientCM = new PoolingClientConnectionManager(schemeRegistry,
-    			(long)socketTimeoutMs, TimeUnit.MILLISECONDS);
+    			socketTtlMs > 0 ? (long)socketTtlMs : -1L, TimeUnit.MILLISECONDS);
     	// Increase max total connections
     	this.httpClientCM.setMaxTotal(maxNumberOfConnections);
     	// Ensure that we don't throttle on a per-scheme basis (BENCH-45)
     	this.httpClientCM.setDefaultMaxPerRoute(maxNumberOfConnections);
 
-    	HttpParams httpParams = new BasicHttpParams();
-
-    	HttpConnectionParams.setConnectionTimeout(httpParams, connectionTimeoutMs);
-    	HttpConnectionParams.setSoTimeout(httpParams, socketTimeoutMs);
-    	HttpConnectionParams.setTcpNoDelay(httpParams, true);
-    	HttpConnectionParams.setStaleCheckingEnabled(httpParams, true);
-    	HttpConnectionParams.setSoKeepalive(httpParams, true);
+    	HttpConnectionParams.setConnectionTimeout(params, connectionTimeoutMs);
+    	HttpConnectionParams.setSoTimeout(params, socketTimeoutMs);
+    	HttpConnectionParams.setTcpNoDelay(params, true);
+    	// connections are discarded before the server's keep-alive runs out (see getKeepAliveStrategy) instead of
+    	// being checked before every request
+    	HttpConnectionParams.setStaleCheckingEnabled(params, false);
+    	HttpConnectionParams.setSoKeepalive(params, true);
 	}
 
 	public String getScheme()
@@ -159,16 +213,105 @@ public class ConnectionDetails
 		return socketTtlMs;
 	}
 
-	public PoolingClientConnectionManager getHttpClientCM()
+	public boolean isVirtualThreads()
+	{
+		return virtualThreads;
+	}
+
+	public int getConnectionRequestTimeoutMs()
+	{
+		return connectionRequestTimeoutMs;
+	}
+
+	public AuthenticationMode getAuthenticationMode()
+	{
+		return authenticationMode;
+	}
+
+	/**
+	 * Set how templates authenticate with these details; defaults to {@link AuthenticationMode#PREEMPTIVE_BASIC}.
+	 */
+	public void setAuthenticationMode(AuthenticationMode authenticationMode)
+	{
+		this.authenticationMode = authenticationMode;
+	}
+
+	public int getIdleConnectionTimeoutMs()
+	{
+		return idleConnectionTimeoutMs;
+	}
+
+	/**
+	 * Set how long a pooled connection may be idle before it is discarded; it should be below the server's
+	 * keep-alive timeout unless the server sends a <tt>Keep-Alive</tt> header. Takes effect if set before the
+	 * connection manager is first used.
+	 */
+	public void setIdleConnectionTimeoutMs(int idleConnectionTimeoutMs)
+	{
+		this.idleConnectionTimeoutMs = idleConnectionTimeoutMs;
+	}
+
+	public int getEvictionIntervalMs()
+	{
+		return evictionIntervalMs;
+	}
+
+	/**
+	 * Set how often idle and expired connections are closed. Takes effect if set before the connection manager is
+	 * first used.
+	 */
+	public void setEvictionIntervalMs(int evictionIntervalMs)
+	{
+		this.evictionIntervalMs = evictionIntervalMs;
+	}
+
+	/**
+	 * Limit the number of connections to one host, below the default of <tt>maxNumberOfConnections</tt> per route.
+	 */
+	public void setMaxConnectionsPerRoute(String host, int port, int maxConnections)
+	{
+		httpClientCM.setMaxPerRoute(new HttpRoute(new HttpHost(host, port, scheme)), maxConnections);
+	}
+
+	/**
+	 * Get the pooled connection manager, starting the idle connection evictor on first use.
+	 */
+	public synchronized PoolingClientConnectionManager getHttpClientCM()
 	{
+		if(evictor == null && evictionIntervalMs > 0)
+		{
+			evictor = new IdleConnectionEvictor(httpClientCM, evictionIntervalMs, idleConnectionTimeoutMs);
+			evictor.start();
+		}
 		return httpClientCM;
 	}
 
+	/**
+	 * Stop the idle connection evictor and close all pooled connections.
+	 */
+	public synchronized void shutdown()
+	{
+		if(evictor != null)
+		{
+			evictor.shutdown();
+			evictor = null;
+		}
+		httpClientCM.shutdown();
+	}
+
 	public HttpParams getParams()
 	{
 		return params;
 	}
 
+	/**
+	 * @return how long clients keep connections from a response in the pool
+	 */
+	public ConnectionKeepAliveStrategy getKeepAliveStrategy()
+	{
+		return new BoundedKeepAliveStrategy(idleConnectionTimeoutMs);
+	}
+
 	@Override
 	public String toString()
 	{
@@ -180,7 +323,11 @@ public class ConnectionDetails
 				+ ", maxNumberOfConnections=" + maxNumberOfConnections
 				+ ", connectionTimeoutMs=" + connectionTimeoutMs
 				+ ", socketTimeoutMs=" + socketTimeoutMs + ", socketTtlMs="
-				+ socketTtlMs + "]";
+				+ socketTtlMs + ", virtualThreads=" + virtualThreads
+				+ ", connectionRequestTimeoutMs=" + connectionRequestTimeoutMs
+				+ ", idleConnectionTimeoutMs=" + idleConnectionTimeoutMs
+				+ ", evictionIntervalMs=" + evictionIntervalMs
+				+ ", authenticationMode=" + authenticationMode + "]";
 	}
 	
     /**
@@ -0,0 +1,630 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of entities keyed by network, entity type and id, that templates read through for
+ * {@link AbstractAlfrescoTemplate#getSite(String, String) sites},
+ * {@link AbstractAlfrescoTemplate#getMember(String, String, String) members} and
+ * {@link AbstractAlfrescoTemplate#getPerson(String, String) people}, and that their mutating calls invalidate or
+ * update, so that a caller reads its own writes.
+ *
+ * Entries expire a fixed time after they were written. Beyond its maximum size the cache evicts according to
+ * W-TinyLFU: new entries enter a small LRU window; an entry leaving the window only replaces the eldest entry of
+ * the main space if it has been used more often recently, as estimated by a count-min sketch of recent accesses
+ * that is halved periodically so that old popularity fades. The main space is a segmented LRU whose protected
+ * segment holds entries that have been used again since entering it. This keeps frequently read entities cached
+ * while one-off reads, such as those of a scan, pass through the window without displacing them.
+ *
+ * The cache holds entities as the server returned them to one user; entities such as sites carry the user's role,
+ * so a cache must not be shared between templates for different users. Callers served from the cache get the same
+ * entity instances, which they must therefore not modify.
+ *
+ * A caller reading through the cache takes a {@link #generation()} before it fetches an entity and caches the
+ * result with {@link #put(String, Class, String, Object, long)}, which drops it if the key was written or
+ * invalidated in the meantime, so that a fetch that raced a mutation cannot cache the entity as it was before.
+ */
+public class EntityCache
+{
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+	public static final long DEFAULT_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+
+	private static final int WINDOW = 0;
+	private static final int PROBATION = 1;
+	private static final int PROTECTED = 2;
+	private static final int GENERATION_STRIPES = 1024;
+
+	private final int maximumSize;
+	private final int windowMaximum;
+	private final int protectedMaximum;
+	private final long ttlNanos;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Map<Key, Node> data = new HashMap<Key, Node>();
+	private final Queue window = new Queue();
+	private final Queue probation = new Queue();
+	private final Queue protectedQueue = new Queue();
+	private final FrequencySketch sketch;
+
+	/**
+	 * The generation at which keys hashing to each stripe were last written or invalidated, and at which
+	 * several keys at once were last invalidated. Keys sharing a stripe at worst reject each other's fetches.
+	 */
+	private final long[] writtenAt = new long[GENERATION_STRIPES];
+	private long prefixInvalidatedAt;
+	private volatile long generation;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+
+	public EntityCache()
+	{
+		this(DEFAULT_MAXIMUM_SIZE, DEFAULT_TTL_MS);
+	}
+
+	/**
+	 * @param maximumSize the maximum number of entities
+	 * @param ttlMs       how long an entity is served for after it was fetched or written
+	 */
+	public EntityCache(int maximumSize, long ttlMs)
+	{
+		if(maximumSize < 1)
+		{
+			throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+		}
+		if(ttlMs <= 0)
+		{
+			throw new IllegalArgumentException("TTL must be positive: " + ttlMs);
+		}
+		this.maximumSize = maximumSize;
+		this.windowMaximum = Math.max(1, maximumSize / 100);
+		int mainMaximum = Math.max(1, maximumSize - windowMaximum);
+		this.protectedMaximum = Math.max(1, mainMaximum * 4 / 5);
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+		this.sketch = new FrequencySketch(maximumSize);
+	}
+
+	/**
+	 * @return the cached entity, or null if there is none or it has expired
+	 */
+	public <T> T get(String network, Class<T> type, String id)
+	{
+		Key key = new Key(network, type, id);
+		lock.lock();
+		try
+		{
+			sketch.increment(key.hash);
+			Node node = data.get(key);
+			if(node != null && node.expiresAt - System.nanoTime() <= 0)
+			{
+				remove(node);
+				node = null;
+			}
+			if(node == null)
+			{
+				misses.increment();
+				return null;
+			}
+			onAccess(node);
+			hits.increment();
+			return type.cast(node.value);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the current generation, to be passed to {@link #put(String, Class, String, Object, long)} with an
+	 *         entity fetched after this call
+	 */
+	public long generation()
+	{
+		return generation;
+	}
+
+	/**
+	 * Cache an entity, replacing any cached for the same key. A null entity invalidates the key.
+	 */
+	public <T> void put(String network, Class<T> type, String id, T value)
+	{
+		if(value == null)
+		{
+			invalidate(network, type, id);
+			return;
+		}
+		Key key = new Key(network, type, id);
+		lock.lock();
+		try
+		{
+			written(key);
+			store(key, value);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Cache an entity fetched after {@link #generation()} returned the given generation, unless the key has since
+	 * been written or invalidated, in which case the entity may predate that change.
+	 *
+	 * @return whether the entity was cached
+	 */
+	public <T> boolean put(String network, Class<T> type, String id, T value, long fetchedAt)
+	{
+		if(value == null)
+		{
+			return false;
+		}
+		Key key = new Key(network, type, id);
+		lock.lock();
+		try
+		{
+			if(writtenAt[stripe(key)] > fetchedAt || prefixInvalidatedAt > fetchedAt)
+			{
+				rejected.increment();
+				return false;
+			}
+			store(key, value);
+			return true;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private void store(Key key, Object value)
+	{
+		long expiresAt = System.nanoTime() + ttlNanos;
+		sketch.increment(key.hash);
+		Node node = data.get(key);
+		if(node != null)
+		{
+			node.value = value;
+			node.expiresAt = expiresAt;
+			onAccess(node);
+			return;
+		}
+		node = new Node(key, value, expiresAt);
+		data.put(key, node);
+		node.queue = WINDOW;
+		window.addLast(node);
+		evict();
+	}
+
+	public void invalidate(String network, Class<?> type, String id)
+	{
+		Key key = new Key(network, type, id);
+		lock.lock();
+		try
+		{
+			written(key);
+			Node node = data.get(key);
+			if(node != null)
+			{
+				remove(node);
+				invalidations.increment();
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Invalidate every entity of a type in a network whose id starts with the given prefix.
+	 */
+	public void invalidatePrefix(String network, Class<?> type, String idPrefix)
+	{
+		lock.lock();
+		try
+		{
+			prefixInvalidatedAt = ++generation;
+			Iterator<Node> nodes = data.values().iterator();
+			while(nodes.hasNext())
+			{
+				Node node = nodes.next();
+				Key key = node.key;
+				if(key.type == type && equal(key.network, network) && key.id != null && key.id.startsWith(idPrefix))
+				{
+					nodes.remove();
+					unlink(node);
+					invalidations.increment();
+				}
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	public void invalidateAll()
+	{
+		lock.lock();
+		try
+		{
+			prefixInvalidatedAt = ++generation;
+			invalidations.add(data.size());
+			data.clear();
+			window.clear();
+			probation.clear();
+			protectedQueue.clear();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	public int size()
+	{
+		lock.lock();
+		try
+		{
+			return data.size();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	public long getHits()
+	{
+		return hits.sum();
+	}
+
+	public long getMisses()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of entities evicted to keep the cache within its maximum size
+	 */
+	public long getEvictions()
+	{
+		return evictions.sum();
+	}
+
+	/**
+	 * @return the number of entities removed because a mutating call changed them
+	 */
+	public long getInvalidations()
+	{
+		return invalidations.sum();
+	}
+
+	/**
+	 * @return the number of fetched entities not cached because their key changed while they were being fetched
+	 */
+	public long getRejected()
+	{
+		return rejected.sum();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "EntityCache [size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions="
+				+ getEvictions() + ", invalidations=" + getInvalidations() + ", rejected=" + getRejected() + "]";
+	}
+
+	private void written(Key key)
+	{
+		writtenAt[stripe(key)] = ++generation;
+	}
+
+	private static int stripe(Key key)
+	{
+		int h = key.hash;
+		return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+	}
+
+	private void onAccess(Node node)
+	{
+		switch(node.queue)
+		{
+		case WINDOW:
+			window.moveToLast(node);
+			break;
+		case PROBATION:
+			probation.remove(node);
+			node.queue = PROTECTED;
+			protectedQueue.addLast(node);
+			if(protectedQueue.size > protectedMaximum)
+			{
+				Node demoted = protectedQueue.removeFirst();
+				demoted.queue = PROBATION;
+				probation.addLast(demoted);
+			}
+			break;
+		default:
+			protectedQueue.moveToLast(node);
+			break;
+		}
+	}
+
+	/**
+	 * Move entries beyond the window's size to the main space, admitting each one only if it is used more often
+	 * than the entry it would displace.
+	 */
+	private void evict()
+	{
+		while(window.size > windowMaximum)
+		{
+			Node candidate = window.removeFirst();
+			candidate.queue = PROBATION;
+			probation.addLast(candidate);
+			if(data.size() <= maximumSize)
+			{
+				continue;
+			}
+
+			Node victim = probation.first();
+			if(victim == candidate)
+			{
+				victim = protectedQueue.first();
+			}
+			Node evicted = victim != null && sketch.frequency(candidate.key.hash) > sketch.frequency(victim.key.hash)
+					? victim : candidate;
+			remove(evicted);
+			evictions.increment();
+		}
+		while(data.size() > maximumSize)
+		{
+			Node evicted = probation.first() != null ? probation.first() : protectedQueue.first();
+			if(evicted == null)
+			{
+				evicted = window.first();
+			}
+			remove(evicted);
+			evictions.increment();
+		}
+	}
+
+	private void remove(Node node)
+	{
+		data.remove(node.key);
+		unlink(node);
+	}
+
+	private void unlink(Node node)
+	{
+		switch(node.queue)
+		{
+		case WINDOW:
+			window.remove(node);
+			break;
+		case PROBATION:
+			probation.remove(node);
+			break;
+		default:
+			protectedQueue.remove(node);
+			break;
+		}
+	}
+
+	private static boolean equal(Object a, Object b)
+	{
+		return a == null ? b == null : a.equals(b);
+	}
+
+	private static final class Key
+	{
+		private final String network;
+		private final Class<?> type;
+		private final String id;
+		private final int hash;
+
+		Key(String network, Class<?> type, String id)
+		{
+			this.network = network;
+			this.type = type;
+			this.id = id;
+			int h = type.hashCode();
+			h = 31 * h + (network != null ? network.hashCode() : 0);
+			h = 31 * h + (id != null ? id.hashCode() : 0);
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if(this == o)
+			{
+				return true;
+			}
+			if(!(o instanceof Key))
+			{
+				return false;
+			}
+			Key other = (Key)o;
+			return hash == other.hash && type == other.type && equal(network, other.network) && equal(id, other.id);
+		}
+	}
+
+	private static final class Node
+	{
+		private final Key key;
+		private Object value;
+		private long expiresAt;
+		private int queue;
+		private Node prev;
+		private Node next;
+
+		Node(Key key, Object value, long expiresAt)
+		{
+			this.key = key;
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	/**
+	 * A doubly linked list of nodes, eldest first.
+	 */
+	private static final class Queue
+	{
+		private Node head;
+		private Node tail;
+		private int size;
+
+		Node first()
+		{
+			return head;
+		}
+
+		void addLast(Node node)
+		{
+			node.prev = tail;
+			node.next = null;
+			if(tail == null)
+			{
+				head = node;
+			}
+			else
+			{
+				tail.next = node;
+			}
+			tail = node;
+			size++;
+		}
+
+		Node removeFirst()
+		{
+			Node node = head;
+			remove(node);
+			return node;
+		}
+
+		void remove(Node node)
+		{
+			if(node.prev == null)
+			{
+				head = node.next;
+			}
+			else
+			{
+				node.prev.next = node.next;
+			}
+			if(node.next == null)
+			{
+				tail = node.prev;
+			}
+			else
+			{
+				node.next.prev = node.prev;
+			}
+			node.prev = null;
+			node.next = null;
+			size--;
+		}
+
+		void moveToLast(Node node)
+		{
+			if(node != tail)
+			{
+				remove(node);
+				addLast(node);
+			}
+		}
+
+		void clear()
+		{
+			head = null;
+			tail = null;
+			size = 0;
+		}
+	}
+
+	/**
+	 * A count-min sketch of 4-bit counters estimating how often each key has been accessed recently. Once as many
+	 * accesses as ten times the cache's size have been counted, all counters are halved.
+	 */
+	private static final class FrequencySketch
+	{
+		private static final int DEPTH = 4;
+		private static final int MAX_COUNT = 15;
+		private static final int[] SEEDS = { 0x97CB3127, 0xB4B82E39, 0x9E3779B9, 0xC2B2AE35 };
+
+		private final byte[][] counters;
+		private final int mask;
+		private final int sampleSize;
+		private int additions;
+
+		FrequencySketch(int maximumSize)
+		{
+			int width = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 24)) * 2 - 1);
+			this.counters = new byte[DEPTH][width];
+			this.mask = width - 1;
+			this.sampleSize = (int)Math.min(10L * maximumSize, Integer.MAX_VALUE);
+		}
+
+		int frequency(int hash)
+		{
+			int frequency = MAX_COUNT;
+			for(int i = 0; i < DEPTH; i++)
+			{
+				frequency = Math.min(frequency, counters[i][index(hash, i)]);
+			}
+			return frequency;
+		}
+
+		void increment(int hash)
+		{
+			boolean added = false;
+			for(int i = 0; i < DEPTH; i++)
+			{
+				int index = index(hash, i);
+				if(counters[i][index] < MAX_COUNT)
+				{
+					counters[i][index]++;
+					added = true;
+				}
+			}
+			if(added && ++additions >= sampleSize)
+			{
+				reset();
+			}
+		}
+
+		private void reset()
+		{
+			for(byte[] row : counters)
+			{
+				for(int i = 0; i < row.length; i++)
+				{
+					row[i] >>= 1;
+				}
+			}
+			additions /= 2;
+		}
+
+		private int index(int hash, int row)
+		{
+			int h = (hash ^ (hash >>> 16)) * SEEDS[row];
+			return (h ^ (h >>> 15)) & mask;
+		}
+	}
+}
@@ -0,0 +1,652 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.BeanProperty.Std;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.deser.StdDeserializer;
+import org.codehaus.jackson.map.module.SimpleModule;
+import org.codehaus.jackson.map.type.TypeFactory;
+import org.codehaus.jackson.type.JavaType;
+import org.springframework.social.alfresco.api.entities.Activity;
+import org.springframework.social.alfresco.api.entities.ActivityType;
+import org.springframework.social.alfresco.api.entities.AlfrescoList;
+import org.springframework.social.alfresco.api.entities.Comment;
+import org.springframework.social.alfresco.api.entities.Container;
+import org.springframework.social.alfresco.api.entities.Favourite;
+import org.springframework.social.alfresco.api.entities.Member;
+import org.springframework.social.alfresco.api.entities.Person;
+import org.springframework.social.alfresco.api.entities.Role;
+import org.springframework.social.alfresco.api.entities.Site;
+import org.springframework.social.alfresco.api.entities.Tag;
+
+/**
+ * Streaming deserializers for the entities that make up most responses. Each reads the parser's tokens and calls
+ * the entity's setters directly, instead of going through Jackson's bean introspection and reflective setters.
+ *
+ * They accept the same JSON as the bean deserializers: properties are named after the setters, scalars are coerced
+ * the way Jackson coerces them, and unknown properties are handled according to the mapper's configuration. When an
+ * entity gains a property its deserializer here must gain it too.
+ *
+ * Properties that hold identifiers are read through the codec's {@link IdentifierPool}, if one has been set; the
+ * deserializers share the reference to it that {@link #register(SimpleModule, AtomicReference)} is given.
+ */
+final class EntityDeserializers
+{
+	private EntityDeserializers()
+	{
+	}
+
+	static void register(SimpleModule module, AtomicReference<IdentifierPool> identifierPool)
+	{
+		module.addDeserializer(Site.class, new SiteDeserializer(identifierPool));
+		module.addDeserializer(Member.class, new MemberDeserializer(identifierPool));
+		module.addDeserializer(Person.class, new PersonDeserializer(identifierPool));
+		module.addDeserializer(Person.Company.class, new CompanyDeserializer(identifierPool));
+		module.addDeserializer(Activity.class, new ActivityDeserializer(identifierPool));
+		module.addDeserializer(Activity.ActivitySummary.class, new ActivitySummaryDeserializer(identifierPool));
+		module.addDeserializer(Comment.class, new CommentDeserializer(identifierPool));
+		module.addDeserializer(Tag.class, new TagDeserializer(identifierPool));
+		module.addDeserializer(Favourite.class, new FavouriteDeserializer(identifierPool));
+	}
+
+	/**
+	 * Reads an object's fields one by one, leaving the parser on its END_OBJECT.
+	 */
+	abstract static class EntityDeserializer<T> extends StdDeserializer<T>
+	{
+		final AtomicReference<IdentifierPool> identifierPool;
+
+		EntityDeserializer(Class<T> type, AtomicReference<IdentifierPool> identifierPool)
+		{
+			super(type);
+			this.identifierPool = identifierPool;
+		}
+
+		@Override
+		public T deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException
+		{
+			JsonToken t = jp.getCurrentToken();
+			if(t == JsonToken.START_OBJECT)
+			{
+				t = jp.nextToken();
+			}
+			else if(t != JsonToken.FIELD_NAME && t != JsonToken.END_OBJECT)
+			{
+				throw ctxt.mappingException(getValueClass());
+			}
+
+			T value = newInstance();
+			for(; t == JsonToken.FIELD_NAME; t = jp.nextToken())
+			{
+				String name = jp.getCurrentName();
+				jp.nextToken();
+				if(!setProperty(jp, ctxt, value, name))
+				{
+					handleUnknownProperty(jp, ctxt, value, name);
+				}
+			}
+			return value;
+		}
+
+		abstract T newInstance();
+
+		/**
+		 * Set the named property from the current value token, skipping its children if it is a structure.
+		 *
+		 * @return false if the entity has no such property
+		 */
+		abstract boolean setProperty(JsonParser jp, DeserializationContext ctxt, T value, String name)
+				throws IOException, JsonProcessingException;
+
+		String text(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException
+		{
+			JsonToken t = jp.getCurrentToken();
+			if(t == JsonToken.VALUE_NULL)
+			{
+				return null;
+			}
+			if(t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY)
+			{
+				throw ctxt.mappingException(String.class);
+			}
+			return jp.getText();
+		}
+
+		/**
+		 * Read an identifier, sharing it through the identifier pool if there is one.
+		 */
+		String id(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException
+		{
+			IdentifierPool pool = identifierPool.get();
+			if(pool == null || jp.getCurrentToken() != JsonToken.VALUE_STRING)
+			{
+				return text(jp, ctxt);
+			}
+			return pool.intern(jp.getTextCharacters(), jp.getTextOffset(), jp.getTextLength());
+		}
+
+		boolean bool(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException
+		{
+			return _parseBooleanPrimitive(jp, ctxt);
+		}
+
+		<E extends Enum<E>> E enumValue(JsonParser jp, DeserializationContext ctxt, Class<E> type)
+				throws IOException, JsonProcessingException
+		{
+			String name = text(jp, ctxt);
+			if(name == null)
+			{
+				return null;
+			}
+			try
+			{
+				return Enum.valueOf(type, name);
+			}
+			catch(IllegalArgumentException e)
+			{
+				throw ctxt.weirdStringException(type, "value not one of declared Enum instance names");
+			}
+		}
+
+		<V> V nested(JsonParser jp, DeserializationContext ctxt, JsonDeserializer<V> deserializer)
+				throws IOException, JsonProcessingException
+		{
+			return jp.getCurrentToken() == JsonToken.VALUE_NULL ? null : deserializer.deserialize(jp, ctxt);
+		}
+
+		/**
+		 * Bind a value that has no streaming deserializer of its own with the mapper's deserializer for its type.
+		 */
+		@SuppressWarnings("unchecked")
+		<V> V bind(JsonParser jp, DeserializationContext ctxt, JavaType type) throws IOException, JsonProcessingException
+		{
+			if(jp.getCurrentToken() == JsonToken.VALUE_NULL)
+			{
+				return null;
+			}
+			JsonDeserializer<?> deserializer = ctxt.getDeserializerProvider().findValueDeserializer(ctxt.getConfig(),
+					type, new Std("", type, null, null));
+			return (V)deserializer.deserialize(jp, ctxt);
+		}
+	}
+
+	static class SiteDeserializer extends EntityDeserializer<Site>
+	{
+		private static final JavaType CONTAINERS_TYPE = TypeFactory.defaultInstance()
+				.constructParametricType(AlfrescoList.class, Container.class);
+
+		SiteDeserializer(AtomicReference<IdentifierPool> identifierPool)
+		{
+			super(Site.class, identifierPool);
+		}
+
+		@Override
+		Site newInstance()
+		{
+			return new Site();
+		}
+
+		@Override
+		boolean setProperty(JsonParser jp, DeserializationContext ctxt, Site site, String name)
+				throws IOException, JsonProcessingException
+		{
+			switch(name)
+			{
+			case "id":
+				site.setId(id(jp, ctxt));
+				return true;
+			case "guid":
+				site.setGuid(text(jp, ctxt));
+				return true;
+			case "title":
+				site.setTitle(text(jp, ctxt));
+				return true;
+			case "description":
+				site.setDescription(text(jp, ctxt));
+				return true;
+			case "visibility":
+				site.setVisibility(enumValue(jp, ctxt, Site.Visibility.class));
+				return true;
+			case "sitePreset":
+				site.setSitePreset(text(jp, ctxt));
+				return true;
+			case "role":
+				site.setRole(enumValue(jp, ctxt, Role.class));
+				return true;
+			case "site":
+				site.setSite(nested(jp, ctxt, this));
+				return true;
+			case "containers":
+				site.setContainers(this.<AlfrescoList<Container>>bind(jp, ctxt, CONTAINERS_TYPE));
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+
+	static class MemberDeserializer extends EntityDeserializer<Member>
+	{
+		private final PersonDeserializer personDeserializer;
+
+		MemberDeserializer(AtomicReference<IdentifierPool> identifierPool)
+		{
+			super(Member.class, identifierPool);
+			this.personDeserializer = new PersonDeserializer(identifierPool);
+		}
+
+		@Override
+		Member newInstance()
+		{
+			return new Member();
+		}
+
+		@Override
+		boolean setProperty(JsonParser jp, DeserializationContext ctxt, Member member, String name)
+				throws IOException, JsonProcessingException
+		{
+			switch(name)
+			{
+			case "id":
+				member.setId(id(jp, ctxt));
+				return true;
+			case "role":
+				member.setRole(enumValue(jp, ctxt, Role.class));
+				return true;
+			case "person":
+				member.setPerson(nested(jp, ctxt, personDeserializer));
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+
+	static class PersonDeserializer extends EntityDeserializer<Person>
+	{
+		private final CompanyDeserializer companyDeserializer;
+
+		PersonDeserializer(AtomicReference<IdentifierPool> identifierPool)
+		{
+			super(Person.class, identifierPool);
+			this.companyDeserializer = new CompanyDeserializer(identifierPool);
+		}
+
+		@Override
+		Person newInstance()
+		{
+			return new Person();
+		}
+
+		@SuppressWarnings("deprecation")
+		@Override
+		boolean setProperty(JsonParser jp, DeserializationContext ctxt, Person person, String name)
+				throws IOException, JsonProcessingException
+		{
+			switch(name)
+			{
+			case "id":
+				person.setId(id(jp, ctxt));
+				return true;
+			case "enabled":
+				person.setEnabled(bool(jp, ctxt));
+				return true;
+			case "firstName":
+				person.setFirstName(text(jp, ctxt));
+				return true;
+			case "lastName":
+				person.setLastName(text(jp, ctxt));
+				return true;
+			case "location":
+				person.setLocation(text(jp, ctxt));
+				return true;
+			case "instantMessageId":
+				person.setInstantMessageId(text(jp, ctxt));
+				return true;
+			case "avatarId":
+				person.setAvatarId(text(jp, ctxt));
+				return true;
+			case "avatar":
+				person.setAvatar(text(jp, ctxt));
+				return true;
+			case "googleId":
+				person.setGoogleId(text(jp, ctxt));
+				return true;
+			case "skypeId":
+				person.setSkypeId(text(jp, ctxt));
+				return true;
+			case "telephone":
+				person.setTelephone(text(jp, ctxt));
+				return true;
+			case "mobile":
+				person.setMobile(text(jp, ctxt));
+				return true;
+			case "jobTitle":
+				person.setJobTitle(text(jp, ctxt));
+				return true;
+			case "email":
+				person.setEmail(text(jp, ctxt));
+				return true;
+			case "description":
+				person.setDescription(text(jp, ctxt));
+				return true;
+			case "company":
+				person.setCompany(nested(jp, ctxt, companyDeserializer));
+				return true;
+			case "statusUpdatedAt":
+				person.setStatusUpdatedAt(Iso8601.parseDate(jp, ctxt));
+				return true;
+			case "userStatus":
+				person.setUserStatus(text(jp, ctxt));
+				return true;
+			case "createdAt":
+				person.setCreatedAt(Iso8601.parseDate(jp, ctxt));
+				return true;
+			case "canEdit":
+				person.setCanEdit(bool(jp, ctxt));
+				return true;
+			case "emailNotificationsEnabled":
+				person.setEmailNotificationsEnabled(bool(jp, ctxt));
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+
+	static class CompanyDeserializer extends EntityDeserializer<Person.Company>
+	{
+		CompanyDeserializer(AtomicReference<IdentifierPool> identifierPool)
+		{
+			super(Person.Company.class, identifierPool);
+		}
+
+		@Override
+		Person.Company newInstance()
+		{
+			return new Person.Company();
+		}
+
+		@Override
+		boolean setProperty(JsonParser jp, DeserializationContext ctxt, Person.Company company, String name)
+				throws IOException, JsonProcessingException
+		{
+			switch(name)
+			{
+			case "organization":
+				company.setOrganization(text(jp, ctxt));
+				return true;
+			case "address1":
+				company.setAddress1(text(jp, ctxt));
+				return true;
+			case "address2":
+				company.setAddress2(text(jp, ctxt));
+				return true;
+			case "address3":
+				company.setAddress3(text(jp, ctxt));
+				return true;
+			case "postcode":
+				company.setPostcode(text(jp, ctxt));
+				return true;
+			case "telephone":
+				company.setTelephone(text(jp, ctxt));
+				return true;
+			case "fax":
+				company.setFax(text(jp, ctxt));
+				return true;
+			case "email":
+				company.setEmail(text(jp, ctxt));
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+
+	static class ActivityDeserializer extends EntityDeserializer<Activity>
+	{
+		private final ActivitySummaryDeserializer summaryDeserializer;
+
+		ActivityDeserializer(AtomicReference<IdentifierPool> identifierPool)
+		{
+			super(Activity.class, identifierPool);
+			this.summaryDeserializer = new ActivitySummaryDeserializer(identifierPool);
+		}
+
+		@Override
+		Activity newInstance()
+		{
+			return new Activity();
+		}
+
+		@Override
+		boolean setProperty(JsonParser jp, DeserializationContext ctxt, Activity activity, String name)
+				throws IOException, JsonProcessingException
+		{
+			switch(name)
+			{
+			case "id":
+				activity.setId(text(jp, ctxt));
+				return true;
+			case "postPersonId":
+				activity.setPostPersonId(id(jp, ctxt));
+				return true;
+			case "siteId":
+				activity.setSiteId(id(jp, ctxt));
+				return true;
+			case "networkId":
+				activity.setNetworkId(id(jp, ctxt));
+				return true;
+			case "feedPersonId":
+				activity.setFeedPersonId(id(jp, ctxt));
+				return true;
+			case "activitySummary":
+				activity.setActivitySummary(nested(jp, ctxt, summaryDeserializer));
+				return true;
+			case "activityType":
+				ActivityType type = jp.getCurrentToken() == JsonToken.VALUE_STRING
+						? ActivityType.fromValue(jp.getTextCharacters(), jp.getTextOffset(), jp.getTextLength()) : null;
+				if(type != null)
+				{
+					activity.setType(type);
+				}
+				else
+				{
+					activity.setActivityType(id(jp, ctxt));
+				}
+				return true;
+			case "postedAt":
+				activity.setPostedAt(Iso8601.parseDate(jp, ctxt));
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+
+	static class ActivitySummaryDeserializer extends EntityDeserializer<Activity.ActivitySummary>
+	{
+		ActivitySummaryDeserializer(AtomicReference<IdentifierPool> identifierPool)
+		{
+			super(Activity.ActivitySummary.class, identifierPool);
+		}
+
+		@Override
+		Activity.ActivitySummary newInstance()
+		{
+			return new Activity.ActivitySummary();
+		}
+
+		@Override
+		boolean setProperty(JsonParser jp, DeserializationContext ctxt, Activity.ActivitySummary summary, String name)
+				throws IOException, JsonProcessingException
+		{
+			switch(name)
+			{
+			case "firstName":
+				summary.setFirstName(text(jp, ctxt));
+				return true;
+			case "lastName":
+				summary.setLastName(text(jp, ctxt));
+				return true;
+			case "title":
+				summary.setTitle(text(jp, ctxt));
+				return true;
+			case "objectId":
+				summary.setObjectId(text(jp, ctxt));
+				return true;
+			case "parentObjectId":
+				summary.setParentObjectId(id(jp, ctxt));
+				return true;
+			case "memberPersonId":
+				summary.setMemberPersonId(id(jp, ctxt));
+				return true;
+			case "memberFirstName":
+				summary.setMemberFirstName(text(jp, ctxt));
+				return true;
+			case "memberLastName":
+				summary.setMemberLastName(text(jp, ctxt));
+				return true;
+			case "role":
+				Role role = jp.getCurrentToken() == JsonToken.VALUE_STRING
+						? Role.fromName(jp.getTextCharacters(), jp.getTextOffset(), jp.getTextLength()) : null;
+				summary.setRole(role != null ? role.name() : text(jp, ctxt));
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+
+	static class CommentDeserializer extends EntityDeserializer<Comment>
+	{
+		private final PersonDeserializer personDeserializer;
+
+		CommentDeserializer(AtomicReference<IdentifierPool> identifierPool)
+		{
+			super(Comment.class, identifierPool);
+			this.personDeserializer = new PersonDeserializer(identifierPool);
+		}
+
+		@Override
+		Comment newInstance()
+		{
+			return new Comment();
+		}
+
+		@Override
+		boolean setProperty(JsonParser jp, DeserializationContext ctxt, Comment comment, String name)
+				throws IOException, JsonProcessingException
+		{
+			switch(name)
+			{
+			case "id":
+				comment.setId(text(jp, ctxt));
+				return true;
+			case "nodeId":
+				comment.setNodeId(id(jp, ctxt));
+				return true;
+			case "content":
+				comment.setContent(text(jp, ctxt));
+				return true;
+			case "edited":
+				comment.setEdited(bool(jp, ctxt));
+				return true;
+			case "createdAt":
+				comment.setCreatedAt(Iso8601.parseDate(jp, ctxt));
+				return true;
+			case "createdBy":
+				comment.setCreatedBy(nested(jp, ctxt, personDeserializer));
+				return true;
+			case "modifiedAt":
+				comment.setModifiedAt(Iso8601.parseDate(jp, ctxt));
+				return true;
+			case "modifiedBy":
+				comment.setModifiedBy(nested(jp, ctxt, personDeserializer));
+				return true;
+			case "canDelete":
+				comment.setCanDelete(bool(jp, ctxt));
+				return true;
+			case "canEdit":
+				comment.setCanEdit(bool(jp, ctxt));
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+
+	static class TagDeserializer extends EntityDeserializer<Tag>
+	{
+		TagDeserializer(AtomicReference<IdentifierPool> identifierPool)
+		{
+			super(Tag.class, identifierPool);
+		}
+
+		@Override
+		Tag newInstance()
+		{
+			return new Tag();
+		}
+
+		@Override
+		boolean setProperty(JsonParser jp, DeserializationContext ctxt, Tag tag, String name)
+				throws IOException, JsonProcessingException
+		{
+			switch(name)
+			{
+			case "id":
+				tag.setId(id(jp, ctxt));
+				return true;
+			case "tag":
+				tag.setTag(text(jp, ctxt));
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+
+	static class FavouriteDeserializer extends EntityDeserializer<Favourite>
+	{
+		private final AbstractAlfrescoTemplate.FavouriteTargetDeserializer targetDeserializer =
+				new AbstractAlfrescoTemplate.FavouriteTargetDeserializer();
+
+		FavouriteDeserializer(AtomicReference<IdentifierPool> identifierPool)
+		{
+			super(Favourite.class, identifierPool);
+		}
+
+		@Override
+		Favourite newInstance()
+		{
+			return new Favourite();
+		}
+
+		@Override
+		boolean setProperty(JsonParser jp, DeserializationContext ctxt, Favourite favourite, String name)
+				throws IOException, JsonProcessingException
+		{
+			switch(name)
+			{
+			case "targetGuid":
+				favourite.setTargetGuid(id(jp, ctxt));
+				return true;
+			case "createdAt":
+				favourite.setCreatedAt(Iso8601.parseDate(jp, ctxt));
+				return true;
+			case "target":
+				favourite.setTarget(nested(jp, ctxt, targetDeserializer));
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of identifier strings, such as network, site and person ids, that the entity deserializers share
+ * between the entities they build, so that an id repeated throughout a large result set is held in memory once
+ * instead of once per entity.
+ *
+ * The pool is a fixed-size table of slots indexed by the hash of the identifier, each holding the last identifier
+ * that hashed to it. Lookups compare the parser's characters with the pooled string directly, so a hit creates
+ * no String at all; a miss creates one and replaces whatever was in its slot. The pool therefore never holds more
+ * than its capacity, needs no locking, and keeps the identifiers that recur most often.
+ *
+ * Enable it with {@link JsonCodec#setIdentifierPool(IdentifierPool)}.
+ */
+public class IdentifierPool
+{
+	public static final int DEFAULT_CAPACITY = 4096;
+	public static final int DEFAULT_MAX_LENGTH = 128;
+
+	/**
+	 * An estimate of the memory taken by a String apart from its characters: the object header and fields of the
+	 * String and the header of its char array.
+	 */
+	private static final int STRING_OVERHEAD = 40;
+
+	private final AtomicReferenceArray<String> slots;
+	private final int mask;
+	private final int maxLength;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder bytesSaved = new LongAdder();
+
+	public IdentifierPool()
+	{
+		this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+	}
+
+	/**
+	 * @param capacity  the number of slots, rounded up to a power of two
+	 * @param maxLength the length beyond which strings are not pooled
+	 */
+	public IdentifierPool(int capacity, int maxLength)
+	{
+		if(capacity < 1 || capacity > 1 << 30)
+		{
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+		}
+		if(maxLength < 1)
+		{
+			throw new IllegalArgumentException("Max length must be positive: " + maxLength);
+		}
+		int size = Integer.highestOneBit(capacity);
+		if(size < capacity)
+		{
+			size <<= 1;
+		}
+		this.slots = new AtomicReferenceArray<String>(size);
+		this.mask = size - 1;
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * @return the pooled string with the given characters, adding it to the pool if it is not there
+	 */
+	public String intern(char[] chars, int offset, int length)
+	{
+		if(length > maxLength)
+		{
+			return new String(chars, offset, length);
+		}
+
+		int h = 0;
+		for(int i = offset; i < offset + length; i++)
+		{
+			h = 31 * h + chars[i];
+		}
+		int index = (h ^ (h >>> 16)) & mask;
+
+		String pooled = slots.get(index);
+		if(pooled != null && matches(pooled, chars, offset, length))
+		{
+			hits.increment();
+			bytesSaved.add(STRING_OVERHEAD + 2L * length);
+			return pooled;
+		}
+
+		misses.increment();
+		String s = new String(chars, offset, length);
+		slots.lazySet(index, s);
+		return s;
+	}
+
+	public String intern(String s)
+	{
+		if(s == null)
+		{
+			return null;
+		}
+		return intern(s.toCharArray(), 0, s.length());
+	}
+
+	private static boolean matches(String pooled, char[] chars, int offset, int length)
+	{
+		if(pooled.length() != length)
+		{
+			return false;
+		}
+		for(int i = 0; i < length; i++)
+		{
+			if(pooled.charAt(i) != chars[offset + i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int getCapacity()
+	{
+		return slots.length();
+	}
+
+	public long getHits()
+	{
+		return hits.sum();
+	}
+
+	public long getMisses()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * @return the fraction of lookups that found their identifier in the pool, or 0 if there have been none
+	 */
+	public double getHitRate()
+	{
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total > 0 ? (double)h / total : 0;
+	}
+
+	/**
+	 * @return an estimate of the bytes of Strings that hits have avoided creating
+	 */
+	public long getBytesSaved()
+	{
+		return bytesSaved.sum();
+	}
+
+	/**
+	 * Empty the pool and reset its counters.
+	 */
+	public void clear()
+	{
+		for(int i = 0; i < slots.length(); i++)
+		{
+			slots.set(i, null);
+		}
+		hits.reset();
+		misses.reset();
+		bytesSaved.reset();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "IdentifierPool [capacity=" + getCapacity() + ", hits=" + getHits() + ", misses=" + getMisses()
+				+ ", bytesSaved=" + getBytesSaved() + "]";
+	}
+}
@@ -0,0 +1,70 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.conn.ClientConnectionManager;
+
+/**
+ * A daemon thread that periodically closes pooled connections that have expired or been idle for too long.
+ *
+ * Connections are not reused past their keep-alive (see {@link BoundedKeepAliveStrategy}) whether or not the
+ * evictor has run; it closes them so that their sockets are not held open in the meantime.
+ */
+public class IdleConnectionEvictor extends Thread
+{
+	private static final Log log = LogFactory.getLog(IdleConnectionEvictor.class);
+
+	private final ClientConnectionManager connectionManager;
+	private final long evictionIntervalMs;
+	private final long maxIdleTimeMs;
+	private volatile boolean shutdown;
+
+	/**
+	 * @param evictionIntervalMs how often to look for idle connections
+	 * @param maxIdleTimeMs      how long a connection may sit unused in the pool before it is closed
+	 */
+	public IdleConnectionEvictor(ClientConnectionManager connectionManager, long evictionIntervalMs, long maxIdleTimeMs)
+	{
+		super("alfresco-idle-connection-evictor");
+		setDaemon(true);
+		this.connectionManager = connectionManager;
+		this.evictionIntervalMs = evictionIntervalMs;
+		this.maxIdleTimeMs = maxIdleTimeMs;
+	}
+
+	@Override
+	public void run()
+	{
+		try
+		{
+			while(!shutdown)
+			{
+				synchronized(this)
+				{
+					wait(evictionIntervalMs);
+				}
+				connectionManager.closeExpiredConnections();
+				connectionManager.closeIdleConnections(maxIdleTimeMs, TimeUnit.MILLISECONDS);
+			}
+		}
+		catch(InterruptedException e)
+		{
+			// shut down
+		}
+		catch(RuntimeException e)
+		{
+			log.warn("Idle connection eviction stopped", e);
+		}
+	}
+
+	public void shutdown()
+	{
+		shutdown = true;
+		synchronized(this)
+		{
+			notifyAll();
+		}
+	}
+}
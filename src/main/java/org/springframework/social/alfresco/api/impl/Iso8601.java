@@ -0,0 +1,406 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.text.DateFormat;
+import java.util.Date;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.SerializationConfig;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.util.StdDateFormat;
+
+/**
+ * Parses and formats ISO-8601 timestamps such as <tt>2012-11-13T14:08:37.000+0000</tt> arithmetically, without the
+ * per-value <tt>SimpleDateFormat</tt> and <tt>Calendar</tt> that Jackson's default date handling uses.
+ *
+ * Accepted forms are a date (<tt>yyyy-MM-dd</tt>), optionally followed by <tt>T</tt> and a time
+ * (<tt>HH:mm[:ss[.fraction]]</tt>) and a zone (<tt>Z</tt>, <tt>+hh</tt>, <tt>+hhmm</tt> or <tt>+hh:mm</tt>);
+ * values without a zone are UTC. Fractions beyond milliseconds are truncated. Years outside 0000-9999 take a sign
+ * and at least four digits, e.g. <tt>-0044-03-15</tt> or <tt>+12019-01-01</tt>. Dates are proleptic Gregorian.
+ * Formatting always produces <tt>yyyy-MM-dd'T'HH:mm:ss.SSS+0000</tt>, Jackson's own default, with a signed year
+ * where one is needed.
+ */
+public final class Iso8601
+{
+	private static final long MILLIS_PER_DAY = 86400000L;
+	private static final int FORMATTED_LENGTH = 28;
+	private static final int MAX_YEAR_DIGITS = 9;
+
+	private Iso8601()
+	{
+	}
+
+	/**
+	 * @return the timestamp in milliseconds since the epoch
+	 * @throws IllegalArgumentException if the text is not an ISO-8601 timestamp
+	 */
+	public static long parse(CharSequence text)
+	{
+		return parse(text, 0, text.length());
+	}
+
+	public static long parse(char[] chars, int offset, int length)
+	{
+		return parse(CharBuffer.wrap(chars, offset, length), 0, length);
+	}
+
+	private static long parse(CharSequence s, int start, int length)
+	{
+		int end = start + length;
+		int pos = start;
+
+		int year;
+		if(pos < end && (s.charAt(pos) == '+' || s.charAt(pos) == '-'))
+		{
+			int yearStart = pos + 1;
+			int yearEnd = yearStart;
+			while(yearEnd < end && isDigit(s.charAt(yearEnd)))
+			{
+				yearEnd++;
+			}
+			int yearDigits = yearEnd - yearStart;
+			if(yearDigits < 4 || yearDigits > MAX_YEAR_DIGITS)
+			{
+				throw invalid(s, start, end);
+			}
+			year = digits(s, yearStart, yearDigits, end) * (s.charAt(pos) == '-' ? -1 : 1);
+			pos = expect(s, yearEnd, '-', end);
+		}
+		else
+		{
+			year = digits(s, pos, 4, end);
+			pos = expect(s, pos + 4, '-', end);
+		}
+		int month = digits(s, pos, 2, end);
+		pos = expect(s, pos + 2, '-', end);
+		int day = digits(s, pos, 2, end);
+		pos += 2;
+		if(month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month))
+		{
+			throw invalid(s, start, end);
+		}
+
+		int hour = 0;
+		int minute = 0;
+		int second = 0;
+		int millis = 0;
+		int offsetMinutes = 0;
+		if(pos < end)
+		{
+			char c = s.charAt(pos);
+			if(c != 'T' && c != 't')
+			{
+				throw invalid(s, start, end);
+			}
+			hour = digits(s, pos + 1, 2, end);
+			pos = expect(s, pos + 3, ':', end);
+			minute = digits(s, pos, 2, end);
+			pos += 2;
+			if(pos < end && s.charAt(pos) == ':')
+			{
+				second = digits(s, pos + 1, 2, end);
+				pos += 3;
+				if(pos < end && (s.charAt(pos) == '.' || s.charAt(pos) == ','))
+				{
+					pos++;
+					int scale = 100;
+					int fractionStart = pos;
+					while(pos < end && isDigit(s.charAt(pos)))
+					{
+						millis += (s.charAt(pos) - '0') * scale;
+						scale /= 10;
+						pos++;
+					}
+					if(pos == fractionStart)
+					{
+						throw invalid(s, start, end);
+					}
+				}
+			}
+			if(hour > 23 || minute > 59 || second > 60)
+			{
+				throw invalid(s, start, end);
+			}
+
+			if(pos < end)
+			{
+				c = s.charAt(pos);
+				if(c == 'Z' || c == 'z')
+				{
+					pos++;
+				}
+				else if(c == '+' || c == '-')
+				{
+					int offsetHours = digits(s, pos + 1, 2, end);
+					pos += 3;
+					int offsetMins = 0;
+					if(pos < end)
+					{
+						if(s.charAt(pos) == ':')
+						{
+							pos++;
+						}
+						offsetMins = digits(s, pos, 2, end);
+						pos += 2;
+					}
+					if(offsetHours > 18 || offsetMins > 59)
+					{
+						throw invalid(s, start, end);
+					}
+					offsetMinutes = (offsetHours * 60 + offsetMins) * (c == '-' ? -1 : 1);
+				}
+			}
+			if(pos != end)
+			{
+				throw invalid(s, start, end);
+			}
+		}
+
+		long days = daysFromCivil(year, month, day);
+		long secondOfDay = hour * 3600L + minute * 60L + second - offsetMinutes * 60L;
+		try
+		{
+			long millisOfDay = secondOfDay * 1000L + millis;
+			if(days < 0)
+			{
+				// keep the intermediate in range for the earliest dates
+				return Math.addExact(Math.multiplyExact(days + 1, MILLIS_PER_DAY), millisOfDay - MILLIS_PER_DAY);
+			}
+			return Math.addExact(Math.multiplyExact(days, MILLIS_PER_DAY), millisOfDay);
+		}
+		catch(ArithmeticException e)
+		{
+			// beyond the range of a Date
+			throw invalid(s, start, end);
+		}
+	}
+
+	/**
+	 * @return the timestamp as <tt>yyyy-MM-dd'T'HH:mm:ss.SSS+0000</tt>, or with a signed year of four or more
+	 *         digits outside 0000-9999
+	 */
+	public static String format(long millis)
+	{
+		long days = Math.floorDiv(millis, MILLIS_PER_DAY);
+		int millisOfDay = (int)Math.floorMod(millis, MILLIS_PER_DAY);
+
+		// civil from days, after Howard Hinnant's algorithm
+		long z = days + 719468;
+		long era = (z >= 0 ? z : z - 146096) / 146097;
+		long dayOfEra = z - era * 146097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long mp = (5 * dayOfYear + 2) / 153;
+		int day = (int)(dayOfYear - (153 * mp + 2) / 5 + 1);
+		int month = (int)(mp < 10 ? mp + 3 : mp - 9);
+		int year = (int)(yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+		char[] buf;
+		int p;
+		if(year >= 0 && year <= 9999)
+		{
+			buf = new char[FORMATTED_LENGTH];
+			put(buf, 0, year, 4);
+			p = 4;
+		}
+		else
+		{
+			int absYear = Math.abs(year);
+			int width = Math.max(4, Integer.toString(absYear).length());
+			buf = new char[FORMATTED_LENGTH + 1 + width - 4];
+			buf[0] = year < 0 ? '-' : '+';
+			put(buf, 1, absYear, width);
+			p = 1 + width;
+		}
+		buf[p] = '-';
+		put(buf, p + 1, month, 2);
+		buf[p + 3] = '-';
+		put(buf, p + 4, day, 2);
+		buf[p + 6] = 'T';
+		put(buf, p + 7, millisOfDay / 3600000, 2);
+		buf[p + 9] = ':';
+		put(buf, p + 10, millisOfDay / 60000 % 60, 2);
+		buf[p + 12] = ':';
+		put(buf, p + 13, millisOfDay / 1000 % 60, 2);
+		buf[p + 15] = '.';
+		put(buf, p + 16, millisOfDay % 1000, 3);
+		buf[p + 19] = '+';
+		buf[p + 20] = '0';
+		buf[p + 21] = '0';
+		buf[p + 22] = '0';
+		buf[p + 23] = '0';
+		return new String(buf);
+	}
+
+	/**
+	 * Read a date from the parser's current token: a number of milliseconds since the epoch, or an ISO-8601 string,
+	 * falling back on the mapper's date format for anything else.
+	 */
+	static Date parseDate(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException
+	{
+		JsonToken t = jp.getCurrentToken();
+		if(t == JsonToken.VALUE_NUMBER_INT)
+		{
+			return new Date(jp.getLongValue());
+		}
+		if(t == JsonToken.VALUE_NULL)
+		{
+			return null;
+		}
+		if(t != JsonToken.VALUE_STRING)
+		{
+			throw ctxt.mappingException(Date.class);
+		}
+
+		char[] chars = jp.getTextCharacters();
+		int offset = jp.getTextOffset();
+		int length = jp.getTextLength();
+		while(length > 0 && Character.isWhitespace(chars[offset + length - 1]))
+		{
+			length--;
+		}
+		while(length > 0 && Character.isWhitespace(chars[offset]))
+		{
+			offset++;
+			length--;
+		}
+		if(length == 0)
+		{
+			return null;
+		}
+		try
+		{
+			return new Date(parse(chars, offset, length));
+		}
+		catch(IllegalArgumentException e)
+		{
+			String text = new String(chars, offset, length);
+			try
+			{
+				return ctxt.parseDate(text);
+			}
+			catch(IllegalArgumentException e2)
+			{
+				throw ctxt.weirdStringException(Date.class, "not a valid representation (error: " + e2.getMessage() + ")");
+			}
+		}
+	}
+
+	static class DateDeserializer extends JsonDeserializer<Date>
+	{
+		@Override
+		public Date deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException
+		{
+			return parseDate(jp, ctxt);
+		}
+	}
+
+	/**
+	 * Writes dates as timestamps or ISO-8601 strings, as the mapper's {@link SerializationConfig.Feature#WRITE_DATES_AS_TIMESTAMPS}
+	 * says; a date format other than Jackson's default set on the mapper is used instead of {@link #format(long)}.
+	 */
+	static class DateSerializer extends JsonSerializer<Date>
+	{
+		@Override
+		public void serialize(Date value, JsonGenerator jgen, SerializerProvider provider)
+				throws IOException, JsonProcessingException
+		{
+			if(provider.isEnabled(SerializationConfig.Feature.WRITE_DATES_AS_TIMESTAMPS))
+			{
+				jgen.writeNumber(value.getTime());
+			}
+			else
+			{
+				DateFormat dateFormat = provider.getConfig().getDateFormat();
+				if(dateFormat == null || dateFormat.getClass() == StdDateFormat.class)
+				{
+					jgen.writeString(format(value.getTime()));
+				}
+				else
+				{
+					provider.defaultSerializeDateValue(value, jgen);
+				}
+			}
+		}
+	}
+
+	private static long daysFromCivil(int year, int month, int day)
+	{
+		long y = month <= 2 ? year - 1 : year;
+		long era = (y >= 0 ? y : y - 399) / 400;
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	private static int daysInMonth(int year, int month)
+	{
+		switch(month)
+		{
+		case 2:
+			return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	private static int digits(CharSequence s, int pos, int count, int end)
+	{
+		if(pos + count > end)
+		{
+			throw invalid(s, 0, end);
+		}
+		int value = 0;
+		for(int i = pos; i < pos + count; i++)
+		{
+			char c = s.charAt(i);
+			if(!isDigit(c))
+			{
+				throw invalid(s, 0, end);
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	private static int expect(CharSequence s, int pos, char c, int end)
+	{
+		if(pos >= end || s.charAt(pos) != c)
+		{
+			throw invalid(s, 0, end);
+		}
+		return pos + 1;
+	}
+
+	private static boolean isDigit(char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+
+	private static void put(char[] buf, int pos, int value, int width)
+	{
+		for(int i = pos + width - 1; i >= pos; i--)
+		{
+			buf[i] = (char)('0' + value % 10);
+			value /= 10;
+		}
+	}
+
+	private static IllegalArgumentException invalid(CharSequence s, int start, int end)
+	{
+		return new IllegalArgumentException("Not an ISO-8601 timestamp: " + s.subSequence(start, end));
+	}
+}
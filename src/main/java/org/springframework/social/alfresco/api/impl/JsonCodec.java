@@ -0,0 +1,252 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.alfresco.service.synchronization.api.GetChangesResponse;
+import org.alfresco.service.synchronization.api.StartSyncRequest;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.Version;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.ObjectWriter;
+import org.codehaus.jackson.map.module.SimpleModule;
+import org.codehaus.jackson.type.JavaType;
+import org.springframework.social.alfresco.api.entities.Activity;
+import org.springframework.social.alfresco.api.entities.AlfrescoList;
+import org.springframework.social.alfresco.api.entities.Comment;
+import org.springframework.social.alfresco.api.entities.Container;
+import org.springframework.social.alfresco.api.entities.Favourite;
+import org.springframework.social.alfresco.api.entities.FavouriteTarget;
+import org.springframework.social.alfresco.api.entities.LegacyPerson;
+import org.springframework.social.alfresco.api.entities.LegacySite;
+import org.springframework.social.alfresco.api.entities.Member;
+import org.springframework.social.alfresco.api.entities.Network;
+import org.springframework.social.alfresco.api.entities.Person;
+import org.springframework.social.alfresco.api.entities.Preference;
+import org.springframework.social.alfresco.api.entities.Rating;
+import org.springframework.social.alfresco.api.entities.Site;
+import org.springframework.social.alfresco.api.entities.SiteMembershipRequest;
+import org.springframework.social.alfresco.api.entities.StartSyncResponse;
+import org.springframework.social.alfresco.api.entities.Subscriber;
+import org.springframework.social.alfresco.api.entities.Subscription;
+import org.springframework.social.alfresco.api.entities.Tag;
+import org.springframework.social.alfresco.api.entities.UserActivationRequest;
+import org.springframework.social.alfresco.api.entities.UserActivationResponse;
+import org.springframework.social.alfresco.api.entities.UserRegistrationRequest;
+import org.springframework.social.alfresco.api.entities.UserRegistrationResponse;
+
+/**
+ * The process-wide JSON configuration: one {@link ObjectMapper}, configured once, and a binding per type holding its
+ * {@link JavaType} and the reader and writer for it, so that requests neither build types nor look up serializers.
+ *
+ * Bindings for the entities of the API are created up front; others are created on first use and kept. Call
+ * {@link #warmUp()} at startup to have the mapper introspect every entity before the first request instead of
+ * during it.
+ */
+public final class JsonCodec
+{
+	private static final List<Class<?>> ENTRY_TYPES = Arrays.<Class<?>>asList(Activity.class, Comment.class,
+			Container.class, Favourite.class, GetChangesResponse.class, Member.class, Network.class, Person.class,
+			Preference.class, Rating.class, Site.class, SiteMembershipRequest.class, StartSyncResponse.class,
+			Subscriber.class, Subscription.class, Tag.class);
+
+	private static final List<Class<?>> TYPES = Arrays.<Class<?>>asList(JsonNode.class, LegacyPerson.class,
+			LegacySite.class, StartSyncRequest.class, UserActivationRequest.class, UserActivationResponse.class,
+			UserRegistrationRequest.class, UserRegistrationResponse.class);
+
+	private static final JsonCodec DEFAULT = new JsonCodec();
+
+	private final ObjectMapper mapper;
+	private final ConcurrentMap<Class<?>, Binding> responseBindings = new ConcurrentHashMap<Class<?>, Binding>();
+	private final ConcurrentMap<Class<?>, Binding> bindings = new ConcurrentHashMap<Class<?>, Binding>();
+	private final AtomicReference<IdentifierPool> identifierPool = new AtomicReference<IdentifierPool>();
+	private volatile boolean warm;
+
+	private JsonCodec()
+	{
+		mapper = new ObjectMapper();
+	    SimpleModule module = new SimpleModule("", new Version(1, 0, 0, null));
+		module.addDeserializer(FavouriteTarget.class, new AbstractAlfrescoTemplate.FavouriteTargetDeserializer());
+		module.addDeserializer(Date.class, new Iso8601.DateDeserializer());
+		module.addSerializer(Date.class, new Iso8601.DateSerializer());
+		module.addDeserializer(AlfrescoList.class, new AlfrescoListDeserializer());
+		EntityDeserializers.register(module, identifierPool);
+//		module.addDeserializer(ObjectData.class, new NodeDeserializer());
+//		module.addSerializer(ObjectData.class, new NodeSerializer());
+		mapper.registerModule(module);
+
+		for(Class<?> type : ENTRY_TYPES)
+		{
+			responseBinding(type);
+			binding(type);
+		}
+		for(Class<?> type : TYPES)
+		{
+			binding(type);
+		}
+	}
+
+	public static JsonCodec getDefault()
+	{
+		return DEFAULT;
+	}
+
+	/**
+	 * @return the mapper behind the codec; it must not be reconfigured
+	 */
+	public ObjectMapper getObjectMapper()
+	{
+		return mapper;
+	}
+
+	/**
+	 * Have this codec's entity deserializers share the ids they read, such as network, site and person ids, through
+	 * a pool.
+	 *
+	 * @param identifierPool the pool, or null to stop pooling
+	 */
+	public void setIdentifierPool(IdentifierPool identifierPool)
+	{
+		this.identifierPool.set(identifierPool);
+	}
+
+	/**
+	 * @return the pool ids are shared through, or null if they are not pooled
+	 */
+	public IdentifierPool getIdentifierPool()
+	{
+		return identifierPool.get();
+	}
+
+	/**
+	 * @return the binding for a public API response whose entry or list entries are of the given type
+	 */
+	public Binding responseBinding(Class<?> entryType)
+	{
+		Binding binding = responseBindings.get(entryType);
+		if(binding == null)
+		{
+			binding = putIfAbsent(responseBindings, entryType,
+					new Binding(mapper.getTypeFactory().constructParametricType(Response.class, entryType)));
+		}
+		return binding;
+	}
+
+	public Binding binding(Class<?> type)
+	{
+		Binding binding = bindings.get(type);
+		if(binding == null)
+		{
+			binding = putIfAbsent(bindings, type, new Binding(mapper.getTypeFactory().constructType(type)));
+		}
+		return binding;
+	}
+
+	/**
+	 * Have the mapper build and cache the serializers and deserializers of every entity. Only the first call does
+	 * any work.
+	 */
+	public void warmUp()
+	{
+		if(warm)
+		{
+			return;
+		}
+		synchronized(this)
+		{
+			if(warm)
+			{
+				return;
+			}
+			for(Binding binding : responseBindings.values())
+			{
+				mapper.canDeserialize(binding.type);
+			}
+			for(Binding binding : bindings.values())
+			{
+				mapper.canDeserialize(binding.type);
+				mapper.canSerialize(binding.type.getRawClass());
+			}
+			warm = true;
+		}
+	}
+
+	private static Binding putIfAbsent(ConcurrentMap<Class<?>, Binding> bindings, Class<?> type, Binding binding)
+	{
+		Binding existing = bindings.putIfAbsent(type, binding);
+		return existing != null ? existing : binding;
+	}
+
+	/**
+	 * A type together with the reader and writer for it.
+	 */
+	public final class Binding
+	{
+		private final JavaType type;
+		private final ObjectReader reader;
+		private final ObjectWriter writer;
+		private final Set<String> fields;
+
+		private Binding(JavaType type)
+		{
+			this.type = type;
+			this.reader = mapper.reader(type);
+			this.writer = mapper.typedWriter(type);
+			this.fields = null;
+		}
+
+		private Binding(Binding binding, Set<String> fields)
+		{
+			this.type = binding.type;
+			this.reader = binding.reader;
+			this.writer = binding.writer;
+			this.fields = fields;
+		}
+
+		public JavaType getType()
+		{
+			return type;
+		}
+
+		/**
+		 * @return a binding for the same type that reads only the given fields of the entries of a response,
+		 *         skipping the others; see {@link org.springframework.social.alfresco.api.Projection}
+		 */
+		public Binding project(Set<String> fields)
+		{
+			return fields != null ? new Binding(this, fields) : this;
+		}
+
+		public <T> T read(InputStream in) throws IOException
+		{
+			if(fields == null)
+			{
+				return reader.<T>readValue(in);
+			}
+			JsonParser jp = new ProjectingParser(mapper.getJsonFactory().createJsonParser(in), fields);
+			try
+			{
+				return reader.<T>readValue(jp);
+			}
+			finally
+			{
+				jp.close();
+			}
+		}
+
+		public void write(OutputStream out, Object value) throws IOException
+		{
+			writer.writeValue(out, value);
+		}
+	}
+}
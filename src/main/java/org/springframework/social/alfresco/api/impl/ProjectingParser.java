@@ -0,0 +1,75 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonStreamContext;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.util.JsonParserDelegate;
+
+/**
+ * Hides the fields of each <tt>entry</tt> of a public API response that are not in a projection: their names and
+ * values, including any objects or arrays below them, are skipped in the underlying parser without being handed to
+ * the deserializers, so nothing is built for them.
+ *
+ * Only the response's own entries are projected, i.e. <tt>{"entry": {...}}</tt> and
+ * <tt>{"list": {"entries": [{"entry": {...}}, ...]}}</tt>; an <tt>entry</tt> further down, such as those of a
+ * site's <tt>containers</tt>, belongs to a field that is kept or skipped whole.
+ */
+class ProjectingParser extends JsonParserDelegate
+{
+	private static final String ENTRY = "entry";
+	private static final String ENTRIES = "entries";
+	private static final String LIST = "list";
+
+	private final Set<String> fields;
+
+	ProjectingParser(JsonParser parser, Set<String> fields)
+	{
+		super(parser);
+		this.fields = fields;
+	}
+
+	@Override
+	public JsonToken nextToken() throws IOException, JsonParseException
+	{
+		JsonToken t = delegate.nextToken();
+		while(t == JsonToken.FIELD_NAME && isEntityField() && !fields.contains(delegate.getCurrentName()))
+		{
+			delegate.nextToken();
+			delegate.skipChildren();
+			t = delegate.nextToken();
+		}
+		return t;
+	}
+
+	private boolean isEntityField()
+	{
+		JsonStreamContext wrapper = delegate.getParsingContext().getParent();
+		if(!isField(wrapper, ENTRY))
+		{
+			return false;
+		}
+		JsonStreamContext parent = wrapper.getParent();
+		if(parent.inRoot())
+		{
+			return true;
+		}
+		if(!parent.inArray() || !isField(parent.getParent(), ENTRIES))
+		{
+			return false;
+		}
+		JsonStreamContext response = parent.getParent().getParent();
+		return isField(response, LIST) && response.getParent().inRoot();
+	}
+
+	/**
+	 * @return true if the context is an object whose current field is the given one
+	 */
+	private static boolean isField(JsonStreamContext context, String name)
+	{
+		return context != null && context.inObject() && name.equals(context.getCurrentName());
+	}
+}
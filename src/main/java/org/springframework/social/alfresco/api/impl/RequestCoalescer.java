@@ -0,0 +1,159 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Merges identical calls that are in flight at the same time: the first caller for a key makes the call, and
+ * callers for the same key that arrive before it has finished wait for it and get its result, or its exception,
+ * instead of making the call again. Once the call has finished the next caller for the key makes a new one.
+ *
+ * Waiters share the result object, so it must not be modified by any of them. Only idempotent calls whose key
+ * identifies everything that affects their result, e.g. the URL and the credentials of a GET, may be coalesced.
+ *
+ * A caller that finds no call in flight takes no lock; see {@link AbstractAlfrescoTemplate#setRequestCoalescer}.
+ */
+public class RequestCoalescer
+{
+	private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<Object, CompletableFuture<Object>>();
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder executions = new LongAdder();
+
+	@SuppressWarnings("unchecked")
+	public <T> T execute(Object key, Callable<T> call) throws IOException
+	{
+		requests.increment();
+		CompletableFuture<Object> pending = inFlight.get(key);
+		if(pending == null)
+		{
+			CompletableFuture<Object> mine = new CompletableFuture<Object>();
+			pending = inFlight.putIfAbsent(key, mine);
+			if(pending == null)
+			{
+				return run(key, mine, call);
+			}
+		}
+		return (T)await(pending);
+	}
+
+	private <T> T run(Object key, CompletableFuture<Object> mine, Callable<T> call) throws IOException
+	{
+		executions.increment();
+		T result;
+		try
+		{
+			result = call.call();
+		}
+		catch(Throwable e)
+		{
+			inFlight.remove(key, mine);
+			mine.completeExceptionally(e);
+			throw rethrow(e);
+		}
+		// remove before completing, so that callers arriving from now on make a new call
+		inFlight.remove(key, mine);
+		mine.complete(result);
+		return result;
+	}
+
+	private static Object await(CompletableFuture<Object> pending) throws IOException
+	{
+		try
+		{
+			return pending.get();
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			InterruptedIOException ie = new InterruptedIOException("Interrupted waiting for a coalesced request");
+			ie.initCause(e);
+			throw ie;
+		}
+		catch(ExecutionException e)
+		{
+			throw rethrow(e.getCause());
+		}
+	}
+
+	private static IOException rethrow(Throwable e) throws IOException
+	{
+		if(e instanceof IOException)
+		{
+			throw (IOException)e;
+		}
+		if(e instanceof RuntimeException)
+		{
+			throw (RuntimeException)e;
+		}
+		if(e instanceof Error)
+		{
+			throw (Error)e;
+		}
+		return new IOException(e);
+	}
+
+	/**
+	 * @return the number of calls made through the coalescer
+	 */
+	public long getRequests()
+	{
+		return requests.sum();
+	}
+
+	/**
+	 * @return the number of calls actually executed
+	 */
+	public long getExecutions()
+	{
+		return executions.sum();
+	}
+
+	/**
+	 * @return the number of calls that were answered by another call in flight
+	 */
+	public long getCoalesced()
+	{
+		long executed = executions.sum();
+		return requests.sum() - executed;
+	}
+
+	/**
+	 * @return the fraction of calls that were answered by another call in flight, or 0 if there have been none
+	 */
+	public double getCoalescingRatio()
+	{
+		long executed = executions.sum();
+		long total = requests.sum();
+		return total > 0 ? (double)(total - executed) / total : 0;
+	}
+
+	/**
+	 * @return the number of distinct calls in flight
+	 */
+	public int getInFlight()
+	{
+		return inFlight.size();
+	}
+
+	/**
+	 * @return the number of callers waiting for the call in flight for the key, approximately
+	 */
+	int getWaiters(Object key)
+	{
+		CompletableFuture<Object> pending = inFlight.get(key);
+		return pending != null ? pending.getNumberOfDependents() : 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "RequestCoalescer [requests=" + getRequests() + ", executions=" + getExecutions() + ", inFlight="
+				+ getInFlight() + "]";
+	}
+}
@@ -0,0 +1,366 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.springframework.social.alfresco.api.PageIterator;
+import org.springframework.social.alfresco.api.entities.Tag;
+
+/**
+ * A per-network index of tags by their text, so that finding a tag by name does not page through the network's
+ * tag list.
+ *
+ * A network's tags are loaded in one paged pass on first use and reloaded once they are older than the maximum
+ * staleness. Tags created or renamed through the template are applied to the index as they happen, including while
+ * it is being reloaded. A lookup that misses refreshes the network incrementally, at most once per miss refresh
+ * interval per network, by reading the tag list from where the last load or refresh left off, so that tags created
+ * by other clients are picked up for the cost of a page or two; tags that other clients list elsewhere, or rename,
+ * are picked up by the next reload. A tag that was still missing after a refresh is remembered as missing for the
+ * miss refresh interval, so that repeatedly looking up a tag that does not exist, e.g. before adding it, costs
+ * nothing.
+ *
+ * Loads hold a lock rather than a monitor, and while a network is being reloaded other threads carry on with the
+ * previous index instead of waiting. An index may be shared by templates for different users of the same networks.
+ */
+public class TagIndex
+{
+	public static final long DEFAULT_MAX_STALENESS_MS = TimeUnit.MINUTES.toMillis(5);
+	public static final long DEFAULT_MISS_REFRESH_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
+
+	/**
+	 * How many tags an incremental refresh reads again before where the last one left off, to make up for tags
+	 * deleted since.
+	 */
+	private static final int REFRESH_OVERLAP = 10;
+
+	/**
+	 * The most tags remembered as missing per network; beyond this they are forgotten.
+	 */
+	private static final int MAX_MISSES = 10000;
+
+	/**
+	 * Callback used to load a network's tags.
+	 */
+	public interface TagLoader
+	{
+		/**
+		 * @param skipCount the number of tags to skip, 0 to load them all
+		 */
+		PageIterator<Tag> iterateTags(String network, int skipCount);
+	}
+
+	private final TagLoader loader;
+	private final long maxStalenessNanos;
+	private final long missRefreshIntervalNanos;
+	private final ConcurrentMap<String, NetworkTags> networks = new ConcurrentHashMap<String, NetworkTags>();
+
+	public TagIndex(TagLoader loader)
+	{
+		this(loader, DEFAULT_MAX_STALENESS_MS, DEFAULT_MISS_REFRESH_INTERVAL_MS);
+	}
+
+	/**
+	 * @param maxStalenessMs        how old a network's index may get before it is reloaded
+	 * @param missRefreshIntervalMs the minimum time between incremental refreshes of a network caused by lookup
+	 *                              misses, and how long a tag is remembered as missing
+	 */
+	public TagIndex(TagLoader loader, long maxStalenessMs, long missRefreshIntervalMs)
+	{
+		this.loader = loader;
+		this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+		this.missRefreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(missRefreshIntervalMs);
+	}
+
+	/**
+	 * @return the tag with the given text in the network, or null if there is none
+	 */
+	public Tag getTag(String network, String tag)
+	{
+		NetworkTags networkTags = getNetworkTags(network);
+		long now = System.nanoTime();
+		if(now - networkTags.loadedAt > maxStalenessNanos)
+		{
+			networkTags.load(now, true);
+		}
+
+		Tag found = networkTags.tags.get(tag);
+		if(found != null)
+		{
+			return found;
+		}
+		Long missedAt = networkTags.misses.get(tag);
+		if(missedAt != null && now - missedAt <= missRefreshIntervalNanos)
+		{
+			return null;
+		}
+
+		if(now - networkTags.refreshedAt > missRefreshIntervalNanos)
+		{
+			networkTags.load(now, false);
+			found = networkTags.tags.get(tag);
+		}
+		if(found == null)
+		{
+			if(networkTags.misses.size() >= MAX_MISSES)
+			{
+				networkTags.misses.clear();
+			}
+			networkTags.misses.put(tag, now);
+		}
+		return found;
+	}
+
+	/**
+	 * Record a tag that has been created or returned by the server.
+	 */
+	public void put(String network, final Tag tag)
+	{
+		NetworkTags networkTags = networks.get(network);
+		if(networkTags != null && tag != null && tag.getTag() != null)
+		{
+			networkTags.update(tags -> tags.put(tag.getTag(), tag));
+			networkTags.misses.remove(tag.getTag());
+		}
+	}
+
+	/**
+	 * Record that the tag with the given id has been renamed.
+	 */
+	public void rename(String network, final String tagId, final String tag)
+	{
+		NetworkTags networkTags = networks.get(network);
+		if(networkTags != null)
+		{
+			networkTags.update(tags ->
+			{
+				Tag renamed = removeById(tags, tagId);
+				if(renamed == null)
+				{
+					renamed = new Tag();
+					renamed.setId(tagId);
+				}
+				renamed.setTag(tag);
+				tags.put(tag, renamed);
+			});
+			networkTags.misses.remove(tag);
+		}
+	}
+
+	/**
+	 * Drop the network's index; it is reloaded on next use.
+	 */
+	public void invalidate(String network)
+	{
+		networks.remove(network);
+	}
+
+	public void clear()
+	{
+		networks.clear();
+	}
+
+	private NetworkTags getNetworkTags(String network)
+	{
+		NetworkTags networkTags = networks.get(network);
+		if(networkTags == null)
+		{
+			NetworkTags created = new NetworkTags(network);
+			networkTags = networks.putIfAbsent(network, created);
+			if(networkTags == null)
+			{
+				networkTags = created;
+			}
+		}
+		return networkTags;
+	}
+
+	/**
+	 * @return the removed tag, or null if there was none with the id
+	 */
+	private static Tag removeById(Map<String, Tag> tags, String tagId)
+	{
+		Tag removed = null;
+		for(Iterator<Tag> it = tags.values().iterator(); it.hasNext();)
+		{
+			Tag tag = it.next();
+			if(tagId.equals(tag.getId()))
+			{
+				it.remove();
+				removed = tag;
+			}
+		}
+		return removed;
+	}
+
+	private class NetworkTags
+	{
+		private final String network;
+		private final ReentrantLock loadLock = new ReentrantLock();
+		/**
+		 * Guards changes to the index, so that those made while it is being loaded are also recorded in the
+		 * journal and applied to what was loaded.
+		 */
+		private final ReentrantLock updateLock = new ReentrantLock();
+		private volatile Map<String, Tag> tags = new ConcurrentHashMap<String, Tag>();
+		private final ConcurrentMap<String, Long> misses = new ConcurrentHashMap<String, Long>();
+		private List<Consumer<Map<String, Tag>>> journal;
+		private volatile long loadedAt;
+		private volatile long refreshedAt;
+		private volatile boolean loaded;
+		/**
+		 * The number of tags the server listed as of the last load or refresh.
+		 */
+		private volatile int listed;
+
+		NetworkTags(String network)
+		{
+			this.network = network;
+			long now = System.nanoTime();
+			// both intervals start out elapsed so that the first lookup loads
+			this.loadedAt = now - maxStalenessNanos - 1;
+			this.refreshedAt = now - missRefreshIntervalNanos - 1;
+		}
+
+		void update(Consumer<Map<String, Tag>> change)
+		{
+			updateLock.lock();
+			try
+			{
+				change.accept(tags);
+				if(journal != null)
+				{
+					journal.add(change);
+				}
+			}
+			finally
+			{
+				updateLock.unlock();
+			}
+		}
+
+		/**
+		 * Reload the network's tags, or refresh them from where the last load left off, unless another thread is
+		 * already doing so; only wait for it when there is nothing to fall back on or when the caller has just
+		 * missed.
+		 */
+		void load(long now, boolean reload)
+		{
+			if(loaded && reload)
+			{
+				if(!loadLock.tryLock())
+				{
+					return;
+				}
+			}
+			else
+			{
+				loadLock.lock();
+			}
+
+			try
+			{
+				// someone else loaded while we waited
+				if(loaded && (reload ? loadedAt : refreshedAt) - now >= 0)
+				{
+					return;
+				}
+				reload |= !loaded;
+				int skipCount = reload ? 0 : Math.max(0, listed - REFRESH_OVERLAP);
+
+				updateLock.lock();
+				try
+				{
+					journal = new ArrayList<Consumer<Map<String, Tag>>>();
+				}
+				finally
+				{
+					updateLock.unlock();
+				}
+
+				Map<String, Tag> fetched = new ConcurrentHashMap<String, Tag>();
+				boolean complete = false;
+				try
+				{
+					PageIterator<Tag> it = loader.iterateTags(network, skipCount);
+					try
+					{
+						while(it.hasNext())
+						{
+							Tag tag = it.next();
+							fetched.put(tag.getTag(), tag);
+						}
+					}
+					finally
+					{
+						it.close();
+					}
+					complete = true;
+				}
+				finally
+				{
+					publish(fetched, reload, complete);
+				}
+
+				long loadedNow = System.nanoTime();
+				listed = skipCount + fetched.size();
+				refreshedAt = loadedNow;
+				if(reload)
+				{
+					misses.clear();
+					loadedAt = loadedNow;
+					loaded = true;
+				}
+				else
+				{
+					misses.keySet().removeAll(fetched.keySet());
+				}
+			}
+			finally
+			{
+				loadLock.unlock();
+			}
+		}
+
+		/**
+		 * Replace the index with the reloaded tags, or add the refreshed ones to it, then apply the changes made
+		 * while they were being fetched, which are newer.
+		 */
+		private void publish(Map<String, Tag> fetched, boolean reload, boolean complete)
+		{
+			updateLock.lock();
+			try
+			{
+				List<Consumer<Map<String, Tag>>> changes = journal;
+				journal = null;
+				if(complete)
+				{
+					Map<String, Tag> target = tags;
+					if(reload)
+					{
+						target = fetched;
+					}
+					else
+					{
+						target.putAll(fetched);
+					}
+					for(Consumer<Map<String, Tag>> change : changes)
+					{
+						change.accept(target);
+					}
+					tags = target;
+				}
+			}
+			finally
+			{
+				updateLock.unlock();
+			}
+		}
+	}
+}
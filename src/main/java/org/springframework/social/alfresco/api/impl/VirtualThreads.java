@@ -0,0 +1,100 @@
+package org.springframework.social.alfresco.api.impl;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Access to virtual threads on JVMs that have them.
+ *
+ * The project is compiled for Java 8, so the executor is looked up reflectively. On older JVMs
+ * {@link #newExecutor(String)} falls back to {@link #newPlatformExecutor(String)}, which behaves the same but costs
+ * a platform thread per blocked call.
+ */
+public final class VirtualThreads
+{
+	private static final Log log = LogFactory.getLog(VirtualThreads.class);
+
+	private static final Method newVirtualThreadPerTaskExecutor = findFactoryMethod();
+
+	private VirtualThreads()
+	{
+	}
+
+	private static Method findFactoryMethod()
+	{
+		try
+		{
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		}
+		catch(NoSuchMethodException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * @return true if this JVM can start virtual threads
+	 */
+	public static boolean isAvailable()
+	{
+		return newVirtualThreadPerTaskExecutor != null;
+	}
+
+	/**
+	 * Get an executor that starts a new virtual thread per task, or a platform thread pool if virtual threads are
+	 * not available.
+	 */
+	public static ExecutorService newExecutor(String namePrefix)
+	{
+		if(newVirtualThreadPerTaskExecutor != null)
+		{
+			try
+			{
+				return (ExecutorService)newVirtualThreadPerTaskExecutor.invoke(null);
+			}
+			catch(Exception e)
+			{
+				log.warn("Unable to create a virtual thread executor, falling back to platform threads", e);
+			}
+		}
+		else
+		{
+			log.warn("Virtual threads are not available on Java " + System.getProperty("java.version")
+					+ ", falling back to platform threads");
+		}
+		return newPlatformExecutor(namePrefix);
+	}
+
+	/**
+	 * Get an unbounded, cached pool of daemon platform threads named <tt>namePrefix-n</tt>.
+	 */
+	public static ExecutorService newPlatformExecutor(String namePrefix)
+	{
+		return Executors.newCachedThreadPool(new DaemonThreadFactory(namePrefix));
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory
+	{
+		private final String namePrefix;
+		private final AtomicInteger count = new AtomicInteger();
+
+		DaemonThreadFactory(String namePrefix)
+		{
+			this.namePrefix = namePrefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable r)
+		{
+			Thread thread = new Thread(r, namePrefix + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
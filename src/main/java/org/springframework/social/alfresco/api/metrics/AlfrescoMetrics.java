@@ -0,0 +1,35 @@
+package org.springframework.social.alfresco.api.metrics;
+
+/**
+ * Receives one sample per Alfresco API call made by a template.
+ *
+ * Implementations are called on the requesting thread, once the call has finished, and must be thread-safe and
+ * cheap; see {@link HistogramMetrics} for the standard implementation.
+ */
+public interface AlfrescoMetrics
+{
+	/**
+	 * Discards all samples.
+	 */
+	public static final AlfrescoMetrics NONE = new AlfrescoMetrics()
+	{
+		@Override
+		public void record(String operation, long totalNanos, long serverNanos, long requestBytes,
+				long responseBytes, int status, Throwable failure)
+		{
+		}
+	};
+
+	/**
+	 * @param operation     the logical operation, e.g. <tt>getSite</tt> or <tt>createComment</tt>
+	 * @param totalNanos    the time spent in the call, including serialising the request and binding the response
+	 * @param serverNanos   the part of <tt>totalNanos</tt> between the request having been written and the
+	 *                      response status arriving, i.e. network and server time; 0 if not known
+	 * @param requestBytes  the size of the request body, or -1 if not known
+	 * @param responseBytes the number of response body bytes read, or -1 if not known
+	 * @param status        the HTTP status, or 0 if there was no HTTP response
+	 * @param failure       the exception the call failed with, or null if it succeeded
+	 */
+	void record(String operation, long totalNanos, long serverNanos, long requestBytes, long responseBytes,
+			int status, Throwable failure);
+}
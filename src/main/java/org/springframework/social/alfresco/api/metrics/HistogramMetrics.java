@@ -0,0 +1,72 @@
+package org.springframework.social.alfresco.api.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link AlfrescoMetrics} that aggregates samples per operation into lock-free {@link LatencyHistogram}s and
+ * counters.
+ *
+ * One instance may be shared by any number of templates. Call {@link #export(MetricsExporter, boolean)}
+ * periodically, resetting each time, to report per-interval figures.
+ */
+public class HistogramMetrics implements AlfrescoMetrics
+{
+	private volatile ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<String, OperationMetrics>();
+
+	@Override
+	public void record(String operation, long totalNanos, long serverNanos, long requestBytes, long responseBytes,
+			int status, Throwable failure)
+	{
+		getOperationMetrics(operation).record(totalNanos, serverNanos, requestBytes, responseBytes, status, failure);
+	}
+
+	public OperationMetrics getOperationMetrics(String operation)
+	{
+		ConcurrentMap<String, OperationMetrics> current = operations;
+		OperationMetrics metrics = current.get(operation);
+		if(metrics == null)
+		{
+			OperationMetrics created = new OperationMetrics(operation);
+			metrics = current.putIfAbsent(operation, created);
+			if(metrics == null)
+			{
+				metrics = created;
+			}
+		}
+		return metrics;
+	}
+
+	/**
+	 * @return the metrics of each operation called so far, sorted by operation name
+	 */
+	public Map<String, OperationMetrics> getOperations()
+	{
+		return Collections.unmodifiableMap(new TreeMap<String, OperationMetrics>(operations));
+	}
+
+	/**
+	 * Hand the metrics collected so far to an exporter.
+	 *
+	 * @param reset true to start collecting afresh, so that the next export covers only the calls made after
+	 *              this one
+	 */
+	public void export(MetricsExporter exporter, boolean reset)
+	{
+		Map<String, OperationMetrics> exported;
+		if(reset)
+		{
+			ConcurrentMap<String, OperationMetrics> previous = operations;
+			operations = new ConcurrentHashMap<String, OperationMetrics>();
+			exported = new TreeMap<String, OperationMetrics>(previous);
+		}
+		else
+		{
+			exported = new TreeMap<String, OperationMetrics>(operations);
+		}
+		exporter.export(Collections.unmodifiableMap(exported));
+	}
+}
@@ -0,0 +1,180 @@
+package org.springframework.social.alfresco.api.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of nanosecond latencies, bucketed the way HdrHistogram does it: values are grouped into
+ * power-of-two ranges, each split into 64 linear sub-buckets, which keeps the relative error below 1% across the
+ * whole range while using a fixed 19KB of counters.
+ *
+ * Recording is a handful of atomic increments and safe from any number of threads. Reads are not a consistent
+ * snapshot while recording continues, but every count is eventually visible; call {@link #copy()} to get a
+ * stable view. Values above one hour are recorded as one hour.
+ */
+public class LatencyHistogram
+{
+	public static final long MAX_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+
+	// 2^7 sub-buckets per bucket, the top half of which is used by every bucket but the first
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = SUB_BUCKET_BITS - 1;
+	private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+	private static final long SUB_BUCKET_MASK = (1L << SUB_BUCKET_BITS) - 1;
+	private static final int LEADING_ZERO_COUNT_BASE = 64 - SUB_BUCKET_HALF_COUNT_MAGNITUDE - 1;
+	private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_NANOS) + 1;
+	private static final int COUNTS_LENGTH = (BUCKET_COUNT + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+
+	private final AtomicLongArray counts;
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	public LatencyHistogram()
+	{
+		this.counts = new AtomicLongArray(COUNTS_LENGTH);
+	}
+
+	private static int bucketIndex(long value)
+	{
+		return LEADING_ZERO_COUNT_BASE - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK);
+	}
+
+	private static int countsIndex(long value)
+	{
+		int bucketIndex = bucketIndex(value);
+		int subBucketIndex = (int)(value >>> bucketIndex);
+		return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+	}
+
+	/**
+	 * @return the highest value that is recorded in the same counter as values at the given index
+	 */
+	private static long highestEquivalentValue(int index)
+	{
+		int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+		int subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+		if(bucketIndex < 0)
+		{
+			subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+			bucketIndex = 0;
+		}
+		long lowest = (long)subBucketIndex << bucketIndex;
+		return lowest + (1L << bucketIndex) - 1;
+	}
+
+	public void record(long nanos)
+	{
+		long value = nanos < 0 ? 0 : Math.min(nanos, MAX_TRACKABLE_NANOS);
+		counts.incrementAndGet(countsIndex(value));
+		totalCount.incrementAndGet();
+		totalNanos.addAndGet(value);
+
+		long max = maxNanos.get();
+		while(value > max && !maxNanos.compareAndSet(max, value))
+		{
+			max = maxNanos.get();
+		}
+	}
+
+	public long getCount()
+	{
+		return totalCount.get();
+	}
+
+	public long getMaxNanos()
+	{
+		return maxNanos.get();
+	}
+
+	public double getMeanNanos()
+	{
+		long count = totalCount.get();
+		return count == 0 ? 0 : (double)totalNanos.get() / count;
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the value at or below which the given percentage of recorded values fall, to within the histogram's
+	 *         precision
+	 */
+	public long getValueAtPercentile(double percentile)
+	{
+		long count = 0;
+		long[] snapshot = new long[COUNTS_LENGTH];
+		for(int i = 0; i < COUNTS_LENGTH; i++)
+		{
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		if(count == 0)
+		{
+			return 0;
+		}
+
+		long target = Math.max(1, (long)Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+		long seen = 0;
+		for(int i = 0; i < COUNTS_LENGTH; i++)
+		{
+			seen += snapshot[i];
+			if(seen >= target)
+			{
+				return Math.min(highestEquivalentValue(i), maxNanos.get());
+			}
+		}
+		return maxNanos.get();
+	}
+
+	/**
+	 * @return a copy of the histogram's current state
+	 */
+	public LatencyHistogram copy()
+	{
+		LatencyHistogram copy = new LatencyHistogram();
+		copy.add(this);
+		return copy;
+	}
+
+	/**
+	 * Add the counts of another histogram to this one.
+	 */
+	public void add(LatencyHistogram other)
+	{
+		for(int i = 0; i < COUNTS_LENGTH; i++)
+		{
+			long count = other.counts.get(i);
+			if(count != 0)
+			{
+				counts.addAndGet(i, count);
+			}
+		}
+		totalCount.addAndGet(other.totalCount.get());
+		totalNanos.addAndGet(other.totalNanos.get());
+		long otherMax = other.maxNanos.get();
+		long max = maxNanos.get();
+		while(otherMax > max && !maxNanos.compareAndSet(max, otherMax))
+		{
+			max = maxNanos.get();
+		}
+	}
+
+	public void reset()
+	{
+		for(int i = 0; i < COUNTS_LENGTH; i++)
+		{
+			counts.set(i, 0);
+		}
+		totalCount.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "LatencyHistogram [count=" + getCount() + ", meanNanos=" + (long)getMeanNanos()
+				+ ", p50Nanos=" + getValueAtPercentile(50) + ", p99Nanos=" + getValueAtPercentile(99)
+				+ ", maxNanos=" + getMaxNanos() + "]";
+	}
+}
@@ -0,0 +1,48 @@
+package org.springframework.social.alfresco.api.metrics;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Writes one line per operation to the commons-logging log at info level, with latencies in microseconds.
+ */
+public class LoggingMetricsExporter implements MetricsExporter
+{
+	private static final Log log = LogFactory.getLog(LoggingMetricsExporter.class);
+
+	@Override
+	public void export(Map<String, OperationMetrics> operations)
+	{
+		if(!log.isInfoEnabled())
+		{
+			return;
+		}
+		for(OperationMetrics metrics : operations.values())
+		{
+			LatencyHistogram total = metrics.getTotal();
+			LatencyHistogram server = metrics.getServer();
+			StringBuilder sb = new StringBuilder(256);
+			sb.append(metrics.getOperation())
+				.append(": count=").append(metrics.getCount())
+				.append(", meanUs=").append(micros((long)total.getMeanNanos()))
+				.append(", p50Us=").append(micros(total.getValueAtPercentile(50)))
+				.append(", p99Us=").append(micros(total.getValueAtPercentile(99)))
+				.append(", maxUs=").append(micros(total.getMaxNanos()))
+				.append(", serverP50Us=").append(micros(server.getValueAtPercentile(50)))
+				.append(", clientP50Us=").append(micros(metrics.getClient().getValueAtPercentile(50)))
+				.append(", requestBytes=").append(metrics.getRequestBytes())
+				.append(", responseBytes=").append(metrics.getResponseBytes())
+				.append(", statuses=").append(metrics.getStatuses())
+				.append(", failures=").append(metrics.getFailures());
+			log.info(sb.toString());
+		}
+	}
+
+	private static long micros(long nanos)
+	{
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+}
@@ -0,0 +1,16 @@
+package org.springframework.social.alfresco.api.metrics;
+
+import java.util.Map;
+
+/**
+ * Publishes the metrics collected by a {@link HistogramMetrics}, e.g. to a benchmark report or a log.
+ *
+ * @see HistogramMetrics#export(MetricsExporter, boolean)
+ */
+public interface MetricsExporter
+{
+	/**
+	 * @param operations the metrics of each operation that has been called, by operation name
+	 */
+	void export(Map<String, OperationMetrics> operations);
+}
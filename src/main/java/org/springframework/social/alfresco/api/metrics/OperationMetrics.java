@@ -0,0 +1,152 @@
+package org.springframework.social.alfresco.api.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics collected for one operation: latency histograms for the whole call, for the time spent waiting on
+ * the network and server and for the remaining client overhead, byte counts, and counts of each HTTP status and
+ * failure type.
+ */
+public class OperationMetrics
+{
+	private final String operation;
+	private final LatencyHistogram total = new LatencyHistogram();
+	private final LatencyHistogram server = new LatencyHistogram();
+	private final LatencyHistogram client = new LatencyHistogram();
+	private final LongAdder requestBytes = new LongAdder();
+	private final LongAdder responseBytes = new LongAdder();
+	private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<Integer, LongAdder>();
+	private final ConcurrentMap<String, LongAdder> failures = new ConcurrentHashMap<String, LongAdder>();
+
+	public OperationMetrics(String operation)
+	{
+		this.operation = operation;
+	}
+
+	void record(long totalNanos, long serverNanos, long requestBytes, long responseBytes, int status,
+			Throwable failure)
+	{
+		total.record(totalNanos);
+		if(serverNanos > 0)
+		{
+			server.record(serverNanos);
+			client.record(totalNanos - serverNanos);
+		}
+		if(requestBytes > 0)
+		{
+			this.requestBytes.add(requestBytes);
+		}
+		if(responseBytes > 0)
+		{
+			this.responseBytes.add(responseBytes);
+		}
+		if(status > 0)
+		{
+			increment(statuses, status);
+		}
+		if(failure != null)
+		{
+			increment(failures, failure.getClass().getName());
+		}
+	}
+
+	private static <K> void increment(ConcurrentMap<K, LongAdder> counts, K key)
+	{
+		LongAdder count = counts.get(key);
+		if(count == null)
+		{
+			LongAdder created = new LongAdder();
+			count = counts.putIfAbsent(key, created);
+			if(count == null)
+			{
+				count = created;
+			}
+		}
+		count.increment();
+	}
+
+	private static <K> Map<K, Long> snapshot(ConcurrentMap<K, LongAdder> counts)
+	{
+		Map<K, Long> snapshot = new TreeMap<K, Long>();
+		for(Map.Entry<K, LongAdder> entry : counts.entrySet())
+		{
+			snapshot.put(entry.getKey(), entry.getValue().sum());
+		}
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	public String getOperation()
+	{
+		return operation;
+	}
+
+	/**
+	 * @return the latency of the whole call
+	 */
+	public LatencyHistogram getTotal()
+	{
+		return total;
+	}
+
+	/**
+	 * @return the time between the request having been written and the response arriving, for calls where it is
+	 *         known
+	 */
+	public LatencyHistogram getServer()
+	{
+		return server;
+	}
+
+	/**
+	 * @return the time spent in the client (serialisation, binding, pooling) for calls where the server time is
+	 *         known
+	 */
+	public LatencyHistogram getClient()
+	{
+		return client;
+	}
+
+	public long getCount()
+	{
+		return total.getCount();
+	}
+
+	public long getRequestBytes()
+	{
+		return requestBytes.sum();
+	}
+
+	public long getResponseBytes()
+	{
+		return responseBytes.sum();
+	}
+
+	/**
+	 * @return the number of calls that ended with each HTTP status
+	 */
+	public Map<Integer, Long> getStatuses()
+	{
+		return snapshot(statuses);
+	}
+
+	/**
+	 * @return the number of calls that failed with each exception class
+	 */
+	public Map<String, Long> getFailures()
+	{
+		return snapshot(failures);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "OperationMetrics [operation=" + operation + ", total=" + total + ", server=" + server
+				+ ", requestBytes=" + getRequestBytes() + ", responseBytes=" + getResponseBytes()
+				+ ", statuses=" + getStatuses() + ", failures=" + getFailures() + "]";
+	}
+}
@@ -1,14 +1,25 @@
 package org.springframework.social.alfresco.connect;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
 import org.springframework.social.ServiceProvider;
 import org.springframework.social.alfresco.api.Alfresco;
+import org.springframework.social.alfresco.api.AsyncAlfresco;
+import org.springframework.social.alfresco.api.impl.AlfrescoTransport;
+import org.springframework.social.alfresco.api.impl.AsyncAlfrescoTemplate;
+import org.springframework.social.alfresco.api.impl.AuthenticationMode;
 import org.springframework.social.alfresco.api.impl.BasicAuthAlfrescoTemplate;
 import org.springframework.social.alfresco.api.impl.ConnectionDetails;
+import org.springframework.social.alfresco.api.impl.VirtualThreads;
+import org.springframework.web.client.RestTemplate;
 
 public class BasicAuthServiceProvider implements ServiceProvider<Alfresco>
 {
 	private ConnectionDetails repoConnectionData;
 	private ConnectionDetails syncConnectionData;
+	private volatile ExecutorService executor;
+	private volatile AlfrescoTransport transport;
 
 	public BasicAuthServiceProvider(ConnectionDetails repoConnectionData, ConnectionDetails syncConnectionData)
 	{
@@ -16,8 +27,94 @@ public class BasicAuthServiceProvider implements ServiceProvider<Alfresco>
 		this.syncConnectionData = syncConnectionData;
 	}
 
+	/**
+	 * Get an API for the user of the repository connection details. Unless the connection details ask for
+	 * {@link AuthenticationMode#CHALLENGE}, it shares the provider's transport with every other API it hands out.
+	 */
 	public Alfresco getApi()
 	{
-        return new BasicAuthAlfrescoTemplate(repoConnectionData, syncConnectionData);
+		if(repoConnectionData.getAuthenticationMode() == AuthenticationMode.CHALLENGE)
+		{
+			return new BasicAuthAlfrescoTemplate(repoConnectionData, syncConnectionData);
+		}
+		return getApi(repoConnectionData.getUsername(), repoConnectionData.getPassword());
+	}
+
+	/**
+	 * Get an API for the given user. All of the provider's APIs share one connection pool, {@link RestTemplate}
+	 * and JSON mapper, and send each user's credentials with every request, so creating one per simulated user
+	 * is cheap.
+	 */
+	public Alfresco getApi(String username, String password)
+	{
+		return new BasicAuthAlfrescoTemplate(getTransport(), username, password);
+	}
+
+	/**
+	 * Get the transport shared by the APIs of this provider.
+	 */
+	public AlfrescoTransport getTransport()
+	{
+		AlfrescoTransport result = transport;
+		if(result == null)
+		{
+			synchronized(this)
+			{
+				result = transport;
+				if(result == null)
+				{
+					result = new AlfrescoTransport(repoConnectionData, syncConnectionData);
+					transport = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param executor runs the blocking requests; bounds, together with the connection pool, the number of
+	 *                 requests in flight
+	 */
+	public AsyncAlfresco getAsyncApi(Executor executor)
+	{
+		return new AsyncAlfrescoTemplate(getApi(), executor);
+	}
+
+	/**
+	 * Get an asynchronous API that runs its requests on the provider's executor.
+	 *
+	 * @see #getExecutor()
+	 */
+	public AsyncAlfresco getAsyncApi()
+	{
+		return getAsyncApi(getExecutor());
+	}
+
+	/**
+	 * Get the executor shared by the asynchronous APIs of this provider, which callers may also use to run
+	 * simulated users against {@link #getApi()}.
+	 *
+	 * If the repository connection details are in virtual thread mode each task runs on its own virtual thread,
+	 * so blocking REST and CMIS calls do not tie up platform threads and the number of concurrent users is
+	 * bounded by the connection pool instead. Otherwise tasks run on a cached pool of platform threads.
+	 */
+	public ExecutorService getExecutor()
+	{
+		ExecutorService result = executor;
+		if(result == null)
+		{
+			synchronized(this)
+			{
+				result = executor;
+				if(result == null)
+				{
+					result = repoConnectionData.isVirtualThreads()
+							? VirtualThreads.newExecutor("alfresco")
+							: VirtualThreads.newPlatformExecutor("alfresco");
+					executor = result;
+				}
+			}
+		}
+		return result;
 	}
 }
@@ -0,0 +1,175 @@
+package org.springframework.social.alfresco.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.chemistry.opencmis.client.api.CmisObject;
+import org.apache.chemistry.opencmis.client.api.Folder;
+import org.apache.chemistry.opencmis.client.api.ItemIterable;
+import org.junit.After;
+import org.junit.Test;
+
+public class FolderTreeWalkerTest
+{
+	private static final int PARALLELISM = 2;
+	private static final int MAX_IN_FLIGHT = 4;
+
+	private final ForkJoinPool pool = new ForkJoinPool(PARALLELISM, ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+			null, true);
+
+	@After
+	public void shutDown()
+	{
+		pool.shutdownNow();
+	}
+
+	/**
+	 * A tree whose root has the given number of subfolders, each holding one document, that takes a while to
+	 * list each page and records the largest pool and number of concurrent fetches seen.
+	 */
+	private final class WideTree implements FolderTreeWalker.ChildrenSource
+	{
+		private final int subfolders;
+		private final AtomicInteger fetching = new AtomicInteger();
+		private final AtomicInteger maxFetching = new AtomicInteger();
+		private final AtomicInteger maxPoolSize = new AtomicInteger();
+
+		WideTree(int subfolders)
+		{
+			this.subfolders = subfolders;
+		}
+
+		public ItemIterable<CmisObject> getChildren(String folderId, int skipCount, int maxItems)
+		{
+			int now = fetching.incrementAndGet();
+			maxFetching.accumulateAndGet(now, Math::max);
+			maxPoolSize.accumulateAndGet(pool.getPoolSize(), Math::max);
+			try
+			{
+				Thread.sleep(2);
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			finally
+			{
+				fetching.decrementAndGet();
+			}
+
+			if(!folderId.equals("root"))
+			{
+				return page(Collections.singletonList(object(CmisObject.class, folderId + "/doc")), false);
+			}
+			List<CmisObject> children = new ArrayList<CmisObject>();
+			for(int i = skipCount; i < Math.min(subfolders, skipCount + maxItems); i++)
+			{
+				children.add(object(Folder.class, "folder" + i));
+			}
+			return page(children, skipCount + maxItems < subfolders);
+		}
+	}
+
+	@Test
+	public void walksAWideTreeOnABoundedPool() throws Exception
+	{
+		WideTree tree = new WideTree(300);
+		final Set<String> seen = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		FolderTreeWalker walker = new FolderTreeWalker(tree, pool, "root", -1, 10, MAX_IN_FLIGHT,
+				child -> seen.add(child.getId()));
+		walker.start().getCompletion().get(60, TimeUnit.SECONDS);
+
+		assertEquals(600, seen.size());
+		assertEquals(600, walker.getObjects());
+		assertEquals(301, walker.getFolders());
+		assertEquals(30 + 300, walker.getPages());
+		assertTrue("Fetched " + tree.maxFetching + " pages at once", tree.maxFetching.get() <= MAX_IN_FLIGHT);
+		assertTrue("Pool grew to " + tree.maxPoolSize, tree.maxPoolSize.get() <= PARALLELISM + MAX_IN_FLIGHT);
+	}
+
+	@Test
+	public void stopsAtTheDepthLimit() throws Exception
+	{
+		FolderTreeWalker walker = new FolderTreeWalker(new WideTree(25), pool, "root", 1, 10, MAX_IN_FLIGHT,
+				child -> {});
+		walker.start().await();
+		assertEquals(25, walker.getObjects());
+		assertEquals(3, walker.getPages());
+	}
+
+	@Test
+	public void failsWithTheSourcesFailure() throws Exception
+	{
+		final IllegalStateException failure = new IllegalStateException("boom");
+		FolderTreeWalker walker = new FolderTreeWalker((folderId, skipCount, maxItems) ->
+		{
+			throw failure;
+		}, pool, "root", -1, 10, MAX_IN_FLIGHT, child -> {});
+		try
+		{
+			walker.start().await();
+			fail("Expected the source's failure");
+		}
+		catch(IllegalStateException e)
+		{
+			assertSame(failure, e);
+		}
+	}
+
+	private static <T extends CmisObject> T object(Class<T> type, final String id)
+	{
+		return proxy(type, (proxy, method, args) -> method.getName().equals("getId") ? id : defaultValue(method, id));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ItemIterable<CmisObject> page(final List<CmisObject> children, final boolean hasMoreItems)
+	{
+		return proxy(ItemIterable.class, (proxy, method, args) ->
+		{
+			switch(method.getName())
+			{
+			case "iterator":
+				return children.iterator();
+			case "getHasMoreItems":
+				return hasMoreItems;
+			case "getPageNumItems":
+				return (long)children.size();
+			default:
+				return defaultValue(method, children);
+			}
+		});
+	}
+
+	private static Object defaultValue(Method method, Object description)
+	{
+		switch(method.getName())
+		{
+		case "toString":
+			return String.valueOf(description);
+		case "hashCode":
+			return System.identityHashCode(description);
+		default:
+			throw new UnsupportedOperationException(method.getName());
+		}
+	}
+
+	private static <T> T proxy(Class<T> type, InvocationHandler handler)
+	{
+		return type.cast(Proxy.newProxyInstance(FolderTreeWalkerTest.class.getClassLoader(), new Class<?>[] { type },
+				handler));
+	}
+}
@@ -0,0 +1,174 @@
+package org.springframework.social.alfresco.api.entities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ActivityTypeTest
+{
+	/**
+	 * The values documented on {@link Activity#getActivityType()}.
+	 */
+	private static final String[] DOCUMENTED = {
+		"org.alfresco.blog.post-created",
+		"org.alfresco.blog.post-updated",
+		"org.alfresco.blog.post-deleted",
+		"org.alfresco.comments.comment-created",
+		"org.alfresco.comments.comment-updated",
+		"org.alfresco.comments.comment-deleted",
+		"org.alfresco.discussions.post-created",
+		"org.alfresco.discussions.post-updated",
+		"org.alfresco.discussions.post-deleted",
+		"org.alfresco.discussions.reply-created",
+		"org.alfresco.discussions.reply-updated",
+		"org.alfresco.calendar.event-created",
+		"org.alfresco.calendar.event-updated",
+		"org.alfresco.calendar.event-deleted",
+		"org.alfresco.documentlibrary.files-added",
+		"org.alfresco.documentlibrary.files-updated",
+		"org.alfresco.documentlibrary.files-deleted",
+		"org.alfresco.documentlibrary.file-added",
+		"org.alfresco.documentlibrary.file-updated",
+		"org.alfresco.documentlibrary.file-created",
+		"org.alfresco.documentlibrary.file-deleted",
+		"org.alfresco.documentlibrary.file-liked",
+		"org.alfresco.documentlibrary.inline-edit",
+		"org.alfresco.documentlibrary.folder-liked",
+		"org.alfresco.documentlibrary.folder-added",
+		"org.alfresco.documentlibrary.folder-deleted",
+		"org.alfresco.documentlibrary.folders-added",
+		"org.alfresco.documentlibrary.folders-deleted",
+		"org.alfresco.documentlibrary.file-previewed",
+		"org.alfresco.documentlibrary.file-downloaded",
+		"org.alfresco.wiki.page-created",
+		"org.alfresco.wiki.page-edited",
+		"org.alfresco.wiki.page-renamed",
+		"org.alfresco.wiki.page-deleted",
+		"org.alfresco.site.user-joined",
+		"org.alfresco.site.user-left",
+		"org.alfresco.site.user-role-changed",
+		"org.alfresco.site.group-added",
+		"org.alfresco.site.group-removed",
+		"org.alfresco.site.group-role-changed",
+		"org.alfresco.site.liked",
+		"org.alfresco.links.link-created",
+		"org.alfresco.links.link-updated",
+		"org.alfresco.links.link-deleted",
+		"org.alfresco.datalists.list-created",
+		"org.alfresco.datalists.list-updated",
+		"org.alfresco.datalists.list-deleted",
+		"org.alfresco.subscriptions.followed",
+		"org.alfresco.subscriptions.subscribed",
+		"org.alfresco.profile.status-changed"
+	};
+
+	/**
+	 * Look the value up in the middle of a larger buffer, as it is found in the parser's.
+	 */
+	private static ActivityType fromChars(String value)
+	{
+		char[] chars = ("{\"activityType\":\"" + value + "\"}").toCharArray();
+		return ActivityType.fromValue(chars, 17, value.length());
+	}
+
+	private static void assertUnknown(String value)
+	{
+		assertNull(value, ActivityType.fromValue(value));
+		assertNull(value, fromChars(value));
+	}
+
+	@Test
+	public void findsEveryDocumentedValue()
+	{
+		assertEquals(DOCUMENTED.length, ActivityType.values().length);
+		for(String value : DOCUMENTED)
+		{
+			ActivityType type = ActivityType.fromValue(value);
+			assertEquals(value, value, type == null ? null : type.getValue());
+			assertSame(value, type, fromChars(value));
+			// a value that is not its own String instance, as read from a response
+			assertSame(value, type, ActivityType.fromValue(new String(value.toCharArray())));
+		}
+	}
+
+	@Test
+	public void findsEveryType()
+	{
+		for(ActivityType type : ActivityType.values())
+		{
+			assertSame(type, ActivityType.fromValue(type.getValue()));
+			assertSame(type, fromChars(type.getValue()));
+		}
+	}
+
+	@Test
+	public void doesNotFindOtherValues()
+	{
+		assertNull(ActivityType.fromValue(null));
+		assertUnknown("");
+		assertUnknown("org.alfresco");
+		assertUnknown("BLOG_POST_CREATED");
+		for(ActivityType type : ActivityType.values())
+		{
+			String value = type.getValue();
+			assertUnknown(value.toUpperCase());
+			assertUnknown(value + " ");
+			assertUnknown(" " + value);
+			assertUnknown(value.substring(0, value.length() - 1));
+			assertUnknown(value.substring(1));
+			assertUnknown(value.substring(0, value.length() - 1) + (char)(value.charAt(value.length() - 1) + 1));
+		}
+	}
+
+	/**
+	 * A value with the same hash as a type's lands in that type's slot, and must still not be taken for it.
+	 */
+	@Test
+	public void doesNotFindValuesThatCollide()
+	{
+		for(ActivityType type : ActivityType.values())
+		{
+			char[] chars = type.getValue().toCharArray();
+			for(int i = 0; i < chars.length - 1; i++)
+			{
+				// 31 * (a + 1) + (b - 31) == 31 * a + b
+				char[] colliding = chars.clone();
+				colliding[i]++;
+				colliding[i + 1] -= 31;
+				String value = new String(colliding);
+				assertEquals(type.getValue().hashCode(), value.hashCode());
+				assertUnknown(value);
+			}
+		}
+	}
+
+	@Test
+	public void doesNotFindRandomValues()
+	{
+		Random random = new Random(42);
+		char[] alphabet = "abcdefghijklmnopqrstuvwxyz.-".toCharArray();
+		for(int i = 0; i < 100000; i++)
+		{
+			StringBuilder sb = new StringBuilder("org.alfresco.");
+			for(int length = random.nextInt(25); length > 0; length--)
+			{
+				sb.append(alphabet[random.nextInt(alphabet.length)]);
+			}
+			String value = sb.toString();
+			ActivityType expected = null;
+			for(ActivityType type : ActivityType.values())
+			{
+				if(type.getValue().equals(value))
+				{
+					expected = type;
+				}
+			}
+			assertSame(value, expected, ActivityType.fromValue(value));
+			assertSame(value, expected, fromChars(value));
+		}
+	}
+}
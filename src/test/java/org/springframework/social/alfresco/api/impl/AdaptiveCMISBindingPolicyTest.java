@@ -0,0 +1,220 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.chemistry.opencmis.commons.enums.BindingType;
+import org.apache.chemistry.opencmis.commons.enums.CmisVersion;
+import org.junit.Test;
+import org.springframework.social.alfresco.api.CMISEndpoint;
+
+/**
+ * Drives the policy with synthetic call timings and checks which endpoints it chooses.
+ */
+public class AdaptiveCMISBindingPolicyTest
+{
+	private static final CMISEndpoint ATOM10 = new CMISEndpoint(BindingType.ATOMPUB, CmisVersion.CMIS_1_0);
+	private static final CMISEndpoint ATOM11 = new CMISEndpoint(BindingType.ATOMPUB, CmisVersion.CMIS_1_1);
+	private static final CMISEndpoint BROWSER11 = new CMISEndpoint(BindingType.BROWSER, CmisVersion.CMIS_1_1);
+	private static final List<CMISEndpoint> CANDIDATES = Arrays.asList(ATOM10, ATOM11, BROWSER11);
+
+	private static final String OPERATION = "getChildren";
+
+	/**
+	 * The time, in nanoseconds, that a call of each endpoint takes, and the objects it returns.
+	 */
+	private static class Server
+	{
+		final Map<CMISEndpoint, Long> nanos = new HashMap<CMISEndpoint, Long>();
+		int items;
+
+		Server(long atom10, long atom11, long browser11)
+		{
+			nanos.put(ATOM10, atom10);
+			nanos.put(ATOM11, atom11);
+			nanos.put(BROWSER11, browser11);
+		}
+
+		/**
+		 * Make calls the way a template does, choosing the endpoint and recording how the call went.
+		 *
+		 * @return the endpoint each call was made on
+		 */
+		List<CMISEndpoint> call(CMISBindingPolicy policy, String operation, int calls)
+		{
+			List<CMISEndpoint> chosen = new ArrayList<CMISEndpoint>();
+			for(int i = 0; i < calls; i++)
+			{
+				CMISEndpoint endpoint = policy.select(operation);
+				policy.record(operation, endpoint, nanos.get(endpoint), items, null);
+				chosen.add(endpoint);
+			}
+			return chosen;
+		}
+	}
+
+	private static int count(List<CMISEndpoint> chosen, CMISEndpoint endpoint)
+	{
+		int count = 0;
+		for(CMISEndpoint e : chosen)
+		{
+			if(e.equals(endpoint))
+			{
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void warmsUpEachCandidateInTurn()
+	{
+		AdaptiveCMISBindingPolicy policy = new AdaptiveCMISBindingPolicy(CANDIDATES, 2, 0, 0.2);
+		List<CMISEndpoint> chosen = new Server(3000, 1000, 2000).call(policy, OPERATION, 6);
+		assertEquals(Arrays.asList(ATOM10, ATOM11, BROWSER11, ATOM10, ATOM11, BROWSER11), chosen);
+		assertEquals(3000.0, policy.getCost(OPERATION, ATOM10), 0.0);
+	}
+
+	@Test
+	public void prefersTheCheapestCandidateOnceWarmedUp()
+	{
+		AdaptiveCMISBindingPolicy policy = new AdaptiveCMISBindingPolicy(CANDIDATES, 2, 0, 0.2);
+		Server server = new Server(3000, 1000, 2000);
+		server.call(policy, OPERATION, 6);
+
+		assertSame(ATOM11, policy.getPreferred(OPERATION));
+		assertEquals(100, count(server.call(policy, OPERATION, 100), ATOM11));
+	}
+
+	@Test
+	public void comparesTheCostPerObjectReturned()
+	{
+		AdaptiveCMISBindingPolicy policy = new AdaptiveCMISBindingPolicy(CANDIDATES, 1, 0, 0.2);
+		policy.record(OPERATION, ATOM10, 10000, 99, null);
+		policy.record(OPERATION, ATOM11, 1000, 0, null);
+		policy.record(OPERATION, BROWSER11, 5000, 9, null);
+
+		assertEquals(100.0, policy.getCost(OPERATION, ATOM10), 0.0);
+		assertEquals(1000.0, policy.getCost(OPERATION, ATOM11), 0.0);
+		assertEquals(500.0, policy.getCost(OPERATION, BROWSER11), 0.0);
+		assertSame(ATOM10, policy.select(OPERATION));
+	}
+
+	@Test
+	public void penalisesFailedCalls()
+	{
+		AdaptiveCMISBindingPolicy policy = new AdaptiveCMISBindingPolicy(CANDIDATES, 1, 0, 1);
+		policy.record(OPERATION, ATOM10, 3000, 0, null);
+		policy.record(OPERATION, ATOM11, 1000, 0, new RuntimeException("timed out"));
+		policy.record(OPERATION, BROWSER11, 2000, 0, null);
+
+		assertEquals(1000.0 * AdaptiveCMISBindingPolicy.FAILURE_PENALTY, policy.getCost(OPERATION, ATOM11), 0.0);
+		assertSame(BROWSER11, policy.select(OPERATION));
+	}
+
+	/**
+	 * Once warmed up, every exploreInterval'th call goes to the candidates in turn and the rest to the cheapest.
+	 */
+	@Test
+	public void exploresTheOtherCandidatesAtTheInterval()
+	{
+		AdaptiveCMISBindingPolicy policy = new AdaptiveCMISBindingPolicy(CANDIDATES, 2, 10, 0.2);
+		Server server = new Server(1000, 2000, 3000);
+		server.call(policy, OPERATION, 6);
+
+		// calls 6 to 35; 10, 20 and 30 explore
+		List<CMISEndpoint> chosen = server.call(policy, OPERATION, 30);
+		for(int i = 0; i < chosen.size(); i++)
+		{
+			int call = i + 6;
+			CMISEndpoint expected = call == 10 ? ATOM11 : call == 20 ? BROWSER11 : ATOM10;
+			assertEquals("call " + call, expected, chosen.get(i));
+		}
+		assertSame(ATOM10, policy.getPreferred(OPERATION));
+	}
+
+	/**
+	 * Exploring keeps the costs of the other candidates current, so that when the cheapest one slows down and
+	 * another speeds up the calls move to the other.
+	 */
+	@Test
+	public void followsAChangeInTheServer()
+	{
+		AdaptiveCMISBindingPolicy policy = new AdaptiveCMISBindingPolicy(CANDIDATES, 2, 5, 0.5);
+		Server server = new Server(1000, 2000, 3000);
+		server.call(policy, OPERATION, 100);
+		assertSame(ATOM10, policy.getPreferred(OPERATION));
+
+		server.nanos.put(ATOM10, 4000L);
+		server.nanos.put(BROWSER11, 500L);
+		server.call(policy, OPERATION, 100);
+		assertSame(BROWSER11, policy.getPreferred(OPERATION));
+		assertTrue(count(server.call(policy, OPERATION, 100), BROWSER11) >= 80);
+	}
+
+	@Test
+	public void neverExploresWithAZeroInterval()
+	{
+		AdaptiveCMISBindingPolicy policy = new AdaptiveCMISBindingPolicy(CANDIDATES, 1, 0, 0.2);
+		Server server = new Server(2000, 1000, 3000);
+		server.call(policy, OPERATION, 3);
+		assertEquals(1000, count(server.call(policy, OPERATION, 1000), ATOM11));
+	}
+
+	@Test
+	public void choosesForEachOperationSeparately()
+	{
+		AdaptiveCMISBindingPolicy policy = new AdaptiveCMISBindingPolicy(CANDIDATES, 1, 0, 0.2);
+		new Server(1000, 2000, 3000).call(policy, "getChildren", 3);
+		new Server(3000, 2000, 1000).call(policy, "getDescendants", 3);
+
+		assertSame(ATOM10, policy.select("getChildren"));
+		assertSame(BROWSER11, policy.select("getDescendants"));
+		// an operation that has made no calls yet starts warming up
+		assertSame(ATOM10, policy.select("query"));
+		assertTrue(Double.isNaN(policy.getCost("query", ATOM10)));
+	}
+
+	@Test
+	public void ignoresCallsOnOtherEndpoints()
+	{
+		AdaptiveCMISBindingPolicy policy = new AdaptiveCMISBindingPolicy(Arrays.asList(ATOM10, ATOM11), 1, 0, 0.2);
+		policy.record(OPERATION, BROWSER11, 1, 0, null);
+		assertTrue(Double.isNaN(policy.getCost(OPERATION, BROWSER11)));
+		assertTrue(Double.isNaN(policy.getCost(OPERATION, ATOM10)));
+		assertEquals(Arrays.asList(ATOM10, ATOM11), new Server(2000, 1000, 1).call(policy, OPERATION, 2));
+	}
+
+	@Test
+	public void rejectsInvalidSettings()
+	{
+		assertInvalid(() -> new AdaptiveCMISBindingPolicy(new ArrayList<CMISEndpoint>(), 1, 0, 0.2));
+		assertInvalid(() -> new AdaptiveCMISBindingPolicy(null, 1, 0, 0.2));
+		assertInvalid(() -> new AdaptiveCMISBindingPolicy(CANDIDATES, 0, 0, 0.2));
+		assertInvalid(() -> new AdaptiveCMISBindingPolicy(CANDIDATES, 1, -1, 0.2));
+		assertInvalid(() -> new AdaptiveCMISBindingPolicy(CANDIDATES, 1, 0, 0));
+		assertInvalid(() -> new AdaptiveCMISBindingPolicy(CANDIDATES, 1, 0, 1.5));
+		assertInvalid(() -> new AdaptiveCMISBindingPolicy(CANDIDATES, 1, 0, Double.NaN));
+	}
+
+	private static void assertInvalid(Runnable call)
+	{
+		try
+		{
+			call.run();
+			fail("Expected an IllegalArgumentException");
+		}
+		catch(IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.codehaus.jackson.Version;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.module.SimpleModule;
+import org.codehaus.jackson.type.JavaType;
+import org.junit.Test;
+import org.springframework.social.alfresco.api.entities.AlfrescoList;
+import org.springframework.social.alfresco.api.entities.Pagination;
+import org.springframework.social.alfresco.api.entities.Tag;
+
+public class AlfrescoListDeserializerTest
+{
+	private final ObjectMapper mapper = mapper();
+	private final JavaType tagsType = mapper.getTypeFactory().constructParametricType(Response.class, Tag.class);
+
+	/**
+	 * A mapper set up like {@link JsonCodec}'s.
+	 */
+	private static ObjectMapper mapper()
+	{
+		ObjectMapper mapper = new ObjectMapper();
+		SimpleModule module = new SimpleModule("", new Version(1, 0, 0, null));
+		module.addDeserializer(AlfrescoList.class, new AlfrescoListDeserializer());
+		EntityDeserializers.register(module, new AtomicReference<IdentifierPool>());
+		mapper.registerModule(module);
+		return mapper;
+	}
+
+	/**
+	 * Read a public API list response of tags, as the templates do.
+	 */
+	private AlfrescoList<Tag> read(String list) throws Exception
+	{
+		Response<Tag> response = mapper.readValue("{\"list\":" + list + "}", tagsType);
+		return response.getList();
+	}
+
+	private static String pagination(int count)
+	{
+		return "\"pagination\":{\"count\":" + count + ",\"hasMoreItems\":true,\"totalItems\":120,\"skipCount\":20,"
+				+ "\"maxItems\":" + count + "}";
+	}
+
+	private static String entries(int from, int to)
+	{
+		StringBuilder sb = new StringBuilder("\"entries\":[");
+		for(int i = from; i < to; i++)
+		{
+			if(i > from)
+			{
+				sb.append(',');
+			}
+			sb.append("{\"entry\":{\"id\":\"id").append(i).append("\",\"tag\":\"tag").append(i).append("\"}}");
+		}
+		return sb.append(']').toString();
+	}
+
+	private static void assertTags(int from, int to, AlfrescoList<Tag> list) throws Exception
+	{
+		List<Tag> tags = list.getEntryList();
+		assertEquals(to - from, tags.size());
+		for(int i = from; i < to; i++)
+		{
+			assertEquals("id" + i, tags.get(i - from).getId());
+			assertEquals("tag" + i, tags.get(i - from).getTag());
+		}
+		// the entries are held in an array of the element type, with no spare room
+		Object[] entries = entryArray(list);
+		assertSame(Tag[].class, entries.getClass());
+		assertEquals(to - from, entries.length);
+	}
+
+	private static Object[] entryArray(AlfrescoList<?> list) throws Exception
+	{
+		Field field = AlfrescoList.class.getDeclaredField("entries");
+		field.setAccessible(true);
+		return (Object[])field.get(list);
+	}
+
+	@Test
+	public void readsEntriesAndPagination() throws Exception
+	{
+		AlfrescoList<Tag> list = read("{" + pagination(3) + "," + entries(0, 3) + "}");
+		assertTags(0, 3, list);
+
+		Pagination pagination = list.getPagination();
+		assertEquals(3, pagination.getCount());
+		assertTrue(pagination.isHasMoreItems());
+		assertEquals(120, pagination.getTotalItems());
+		assertEquals(20, pagination.getSkipCount());
+		assertEquals(3, pagination.getMaxItems());
+		assertTrue(list.isHasMoreItems());
+		assertEquals(120, list.getTotalItems());
+	}
+
+	/**
+	 * The count sizes the entries when it comes first; when it does not, or is wrong, the entries still come out
+	 * whole and in order.
+	 */
+	@Test
+	public void growsOrTrimsTheEntriesToFit() throws Exception
+	{
+		assertTags(0, 25, read("{" + pagination(2) + "," + entries(0, 25) + "}"));
+		assertTags(0, 3, read("{" + pagination(100) + "," + entries(0, 3) + "}"));
+		assertTags(0, 40, read("{" + entries(0, 40) + "," + pagination(40) + "}"));
+		assertTags(0, 11, read("{" + entries(0, 11) + "}"));
+		assertTags(0, 0, read("{" + pagination(0) + ",\"entries\":[]}"));
+	}
+
+	@Test
+	public void readsMissingAndNullEntries() throws Exception
+	{
+		AlfrescoList<Tag> list = read("{" + pagination(0) + ",\"entries\":null}");
+		assertTrue(list.getEntryList().isEmpty());
+		assertTrue(list.getEntries().isEmpty());
+		assertEquals(0, list.getPagination().getCount());
+
+		list = read("{}");
+		assertTrue(list.getEntryList().isEmpty());
+		assertNull(list.getPagination());
+		assertFalse(list.isHasMoreItems());
+
+		list = read("{\"pagination\":null,\"entries\":[null,{\"entry\":null},{},{\"entry\":{\"id\":\"id1\"}}]}");
+		assertNull(list.getPagination());
+		assertEquals(4, list.getEntryList().size());
+		assertNull(list.getEntryList().get(0));
+		assertNull(list.getEntryList().get(1));
+		assertNull(list.getEntryList().get(2));
+		assertEquals("id1", list.getEntryList().get(3).getId());
+	}
+
+	@Test
+	public void skipsOtherFieldsOfTheEntries() throws Exception
+	{
+		AlfrescoList<Tag> list = read("{" + pagination(1) + ",\"entries\":[{\"relations\":{\"entry\":{\"id\":\"x\"},"
+				+ "\"list\":[1,2]},\"entry\":{\"id\":\"id0\",\"tag\":\"tag0\"},\"score\":1.5}]}");
+		assertTags(0, 1, list);
+	}
+
+	/**
+	 * Other fields of the list and its pagination are unknown properties, which the mapper fails on or skips as it
+	 * is configured to.
+	 */
+	@Test
+	public void treatsOtherFieldsOfTheListAsUnknownProperties() throws Exception
+	{
+		String list = "{\"source\":{\"id\":\"s1\",\"entries\":[{\"entry\":{}}]}," + pagination(2) + ","
+				+ entries(0, 2) + ",\"context\":[{\"pagination\":{}}]}";
+		String extraPagination = "{\"pagination\":{\"count\":2,\"extra\":{\"count\":5}}," + entries(0, 2) + "}";
+		assertFails(list);
+		assertFails(extraPagination);
+
+		mapper.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+		assertTags(0, 2, read(list));
+		assertEquals(20, read(list).getPagination().getSkipCount());
+		assertTags(0, 2, read(extraPagination));
+		assertEquals(2, read(extraPagination).getPagination().getCount());
+	}
+
+	@Test
+	public void rejectsOtherShapes() throws Exception
+	{
+		assertFails("{\"entries\":{\"entry\":{}}}");
+		assertFails("{\"entries\":[\"tag0\"]}");
+		assertFails("{\"pagination\":[]}");
+		assertFails("[]");
+	}
+
+	/**
+	 * A list that is not bound to a property, e.g. read on its own, does not know its element type and reads the
+	 * entries as maps.
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void readsObjectEntriesWithoutAnElementType() throws Exception
+	{
+		AlfrescoList<Object> list = mapper.readValue("{" + pagination(2) + "," + entries(0, 2) + "}",
+				AlfrescoList.class);
+		assertEquals(2, list.getEntryList().size());
+		assertEquals("tag1", ((Map<String, Object>)list.getEntryList().get(1)).get("tag"));
+		assertSame(Object[].class, entryArray(list).getClass());
+	}
+
+	private void assertFails(String list) throws Exception
+	{
+		try
+		{
+			read(list);
+			fail("Expected " + list + " not to be read");
+		}
+		catch(JsonMappingException e)
+		{
+			// expected
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.junit.Test;
+
+public class BoundedKeepAliveStrategyTest
+{
+	private static HttpResponse response(String keepAlive)
+	{
+		HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+		if(keepAlive != null)
+		{
+			response.addHeader("Keep-Alive", keepAlive);
+		}
+		return response;
+	}
+
+	private static long duration(BoundedKeepAliveStrategy strategy, String keepAlive)
+	{
+		return strategy.getKeepAliveDuration(response(keepAlive), new BasicHttpContext());
+	}
+
+	@Test
+	public void keepsConnectionsForTheMaximumIdleTimeWhenTheServerDoesNotSay()
+	{
+		assertEquals(5000, duration(new BoundedKeepAliveStrategy(5000), null));
+	}
+
+	@Test
+	public void givesUpConnectionsBeforeTheServerDoes()
+	{
+		BoundedKeepAliveStrategy strategy = new BoundedKeepAliveStrategy(5000);
+		assertEquals(3000, duration(strategy, "timeout=4, max=100"));
+		assertEquals(5000, duration(strategy, "timeout=60"));
+		// never 0, which would keep the connection forever
+		assertEquals(1, duration(strategy, "timeout=1"));
+	}
+
+	@Test
+	public void followsTheServerWithoutAMaximumIdleTime()
+	{
+		BoundedKeepAliveStrategy strategy = new BoundedKeepAliveStrategy(0);
+		assertEquals(59000, duration(strategy, "timeout=60"));
+		assertEquals(-1, duration(strategy, null));
+	}
+}
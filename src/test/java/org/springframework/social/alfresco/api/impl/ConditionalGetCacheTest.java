@@ -0,0 +1,109 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class ConditionalGetCacheTest
+{
+	/**
+	 * The weight of an entry with a 100 byte body, including the cache's per-entry overhead.
+	 */
+	private static final long ENTRY_WEIGHT = 128 + 100;
+
+	@Test
+	public void revalidatesAndReusesEntries()
+	{
+		ConditionalGetCache cache = new ConditionalGetCache();
+		Object site = new Object();
+		cache.put("site", site, "\"v1\"", "Tue, 13 Nov 2012 14:08:37 GMT", 100);
+
+		ConditionalGetCache.Entry entry = cache.get("site");
+		assertNotNull(entry);
+		assertEquals("\"v1\"", entry.etag);
+		assertEquals("Tue, 13 Nov 2012 14:08:37 GMT", entry.lastModified);
+
+		// a 304 answer is served from the entry that was revalidated
+		cache.notModified();
+		assertSame(site, entry.value);
+		assertSame(site, cache.get("site").value);
+
+		assertNull(cache.get("other"));
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getNotModified());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void forgetsEntriesWithoutValidators()
+	{
+		ConditionalGetCache cache = new ConditionalGetCache();
+		cache.put("site", new Object(), "\"v1\"", null, 100);
+		cache.put("site", new Object(), null, null, 100);
+		assertNull(cache.get("site"));
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedBeyondMaxEntries()
+	{
+		ConditionalGetCache cache = new ConditionalGetCache(ConditionalGetCache.DEFAULT_OPERATIONS, 2,
+				ConditionalGetCache.DEFAULT_MAX_WEIGHT);
+		cache.put("a", "A", "a", null, 100);
+		cache.put("b", "B", "b", null, 100);
+		cache.get("a");
+		cache.put("c", "C", "c", null, 100);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("a"));
+		assertNotNull(cache.get("c"));
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedBeyondMaxWeight()
+	{
+		ConditionalGetCache cache = new ConditionalGetCache(Collections.singleton("getSite"), 100, 3 * ENTRY_WEIGHT);
+		cache.put("a", "A", "a", null, 100);
+		cache.put("b", "B", "b", null, 100);
+		cache.put("c", "C", "c", null, 100);
+		assertEquals(3 * ENTRY_WEIGHT, cache.getWeight());
+
+		cache.get("a");
+		cache.put("d", "D", "d", null, 100);
+		assertEquals(3, cache.size());
+		assertEquals(3 * ENTRY_WEIGHT, cache.getWeight());
+		assertNull(cache.get("b"));
+
+		// one large entry displaces as many as it needs to
+		cache.put("e", "E", "e", null, 100 + 2 * ENTRY_WEIGHT);
+		assertEquals(1, cache.size());
+		assertNotNull(cache.get("e"));
+		assertEquals(4, cache.getEvictions());
+	}
+
+	@Test
+	public void doesNotCacheEntriesHeavierThanMaxWeight()
+	{
+		ConditionalGetCache cache = new ConditionalGetCache(Collections.singleton("getSite"), 100, ENTRY_WEIGHT);
+		cache.put("a", "A", "a", null, 100);
+		cache.put("a", "A2", "a2", null, 101);
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.getWeight());
+	}
+
+	@Test
+	public void cachesOnlyItsOperations()
+	{
+		ConditionalGetCache cache = new ConditionalGetCache();
+		assertEquals(true, cache.isCached("getSite"));
+		assertEquals(false, cache.isCached("getSites"));
+	}
+}
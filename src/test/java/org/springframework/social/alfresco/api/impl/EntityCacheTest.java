@@ -0,0 +1,140 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class EntityCacheTest
+{
+	private final EntityCache cache = new EntityCache();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void shutDown()
+	{
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void readsItsOwnWrites()
+	{
+		cache.put("network", String.class, "site", "v1");
+		assertEquals("v1", cache.get("network", String.class, "site"));
+		cache.put("network", String.class, "site", "v2");
+		assertEquals("v2", cache.get("network", String.class, "site"));
+		assertNull(cache.get("other", String.class, "site"));
+		assertNull(cache.get("network", Integer.class, "site"));
+
+		cache.invalidate("network", String.class, "site");
+		assertNull(cache.get("network", String.class, "site"));
+		assertEquals(2, cache.getHits());
+		assertEquals(3, cache.getMisses());
+		assertEquals(1, cache.getInvalidations());
+	}
+
+	@Test
+	public void cachesFetchesThatDidNotRaceAChange()
+	{
+		long generation = cache.generation();
+		assertTrue(cache.put("network", String.class, "site", "fetched", generation));
+		assertEquals("fetched", cache.get("network", String.class, "site"));
+		assertEquals(0, cache.getRejected());
+	}
+
+	@Test
+	public void rejectsFetchesThatRacedAnInvalidation()
+	{
+		cache.put("network", String.class, "site", "v1");
+		long generation = cache.generation();
+		cache.invalidate("network", String.class, "site");
+
+		assertFalse(cache.put("network", String.class, "site", "v1", generation));
+		assertNull(cache.get("network", String.class, "site"));
+
+		// a fetch started after the invalidation is cached
+		assertTrue(cache.put("network", String.class, "site", "v2", cache.generation()));
+		assertEquals("v2", cache.get("network", String.class, "site"));
+		assertEquals(1, cache.getRejected());
+	}
+
+	@Test
+	public void rejectsFetchesThatRacedAWrite()
+	{
+		long generation = cache.generation();
+		cache.put("network", String.class, "site", "written");
+		assertFalse(cache.put("network", String.class, "site", "fetched", generation));
+		assertEquals("written", cache.get("network", String.class, "site"));
+	}
+
+	@Test
+	public void rejectsFetchesThatRacedAPrefixInvalidation()
+	{
+		long generation = cache.generation();
+		cache.invalidatePrefix("network", String.class, "site/");
+		assertFalse(cache.put("network", String.class, "site/person", "member", generation));
+
+		generation = cache.generation();
+		cache.invalidateAll();
+		assertFalse(cache.put("network", String.class, "site/person", "member", generation));
+		assertNull(cache.get("network", String.class, "site/person"));
+	}
+
+	/**
+	 * A reader misses and fetches the entity as it was before another thread changes it, and tries to cache it
+	 * only once the change has been made and the entity invalidated.
+	 */
+	@Test
+	public void invalidationWinsOverAConcurrentReadThrough() throws Exception
+	{
+		cache.put("network", String.class, "site", "before");
+		cache.invalidate("network", String.class, "site");
+
+		final CountDownLatch fetched = new CountDownLatch(1);
+		final CountDownLatch changed = new CountDownLatch(1);
+		Future<Boolean> reader = executor.submit(new Callable<Boolean>()
+		{
+			public Boolean call() throws Exception
+			{
+				assertNull(cache.get("network", String.class, "site"));
+				long generation = cache.generation();
+				String entity = "before";
+				fetched.countDown();
+				changed.await();
+				return cache.put("network", String.class, "site", entity, generation);
+			}
+		});
+
+		assertTrue(fetched.await(10, TimeUnit.SECONDS));
+		cache.invalidate("network", String.class, "site");
+		changed.countDown();
+
+		assertFalse(reader.get(10, TimeUnit.SECONDS));
+		assertNull(cache.get("network", String.class, "site"));
+	}
+
+	@Test
+	public void expiresEntries() throws Exception
+	{
+		EntityCache cache = new EntityCache(10, 1);
+		Object entity = new Object();
+		cache.put("network", Object.class, "site", entity);
+		Thread.sleep(5);
+		assertNull(cache.get("network", Object.class, "site"));
+
+		cache = new EntityCache(10, TimeUnit.MINUTES.toMillis(1));
+		cache.put("network", Object.class, "site", entity);
+		assertSame(entity, cache.get("network", Object.class, "site"));
+	}
+}
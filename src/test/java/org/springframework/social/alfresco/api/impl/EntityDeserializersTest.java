@@ -0,0 +1,279 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.Version;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializationConfig;
+import org.codehaus.jackson.map.module.SimpleModule;
+import org.junit.Test;
+import org.springframework.social.alfresco.api.entities.Activity;
+import org.springframework.social.alfresco.api.entities.ActivityType;
+import org.springframework.social.alfresco.api.entities.AlfrescoList;
+import org.springframework.social.alfresco.api.entities.Comment;
+import org.springframework.social.alfresco.api.entities.Favourite;
+import org.springframework.social.alfresco.api.entities.FavouriteTarget;
+import org.springframework.social.alfresco.api.entities.Member;
+import org.springframework.social.alfresco.api.entities.Person;
+import org.springframework.social.alfresco.api.entities.Role;
+import org.springframework.social.alfresco.api.entities.Site;
+import org.springframework.social.alfresco.api.entities.SiteFavouriteTarget;
+import org.springframework.social.alfresco.api.entities.Tag;
+
+/**
+ * The streaming deserializers must bind the same JSON to the same values as Jackson's bean deserializers, which they
+ * replaced: each payload is read with a mapper configured like {@link JsonCodec}'s with and without them, and the
+ * results compared by writing them out again.
+ */
+public class EntityDeserializersTest
+{
+	private static final String PERSON = "{\"id\":\"bob@acme.com\",\"enabled\":true,\"firstName\":\"Bob\","
+			+ "\"lastName\":\"Smith\",\"location\":\"Maidenhead\",\"instantMessageId\":\"bob-im\","
+			+ "\"avatarId\":\"a1b2\",\"googleId\":\"bob@gmail.com\",\"skypeId\":\"bob.smith\","
+			+ "\"telephone\":\"0123\",\"mobile\":\"0777\",\"jobTitle\":\"Tester\",\"email\":\"bob@acme.com\","
+			+ "\"description\":\"Tests things\",\"userStatus\":\"Testing\","
+			+ "\"statusUpdatedAt\":\"2013-06-12T10:15:30.123+0000\",\"createdAt\":\"2012-11-13T13:08:37.000+0100\","
+			+ "\"canEdit\":false,\"emailNotificationsEnabled\":true,"
+			+ "\"company\":{\"organization\":\"Acme\",\"address1\":\"1 High St\",\"address2\":\"Town\","
+			+ "\"address3\":\"County\",\"postcode\":\"SL6 1AA\",\"telephone\":\"0123\",\"fax\":\"0124\","
+			+ "\"email\":\"info@acme.com\"}}";
+
+	private static final String SITE = "{\"id\":\"swsdp\",\"guid\":\"b4cff62a-664d-4d45-9302-98723eac1319\","
+			+ "\"title\":\"Sample: Web Site Design Project\",\"description\":\"A sample site\","
+			+ "\"visibility\":\"PUBLIC\",\"sitePreset\":\"site-dashboard\",\"role\":\"SiteManager\"}";
+
+	private static final String ACTIVITY = "{\"id\":\"5611\",\"postPersonId\":\"bob@acme.com\",\"siteId\":\"swsdp\","
+			+ "\"networkId\":\"acme.com\",\"feedPersonId\":\"alice@acme.com\","
+			+ "\"activityType\":\"org.alfresco.documentlibrary.file-added\","
+			+ "\"postedAt\":\"2013-06-12T10:15:30.123+0000\",\"activitySummary\":{\"firstName\":\"Bob\","
+			+ "\"lastName\":\"Smith\",\"title\":\"plan.doc\",\"objectId\":\"d8f5-4e2b\","
+			+ "\"parentObjectId\":\"8f2a-42c1\",\"memberPersonId\":\"carol@acme.com\","
+			+ "\"memberFirstName\":\"Carol\",\"memberLastName\":\"Jones\",\"role\":\"SiteCollaborator\"}}";
+
+	private final ObjectMapper beans = mapper(false);
+	private final ObjectMapper streaming = mapper(true);
+	private final ObjectMapper writer = writer();
+
+	/**
+	 * @param streaming whether to register the streaming entity deserializers, or leave Jackson to bind the beans
+	 */
+	private static ObjectMapper mapper(boolean streaming)
+	{
+		ObjectMapper mapper = new ObjectMapper();
+		SimpleModule module = new SimpleModule("", new Version(1, 0, 0, null));
+		module.addDeserializer(FavouriteTarget.class, new AbstractAlfrescoTemplate.FavouriteTargetDeserializer());
+		module.addDeserializer(Date.class, new Iso8601.DateDeserializer());
+		module.addDeserializer(AlfrescoList.class, new AlfrescoListDeserializer());
+		if(streaming)
+		{
+			EntityDeserializers.register(module, new AtomicReference<IdentifierPool>());
+		}
+		mapper.registerModule(module);
+		return mapper;
+	}
+
+	private static ObjectMapper writer()
+	{
+		ObjectMapper mapper = new ObjectMapper();
+		SimpleModule module = new SimpleModule("", new Version(1, 0, 0, null));
+		module.addSerializer(Date.class, new Iso8601.DateSerializer());
+		mapper.registerModule(module);
+		mapper.configure(SerializationConfig.Feature.WRITE_DATES_AS_TIMESTAMPS, false);
+		return mapper;
+	}
+
+	/**
+	 * Read the payload both ways, check that the results are equal and return the streaming one.
+	 */
+	private <T> T assertEquivalent(Class<T> type, String json) throws Exception
+	{
+		T expected = beans.readValue(json, type);
+		T actual = streaming.readValue(json, type);
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(json, writer.valueToTree(expected), writer.valueToTree(actual));
+		return actual;
+	}
+
+	/**
+	 * Write the entity out and read it back with the streaming deserializers.
+	 */
+	private <T> void assertRoundTrips(Class<T> type, T value) throws Exception
+	{
+		JsonNode written = writer.valueToTree(value);
+		T read = streaming.readValue(writer.writeValueAsString(value), type);
+		assertEquals(written, writer.valueToTree(read));
+	}
+
+	private void assertBothFail(Class<?> type, String json) throws Exception
+	{
+		assertFails(beans, type, json);
+		assertFails(streaming, type, json);
+	}
+
+	private static void assertFails(ObjectMapper mapper, Class<?> type, String json) throws Exception
+	{
+		try
+		{
+			mapper.readValue(json, type);
+			fail("Expected " + json + " not to bind to " + type.getSimpleName());
+		}
+		catch(JsonMappingException e)
+		{
+			// expected
+		}
+	}
+
+	@Test
+	public void bindsRepresentativePayloads() throws Exception
+	{
+		Person person = assertEquivalent(Person.class, PERSON);
+		assertEquals("Acme", person.getCompany().getOrganization());
+		assertEquals(Iso8601.parse("2013-06-12T10:15:30.123Z"), person.getStatusUpdatedAt().getTime());
+
+		Site site = assertEquivalent(Site.class, SITE);
+		assertEquals(Site.Visibility.PUBLIC, site.getVisibility());
+		assertEquals(Role.SiteManager, site.getRole());
+
+		Activity activity = assertEquivalent(Activity.class, ACTIVITY);
+		assertEquals(ActivityType.DOCUMENTLIBRARY_FILE_ADDED, activity.getType());
+		assertEquals(Role.SiteCollaborator, activity.getActivitySummary().getRole());
+		assertEquals("carol@acme.com", activity.getActivitySummary().getMemberPersonId());
+
+		Member member = assertEquivalent(Member.class, "{\"id\":\"bob@acme.com\",\"role\":\"SiteConsumer\","
+				+ "\"person\":" + PERSON + "}");
+		assertEquals("Smith", member.getPerson().getLastName());
+
+		Comment comment = assertEquivalent(Comment.class, "{\"id\":\"c1\",\"nodeId\":\"d8f5-4e2b\","
+				+ "\"content\":\"Looks good\",\"edited\":true,\"canDelete\":true,\"canEdit\":false,"
+				+ "\"createdAt\":\"2013-06-12T10:15:30.123+0000\",\"modifiedAt\":\"2013-06-13T08:00:00Z\","
+				+ "\"createdBy\":" + PERSON + ",\"modifiedBy\":{\"id\":\"alice@acme.com\",\"company\":{}}}");
+		assertEquals("Tester", comment.getCreatedBy().getJobTitle());
+		assertEquals("alice@acme.com", comment.getModifiedBy().getId());
+
+		Tag tag = assertEquivalent(Tag.class, "{\"id\":\"t1\",\"tag\":\"plans\"}");
+		assertEquals("plans", tag.getTag());
+
+		assertEquivalent(Site.class, "{\"id\":\"swsdp\",\"containers\":{\"list\":{\"pagination\":{\"count\":1,"
+				+ "\"hasMoreItems\":false,\"totalItems\":1,\"skipCount\":0,\"maxItems\":100},"
+				+ "\"entries\":[{\"entry\":{\"id\":\"7f1e\",\"folderId\":\"documentLibrary\"}}]}},"
+				+ "\"site\":" + SITE + "}");
+	}
+
+	@Test
+	public void bindsTheFavouriteTarget() throws Exception
+	{
+		Favourite favourite = assertEquivalent(Favourite.class, "{\"targetGuid\":\"b4cff62a\","
+				+ "\"createdAt\":\"2013-06-12T10:15:30.123+0000\",\"target\":{\"site\":" + SITE + "}}");
+		assertTrue(favourite.getTarget() instanceof SiteFavouriteTarget);
+		assertEquals("Sample: Web Site Design Project",
+				((SiteFavouriteTarget)favourite.getTarget()).getSite().getTitle());
+
+		assertNull(assertEquivalent(Favourite.class, "{\"targetGuid\":\"b4cff62a\",\"target\":null}").getTarget());
+	}
+
+	@Test
+	public void bindsUnknownActivityTypes() throws Exception
+	{
+		Activity activity = assertEquivalent(Activity.class, "{\"id\":\"1\",\"activityType\":\"org.example.custom\","
+				+ "\"activitySummary\":{\"role\":\"\"}}");
+		assertNull(activity.getType());
+		assertEquals("org.example.custom", activity.getActivityType());
+		assertNull(activity.getActivitySummary().getRole());
+	}
+
+	@Test
+	public void bindsNulls() throws Exception
+	{
+		Person person = assertEquivalent(Person.class, "{\"id\":null,\"enabled\":null,\"firstName\":null,"
+				+ "\"company\":null,\"createdAt\":null,\"statusUpdatedAt\":\"\",\"canEdit\":null}");
+		assertNull(person.getId());
+		assertNull(person.getCompany());
+		assertNull(person.getStatusUpdatedAt());
+
+		assertEquivalent(Site.class, "{\"id\":\"swsdp\",\"visibility\":null,\"role\":null,\"site\":null,"
+				+ "\"containers\":null}");
+		assertEquivalent(Activity.class, "{\"id\":\"1\",\"activityType\":null,\"activitySummary\":null,"
+				+ "\"postedAt\":null}");
+		assertEquivalent(Member.class, "{\"id\":null,\"role\":null,\"person\":null}");
+		assertEquivalent(Comment.class, "{\"id\":\"c1\",\"content\":null,\"edited\":null,\"createdBy\":null}");
+		assertEquivalent(Tag.class, "{\"id\":null,\"tag\":null}");
+		assertEquivalent(Person.class, "{}");
+	}
+
+	@Test
+	public void coercesScalars() throws Exception
+	{
+		Person person = assertEquivalent(Person.class, "{\"id\":42,\"enabled\":\"true\",\"telephone\":1234567,"
+				+ "\"canEdit\":1,\"emailNotificationsEnabled\":\"false\",\"firstName\":true,"
+				+ "\"createdAt\":1352808517000,\"company\":{\"postcode\":12345}}");
+		assertEquals("42", person.getId());
+		assertTrue(person.isEnabled());
+		assertEquals("1234567", person.getTelephone());
+		assertEquals("12345", person.getCompany().getPostcode());
+		assertEquals(1352808517000L, person.getCreatedAt().getTime());
+
+		assertEquivalent(Tag.class, "{\"id\":7,\"tag\":3.5}");
+		assertEquivalent(Comment.class, "{\"id\":1,\"edited\":\"true\",\"canDelete\":0}");
+	}
+
+	@Test
+	public void treatsUnknownPropertiesAsTheMapperIsConfigured() throws Exception
+	{
+		String unknown = "\"unknown\":{\"nested\":[1,{\"deeper\":true}],\"id\":\"not this one\"},\"other\":[{}]";
+
+		assertBothFail(Person.class, "{\"id\":\"bob\"," + unknown + "}");
+		assertBothFail(Site.class, "{" + unknown + "}");
+
+		beans.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+		streaming.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+		Person person = assertEquivalent(Person.class, "{\"id\":\"bob\"," + unknown + ",\"company\":{" + unknown
+				+ ",\"organization\":\"Acme\"},\"lastName\":\"Smith\"}");
+		assertEquals("bob", person.getId());
+		assertEquals("Smith", person.getLastName());
+		assertEquals("Acme", person.getCompany().getOrganization());
+
+		assertEquivalent(Site.class, "{" + unknown + ",\"id\":\"swsdp\"}");
+		assertEquivalent(Activity.class, "{\"activitySummary\":{" + unknown + ",\"title\":\"plan.doc\"}," + unknown
+				+ "}");
+		assertEquivalent(Member.class, "{\"person\":{" + unknown + "}," + unknown + "}");
+		assertEquivalent(Comment.class, "{" + unknown + ",\"createdBy\":{\"id\":\"bob\"}}");
+		assertEquivalent(Tag.class, "{\"id\":\"t1\"," + unknown + ",\"tag\":\"plans\"}");
+		assertEquivalent(Favourite.class, "{" + unknown + ",\"targetGuid\":\"b4cff62a\"}");
+	}
+
+	@Test
+	public void rejectsWhatTheBeanDeserializersReject() throws Exception
+	{
+		assertBothFail(Site.class, "{\"visibility\":\"SECRET\"}");
+		assertBothFail(Site.class, "{\"title\":{\"text\":\"Sample\"}}");
+		assertBothFail(Person.class, "{\"firstName\":[\"Bob\"]}");
+		assertBothFail(Person.class, "{\"createdAt\":\"yesterday\"}");
+		assertBothFail(Member.class, "{\"role\":\"SiteOwner\"}");
+		assertBothFail(Tag.class, "[\"plans\"]");
+	}
+
+	@Test
+	public void readsBackWhatIsWritten() throws Exception
+	{
+		assertRoundTrips(Person.class, beans.readValue(PERSON, Person.class));
+		assertRoundTrips(Site.class, beans.readValue(SITE, Site.class));
+		assertRoundTrips(Activity.class, beans.readValue(ACTIVITY, Activity.class));
+		assertRoundTrips(Member.class, beans.readValue("{\"id\":\"bob@acme.com\",\"role\":\"SiteConsumer\","
+				+ "\"person\":" + PERSON + "}", Member.class));
+		assertRoundTrips(Comment.class, beans.readValue("{\"id\":\"c1\",\"content\":\"Looks good\","
+				+ "\"createdAt\":\"2013-06-12T10:15:30.123+0000\",\"createdBy\":" + PERSON + "}", Comment.class));
+		assertRoundTrips(Tag.class, beans.readValue("{\"id\":\"t1\",\"tag\":\"plans\"}", Tag.class));
+		assertRoundTrips(Favourite.class, beans.readValue("{\"targetGuid\":\"b4cff62a\","
+				+ "\"createdAt\":\"2013-06-12T10:15:30.123+0000\",\"target\":{\"site\":" + SITE + "}}",
+				Favourite.class));
+	}
+}
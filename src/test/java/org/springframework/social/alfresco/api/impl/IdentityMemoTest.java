@@ -0,0 +1,96 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.social.alfresco.api.entities.AlfrescoList;
+import org.springframework.social.alfresco.api.entities.Network;
+import org.springframework.social.alfresco.api.entities.Person;
+
+public class IdentityMemoTest
+{
+	private static class StubTemplate extends AbstractAlfrescoTemplate
+	{
+		private final AtomicInteger networkCalls = new AtomicInteger();
+		private final AtomicInteger personCalls = new AtomicInteger();
+
+		StubTemplate()
+		{
+			super("http://localhost:8080/alfresco/api", null, "api", "service");
+		}
+
+		@Override
+		protected Map<String, String> getCMISParameters()
+		{
+			return Collections.emptyMap();
+		}
+
+		@Override
+		public AlfrescoList<Network> getNetworks(Map<String, String> parameters)
+		{
+			networkCalls.incrementAndGet();
+			Network other = new Network();
+			other.setId("other.com");
+			Network home = new Network();
+			home.setId("home.com");
+			home.setHomeNetwork(true);
+			AlfrescoList<Network> networks = new AlfrescoList<Network>();
+			networks.setEntryArray(new Network[] { other, home });
+			return networks;
+		}
+
+		@Override
+		public Person getPerson(String network, String person)
+		{
+			personCalls.incrementAndGet();
+			assertEquals("home.com", network);
+			Person p = new Person();
+			p.setId("me@home.com");
+			return p;
+		}
+	}
+
+	@Test
+	public void fetchesOnEveryCallWithZeroTtl() throws Exception
+	{
+		StubTemplate template = new StubTemplate();
+		template.setIdentityTtlMs(0);
+
+		for(int i = 1; i <= 3; i++)
+		{
+			Network home = template.getHomeNetwork();
+			assertNotNull(home);
+			assertEquals("home.com", home.getId());
+			assertEquals(i, template.networkCalls.get());
+		}
+
+		assertEquals("me@home.com", template.getCurrentUser().getId());
+		assertEquals("me@home.com", template.getCurrentUser().getId());
+		assertEquals(2, template.personCalls.get());
+	}
+
+	@Test
+	public void remembersIdentityWithinTtl() throws Exception
+	{
+		StubTemplate template = new StubTemplate();
+		template.setIdentityTtlMs(60000);
+
+		Network home = template.getHomeNetwork();
+		assertSame(home, template.getHomeNetwork());
+		assertEquals(1, template.networkCalls.get());
+
+		Person me = template.getCurrentUser();
+		assertSame(me, template.getCurrentUser());
+		assertEquals(1, template.personCalls.get());
+
+		template.refreshCurrentUser();
+		template.getHomeNetwork();
+		assertEquals(2, template.networkCalls.get());
+	}
+}
@@ -0,0 +1,131 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.codehaus.jackson.Version;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializationConfig;
+import org.codehaus.jackson.map.module.SimpleModule;
+import org.junit.Test;
+
+public class Iso8601Test
+{
+	private static long utc(int year, int month, int day, int hour, int minute, int second, int millis)
+	{
+		return LocalDateTime.of(year, month, day, hour, minute, second, millis * 1000000)
+				.toInstant(ZoneOffset.UTC).toEpochMilli();
+	}
+
+	@Test
+	public void parsesOffsets()
+	{
+		long expected = utc(2012, 11, 13, 13, 8, 37, 0);
+		assertEquals(expected, Iso8601.parse("2012-11-13T13:08:37Z"));
+		assertEquals(expected, Iso8601.parse("2012-11-13T13:08:37.000+0000"));
+		assertEquals(expected, Iso8601.parse("2012-11-13T14:08:37.000+0100"));
+		assertEquals(expected, Iso8601.parse("2012-11-13T18:38:37+05:30"));
+		assertEquals(expected, Iso8601.parse("2012-11-13T05:08:37-0800"));
+		assertEquals(expected, Iso8601.parse("2012-11-13T15:08:37+02"));
+		assertEquals(expected, Iso8601.parse("2012-11-13T13:08:37"));
+	}
+
+	@Test
+	public void parsesFractions()
+	{
+		long second = utc(2012, 11, 13, 13, 8, 37, 0);
+		assertEquals(second + 500, Iso8601.parse("2012-11-13T13:08:37.5Z"));
+		assertEquals(second + 120, Iso8601.parse("2012-11-13T13:08:37.12Z"));
+		assertEquals(second + 123, Iso8601.parse("2012-11-13T13:08:37.123456789Z"));
+		assertEquals(second + 7, Iso8601.parse("2012-11-13T13:08:37,007Z"));
+	}
+
+	@Test
+	public void checksLeapDays()
+	{
+		assertEquals(utc(2012, 2, 29, 0, 0, 0, 0), Iso8601.parse("2012-02-29"));
+		assertEquals(utc(2000, 2, 29, 0, 0, 0, 0), Iso8601.parse("2000-02-29"));
+		assertEquals("2012-02-29T23:59:59.999+0000", Iso8601.format(utc(2012, 2, 29, 23, 59, 59, 999)));
+		assertInvalid("2013-02-29");
+		assertInvalid("1900-02-29");
+		assertInvalid("2012-04-31");
+	}
+
+	@Test
+	public void handlesYearsBefore1970()
+	{
+		assertEquals(-1, Iso8601.parse("1969-12-31T23:59:59.999Z"));
+		assertEquals("1969-12-31T23:59:59.999+0000", Iso8601.format(-1));
+		assertEquals("1066-10-14T09:00:00.000+0000", Iso8601.format(utc(1066, 10, 14, 9, 0, 0, 0)));
+		assertEquals("0000-01-01T00:00:00.000+0000", Iso8601.format(utc(0, 1, 1, 0, 0, 0, 0)));
+	}
+
+	@Test
+	public void signsYearsOutsideFourDigits()
+	{
+		long idesOfMarch = utc(-44, 3, 15, 12, 0, 0, 0);
+		assertEquals("-0044-03-15T12:00:00.000+0000", Iso8601.format(idesOfMarch));
+		assertEquals(idesOfMarch, Iso8601.parse("-0044-03-15T12:00:00.000+0000"));
+
+		long farFuture = utc(12019, 1, 1, 0, 0, 0, 0);
+		assertEquals("+12019-01-01T00:00:00.000+0000", Iso8601.format(farFuture));
+		assertEquals(farFuture, Iso8601.parse("+12019-01-01T00:00:00.000+0000"));
+
+		assertInvalid("+019-01-01");
+		assertInvalid("12019-01-01");
+	}
+
+	@Test
+	public void roundTrips()
+	{
+		Random random = new Random(42);
+		for(int i = 0; i < 100000; i++)
+		{
+			long millis = (long)((random.nextDouble() - 0.5) * 2 * 1e15);
+			String formatted = Iso8601.format(millis);
+			assertEquals(formatted, millis, Iso8601.parse(formatted));
+		}
+		for(long millis : new long[] { 0, -1, 1, Long.MAX_VALUE, Long.MIN_VALUE })
+		{
+			assertEquals(millis, Iso8601.parse(Iso8601.format(millis)));
+		}
+	}
+
+	@Test
+	public void serializesWithCustomDateFormat() throws Exception
+	{
+		SimpleModule module = new SimpleModule("", new Version(1, 0, 0, null));
+		module.addSerializer(Date.class, new Iso8601.DateSerializer());
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.registerModule(module);
+		mapper.configure(SerializationConfig.Feature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+		Date date = new Date(utc(2012, 11, 13, 13, 8, 37, 0));
+		assertEquals("\"2012-11-13T13:08:37.000+0000\"", mapper.writeValueAsString(date));
+
+		SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+		mapper.getSerializationConfig().setDateFormat(dateFormat);
+		assertEquals("\"13/11/2012\"", mapper.writeValueAsString(date));
+	}
+
+	private static void assertInvalid(String text)
+	{
+		try
+		{
+			Iso8601.parse(text);
+			fail("Parsed " + text);
+		}
+		catch(IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+}
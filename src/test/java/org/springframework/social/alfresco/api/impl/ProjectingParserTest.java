@@ -0,0 +1,134 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Test;
+import org.springframework.social.alfresco.api.entities.Container;
+import org.springframework.social.alfresco.api.entities.Person;
+import org.springframework.social.alfresco.api.entities.Site;
+
+public class ProjectingParserTest
+{
+	private static final String SITE = "{\"id\":\"swsdp\",\"title\":\"Sample\",\"visibility\":\"PUBLIC\","
+			+ "\"site\":{\"id\":\"other\",\"title\":\"Other\"},"
+			+ "\"containers\":{\"list\":{\"entries\":[{\"entry\":{\"id\":\"c1\",\"folderId\":\"documentLibrary\"}}]}}}";
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private static Set<String> fields(String... fields)
+	{
+		return new HashSet<String>(Arrays.asList(fields));
+	}
+
+	/**
+	 * @return the JSON as the deserializers see it through the projection
+	 */
+	private JsonNode project(String json, Set<String> fields) throws Exception
+	{
+		JsonParser jp = new ProjectingParser(mapper.getJsonFactory().createJsonParser(json), fields);
+		try
+		{
+			return mapper.readTree(jp);
+		}
+		finally
+		{
+			jp.close();
+		}
+	}
+
+	private void assertProjected(String expected, String json, Set<String> fields) throws Exception
+	{
+		assertEquals(mapper.readTree(expected), project(json, fields));
+	}
+
+	@Test
+	public void projectsTheEntryOfAResponse() throws Exception
+	{
+		assertProjected("{\"entry\":{\"id\":\"swsdp\",\"site\":{\"id\":\"other\",\"title\":\"Other\"}}}",
+				"{\"entry\":" + SITE + "}", fields("id", "site"));
+		// fields that are asked for but missing are not an error
+		assertProjected("{\"entry\":{\"title\":\"Sample\"}}", "{\"entry\":" + SITE + "}", fields("title", "guid"));
+		assertProjected("{\"entry\":{}}", "{\"entry\":" + SITE + "}", Collections.<String>emptySet());
+	}
+
+	@Test
+	public void projectsTheEntriesOfAList() throws Exception
+	{
+		String list = "{\"list\":{\"pagination\":{\"count\":2,\"hasMoreItems\":false},\"entries\":["
+				+ "{\"entry\":{\"id\":\"a\",\"title\":\"A\",\"description\":\"first\"}},"
+				+ "{\"entry\":{\"id\":\"b\",\"title\":\"B\",\"description\":\"second\"}}]}}";
+		// the pagination, which is not an entry, is kept whole
+		assertProjected("{\"list\":{\"pagination\":{\"count\":2,\"hasMoreItems\":false},\"entries\":["
+				+ "{\"entry\":{\"id\":\"a\"}},{\"entry\":{\"id\":\"b\"}}]}}", list, fields("id"));
+	}
+
+	/**
+	 * An <tt>entry</tt> inside an entity belongs to one of its fields, which is kept or skipped whole.
+	 */
+	@Test
+	public void keepsNestedEntriesWhole() throws Exception
+	{
+		assertProjected("{\"entry\":{\"id\":\"swsdp\",\"containers\":{\"list\":{\"entries\":[{\"entry\":"
+				+ "{\"id\":\"c1\",\"folderId\":\"documentLibrary\"}}]}}}}", "{\"entry\":" + SITE + "}",
+				fields("id", "containers"));
+		assertProjected("{\"list\":{\"entries\":[{\"entry\":{\"id\":\"s\",\"meta\":{\"entry\":{\"a\":1,\"b\":[2]}}}}]}}",
+				"{\"list\":{\"entries\":[{\"entry\":{\"id\":\"s\",\"title\":\"S\",\"meta\":{\"entry\":{\"a\":1,"
+						+ "\"b\":[2]}}}}]}}", fields("id", "meta"));
+	}
+
+	/**
+	 * Only the response's own envelope is projected, not objects elsewhere that happen to have an <tt>entry</tt>.
+	 */
+	@Test
+	public void leavesOtherJsonAlone() throws Exception
+	{
+		String[] untouched = {
+			"{\"data\":{\"entry\":{\"id\":\"a\",\"title\":\"A\"}}}",
+			"{\"list\":{\"other\":[{\"entry\":{\"id\":\"a\",\"title\":\"A\"}}]}}",
+			"{\"wrapper\":{\"list\":{\"entries\":[{\"entry\":{\"id\":\"a\",\"title\":\"A\"}}]}}}",
+			"[{\"entry\":{\"id\":\"a\",\"title\":\"A\"}}]",
+			"{\"entry\":[{\"id\":\"a\",\"title\":\"A\"}]}"
+		};
+		for(String json : untouched)
+		{
+			assertEquals(json, mapper.readTree(json), project(json, fields("title")));
+		}
+	}
+
+	/**
+	 * Through a projected binding, the entities come back with only the projected fields set.
+	 */
+	@Test
+	public void bindsOnlyTheProjectedFields() throws Exception
+	{
+		JsonCodec codec = JsonCodec.getDefault();
+		Response<Site> site = codec.responseBinding(Site.class).project(fields("id", "containers"))
+				.read(new ByteArrayInputStream(("{\"entry\":" + SITE + "}").getBytes("UTF-8")));
+		assertEquals("swsdp", site.getEntry().getId());
+		assertNull(site.getEntry().getTitle());
+		assertNull(site.getEntry().getSite());
+		Container container = site.getEntry().getContainers().getEntryList().get(0);
+		assertEquals("c1", container.getId());
+		assertEquals("documentLibrary", container.getFolderId());
+
+		Response<Person> people = codec.responseBinding(Person.class).project(fields("id"))
+				.read(new ByteArrayInputStream(("{\"list\":{\"entries\":[{\"entry\":{\"id\":\"bob\",\"enabled\":true,"
+						+ "\"company\":{\"organization\":\"Acme\"},\"firstName\":\"Bob\"}}]}}").getBytes("UTF-8")));
+		Person person = people.getList().getEntryList().get(0);
+		assertEquals("bob", person.getId());
+		assertFalse(person.isEnabled());
+		assertNull(person.getCompany());
+		assertNull(person.getFirstName());
+	}
+}
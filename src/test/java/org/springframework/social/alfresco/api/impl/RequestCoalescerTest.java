@@ -0,0 +1,176 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class RequestCoalescerTest
+{
+	private static final int FOLLOWERS = 8;
+
+	private final RequestCoalescer coalescer = new RequestCoalescer();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void shutDown()
+	{
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Start a leader whose call waits for the latch, then followers for the same key, and wait until they are all
+	 * waiting for the leader's call; a follower that has only been counted as a request may yet miss it.
+	 */
+	private List<Future<String>> startCalls(final CountDownLatch release, final Callable<String> call)
+			throws Exception
+	{
+		final CountDownLatch started = new CountDownLatch(1);
+		List<Future<String>> futures = new ArrayList<Future<String>>();
+		futures.add(executor.submit(new Callable<String>()
+		{
+			public String call() throws Exception
+			{
+				return coalescer.execute("key", new Callable<String>()
+				{
+					public String call() throws Exception
+					{
+						started.countDown();
+						release.await();
+						return call.call();
+					}
+				});
+			}
+		}));
+		started.await();
+		for(int i = 0; i < FOLLOWERS; i++)
+		{
+			futures.add(executor.submit(new Callable<String>()
+			{
+				public String call() throws Exception
+				{
+					return coalescer.execute("key", new Callable<String>()
+					{
+						public String call()
+						{
+							throw new AssertionError("A follower made the call");
+						}
+					});
+				}
+			}));
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while(coalescer.getWaiters("key") < FOLLOWERS)
+		{
+			if(System.nanoTime() > deadline)
+			{
+				fail("Followers did not join the call");
+			}
+			Thread.sleep(1);
+		}
+		return futures;
+	}
+
+	@Test
+	public void followersGetLeadersResult() throws Exception
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		final String result = new String("result");
+		List<Future<String>> futures = startCalls(release, new Callable<String>()
+		{
+			public String call()
+			{
+				return result;
+			}
+		});
+		release.countDown();
+		for(Future<String> future : futures)
+		{
+			assertSame(result, future.get(10, TimeUnit.SECONDS));
+		}
+		assertEquals(1, coalescer.getExecutions());
+		assertEquals(FOLLOWERS, coalescer.getCoalesced());
+	}
+
+	@Test
+	public void followersGetLeadersException() throws Exception
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		final IOException failure = new IOException("boom");
+		List<Future<String>> futures = startCalls(release, new Callable<String>()
+		{
+			public String call() throws IOException
+			{
+				throw failure;
+			}
+		});
+		release.countDown();
+		for(Future<String> future : futures)
+		{
+			try
+			{
+				future.get(10, TimeUnit.SECONDS);
+				fail("Expected the leader's exception");
+			}
+			catch(ExecutionException e)
+			{
+				assertSame(failure, e.getCause());
+			}
+		}
+		assertEquals(1, coalescer.getExecutions());
+		assertEquals(0, coalescer.getInFlight());
+	}
+
+	@Test
+	public void entryIsRemovedBeforeCompletion() throws Exception
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<String>> futures = startCalls(release, new Callable<String>()
+		{
+			public String call()
+			{
+				return "first";
+			}
+		});
+		List<Future<Integer>> inFlightSeen = new ArrayList<Future<Integer>>();
+		for(final Future<String> future : futures.subList(1, futures.size()))
+		{
+			inFlightSeen.add(executor.submit(new Callable<Integer>()
+			{
+				public Integer call() throws Exception
+				{
+					future.get(10, TimeUnit.SECONDS);
+					return coalescer.getInFlight();
+				}
+			}));
+		}
+		release.countDown();
+		for(Future<Integer> inFlight : inFlightSeen)
+		{
+			assertEquals(Integer.valueOf(0), inFlight.get(10, TimeUnit.SECONDS));
+		}
+
+		// a call after completion is made again rather than answered with the old result
+		assertEquals("second", coalescer.execute("key", new Callable<String>()
+		{
+			public String call()
+			{
+				return "second";
+			}
+		}));
+		assertEquals(2, coalescer.getExecutions());
+	}
+}
@@ -0,0 +1,245 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.social.alfresco.api.entities.Site;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Templates for many users that share one {@link AlfrescoTransport} must each send, and be answered with, their own
+ * user's credentials.
+ */
+public class SharedTransportTest
+{
+	private static final Log log = LogFactory.getLog(SharedTransportTest.class);
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final int USERS = 50;
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private HttpServer server;
+	private ConnectionDetails connectionDetails;
+	private AlfrescoTransport transport;
+
+	/**
+	 * Answers every request with a site whose title is the user the request authenticated as, once
+	 * <tt>concurrent</tt> requests have arrived or a few seconds have passed.
+	 */
+	private static class SiteHandler implements HttpHandler
+	{
+		final List<String> authorizations = new ArrayList<String>();
+		volatile CountDownLatch concurrent = new CountDownLatch(0);
+
+		public void handle(HttpExchange exchange) throws IOException
+		{
+			String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+			synchronized(authorizations)
+			{
+				authorizations.add(authorization);
+			}
+			CountDownLatch latch = concurrent;
+			latch.countDown();
+			try
+			{
+				latch.await(5, TimeUnit.SECONDS);
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+
+			String user = authorization == null ? ""
+					: new String(Base64.getDecoder().decode(authorization.substring("Basic ".length())), UTF8)
+							.split(":", 2)[0];
+			byte[] body = ("{\"entry\":{\"id\":\"swsdp\",\"title\":\"" + user + "\",\"visibility\":\"PUBLIC\"}}")
+					.getBytes(UTF8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			OutputStream out = exchange.getResponseBody();
+			try
+			{
+				out.write(body);
+			}
+			finally
+			{
+				out.close();
+			}
+		}
+	}
+
+	private final SiteHandler handler = new SiteHandler();
+
+	@Before
+	public void startServer() throws IOException
+	{
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", handler);
+		server.setExecutor(executor);
+		server.start();
+
+		connectionDetails = new ConnectionDetails("http", "127.0.0.1", server.getAddress().getPort(),
+				"admin", "admin", 10, 5000, 10000, 0);
+		transport = new AlfrescoTransport(connectionDetails, null);
+	}
+
+	@After
+	public void stopServer()
+	{
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private static String authorization(BasicAuthAlfrescoTemplate template) throws IOException
+	{
+		HttpHeaders headers = new HttpHeaders();
+		template.authenticate(headers);
+		return headers.getFirst("Authorization");
+	}
+
+	private static String basic(String username, String password)
+	{
+		return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(UTF8));
+	}
+
+	@Test
+	public void keepsEachUsersCredentials() throws Exception
+	{
+		List<BasicAuthAlfrescoTemplate> templates = new ArrayList<BasicAuthAlfrescoTemplate>();
+		Set<Object> credentialsKeys = new HashSet<Object>();
+		for(int i = 0; i < USERS; i++)
+		{
+			templates.add(new BasicAuthAlfrescoTemplate(transport, "user" + i, "password" + i));
+		}
+
+		for(int i = 0; i < USERS; i++)
+		{
+			BasicAuthAlfrescoTemplate template = templates.get(i);
+			assertEquals(basic("user" + i, "password" + i), authorization(template));
+			credentialsKeys.add(template.getCredentialsKey());
+		}
+		assertEquals(USERS, credentialsKeys.size());
+
+		// the same user and password make equivalent requests, a different password does not
+		assertEquals(templates.get(0).getCredentialsKey(),
+				new BasicAuthAlfrescoTemplate(transport, "user0", "password0").getCredentialsKey());
+		assertFalse(templates.get(0).getCredentialsKey().equals(
+				new BasicAuthAlfrescoTemplate(transport, "user0", "other").getCredentialsKey()));
+		// ...whichever transport they use
+		assertEquals(templates.get(0).getCredentialsKey(),
+				new BasicAuthAlfrescoTemplate(new AlfrescoTransport(connectionDetails, null), "user0", "password0")
+						.getCredentialsKey());
+	}
+
+	/**
+	 * Concurrent requests for the same site by different users are not coalesced, even through a shared coalescer,
+	 * and every user gets the answer to their own request.
+	 */
+	@Test
+	public void doesNotCoalesceRequestsOfDifferentUsers() throws Exception
+	{
+		final RequestCoalescer coalescer = new RequestCoalescer();
+		List<BasicAuthAlfrescoTemplate> templates = new ArrayList<BasicAuthAlfrescoTemplate>();
+		for(int i = 0; i < 5; i++)
+		{
+			BasicAuthAlfrescoTemplate template = new BasicAuthAlfrescoTemplate(transport, "user" + i, "password" + i);
+			template.setRequestCoalescer(coalescer);
+			templates.add(template);
+		}
+		// the server holds the requests until all of them have arrived
+		handler.concurrent = new CountDownLatch(templates.size());
+
+		List<Future<Site>> sites = new ArrayList<Future<Site>>();
+		for(final BasicAuthAlfrescoTemplate template : templates)
+		{
+			sites.add(executor.submit(() -> template.getSite("swsdp", "acme.com")));
+		}
+		for(int i = 0; i < templates.size(); i++)
+		{
+			assertEquals("user" + i, sites.get(i).get(10, TimeUnit.SECONDS).getTitle());
+		}
+
+		assertEquals(templates.size(), handler.authorizations.size());
+		Set<String> authorizations = new HashSet<String>(handler.authorizations);
+		for(int i = 0; i < templates.size(); i++)
+		{
+			assertTrue(authorizations.contains(basic("user" + i, "password" + i)));
+		}
+		assertEquals(templates.size(), coalescer.getExecutions());
+		assertEquals(0, coalescer.getCoalesced());
+	}
+
+	/**
+	 * Compares creating templates for many users, each with a client of its own as before, with creating them on
+	 * one shared transport. The timings and heap used are reported rather than asserted.
+	 */
+	@Test
+	public void comparesWithATransportPerUser() throws Exception
+	{
+		final int users = 500;
+		Object[] retained = new Object[users];
+
+		long heapBefore = usedHeap();
+		long start = System.nanoTime();
+		for(int i = 0; i < users; i++)
+		{
+			ConnectionDetails own = new ConnectionDetails("http", "127.0.0.1", server.getAddress().getPort(),
+					"user" + i, "password" + i, 10, 5000, 10000, 0);
+			retained[i] = new BasicAuthAlfrescoTemplate(own, null);
+		}
+		long ownNanos = System.nanoTime() - start;
+		long ownHeap = usedHeap() - heapBefore;
+		retained = new Object[users];
+
+		heapBefore = usedHeap();
+		start = System.nanoTime();
+		for(int i = 0; i < users; i++)
+		{
+			retained[i] = new BasicAuthAlfrescoTemplate(transport, "user" + i, "password" + i);
+		}
+		long sharedNanos = System.nanoTime() - start;
+		long sharedHeap = usedHeap() - heapBefore;
+
+		assertEquals(basic("user" + (users - 1), "password" + (users - 1)),
+				authorization((BasicAuthAlfrescoTemplate)retained[users - 1]));
+		log.info("Creating " + users + " templates: own transport " + TimeUnit.NANOSECONDS.toMicros(ownNanos) / users
+				+ "us and " + ownHeap / users + " bytes each, shared transport "
+				+ TimeUnit.NANOSECONDS.toMicros(sharedNanos) / users + "us and " + sharedHeap / users + " bytes each");
+	}
+
+	private static long usedHeap() throws InterruptedException
+	{
+		Runtime runtime = Runtime.getRuntime();
+		for(int i = 0; i < 3; i++)
+		{
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
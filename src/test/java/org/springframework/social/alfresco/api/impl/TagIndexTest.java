@@ -0,0 +1,191 @@
+package org.springframework.social.alfresco.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.social.alfresco.api.PageIterator;
+import org.springframework.social.alfresco.api.entities.AlfrescoList;
+import org.springframework.social.alfresco.api.entities.Pagination;
+import org.springframework.social.alfresco.api.entities.Tag;
+
+public class TagIndexTest
+{
+	private static final int PAGE_SIZE = 10;
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void shutDown()
+	{
+		executor.shutdownNow();
+	}
+
+	/**
+	 * A network's tag list, served a page at a time, that records the skip count of every page asked for.
+	 */
+	private static class Server implements TagIndex.TagLoader
+	{
+		final List<Tag> tags = new CopyOnWriteArrayList<Tag>();
+		final List<Integer> pagesServed = new CopyOnWriteArrayList<Integer>();
+
+		Server(int count)
+		{
+			for(int i = 0; i < count; i++)
+			{
+				add("tag" + i);
+			}
+		}
+
+		Tag add(String text)
+		{
+			Tag tag = new Tag();
+			tag.setId("id-" + text);
+			tag.setTag(text);
+			tags.add(tag);
+			return tag;
+		}
+
+		public PageIterator<Tag> iterateTags(String network, int skipCount)
+		{
+			return new PageIterator<Tag>(this::getPage,
+					Collections.singletonMap(Pagination.SKIPCOUNT, Integer.toString(skipCount)), PAGE_SIZE, null, 0);
+		}
+
+		AlfrescoList<Tag> getPage(Map<String, String> parameters)
+		{
+			int skipCount = Integer.parseInt(parameters.get(Pagination.SKIPCOUNT));
+			pagesServed.add(skipCount);
+			List<Tag> page = new ArrayList<Tag>();
+			for(int i = skipCount; i < Math.min(tags.size(), skipCount + PAGE_SIZE); i++)
+			{
+				page.add(tags.get(i));
+			}
+			AlfrescoList<Tag> list = new AlfrescoList<Tag>();
+			list.setEntryArray(page.toArray(new Tag[page.size()]));
+			list.setPagination(page.size(), skipCount + page.size() < tags.size(), tags.size(), skipCount, PAGE_SIZE);
+			return list;
+		}
+	}
+
+	@Test
+	public void loadsANetworkOnce()
+	{
+		Server server = new Server(35);
+		TagIndex index = new TagIndex(server);
+
+		assertEquals("id-tag7", index.getTag("network", "tag7").getId());
+		assertEquals("id-tag34", index.getTag("network", "tag34").getId());
+		assertEquals(4, server.pagesServed.size());
+	}
+
+	@Test
+	public void refreshesIncrementallyAfterAMiss()
+	{
+		Server server = new Server(35);
+		TagIndex index = new TagIndex(server, TimeUnit.MINUTES.toMillis(5), 0);
+		index.getTag("network", "tag0");
+		server.pagesServed.clear();
+
+		server.add("created elsewhere");
+		assertEquals("id-created elsewhere", index.getTag("network", "created elsewhere").getId());
+		// only the end of the list is read again
+		assertEquals(Integer.valueOf(25), server.pagesServed.get(0));
+		assertEquals(2, server.pagesServed.size());
+	}
+
+	@Test
+	public void remembersMisses()
+	{
+		Server server = new Server(35);
+		TagIndex index = new TagIndex(server, TimeUnit.MINUTES.toMillis(5), TimeUnit.MINUTES.toMillis(1));
+		assertNull(index.getTag("network", "absent"));
+		int pages = server.pagesServed.size();
+
+		// until the miss refresh interval has passed, a miss is answered from the index
+		server.add("absent");
+		assertNull(index.getTag("network", "absent"));
+		assertEquals(pages, server.pagesServed.size());
+
+		// unless the tag is created through the index's templates
+		Tag created = new Tag();
+		created.setId("id-absent");
+		created.setTag("absent");
+		index.put("network", created);
+		assertSame(created, index.getTag("network", "absent"));
+	}
+
+	@Test
+	public void renamingKeepsTheServersTag()
+	{
+		Server server = new Server(5);
+		TagIndex index = new TagIndex(server);
+		Tag tag = index.getTag("network", "tag3");
+
+		index.rename("network", "id-tag3", "renamed");
+		assertSame(tag, index.getTag("network", "renamed"));
+		assertEquals("renamed", tag.getTag());
+		assertEquals("id-tag3", tag.getId());
+	}
+
+	/**
+	 * Tags created and renamed while a network is being loaded are not lost when the load replaces the index.
+	 */
+	@Test
+	public void keepsChangesMadeDuringALoad() throws Exception
+	{
+		final CountDownLatch secondPage = new CountDownLatch(1);
+		final CountDownLatch changed = new CountDownLatch(1);
+		Server server = new Server(25)
+		{
+			@Override
+			AlfrescoList<Tag> getPage(Map<String, String> parameters)
+			{
+				if(parameters.get(Pagination.SKIPCOUNT).equals("10"))
+				{
+					secondPage.countDown();
+					try
+					{
+						changed.await();
+					}
+					catch(InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.getPage(parameters);
+			}
+		};
+		final TagIndex index = new TagIndex(server, TimeUnit.MINUTES.toMillis(5), TimeUnit.MINUTES.toMillis(1));
+		Future<Tag> load = executor.submit(() -> index.getTag("network", "tag20"));
+		assertTrue(secondPage.await(10, TimeUnit.SECONDS));
+
+		// the first page, with tag0 under its old name, has already been read
+		Tag created = new Tag();
+		created.setId("id-created");
+		created.setTag("created");
+		index.put("network", created);
+		index.rename("network", "id-tag0", "renamed");
+		changed.countDown();
+
+		assertNotNull(load.get(10, TimeUnit.SECONDS));
+		assertSame(created, index.getTag("network", "created"));
+		assertEquals("id-tag0", index.getTag("network", "renamed").getId());
+		assertNull(index.getTag("network", "tag0"));
+	}
+}